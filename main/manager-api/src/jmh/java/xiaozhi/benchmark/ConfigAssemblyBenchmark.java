@@ -0,0 +1,195 @@
+package xiaozhi.benchmark;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import cn.hutool.json.JSONObject;
+import xiaozhi.common.redis.RedisUtils;
+import xiaozhi.modules.agent.dao.AgentVoicePrintDao;
+import xiaozhi.modules.agent.service.AgentMcpAccessPointService;
+import xiaozhi.modules.agent.service.AgentPluginMappingService;
+import xiaozhi.modules.agent.service.AgentService;
+import xiaozhi.modules.agent.service.AgentTemplateService;
+import xiaozhi.modules.config.cache.AgentConfigCache;
+import xiaozhi.modules.config.cache.ServerConfigCache;
+import xiaozhi.modules.config.service.impl.ConfigServiceImpl;
+import xiaozhi.modules.device.service.DeviceService;
+import xiaozhi.modules.model.cache.CompiledModelConfigCache;
+import xiaozhi.modules.model.dao.ModelConfigDao;
+import xiaozhi.modules.model.entity.ModelConfigEntity;
+import xiaozhi.modules.sys.dto.SysParamsDTO;
+import xiaozhi.modules.sys.service.SysParamsService;
+import xiaozhi.modules.timbre.service.TimbreService;
+import xiaozhi.modules.voiceclone.service.VoiceCloneService;
+
+/**
+ * assembly_of_the_server_configuration_and_the_agent_module_configuration，the_services_are_stubbed
+ * <p>
+ * the_model_configurations_come_from_the_in_process_cache_as_on_a_warm_server，the_stub_calls_are_part_of_the_time
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConfigAssemblyBenchmark {
+    private ConfigServiceImpl configService;
+    private MethodHandle buildConfig;
+    private MethodHandle buildModuleConfig;
+
+    @Setup
+    public void setup() throws Throwable {
+        SysParamsService sysParamsService = mock(SysParamsService.class);
+        when(sysParamsService.list(any())).thenReturn(serverParams());
+
+        ModelConfigDao modelConfigDao = mock(ModelConfigDao.class);
+        Map<String, ModelConfigEntity> models = models();
+        when(modelConfigDao.selectById(anyString())).thenAnswer(inv -> models.get((String) inv.getArgument(0)));
+        CompiledModelConfigCache compiledModelConfigCache = new CompiledModelConfigCache(mock(RedisUtils.class),
+                modelConfigDao);
+
+        configService = new ConfigServiceImpl(sysParamsService, mock(DeviceService.class), compiledModelConfigCache,
+                mock(AgentService.class), mock(AgentTemplateService.class), mock(TimbreService.class),
+                mock(AgentPluginMappingService.class), mock(AgentMcpAccessPointService.class),
+                mock(VoiceCloneService.class), mock(AgentVoicePrintDao.class), mock(AgentConfigCache.class),
+                mock(ServerConfigCache.class));
+
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(ConfigServiceImpl.class, MethodHandles.lookup());
+        buildConfig = lookup.findVirtual(ConfigServiceImpl.class, "buildConfig",
+                MethodType.methodType(Object.class, Map.class));
+        buildModuleConfig = lookup.findVirtual(ConfigServiceImpl.class, "buildModuleConfig",
+                MethodType.methodType(void.class, String.class, String.class, String.class, String.class,
+                        String.class, String.class, String.class, String.class, String.class, String.class,
+                        String.class, String.class, String.class, Map.class, boolean.class));
+        // fill_the_in_process_cache
+        buildModuleConfig();
+    }
+
+    @Benchmark
+    public Object buildConfig() throws Throwable {
+        Map<String, Object> result = new HashMap<>();
+        return buildConfig.invoke(configService, result);
+    }
+
+    @Benchmark
+    public Object buildModuleConfig() throws Throwable {
+        Map<String, Object> result = new HashMap<>();
+        buildModuleConfig.invoke(configService, "Xiaozhi", "You are {{assistant_name}}, a helpful assistant.",
+                "The user likes short answers.", "zh-CN-XiaoxiaoNeural", null, null,
+                "VAD_SileroVAD", "ASR_FunASR", "LLM_ChatGLMLLM", "VLLM_ChatGLMVLLM", "TTS_EdgeTTS",
+                "Memory_mem_local_short", "Intent_intent_llm", result, true);
+        return result;
+    }
+
+    /**
+     * a_parameter_set_of_the_size_and_shape_of_a_default_installation
+     */
+    private static List<SysParamsDTO> serverParams() {
+        List<SysParamsDTO> params = new ArrayList<>();
+        params.add(param("server.secret", "string", "8c1b2e4f-3d9a-4c7e-9f1b-2a6d5e8c7b40"));
+        params.add(param("server.websocket", "string", "ws://192.168.1.10:8000/xiaozhi/v1/"));
+        params.add(param("server.ota", "string", "http://192.168.1.10:8002/xiaozhi/ota/"));
+        params.add(param("server.mqtt_gateway", "string", "null"));
+        params.add(param("server.voice_print", "string", "null"));
+        params.add(param("server.voiceprint_similarity_threshold", "number", "0.4"));
+        params.add(param("server.auth.enabled", "boolean", "false"));
+        params.add(param("server.ip", "string", "0.0.0.0"));
+        params.add(param("server.port", "number", "8000"));
+        params.add(param("server.http_port", "number", "8003"));
+        params.add(param("log.log_format", "string", "<green>{time:YYMMDD HH:mm:ss}</green>[{version}] - {message}"));
+        params.add(param("log.log_level", "string", "INFO"));
+        params.add(param("log.log_dir", "string", "tmp"));
+        params.add(param("close_connection_no_voice_time", "number", "120"));
+        params.add(param("delete_audio", "boolean", "true"));
+        params.add(param("enable_wakeup_words_response_cache", "boolean", "true"));
+        params.add(param("enable_greeting", "boolean", "true"));
+        params.add(param("enable_stop_tts_notify", "boolean", "false"));
+        params.add(param("stop_tts_notify_voice", "string", "config/assets/tts_notify.mp3"));
+        params.add(param("exit_commands", "array", "退出;关闭;再见;拜拜"));
+        params.add(param("wakeup_words", "array", "你好小智;嘿你好呀;你好小志;小爱同学;你好小鑫;你好小新;小美同学;小龙小龙;喵喵同学;小滨小滨;小冰小冰"));
+        params.add(param("xiaozhi", "json",
+                "{\"type\":\"hello\",\"version\":1,\"transport\":\"websocket\",\"audio_params\":{\"format\":\"opus\",\"sample_rate\":16000,\"channels\":1,\"frame_duration\":60}}"));
+        params.add(param("device_max_output_size", "number", "0"));
+        params.add(param("plugins.get_weather.api_key", "string", "a861d0d5e7bf4ee1a83d9a9e4f96d4da"));
+        params.add(param("plugins.get_weather.default_location", "string", "广州"));
+        params.add(param("plugins.get_weather.api_host", "string", "mj7p3y7naa.re.qweatherapi.com"));
+        params.add(param("plugins.get_news_from_newsnow.url", "string", "https://newsnow.busiyi.world/api/s?id="));
+        params.add(param("plugins.get_news_from_chinanews.default_rss_url", "string",
+                "https://www.chinanews.com.cn/rss/society.xml"));
+        params.add(param("plugins.home_assistant.devices", "array",
+                "客厅,玩具灯,switch.cuco_cn_460494544_cp1_on_p_2_1;卧室,台灯,switch.iot_cn_831898993_socn1_on_p_2_1"));
+        params.add(param("plugins.home_assistant.base_url", "string", "http://homeassistant.local:8123"));
+        params.add(param("plugins.home_assistant.api_key", "string", "your_home_assistant_api_key"));
+        params.add(param("plugins.play_music.music_dir", "string", "./music"));
+        params.add(param("plugins.play_music.music_ext", "array", ".mp3;.wav;.p3"));
+        params.add(param("plugins.play_music.refresh_time", "number", "300"));
+        for (int i = 0; i < 40; i++) {
+            params.add(param("module.option_" + i + ".value", i % 3 == 0 ? "number" : "string", String.valueOf(i)));
+        }
+        return params;
+    }
+
+    private static SysParamsDTO param(String code, String valueType, String value) {
+        SysParamsDTO param = new SysParamsDTO();
+        param.setParamCode(code);
+        param.setValueType(valueType);
+        param.setParamValue(value);
+        return param;
+    }
+
+    private static Map<String, ModelConfigEntity> models() {
+        Map<String, ModelConfigEntity> models = new HashMap<>();
+        model(models, "VAD_SileroVAD", "VAD", new JSONObject()
+                .set("type", "silero").set("model_dir", "models/snakers4_silero-vad")
+                .set("threshold", 0.5).set("min_silence_duration_ms", 700));
+        model(models, "ASR_FunASR", "ASR", new JSONObject()
+                .set("type", "fun_local").set("model_dir", "models/SenseVoiceSmall").set("output_dir", "tmp/"));
+        model(models, "LLM_ChatGLMLLM", "LLM", new JSONObject()
+                .set("type", "openai").set("model_name", "glm-4-flash")
+                .set("base_url", "https://open.bigmodel.cn/api/paas/v4/")
+                .set("api_key", "0123456789abcdef0123456789abcdef.abcdefghijklmnop")
+                .set("temperature", 0.7).set("max_tokens", 500));
+        model(models, "LLM_Intent", "LLM", new JSONObject()
+                .set("type", "openai").set("model_name", "glm-4-flash")
+                .set("base_url", "https://open.bigmodel.cn/api/paas/v4/")
+                .set("api_key", "0123456789abcdef0123456789abcdef.abcdefghijklmnop"));
+        model(models, "VLLM_ChatGLMVLLM", "VLLM", new JSONObject()
+                .set("type", "openai").set("model_name", "glm-4v-flash")
+                .set("url", "https://open.bigmodel.cn/api/paas/v4/")
+                .set("api_key", "0123456789abcdef0123456789abcdef.abcdefghijklmnop"));
+        model(models, "TTS_EdgeTTS", "TTS", new JSONObject()
+                .set("type", "edge").set("voice", "zh-CN-XiaoxiaoNeural").set("output_dir", "tmp/"));
+        model(models, "Memory_mem_local_short", "Memory", new JSONObject()
+                .set("type", "mem_local_short").set("llm", "LLM_Intent"));
+        model(models, "Intent_intent_llm", "Intent", new JSONObject()
+                .set("type", "intent_llm").set("llm", "LLM_Intent")
+                .set("functions", "get_weather;get_news_from_newsnow;play_music;handle_exit_intent"));
+        return models;
+    }
+
+    private static void model(Map<String, ModelConfigEntity> models, String id, String modelType,
+            JSONObject config) {
+        ModelConfigEntity entity = new ModelConfigEntity();
+        entity.setId(id);
+        entity.setModelType(modelType);
+        entity.setConfigJson(config);
+        models.put(id, entity);
+    }
+}
@@ -0,0 +1,100 @@
+package xiaozhi.benchmark;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.beans.BeanUtils;
+
+import xiaozhi.common.utils.ConvertUtils;
+import xiaozhi.modules.agent.dto.AgentDTO;
+import xiaozhi.modules.agent.entity.AgentEntity;
+
+/**
+ * entity_to_dto_copies_of_the_list_pages
+ * <p>
+ * copyProperties_is_the_former_implementation_of_ConvertUtils，run_with -prof gc to_compare_the_allocations
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConvertBenchmark {
+    @Param({ "100", "5000" })
+    private int rows;
+
+    private AgentEntity entity;
+    private List<AgentEntity> page;
+
+    @Setup
+    public void setup() {
+        page = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            page.add(agent(i));
+        }
+        entity = page.get(0);
+    }
+
+    @Benchmark
+    public AgentDTO single() {
+        return ConvertUtils.sourceToTarget(entity, AgentDTO.class);
+    }
+
+    @Benchmark
+    public List<AgentDTO> page() {
+        return ConvertUtils.sourceToTarget(page, AgentDTO.class);
+    }
+
+    @Benchmark
+    public AgentDTO singleCopyProperties() throws Exception {
+        AgentDTO dto = AgentDTO.class.getDeclaredConstructor().newInstance();
+        BeanUtils.copyProperties(entity, dto);
+        return dto;
+    }
+
+    @Benchmark
+    public List<AgentDTO> pageCopyProperties() throws Exception {
+        List<AgentDTO> list = new ArrayList<>(page.size());
+        for (AgentEntity source : page) {
+            AgentDTO dto = AgentDTO.class.getDeclaredConstructor().newInstance();
+            BeanUtils.copyProperties(source, dto);
+            list.add(dto);
+        }
+        return list;
+    }
+
+    private static AgentEntity agent(int i) {
+        AgentEntity agent = new AgentEntity();
+        agent.setId("agent" + i);
+        agent.setUserId(1L);
+        agent.setAgentCode("AGT_" + i);
+        agent.setAgentName("小智" + i);
+        agent.setAsrModelId("ASR_FunASR");
+        agent.setVadModelId("VAD_SileroVAD");
+        agent.setLlmModelId("LLM_ChatGLMLLM");
+        agent.setVllmModelId("VLLM_ChatGLMVLLM");
+        agent.setTtsModelId("TTS_EdgeTTS");
+        agent.setTtsVoiceId("TTS_EdgeTTS0001");
+        agent.setMemModelId("Memory_nomem");
+        agent.setIntentModelId("Intent_function_call");
+        agent.setChatHistoryConf(2);
+        agent.setSystemPrompt("你是一个叫小智的台湾女孩，说话机车，声音好听，习惯简短表达。");
+        agent.setSummaryMemory("The user likes short answers.");
+        agent.setLangCode("zh");
+        agent.setLanguage("中文");
+        agent.setSort(i);
+        agent.setCreator(1L);
+        agent.setCreatedAt(new Date());
+        agent.setUpdater(1L);
+        agent.setUpdatedAt(new Date());
+        return agent;
+    }
+}
@@ -0,0 +1,80 @@
+package xiaozhi.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import cn.hutool.json.JSONObject;
+import xiaozhi.common.utils.AESUtils;
+import xiaozhi.common.utils.SM2Utils;
+import xiaozhi.common.utils.SensitiveDataUtils;
+import xiaozhi.modules.security.password.PasswordUtils;
+
+/**
+ * masking_of_model_configurations，sm2_password_decryption，aes_tokens_and_bcrypt_password_checks
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CryptoBenchmark {
+    private static final String PASSWORD = "Xiaozhi@2025";
+
+    private JSONObject modelConfig;
+    private String privateKey;
+    private String encryptedPassword;
+    private String aesKey;
+    private String tokenJson;
+    private String passwordHash;
+
+    @Setup
+    public void setup() {
+        modelConfig = new JSONObject()
+                .set("type", "openai")
+                .set("model_name", "glm-4-flash")
+                .set("base_url", "https://open.bigmodel.cn/api/paas/v4/")
+                .set("api_key", "0123456789abcdef0123456789abcdef.abcdefghijklmnop")
+                .set("temperature", 0.7)
+                .set("max_tokens", 500)
+                .set("extra", new JSONObject().set("secret_key", "s3cr3t-v4lue-0123456789").set("region", "cn"));
+
+        Map<String, String> keyPair = SM2Utils.createKey();
+        privateKey = keyPair.get(SM2Utils.KEY_PRIVATE_KEY);
+        encryptedPassword = SM2Utils.encrypt(keyPair.get(SM2Utils.KEY_PUBLIC_KEY), PASSWORD);
+
+        aesKey = "0123456789abcdef0123456789abcdef";
+        tokenJson = "{\"agentId\": \"5d41402abc4b2a76b9719d911017c592\"}";
+
+        passwordHash = PasswordUtils.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public JSONObject maskSensitiveFields() {
+        return SensitiveDataUtils.maskSensitiveFields(modelConfig);
+    }
+
+    @Benchmark
+    public String sm2Decrypt() {
+        return SM2Utils.decrypt(privateKey, encryptedPassword);
+    }
+
+    @Benchmark
+    public String aesEncrypt() {
+        return AESUtils.encrypt(aesKey, tokenJson);
+    }
+
+    /**
+     * dominated_by_the_cost_factor_of_the_stored_hash，on_purpose
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean bcryptCheck() {
+        return PasswordUtils.matches(PASSWORD, passwordHash);
+    }
+}
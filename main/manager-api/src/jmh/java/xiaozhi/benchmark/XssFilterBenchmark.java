@@ -0,0 +1,75 @@
+package xiaozhi.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import xiaozhi.common.xss.XssUtils;
+
+/**
+ * xss_filtering_of_request_bodies，clean_bodies_are_the_common_case
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class XssFilterBenchmark {
+    private static final String AGENT_UPDATE = "{\"agentName\":\"小智\",\"asrModelId\":\"ASR_FunASR\","
+            + "\"vadModelId\":\"VAD_SileroVAD\",\"llmModelId\":\"LLM_ChatGLMLLM\",\"ttsModelId\":\"TTS_EdgeTTS\","
+            + "\"ttsVoiceId\":\"TTS_EdgeTTS0001\",\"memModelId\":\"Memory_nomem\",\"intentModelId\":\"Intent_nointent\","
+            + "\"chatHistoryConf\":2,\"systemPrompt\":\"你是一个叫小智的台湾女孩，说话机车，声音好听，习惯简短表达。\","
+            + "\"langCode\":\"zh\",\"language\":\"中文\",\"sort\":0}";
+
+    private byte[] typical;
+    private byte[] typicalWithHtml;
+    private byte[] large;
+    private byte[] largeWithHtml;
+
+    @Setup
+    public void setup() {
+        typical = AGENT_UPDATE.getBytes(StandardCharsets.UTF_8);
+        typicalWithHtml = AGENT_UPDATE.replace("习惯简短表达。", "习惯简短表达。<script>alert(1)</script><b>ok</b>")
+                .getBytes(StandardCharsets.UTF_8);
+        // a_long_system_prompt_and_memory，about_64_kb
+        StringBuilder prompt = new StringBuilder();
+        while (prompt.length() < 32 * 1024) {
+            prompt.append("你是一个乐于助人的助手，回答要简短，不要使用表情符号。Keep answers short and friendly. ");
+        }
+        String largeBody = "{\"systemPrompt\":\"" + prompt + "\",\"summaryMemory\":\"" + prompt
+                + "\",\"agentName\":\"小智\",\"sort\":1}";
+        large = largeBody.getBytes(StandardCharsets.UTF_8);
+        largeWithHtml = largeBody.replace("\"agentName\":\"小智\"", "\"agentName\":\"<img src=x onerror=alert(1)>\"")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] typicalJson() {
+        return XssUtils.filterJson(typical);
+    }
+
+    @Benchmark
+    public byte[] typicalJsonWithHtml() {
+        return XssUtils.filterJson(typicalWithHtml);
+    }
+
+    @Benchmark
+    public byte[] largeJson() {
+        return XssUtils.filterJson(large);
+    }
+
+    @Benchmark
+    public byte[] largeJsonWithHtml() {
+        return XssUtils.filterJson(largeWithHtml);
+    }
+
+    @Benchmark
+    public String parameter() {
+        return XssUtils.filter("<a href=\"https://xiaozhi.me\" onclick=\"steal()\">小智</a>");
+    }
+}
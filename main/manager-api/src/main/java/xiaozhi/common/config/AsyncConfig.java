@@ -10,13 +10,23 @@ import org.springframework.context.annotation.EnableAspectJAutoProxy;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 @EnableAsync
 @EnableAspectJAutoProxy(exposeProxy = true)
 public class AsyncConfig {
 
+    /**
+     * the_queue_and_pool_sizes_are_reported_by_spring_boot_as_executor.*，name=task
+     */
     @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
+    public Executor taskExecutor(MeterRegistry meterRegistry) {
+        Counter callerRuns = Counter.builder("executor.caller.runs")
+                .description("Tasks run by the calling thread because the queue was full")
+                .tag("name", "task")
+                .register(meterRegistry);
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(2);
         executor.setMaxPoolSize(4);
@@ -26,6 +36,7 @@ public class AsyncConfig {
         executor.setRejectedExecutionHandler(new RejectedExecutionHandler() {
             @Override
             public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+                callerRuns.increment();
                 try {
                     // if_the_thread_pool_is_full，is_executed_by_the_calling_thread
                     r.run();
@@ -0,0 +1,53 @@
+package xiaozhi.common.config;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.alibaba.druid.pool.DruidDataSource;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * metrics_configuration，the_metrics_are_scraped_from /actuator/prometheus
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * druid_connection_pool，spring_boot_only_reports_the_pools_it_knows
+     */
+    @Bean
+    public MeterBinder druidPoolMetrics(ObjectProvider<DataSource> dataSources) {
+        return registry -> dataSources.orderedStream()
+                .filter(DruidDataSource.class::isInstance)
+                .map(DruidDataSource.class::cast)
+                .forEach(pool -> {
+                    String name = pool.getName();
+                    Gauge.builder("druid.connections.active", pool, DruidDataSource::getActiveCount)
+                            .tag("pool", name)
+                            .register(registry);
+                    Gauge.builder("druid.connections.idle", pool, DruidDataSource::getPoolingCount)
+                            .tag("pool", name)
+                            .register(registry);
+                    Gauge.builder("druid.connections.max", pool, DruidDataSource::getMaxActive)
+                            .tag("pool", name)
+                            .register(registry);
+                    // threads_waiting_for_a_connection
+                    Gauge.builder("druid.connections.pending", pool, DruidDataSource::getWaitThreadCount)
+                            .tag("pool", name)
+                            .register(registry);
+                    // waits_for_a_free_connection_and_their_total_time
+                    FunctionTimer.builder("druid.connections.wait", pool, DruidDataSource::getNotEmptyWaitCount,
+                            DruidDataSource::getNotEmptyWaitMillis, TimeUnit.MILLISECONDS)
+                            .tag("pool", name)
+                            .register(registry);
+                });
+    }
+}
@@ -1,18 +1,126 @@
 package xiaozhi.common.config;
 
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import xiaozhi.common.http.DownstreamGuard;
+
 /*
 *
 * RestTemplate configuration
+* <p>
+* pooled_keep_alive_connections，bounded_waits_on_every_step，a_circuit_breaker_and_bulkhead_per_downstream。
+* the_requests_are_timed_as_http.client.requests，the_pool_is_reported_as_httpcomponents.httpclient.pool.*
 */
 @Configuration
 public class RestTemplateConfig {
+    private static final String POOL_NAME = "rest-template";
+
+    @Value("${renren.http-client.max-total:200}")
+    private int maxTotal;
+
+    @Value("${renren.http-client.max-per-route:20}")
+    private int maxPerRoute;
+
+    @Value("${renren.http-client.connect-timeout-ms:3000}")
+    private long connectTimeoutMillis;
+
+    /**
+     * longest_wait_for_the_response，and_between_two_packets_of_the_response
+     */
+    @Value("${renren.http-client.read-timeout-ms:15000}")
+    private long readTimeoutMillis;
+
+    /**
+     * longest_wait_for_a_free_connection_of_the_pool
+     */
+    @Value("${renren.http-client.pool-timeout-ms:2000}")
+    private long poolTimeoutMillis;
+
+    /**
+     * idle_connections_are_closed_after_this_time，before_the_server_drops_them
+     */
+    @Value("${renren.http-client.idle-timeout-ms:30000}")
+    private long idleTimeoutMillis;
+
+    @Value("${renren.http-client.breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${renren.http-client.breaker.open-ms:30000}")
+    private long openMillis;
+
+    /**
+     * downstreams_tracked_by_the_circuit_breaker，the_least_recently_used_one_is_dropped_beyond_that
+     */
+    @Value("${renren.http-client.breaker.max-downstreams:256}")
+    private int maxDownstreams;
+
+    /**
+     * concurrent_calls_per_downstream，defaults_to_the_connections_per_route
+     */
+    @Value("${renren.http-client.bulkhead.max-concurrent:${renren.http-client.max-per-route:20}}")
+    private int maxConcurrent;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager httpClientConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMillis))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMillis))
+                        // check_connections_idle_for_a_while_before_reusing_them
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeoutMillis))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMillis))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleTimeoutMillis, TimeUnit.MILLISECONDS))
+                .build();
+    }
+
+    @Bean
+    public DownstreamGuard downstreamGuard(MeterRegistry meterRegistry) {
+        return new DownstreamGuard(maxConcurrent, failureThreshold, openMillis, maxDownstreams, meterRegistry);
+    }
+
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient httpClient,
+            DownstreamGuard downstreamGuard) {
+        return builder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .additionalInterceptors(downstreamGuard)
+                .build();
+    }
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public MeterBinder httpClientPoolMetrics(PoolingHttpClientConnectionManager connectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, POOL_NAME);
     }
-}
\ No newline at end of file
+}
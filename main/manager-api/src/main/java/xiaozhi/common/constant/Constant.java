@@ -75,6 +75,22 @@ public interface Constant {
      * sort_by
      */
     String ORDER = "order";
+    /**
+     * cursor_of_seek_pagination，returned_as_the_cursor_of_the_previous_page
+     */
+    String CURSOR = "cursor";
+    /**
+     * how_the_total_is_counted：exact（default）、estimate、none
+     */
+    String COUNT = "count";
+    /**
+     * do_not_count，the_total_is_-1
+     */
+    String COUNT_NONE = "none";
+    /**
+     * unfiltered_lists_use_the_table_statistics，filtered_lists_are_counted_exactly
+     */
+    String COUNT_ESTIMATE = "estimate";
 
     /**
      * request_header_authorization_identifier
@@ -148,6 +164,16 @@ public interface Constant {
 */
     String SERVER_MQTT_SECRET = "server.mqtt_signature_key";
 
+    /**
+     * days_to_keep_the_chat_history，0_keeps_it_forever
+     */
+    String CHAT_TEXT_RETENTION_DAYS = "chat_text_retention_days";
+
+    /**
+     * days_to_keep_the_chat_audio，0_keeps_it_forever
+     */
+    String CHAT_AUDIO_RETENTION_DAYS = "chat_audio_retention_days";
+
     /**
      * no_memory
      */
@@ -0,0 +1,20 @@
+package xiaozhi.common.dao;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+/**
+ * table_statistics_of_the_database
+ */
+@Mapper
+public interface TableStatsDao {
+    /**
+     * estimated_number_of_rows_of_the_table，from_the_statistics_of_the_storage_engine_instead_of_a_scan
+     *
+     * @param tableName table_name_in_the_current_database
+     * @return null_if_the_table_does_not_exist
+     */
+    @Select("SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = #{tableName}")
+    Long estimateRows(@Param("tableName") String tableName);
+}
@@ -199,4 +199,13 @@ public interface ErrorCode {
     int VOICE_CLONE_PREFIX = 10158; // replica_tone_prefix
     int VOICE_ID_ALREADY_EXISTS = 10159; // tone_id_already_exists
     int VOICE_CLONE_HUOSHAN_VOICE_ID_ERROR = 10160; // volcano_engine_sound_id_format_error
+
+    // chat_audio_storage_related_error_codes
+    int AUDIO_STORE_FAILED = 10163; // audio_storage_failed
+
+    // paging_related_error_codes
+    int INVALID_PAGE_CURSOR = 10164; // invalid_paging_cursor
+
+    // chat_export_related_error_codes
+    int CHAT_EXPORT_OPTION_INVALID = 10165; // unsupported_chat_export_option
 }
@@ -0,0 +1,213 @@
+package xiaozhi.common.http;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * circuit_breaker_and_bulkhead_of_each_downstream（scheme://host:port）of_outgoing_http_calls
+ * <p>
+ * a_downstream_that_failed_failureThreshold_times_in_a_row（connection_error、timeout、5xx）is_not_called_for_openMillis，
+ * then_one_trial_call_decides_whether_it_is_closed_again。at_most_maxConcurrent_calls_run_at_the_same_time_per_downstream，
+ * further_calls_fail_at_once_instead_of_holding_request_threads_on_a_stalled_service。
+ * at_most_maxDownstreams_are_tracked，the_least_recently_used_one_and_its_meters_are_dropped_beyond_that
+ */
+@Slf4j
+public class DownstreamGuard implements ClientHttpRequestInterceptor {
+    private static final int CLOSED = 0;
+    private static final int OPEN = 1;
+    private static final int HALF_OPEN = 2;
+
+    private final int maxConcurrent;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final int maxDownstreams;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Downstream> downstreams = new ConcurrentHashMap<>();
+
+    public DownstreamGuard(int maxConcurrent, int failureThreshold, long openMillis, int maxDownstreams,
+            MeterRegistry meterRegistry) {
+        this.maxConcurrent = maxConcurrent;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.maxDownstreams = maxDownstreams;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Downstream downstream = downstream(request.getURI());
+        boolean trial = downstream.acquireCircuit();
+        if (!downstream.permits.tryAcquire()) {
+            if (trial) {
+                downstream.trialRunning.set(false);
+            }
+            downstream.rejectedByBulkhead.increment();
+            throw new DownstreamUnavailableException(downstream.name, "too many concurrent calls");
+        }
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            if (response.getStatusCode().is5xxServerError()) {
+                downstream.onFailure(trial);
+            } else {
+                downstream.onSuccess(trial);
+            }
+            return response;
+        } catch (IOException | RuntimeException e) {
+            downstream.onFailure(trial);
+            throw e;
+        } finally {
+            downstream.permits.release();
+        }
+    }
+
+    /**
+     * state_of_the_downstream，0_closed、1_open、2_half_open，-1_if_it_was_never_called
+     */
+    public int getState(String downstream) {
+        Downstream state = downstreams.get(downstream);
+        return state == null ? -1 : state.state();
+    }
+
+    static String key(URI uri) {
+        int port = uri.getPort();
+        if (port < 0) {
+            port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        }
+        return uri.getScheme() + "://" + uri.getHost() + ":" + port;
+    }
+
+    private Downstream downstream(URI uri) {
+        String key = key(uri);
+        Downstream downstream = downstreams.get(key);
+        if (downstream == null) {
+            downstream = downstreams.computeIfAbsent(key, Downstream::new);
+            evictLeastRecentlyUsed(key);
+        }
+        downstream.lastUsed = System.currentTimeMillis();
+        return downstream;
+    }
+
+    /**
+     * urls_come_from_the_configuration_and_the_devices，keep_the_number_of_downstreams_and_their_meters_bounded
+     */
+    private void evictLeastRecentlyUsed(String keep) {
+        while (downstreams.size() > maxDownstreams) {
+            Downstream oldest = null;
+            for (Downstream downstream : downstreams.values()) {
+                if (!downstream.name.equals(keep) && (oldest == null || downstream.lastUsed < oldest.lastUsed)) {
+                    oldest = downstream;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            // removed_under_the_lock_of_the_key，a_new_entry_of_the_same_downstream_registers_its_meters_afterwards
+            downstreams.computeIfPresent(oldest.name, (name, downstream) -> {
+                downstream.removeMeters();
+                return null;
+            });
+        }
+    }
+
+    private class Downstream {
+        private final String name;
+        private final Semaphore permits = new Semaphore(maxConcurrent);
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicBoolean trialRunning = new AtomicBoolean();
+        private volatile long openUntil;
+        private volatile long lastUsed = System.currentTimeMillis();
+        private final Counter rejectedByCircuit;
+        private final Counter rejectedByBulkhead;
+        private final List<Meter> meters;
+
+        Downstream(String name) {
+            this.name = name;
+            this.rejectedByCircuit = Counter.builder("http.client.downstream.rejected")
+                    .tag("downstream", name)
+                    .tag("reason", "circuit_open")
+                    .register(meterRegistry);
+            this.rejectedByBulkhead = Counter.builder("http.client.downstream.rejected")
+                    .tag("downstream", name)
+                    .tag("reason", "bulkhead_full")
+                    .register(meterRegistry);
+            Gauge state = Gauge.builder("http.client.downstream.state", this, Downstream::state)
+                    .description("0 closed, 1 open, 2 half open")
+                    .tag("downstream", name)
+                    .register(meterRegistry);
+            Gauge active = Gauge.builder("http.client.downstream.active", this,
+                    d -> maxConcurrent - d.permits.availablePermits())
+                    .tag("downstream", name)
+                    .register(meterRegistry);
+            this.meters = List.of(rejectedByCircuit, rejectedByBulkhead, state, active);
+        }
+
+        void removeMeters() {
+            meters.forEach(meterRegistry::remove);
+        }
+
+        int state() {
+            if (openUntil == 0) {
+                return CLOSED;
+            }
+            return System.currentTimeMillis() < openUntil ? OPEN : HALF_OPEN;
+        }
+
+        /**
+         * @return true_if_the_call_is_the_trial_of_a_half_open_circuit
+         */
+        boolean acquireCircuit() throws DownstreamUnavailableException {
+            int state = state();
+            if (state == CLOSED) {
+                return false;
+            }
+            if (state == HALF_OPEN && trialRunning.compareAndSet(false, true)) {
+                return true;
+            }
+            rejectedByCircuit.increment();
+            throw new DownstreamUnavailableException(name, "circuit open");
+        }
+
+        void onSuccess(boolean trial) {
+            failures.set(0);
+            // calls_started_before_the_circuit_opened_do_not_close_it，only_the_trial_does
+            if (trial) {
+                openUntil = 0;
+                trialRunning.set(false);
+                log.info("Downstream {} recovered, circuit closed", name);
+            }
+        }
+
+        void onFailure(boolean trial) {
+            if (trial) {
+                openUntil = System.currentTimeMillis() + openMillis;
+                trialRunning.set(false);
+                log.warn("Downstream {} still failing, circuit open for another {} ms", name, openMillis);
+                return;
+            }
+            if (failures.incrementAndGet() >= failureThreshold && openUntil == 0) {
+                openUntil = System.currentTimeMillis() + openMillis;
+                log.warn("Downstream {} failed {} times in a row, circuit open for {} ms", name, failures.get(),
+                        openMillis);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package xiaozhi.common.http;
+
+import java.io.IOException;
+
+/**
+ * the_request_was_not_sent，because_the_circuit_of_the_downstream_is_open_or_its_concurrent_calls_are_used_up
+ * <p>
+ * an_IOException，so_the_rest_template_reports_it_like_a_connection_failure
+ */
+public class DownstreamUnavailableException extends IOException {
+    private final String downstream;
+
+    public DownstreamUnavailableException(String downstream, String reason) {
+        super("Downstream " + downstream + " unavailable: " + reason);
+        this.downstream = downstream;
+    }
+
+    public String getDownstream() {
+        return downstream;
+    }
+}
@@ -0,0 +1,90 @@
+package xiaozhi.common.page;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import xiaozhi.common.exception.ErrorCode;
+import xiaozhi.common.exception.RenException;
+import xiaozhi.common.utils.JsonUtils;
+
+/**
+ * opaque_cursor_of_seek_pagination，holds_the_sort_key_of_the_last_row_of_the_previous_page
+ * <p>
+ * the_values_keep_their_type（string、integer、decimal、time），
+ * so_they_are_bound_to_the_query_the_same_way_as_the_column_values
+ */
+public final class PageCursor {
+    private static final char STRING = 's';
+    private static final char NUMBER = 'n';
+    private static final char DATE = 'd';
+    private static final char NULL = 'z';
+
+    private PageCursor() {
+    }
+
+    /**
+     * @param values sort_key_of_the_last_row，in_sort_order
+     */
+    public static String encode(Object... values) {
+        List<String> key = new ArrayList<>(values.length);
+        for (Object value : values) {
+            if (value == null) {
+                key.add(String.valueOf(NULL));
+            } else if (value instanceof Date date) {
+                key.add(DATE + String.valueOf(date.getTime()));
+            } else if (value instanceof Number number) {
+                key.add(NUMBER + number.toString());
+            } else {
+                key.add(STRING + value.toString());
+            }
+        }
+        byte[] json = JsonUtils.toJsonString(key).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+    }
+
+    /**
+     * @param size number_of_sort_key_values_expected
+     * @return sort_key_values，string、long、big_decimal、date_or_null
+     */
+    public static Object[] decode(String cursor, int size) {
+        try {
+            String json = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            List<String> key = JsonUtils.parseArray(json, String.class);
+            if (key.size() != size) {
+                throw new RenException(ErrorCode.INVALID_PAGE_CURSOR);
+            }
+            Object[] values = new Object[size];
+            for (int i = 0; i < size; i++) {
+                String value = key.get(i);
+                String text = value.substring(1);
+                values[i] = switch (value.charAt(0)) {
+                    case STRING -> text;
+                    case NUMBER -> decodeNumber(text);
+                    case DATE -> new Date(Long.parseLong(text));
+                    case NULL -> null;
+                    default -> throw new RenException(ErrorCode.INVALID_PAGE_CURSOR);
+                };
+            }
+            return values;
+        } catch (RenException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // broken_base64、json_or_number
+            throw new RenException(ErrorCode.INVALID_PAGE_CURSOR);
+        }
+    }
+
+    /**
+     * integers_as_long，decimal_columns_as_big_decimal，so_the_value_compares_exactly_with_the_column
+     */
+    private static Object decodeNumber(String text) {
+        if (text.indexOf('.') >= 0 || text.indexOf('E') >= 0 || text.indexOf('e') >= 0) {
+            return new BigDecimal(text);
+        }
+        return Long.valueOf(text);
+    }
+}
@@ -20,6 +20,9 @@ public class PageData<T> implements Serializable {
     @Schema(description = "List data")
     private List<T> list;
 
+    @Schema(description = "Cursor of the next page, empty on the last page or when the list is paged by page number")
+    private String cursor;
+
     /**
      * pagination
      *
@@ -30,4 +33,16 @@ public class PageData<T> implements Serializable {
         this.list = list;
         this.total = (int) total;
     }
+
+    /**
+     * pagination_by_cursor
+     *
+     * @param list   list_data
+     * @param total  total_number_of_records
+     * @param cursor cursor_of_the_next_page，null_on_the_last_page
+     */
+    public PageData(List<T> list, long total, String cursor) {
+        this(list, total);
+        this.cursor = cursor;
+    }
 }
\ No newline at end of file
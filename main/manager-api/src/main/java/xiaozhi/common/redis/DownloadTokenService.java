@@ -0,0 +1,184 @@
+package xiaozhi.common.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * download_links_that_can_only_be_used_a_limited_number_of_times
+ * <p>
+ * checking_and_counting_a_use_is_one_lua_script，so_parallel_requests_can_never_exceed_the_limit。
+ * firmware_tokens_are_signed_instead_of_stored，because_most_devices_checking_for_updates_never_download
+ */
+@Component
+@RequiredArgsConstructor
+public class DownloadTokenService {
+    /**
+     * a_firmware_link_can_be_downloaded_3_times
+     */
+    public static final int OTA_MAX_DOWNLOADS = 3;
+    /**
+     * a_chat_record_link_can_be_downloaded_once
+     */
+    public static final int CHAT_HISTORY_MAX_DOWNLOADS = 1;
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final RedisUtils redisUtils;
+
+    private volatile SecretKeySpec otaSecret;
+
+    /**
+     * create_a_firmware_download_token
+     * <p>
+     * the_token_is_signed_and_carries_the_firmware_id_and_expiration，nothing_is_written_to_redis_until_it_is_used
+     *
+     * @param otaId firmware_id
+     * @return token
+     */
+    public String createOtaToken(String otaId) {
+        long expires = System.currentTimeMillis() / 1000 + RedisUtils.DEFAULT_EXPIRE;
+        String payload = otaId + "." + expires;
+        return payload + "." + sign(payload);
+    }
+
+    /**
+     * verify_a_firmware_download_token，redis_is_not_accessed
+     *
+     * @param token token
+     * @return firmware_id，null_if_the_signature_is_wrong_or_the_token_has_expired
+     */
+    public String getOtaId(String token) {
+        if (getOtaTokenRemainingMillis(token) <= 0) {
+            return null;
+        }
+        int signIndex = token.lastIndexOf('.');
+        return token.substring(0, token.lastIndexOf('.', signIndex - 1));
+    }
+
+    /**
+     * use_a_firmware_download_token_before_sending，checking_and_counting_is_one_script
+     * <p>
+     * a_range_that_continues_within_the_bytes_already_sent_for_this_token_is_not_counted_again，
+     * any_other_request_counts_as_a_new_download
+     *
+     * @param token token_verified_by_getOtaId
+     * @param start first_byte_to_send
+     * @return false_if_the_token_has_expired_or_been_used_up
+     */
+    public boolean useOtaToken(String token, long start) {
+        long remainingMillis = getOtaTokenRemainingMillis(token);
+        if (remainingMillis <= 0) {
+            return false;
+        }
+        return redisUtils.useToken(RedisKeys.getOtaDownloadCountKey(token), null,
+                RedisKeys.getOtaDownloadOffsetKey(token), OTA_MAX_DOWNLOADS, remainingMillis, start) != null;
+    }
+
+    /**
+     * record_how_far_a_counted_firmware_download_has_actually_been_sent
+     *
+     * @param token token_used_by_useOtaToken
+     * @param end   end_of_the_bytes_sent，exclusive
+     * @param size  size_of_the_firmware
+     */
+    public void recordOtaDownload(String token, long end, long size) {
+        long remainingMillis = getOtaTokenRemainingMillis(token);
+        // sent_to_the_end_of_the_file，nothing_can_be_resumed
+        if (end >= size || remainingMillis <= 0) {
+            return;
+        }
+        redisUtils.hSet(RedisKeys.getOtaDownloadOffsetKey(token), "end", end,
+                TimeUnit.MILLISECONDS.toSeconds(remainingMillis) + 1);
+    }
+
+    /**
+     * verify_the_signature_of_a_firmware_token
+     *
+     * @return milliseconds_until_the_token_expires，0_if_the_token_is_invalid_or_expired
+     */
+    private long getOtaTokenRemainingMillis(String token) {
+        if (StringUtils.isBlank(token)) {
+            return 0;
+        }
+        int signIndex = token.lastIndexOf('.');
+        int expiresIndex = signIndex > 0 ? token.lastIndexOf('.', signIndex - 1) : -1;
+        if (expiresIndex <= 0) {
+            return 0;
+        }
+        String payload = token.substring(0, signIndex);
+        if (!MessageDigest.isEqual(sign(payload).getBytes(StandardCharsets.US_ASCII),
+                token.substring(signIndex + 1).getBytes(StandardCharsets.US_ASCII))) {
+            return 0;
+        }
+        long expires = NumberUtils.toLong(token.substring(expiresIndex + 1, signIndex));
+        return Math.max(0, expires * 1000 - System.currentTimeMillis());
+    }
+
+    /**
+     * create_a_chat_record_download_token
+     *
+     * @param value agentId:sessionId
+     * @return token
+     */
+    public String createChatHistoryToken(String value) {
+        String uuid = UUID.randomUUID().toString();
+        redisUtils.set(RedisKeys.getChatHistoryKey(uuid), value);
+        return uuid;
+    }
+
+    /**
+     * use_a_chat_record_download_token
+     *
+     * @return agentId:sessionId，null_if_the_token_is_invalid_or_used
+     */
+    public String useChatHistoryToken(String uuid) {
+        Object value = redisUtils.useToken(RedisKeys.getChatHistoryDownloadCountKey(uuid),
+                RedisKeys.getChatHistoryKey(uuid), null, CHAT_HISTORY_MAX_DOWNLOADS, 0, 0);
+        return value instanceof String str ? str : null;
+    }
+
+    private String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(getOtaSecret());
+            byte[] signature = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * the_secret_is_created_once_and_shared_by_all_nodes_through_redis
+     */
+    private SecretKeySpec getOtaSecret() {
+        SecretKeySpec secret = otaSecret;
+        if (secret == null) {
+            byte[] random = new byte[32];
+            new SecureRandom().nextBytes(random);
+            String candidate = HexFormat.of().formatHex(random);
+            String existing = redisUtils.getKeyOrCreate(RedisKeys.getOtaTokenSecretKey(), candidate,
+                    RedisUtils.NOT_EXPIRE);
+            String value = StringUtils.isNotBlank(existing) ? existing : candidate;
+            secret = new SecretKeySpec(value.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+            otaSecret = secret;
+        }
+        return secret;
+    }
+}
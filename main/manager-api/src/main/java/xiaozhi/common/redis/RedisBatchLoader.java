@@ -0,0 +1,75 @@
+package xiaozhi.common.redis;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * look_up_the_values_of_many_ids_in_a_fixed_number_of_round_trips
+ * <p>
+ * the_cached_values_are_read_with_one_mget，the_missing_ones_are_loaded_with_one_call_of_the_loader_and_written_back_in_one_pipeline。
+ * list_pages_use_it_instead_of_one_cached_lookup_per_row
+ */
+@Component
+@RequiredArgsConstructor
+public class RedisBatchLoader {
+    private final RedisUtils redisUtils;
+
+    /**
+     * @param ids    ids_to_look_up，null_and_duplicate_ids_are_ignored
+     * @param key    cache_key_of_an_id，the_same_key_as_the_single_lookup
+     * @param loader load_the_ids_missing_from_the_cache，e.g._with_one_in_query，ids_without_a_value_are_left_out
+     * @param expire expiration_time_of_the_written_back_values_in_seconds
+     * @return id -> value，ids_without_a_value_are_left_out
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> Map<K, V> load(Collection<K> ids, Function<K, String> key, Function<Set<K>, Map<K, V>> loader,
+            long expire) {
+        Map<K, V> result = new HashMap<>();
+        Set<K> distinct = new LinkedHashSet<>();
+        for (K id : ids) {
+            if (id != null && !"".equals(id)) {
+                distinct.add(id);
+            }
+        }
+        if (distinct.isEmpty()) {
+            return result;
+        }
+
+        List<K> order = new ArrayList<>(distinct);
+        List<Object> cached = redisUtils.multiGet(order.stream().map(key).toList());
+        Set<K> missing = new LinkedHashSet<>();
+        for (int i = 0; i < order.size(); i++) {
+            // null_when_redis_is_disabled
+            Object value = cached == null ? null : cached.get(i);
+            if (value != null) {
+                result.put(order.get(i), (V) value);
+            } else {
+                missing.add(order.get(i));
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<K, V> loaded = loader.apply(missing);
+        Map<String, Object> writeBack = new HashMap<>();
+        loaded.forEach((id, value) -> {
+            if (value != null) {
+                result.put(id, value);
+                writeBack.put(key.apply(id), value);
+            }
+        });
+        redisUtils.multiSet(writeBack, expire);
+        return result;
+    }
+}
@@ -0,0 +1,144 @@
+package xiaozhi.common.redis;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * base_of_the_in_process_caches_that_are_invalidated_through_a_redis_channel
+ * <p>
+ * an_invalidation_is_applied_after_the_current_transaction_commits，first_on_this_node_and_then_published_to_the_others。
+ * every_invalidation_increases_the_epoch，values_loaded_across_an_invalidation_are_not_kept。
+ * subclasses_only_supply_the_channel、how_a_message_drops_their_entries_and_how_they_load
+ */
+public abstract class RedisInvalidatedCache implements MessageListener {
+    /**
+     * message_that_drops_everything
+     */
+    protected static final String MSG_ALL = "*";
+
+    protected final RedisUtils redisUtils;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private final AtomicLong epoch = new AtomicLong();
+
+    protected RedisInvalidatedCache(RedisUtils redisUtils,
+            RedisMessageListenerContainer redisMessageListenerContainer) {
+        this.redisUtils = redisUtils;
+        this.redisMessageListenerContainer = redisMessageListenerContainer;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(getTopic()));
+    }
+
+    /**
+     * channel_the_invalidations_are_published_to
+     */
+    protected abstract String getTopic();
+
+    /**
+     * drop_the_local_entries_named_by_the_message，called_while_holding_the_lock_of_the_cache
+     *
+     * @param message published_message，a_message_from_another_node_is_deserialized_from_json
+     */
+    protected abstract void applyInvalidation(Object message);
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object body = redisUtils.deserializeMessage(message.getBody());
+        if (body != null) {
+            applyLocal(body);
+        }
+    }
+
+    /**
+     * apply_the_invalidation_on_all_nodes_after_the_current_transaction_commits
+     */
+    protected void invalidateAfterCommit(Object message) {
+        invalidateAfterCommit(message, null);
+    }
+
+    /**
+     * same_as_above，sharedChange_updates_what_all_nodes_share（e.g._redis_keys）before_the_nodes_drop_their_entries
+     */
+    protected void invalidateAfterCommit(Object message, Runnable sharedChange) {
+        afterCommit(() -> {
+            if (sharedChange != null) {
+                sharedChange.run();
+            }
+            applyLocal(message);
+            redisUtils.publish(getTopic(), message);
+        });
+    }
+
+    /**
+     * take_before_loading，and_pass_to_isCurrent_or_keepIfCurrent_when_the_loaded_value_is_kept
+     */
+    protected long startLoad() {
+        return epoch.get();
+    }
+
+    /**
+     * whether_no_invalidation_has_happened_since_startLoad
+     */
+    protected boolean isCurrent(long startEpoch) {
+        return epoch.get() == startEpoch;
+    }
+
+    /**
+     * keep_a_loaded_value_unless_an_invalidation_has_happened_since_startLoad
+     *
+     * @return false_if_the_value_was_not_kept
+     */
+    protected synchronized boolean keepIfCurrent(long startEpoch, Runnable keep) {
+        if (epoch.get() != startEpoch) {
+            return false;
+        }
+        keep.run();
+        return true;
+    }
+
+    private synchronized void applyLocal(Object message) {
+        epoch.incrementAndGet();
+        applyInvalidation(message);
+    }
+
+    /**
+     * run_the_action_after_the_current_transaction_commits，or_now_when_there_is_no_transaction
+     */
+    protected static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * number_read_from_redis，0_if_it_is_missing_or_not_a_number
+     */
+    protected static long toLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof String str && StringUtils.isNumeric(str)) {
+            return Long.parseLong(str);
+        }
+        return 0;
+    }
+}
@@ -13,6 +13,20 @@ public class RedisKeys {
         return "sys:params";
     }
 
+    /**
+     * system_parameter_change_channel
+     */
+    public static String getSysParamsInvalidateTopic() {
+        return "sys:params:invalidate";
+    }
+
+    /**
+     * channel_of_revoked_user_tokens
+     */
+    public static String getUserTokenInvalidateTopic() {
+        return "sys:user:token:invalidate";
+    }
+
     /**
      * verification_codekey
      */
@@ -76,6 +90,20 @@ public class RedisKeys {
         return "server:config";
     }
 
+    /**
+     * get_the_system_configuration_version_key
+     */
+    public static String getServerConfigVersionKey() {
+        return "server:config:version";
+    }
+
+    /**
+     * get_the_system_configuration_change_channel
+     */
+    public static String getServerConfigInvalidateTopic() {
+        return "server:config:invalidate";
+    }
+
     /**
      * get_the_timbre_details_cache_key
      */
@@ -90,12 +118,18 @@ public class RedisKeys {
         return "sys:version";
     }
 
-    /*
-*
-*Key of OTA firmware ID
-*/
-    public static String getOtaIdKey(String uuid) {
-        return "ota:id:" + uuid;
+    /**
+     * key_of_the_secret_used_to_sign_firmware_download_tokens
+     */
+    public static String getOtaTokenSecretKey() {
+        return "ota:token:secret";
+    }
+
+    /**
+     * get_the_channel_of_latest_firmware_changes
+     */
+    public static String getOtaLatestInvalidateTopic() {
+        return "ota:latest:invalidate";
     }
 
     /*
@@ -106,6 +140,13 @@ public class RedisKeys {
         return "ota:download:count:" + uuid;
     }
 
+    /**
+     * key_of_the_range_already_served_by_the_current_firmware_download
+     */
+    public static String getOtaDownloadOffsetKey(String uuid) {
+        return "ota:download:offset:" + uuid;
+    }
+
     /**
      * get_the_cache_key_of_dictionary_data
      */
@@ -148,10 +189,45 @@ public class RedisKeys {
         return "agent:chat:history:" + uuid;
     }
 
+    /**
+     * key_of_the_number_of_times_a_chat_record_download_link_was_used
+     */
+    public static String getChatHistoryDownloadCountKey(String uuid) {
+        return "agent:chat:history:count:" + uuid;
+    }
+
     /**
      * get_the_cache_key_of_the_timbre_clone_audio_id
      */
     public static String getVoiceCloneAudioIdKey(String uuid) {
         return "voiceClone:audio:id:" + uuid;
     }
+
+    /**
+     * get_the_assembled_agent_configuration_snapshot_cache_key_of_the_device
+     */
+    public static String getAgentConfigKey(String macAddress) {
+        return "agent:config:mac:" + macAddress;
+    }
+
+    /**
+     * get_the_generation_number_key_of_the_agent_configuration_snapshot
+     */
+    public static String getAgentConfigGenerationKey() {
+        return "agent:config:generation";
+    }
+
+    /**
+     * get_the_invalidation_channel_of_the_agent_configuration_snapshot
+     */
+    public static String getAgentConfigInvalidateTopic() {
+        return "agent:config:invalidate";
+    }
+
+    /**
+     * get_the_invalidation_channel_of_the_agent_mcp_tool_lists
+     */
+    public static String getMcpToolsInvalidateTopic() {
+        return "agent:mcp:tools:invalidate";
+    }
 }
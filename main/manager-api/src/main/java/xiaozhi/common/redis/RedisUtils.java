@@ -8,10 +8,17 @@ import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Component;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import xiaozhi.common.utils.ResourcesUtils;
 
@@ -29,6 +36,19 @@ public class RedisUtils {
     @Autowired
     private ResourcesUtils resourceUtils;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * lookups_by_key_namespace_and_result（hit、miss）
+     */
+    private MeterProvider<Counter> lookups;
+
+    /**
+     * scripts_are_loaded_on_first_use，executed_with_evalsha
+     */
+    private volatile DefaultRedisScript<Object> useTokenScript;
+
     /**
      * the_default_expiration_time_is_24_hours，unit：second
      */
@@ -46,6 +66,13 @@ public class RedisUtils {
      */
     public final static long NOT_EXPIRE = -1L;
 
+    @PostConstruct
+    public void init() {
+        lookups = Counter.builder("redis.cache.lookups")
+                .description("Redis reads by key namespace and result")
+                .withRegistry(meterRegistry);
+    }
+
     public Long increment(String key, long expire) {
         Long increment = redisTemplate.opsForValue().increment(key, 1L);
         if (expire != NOT_EXPIRE) {
@@ -77,6 +104,7 @@ public class RedisUtils {
 
     public Object get(String key, long expire) {
         Object value = redisTemplate.opsForValue().get(key);
+        recordLookup(key, value);
         if (expire != NOT_EXPIRE) {
             expire(key, expire);
         }
@@ -87,6 +115,47 @@ public class RedisUtils {
         return get(key, NOT_EXPIRE);
     }
 
+    /**
+     * get_the_values_of_multiple_keys_in_one_round_trip，the_order_is_consistent_with_keys
+     */
+    public List<Object> multiGet(Collection<String> keys) {
+        List<Object> values = redisTemplate.opsForValue().multiGet(keys);
+        if (values != null) {
+            int i = 0;
+            for (String key : keys) {
+                recordLookup(key, values.get(i++));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * set_multiple_keys_in_one_pipelined_round_trip
+     *
+     * @param values key -> value
+     * @param expire expiration_time_in_seconds，NOT_EXPIRE_keeps_the_keys_forever
+     */
+    public void multiSet(Map<String, Object> values, long expire) {
+        if (values.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                ValueOperations<String, Object> ops = ((RedisOperations<String, Object>) operations).opsForValue();
+                values.forEach((key, value) -> {
+                    if (expire == NOT_EXPIRE) {
+                        ops.set(key, value);
+                    } else {
+                        ops.set(key, value, expire, TimeUnit.SECONDS);
+                    }
+                });
+                return null;
+            }
+        });
+    }
+
     public void delete(String key) {
         redisTemplate.delete(key);
     }
@@ -96,7 +165,9 @@ public class RedisUtils {
     }
 
     public Object hGet(String key, String field) {
-        return redisTemplate.opsForHash().get(key, field);
+        Object value = redisTemplate.opsForHash().get(key, field);
+        recordLookup(key, value);
+        return value;
     }
 
     public Map<String, Object> hGetAll(String key) {
@@ -152,6 +223,20 @@ public class RedisUtils {
         return redisTemplate.opsForList().rightPop(key);
     }
 
+    /**
+     * publish_a_message_to_the_specified_channel
+     */
+    public void publish(String channel, Object message) {
+        redisTemplate.convertAndSend(channel, message);
+    }
+
+    /**
+     * deserialize_the_message_body_received_from_the_channel
+     */
+    public Object deserializeMessage(byte[] body) {
+        return redisTemplate.getValueSerializer().deserialize(body);
+    }
+
 
     /**
      * clear_all Redis all_keys_in_the_database
@@ -192,6 +277,39 @@ public class RedisUtils {
         return redisTemplate.execute(redisScript, keys, defaultValue,expiresInSecond);
     }
 
+    /**
+     * check_a_download_token_and_count_one_download_in_a_single_script
+     * <p>
+     * a_range_that_resumes_the_current_download_within_the_bytes_already_sent_is_not_counted，
+     * the_sent_position_is_recorded_in_offsetKey_by_the_caller_after_sending
+     *
+     * @param countKey     key_of_the_download_count
+     * @param tokenKey     key_holding_the_token，null_for_a_signed_token_that_is_not_stored
+     * @param offsetKey    key_of_the_sent_range_of_the_current_download，null_if_the_download_cannot_be_resumed
+     * @param maxUses      maximum_number_of_downloads，a_stored_token_is_deleted_when_exceeded
+     * @param expireMillis expiration_of_the_count_and_the_range，a_stored_token_uses_its_own_expiration_instead
+     * @param start        first_byte_of_this_response
+     * @return value_of_the_token（1_for_a_signed_token），null_if_it_does_not_exist_or_has_been_used_up
+     */
+    public Object useToken(String countKey, String tokenKey, String offsetKey, int maxUses, long expireMillis,
+            long start) {
+        DefaultRedisScript<Object> redisScript = useTokenScript;
+        if (redisScript == null) {
+            redisScript = new DefaultRedisScript<>(resourceUtils.loadString("lua/useToken.lua"), Object.class);
+            useTokenScript = redisScript;
+        }
+        String token = tokenKey == null ? "" : tokenKey;
+        List<String> keys = offsetKey == null ? List.of(countKey, token) : List.of(countKey, token, offsetKey);
+        return redisTemplate.execute(redisScript, keys, maxUses, expireMillis, start);
+    }
 
-
-}
\ No newline at end of file
+    /**
+     * the_namespace_is_the_first_two_segments_of_the_key，e.g._agent:config，so_the_ids_in_the_keys_do_not_become_tags
+     */
+    private void recordLookup(String key, Object value) {
+        int first = key.indexOf(':');
+        int second = first < 0 ? -1 : key.indexOf(':', first + 1);
+        String namespace = second < 0 ? key : key.substring(0, second);
+        lookups.withTags("cache", namespace, "result", value != null ? "hit" : "miss").increment();
+    }
+}
@@ -15,10 +15,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.enums.SqlMethod;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.core.metadata.OrderItem;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
 import com.baomidou.mybatisplus.core.toolkit.CollectionUtils;
 import com.baomidou.mybatisplus.core.toolkit.Constants;
 import com.baomidou.mybatisplus.core.toolkit.ReflectionKit;
@@ -27,6 +30,8 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.toolkit.SqlHelper;
 
 import xiaozhi.common.constant.Constant;
+import xiaozhi.common.dao.TableStatsDao;
+import xiaozhi.common.page.PageCursor;
 import xiaozhi.common.page.PageData;
 import xiaozhi.common.service.BaseService;
 import xiaozhi.common.utils.ConvertUtils;
@@ -39,6 +44,8 @@ import xiaozhi.common.utils.ConvertUtils;
 public abstract class BaseServiceImpl<M extends BaseMapper<T>, T> implements BaseService<T> {
     @Autowired
     protected M baseDao;
+    @Autowired
+    private TableStatsDao tableStatsDao;
     protected Log log = LogFactory.getLog(getClass());
 
     /**
@@ -106,6 +113,142 @@ public abstract class BaseServiceImpl<M extends BaseMapper<T>, T> implements Bas
         return page;
     }
 
+    /**
+     * seek_pagination
+     * <p>
+     * the_rows_are_sorted_by_the_sort_field_and_the_primary_key，with_a_cursor_the_page_starts_right_after_the_row_the_cursor_was_taken_from，
+     * so_deep_pages_do_not_scan_and_discard_the_rows_before_them。without_a_cursor_the_page_number_is_used，
+     * and_the_returned_cursor_continues_from_there。the_sort_field_should_not_be_null，the_wrapper_must_not_sort
+     *
+     * @param params     pagination_query_parameters
+     * @param wrapper    query_conditions，the_seek_condition_and_the_sorting_are_added_to_it
+     * @param orderField default_sort_field，null_sorts_by_the_primary_key_only
+     * @param isAsc      default_sort_by
+     * @param columns    columns_to_select，e.g._without_large_columns，empty_selects_the_default_columns_of_the_entity
+     * @see xiaozhi.common.constant.Constant
+     *      params.put(Constant.LIMIT, "10");
+     *      params.put(Constant.CURSOR, cursor); // cursor_of_the_previous_page
+     *      params.put(Constant.COUNT, Constant.COUNT_NONE); // skip_the_count_query
+     *      params.put(Constant.ORDER_FIELD, "field"); // a_single_column_of_the_table，replaces_the_default
+     *      params.put(Constant.ORDER, "asc"); // descending_otherwise
+     * @return the_rows，total（-1_when_not_counted）and_the_cursor_of_the_next_page，null_on_the_last_page
+     */
+    protected PageData<T> selectKeysetPage(Map<String, Object> params, QueryWrapper<T> wrapper, String orderField,
+            boolean isAsc, String... columns) {
+        long curPage = 1;
+        long limit = 10;
+        if (params.get(Constant.PAGE) != null) {
+            curPage = Long.parseLong(params.get(Constant.PAGE).toString());
+        }
+        if (params.get(Constant.LIMIT) != null) {
+            limit = Long.parseLong(params.get(Constant.LIMIT).toString());
+        }
+        Object cursor = params.get(Constant.CURSOR);
+
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(currentModelClass());
+        // the_sort_requested_by_the_client_replaces_the_default，the_same_as_getPage
+        String sortField = orderField;
+        boolean ascending = isAsc;
+        String requestedField = requestedOrderField(params, tableInfo);
+        if (requestedField != null) {
+            sortField = requestedField;
+            ascending = Constant.ASC.equalsIgnoreCase(String.valueOf(params.get(Constant.ORDER)));
+        }
+
+        // the_primary_key_breaks_ties，so_every_row_has_a_unique_position
+        List<String> sortColumns = new ArrayList<>();
+        if (StringUtils.isNotBlank(sortField)) {
+            sortColumns.add(sortField);
+        }
+        if (tableInfo.getKeyColumn() != null && !tableInfo.getKeyColumn().equals(sortField)) {
+            sortColumns.add(tableInfo.getKeyColumn());
+        }
+
+        // count_before_the_seek_condition_and_the_columns_are_added，a_count_query_takes_the_selected_columns_as_count_arguments
+        long total = countForPage(params, wrapper, tableInfo);
+        if (columns.length > 0) {
+            wrapper.select(columns);
+        }
+
+        Page<T> page;
+        if (cursor != null && StringUtils.isNotBlank(cursor.toString())) {
+            Object[] key = PageCursor.decode(cursor.toString(), sortColumns.size());
+            boolean asc = ascending;
+            wrapper.and(w -> {
+                // (c1 > v1) or (c1 = v1 and c2 > v2) ...
+                for (int i = 0; i < sortColumns.size(); i++) {
+                    int n = i;
+                    w.or(n > 0).nested(seek -> {
+                        for (int j = 0; j < n; j++) {
+                            seek.eq(sortColumns.get(j), key[j]);
+                        }
+                        if (asc) {
+                            seek.gt(sortColumns.get(n), key[n]);
+                        } else {
+                            seek.lt(sortColumns.get(n), key[n]);
+                        }
+                    });
+                }
+            });
+            page = new Page<>(1, limit, false);
+        } else {
+            page = new Page<>(curPage, limit, false);
+        }
+        wrapper.orderBy(true, ascending, sortColumns);
+        List<T> records = baseDao.selectPage(page, wrapper).getRecords();
+
+        String nextCursor = null;
+        if (!records.isEmpty() && records.size() == limit) {
+            T last = records.get(records.size() - 1);
+            nextCursor = PageCursor.encode(sortColumns.stream().map(column -> sortValue(tableInfo, last, column)).toArray());
+        }
+        return new PageData<>(records, total, nextCursor);
+    }
+
+    /**
+     * the_single_sort_column_of_Constant.ORDER_FIELD，null_if_it_is_not_set_or_not_a_column_of_the_table
+     */
+    private static String requestedOrderField(Map<String, Object> params, TableInfo tableInfo) {
+        Object orderField = params.get(Constant.ORDER_FIELD);
+        if (orderField instanceof List<?> fields && fields.size() == 1) {
+            orderField = fields.get(0);
+        }
+        if (!(orderField instanceof String column) || StringUtils.isBlank(column)) {
+            return null;
+        }
+        // the_value_comes_from_the_request，it_must_name_a_column_of_the_table
+        if (column.equals(tableInfo.getKeyColumn())
+                || tableInfo.getFieldList().stream().anyMatch(field -> field.getColumn().equals(column))) {
+            return column;
+        }
+        return null;
+    }
+
+    private long countForPage(Map<String, Object> params, QueryWrapper<T> wrapper, TableInfo tableInfo) {
+        Object count = params.get(Constant.COUNT);
+        if (Constant.COUNT_NONE.equals(count)) {
+            return -1;
+        }
+        if (Constant.COUNT_ESTIMATE.equals(count) && wrapper.isEmptyOfWhere()) {
+            Long estimate = tableStatsDao.estimateRows(tableInfo.getTableName());
+            if (estimate != null) {
+                return estimate;
+            }
+        }
+        return baseDao.selectCount(wrapper);
+    }
+
+    private static Object sortValue(TableInfo tableInfo, Object entity, String column) {
+        if (column.equals(tableInfo.getKeyColumn())) {
+            return tableInfo.getPropertyValue(entity, tableInfo.getKeyProperty());
+        }
+        return tableInfo.getFieldList().stream()
+                .filter(field -> field.getColumn().equals(column))
+                .findFirst()
+                .map(field -> tableInfo.getPropertyValue(entity, field.getProperty()))
+                .orElseThrow(() -> new IllegalArgumentException("Unknown sort column: " + column));
+    }
+
     protected <D> PageData<D> getPageData(List<?> list, long total, Class<D> target) {
         List<D> targetList = ConvertUtils.sourceToTarget(list, target);
 
@@ -0,0 +1,171 @@
+package xiaozhi.common.utils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * copies_the_properties_of_one_source_class_to_one_target_class
+ * <p>
+ * the_properties_are_matched_once_per_class_pair_with_the_same_rules_as {@link BeanUtils#copyProperties(Object, Object)}，
+ * the_getters、setters_and_the_constructor_are_bound_to_generated_lambdas，so_a_copy_does_no_introspection_or_reflection
+ */
+final class BeanCopier {
+    /**
+     * source_class -> target_class -> copier，the_entries_go_away_with_the_class_loader_of_the_source_class
+     */
+    private static final ClassValue<Map<Class<?>, BeanCopier>> COPIERS = new ClassValue<>() {
+        @Override
+        protected Map<Class<?>, BeanCopier> computeValue(Class<?> sourceClass) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final Supplier<Object> constructor;
+    private final Property[] properties;
+
+    private BeanCopier(Supplier<Object> constructor, Property[] properties) {
+        this.constructor = constructor;
+        this.properties = properties;
+    }
+
+    static BeanCopier of(Class<?> sourceClass, Class<?> targetClass) {
+        Map<Class<?>, BeanCopier> copiers = COPIERS.get(sourceClass);
+        BeanCopier copier = copiers.get(targetClass);
+        if (copier == null) {
+            // built_outside_of_computeIfAbsent，a_failed_build_is_thrown_to_the_caller_and_not_cached
+            copier = build(sourceClass, targetClass);
+            BeanCopier existing = copiers.putIfAbsent(targetClass, copier);
+            if (existing != null) {
+                copier = existing;
+            }
+        }
+        return copier;
+    }
+
+    Object newTarget() {
+        return constructor.get();
+    }
+
+    void copy(Object source, Object target) {
+        for (Property property : properties) {
+            Object value = property.getter.apply(source);
+            // a_primitive_cannot_take_null，the_default_value_is_kept
+            if (value == null && property.primitive) {
+                continue;
+            }
+            property.setter.accept(target, value);
+        }
+    }
+
+    private static BeanCopier build(Class<?> sourceClass, Class<?> targetClass) {
+        try {
+            List<Property> properties = new ArrayList<>();
+            for (PropertyDescriptor targetPd : BeanUtils.getPropertyDescriptors(targetClass)) {
+                Method writeMethod = targetPd.getWriteMethod();
+                if (writeMethod == null) {
+                    continue;
+                }
+                PropertyDescriptor sourcePd = BeanUtils.getPropertyDescriptor(sourceClass, targetPd.getName());
+                if (sourcePd == null || sourcePd.getReadMethod() == null) {
+                    continue;
+                }
+                Method readMethod = sourcePd.getReadMethod();
+                if (!isAssignable(readMethod, writeMethod)) {
+                    continue;
+                }
+                Class<?> type = writeMethod.getParameterTypes()[0];
+                properties.add(new Property(getter(readMethod), setter(writeMethod), type.isPrimitive()));
+            }
+            return new BeanCopier(constructor(targetClass), properties.toArray(new Property[0]));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot copy " + sourceClass.getName() + " to " + targetClass.getName(),
+                    e);
+        }
+    }
+
+    /**
+     * same_check_as_copyProperties，generic_types_are_compared_when_they_can_be_resolved
+     */
+    private static boolean isAssignable(Method readMethod, Method writeMethod) {
+        ResolvableType sourceType = ResolvableType.forMethodReturnType(readMethod);
+        ResolvableType targetType = ResolvableType.forMethodParameter(writeMethod, 0);
+        if (sourceType.hasUnresolvableGenerics() || targetType.hasUnresolvableGenerics()) {
+            return ClassUtils.isAssignable(writeMethod.getParameterTypes()[0], readMethod.getReturnType());
+        }
+        return targetType.isAssignableFrom(sourceType);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> constructor(Class<?> targetClass) throws Throwable {
+        MethodHandles.Lookup lookup = lookup(targetClass);
+        MethodHandle handle = lookup.findConstructor(targetClass, MethodType.methodType(void.class));
+        CallSite site = LambdaMetafactory.metafactory(lookup, "get", MethodType.methodType(Supplier.class),
+                MethodType.methodType(Object.class), handle, MethodType.methodType(targetClass));
+        return (Supplier<Object>) site.getTarget().invoke();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> getter(Method method) throws Throwable {
+        Class<?> owner = method.getDeclaringClass();
+        try {
+            MethodHandles.Lookup lookup = lookup(owner);
+            MethodHandle handle = lookup.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class), handle,
+                    MethodType.methodType(ClassUtils.resolvePrimitiveIfNecessary(method.getReturnType()), owner));
+            return (Function<Object, Object>) site.getTarget().invoke();
+        } catch (IllegalAccessException | LambdaConversionException e) {
+            // e.g._getters_of_jdk_classes，which_are_not_open_to_us
+            ReflectionUtils.makeAccessible(method);
+            return bean -> ReflectionUtils.invokeMethod(method, bean);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(Method method) throws Throwable {
+        Class<?> owner = method.getDeclaringClass();
+        try {
+            MethodHandles.Lookup lookup = lookup(owner);
+            MethodHandle handle = lookup.unreflect(method);
+            // chained_setters_return_the_bean，the_return_value_is_dropped
+            CallSite site = LambdaMetafactory.metafactory(lookup, "accept", MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class), handle,
+                    MethodType.methodType(void.class, owner,
+                            ClassUtils.resolvePrimitiveIfNecessary(method.getParameterTypes()[0])));
+            return (BiConsumer<Object, Object>) site.getTarget().invoke();
+        } catch (IllegalAccessException | LambdaConversionException e) {
+            ReflectionUtils.makeAccessible(method);
+            return (bean, value) -> ReflectionUtils.invokeMethod(method, bean, value);
+        }
+    }
+
+    /**
+     * the_lambdas_are_defined_next_to_the_bean_class，so_that_non_public_beans_work_as_with_copyProperties
+     */
+    private static MethodHandles.Lookup lookup(Class<?> beanClass) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(beanClass, MethodHandles.lookup());
+    }
+
+    private record Property(Function<Object, Object> getter, BiConsumer<Object, Object> setter, boolean primitive) {
+    }
+}
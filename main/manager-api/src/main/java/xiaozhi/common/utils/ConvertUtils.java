@@ -4,12 +4,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
-import org.springframework.beans.BeanUtils;
-
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * conversion_tool_class
+ * <p>
+ * the_copy_plan_of_each_source_and_target_class_is_built_once_and_cached，see {@link BeanCopier}
  * Copyright (c) open_source_for_everyone All rights reserved.
  * Website: https://www.renren.io
  */
@@ -21,8 +21,9 @@ public class ConvertUtils {
         }
         T targetObject = null;
         try {
-            targetObject = target.getDeclaredConstructor().newInstance();
-            BeanUtils.copyProperties(source, targetObject);
+            BeanCopier copier = BeanCopier.of(source.getClass(), target);
+            targetObject = target.cast(copier.newTarget());
+            copier.copy(source, targetObject);
         } catch (Exception e) {
             log.error("convert error ", e);
         }
@@ -37,9 +38,16 @@ public class ConvertUtils {
 
         List<T> targetList = new ArrayList<>(sourceList.size());
         try {
+            // lists_are_usually_of_one_class，the_copier_is_only_looked_up_again_when_the_class_changes
+            Class<?> sourceClass = null;
+            BeanCopier copier = null;
             for (Object source : sourceList) {
-                T targetObject = target.getDeclaredConstructor().newInstance();
-                BeanUtils.copyProperties(source, targetObject);
+                if (source.getClass() != sourceClass) {
+                    sourceClass = source.getClass();
+                    copier = BeanCopier.of(sourceClass, target);
+                }
+                T targetObject = target.cast(copier.newTarget());
+                copier.copy(source, targetObject);
                 targetList.add(targetObject);
             }
         } catch (Exception e) {
@@ -48,4 +56,4 @@ public class ConvertUtils {
 
         return targetList;
     }
-}
\ No newline at end of file
+}
@@ -2,15 +2,14 @@ package xiaozhi.common.xss;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 
-import cn.hutool.core.io.IoUtil;
 import jakarta.servlet.ReadListener;
 import jakarta.servlet.ServletInputStream;
 import jakarta.servlet.http.HttpServletRequest;
@@ -31,23 +30,22 @@ public class XssHttpServletRequestWrapper extends HttpServletRequestWrapper {
     @Override
     public ServletInputStream getInputStream() throws IOException {
         // nonjson_type，return_directly
-        if (!MediaType.APPLICATION_JSON_VALUE.equalsIgnoreCase(super.getHeader(HttpHeaders.CONTENT_TYPE))) {
+        if (!isJson(super.getHeader(HttpHeaders.CONTENT_TYPE))) {
             return super.getInputStream();
         }
 
         // is_empty，return_directly
-        String json = IoUtil.readUtf8(super.getInputStream());
-        if (StringUtils.isBlank(json)) {
+        byte[] json = super.getInputStream().readAllBytes();
+        if (json.length == 0) {
             return super.getInputStream();
         }
 
         // xss filtering
-        json = xssEncode(json);
-        final ByteArrayInputStream bis = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+        final ByteArrayInputStream bis = new ByteArrayInputStream(XssUtils.filterJson(json));
         return new ServletInputStream() {
             @Override
             public boolean isFinished() {
-                return true;
+                return bis.available() == 0;
             }
 
             @Override
@@ -64,9 +62,28 @@ public class XssHttpServletRequestWrapper extends HttpServletRequestWrapper {
             public int read() {
                 return bis.read();
             }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return bis.read(b, off, len);
+            }
         };
     }
 
+    private static boolean isJson(String contentType) {
+        if (StringUtils.isBlank(contentType)) {
+            return false;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            // wildcards_such_as_*/*_or_application/*_are_not_json
+            return MediaType.APPLICATION_JSON.includes(mediaType)
+                    || (!mediaType.isWildcardSubtype() && "json".equalsIgnoreCase(mediaType.getSubtypeSuffix()));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
     @Override
     public String getParameter(String name) {
         String value = super.getParameter(xssEncode(name));
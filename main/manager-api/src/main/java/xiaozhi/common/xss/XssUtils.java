@@ -1,8 +1,18 @@
 package xiaozhi.common.xss;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
 import org.jsoup.Jsoup;
 import org.jsoup.safety.Safelist;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+
 /*
 *
 * XSS filtering tool class
@@ -10,13 +20,82 @@ import org.jsoup.safety.Safelist;
  * Website: https://www.renren.io
 */
 public class XssUtils extends Safelist {
+    /**
+     * built_once，jsoup_only_reads_it_while_cleaning
+     */
+    private static final Safelist WHITELIST = xssWhitelist();
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .build();
 
     /*
 *
 * XSS filtering
 */
     public static String filter(String html) {
-        return Jsoup.clean(html, xssWhitelist());
+        if (!isHtml(html)) {
+            return html;
+        }
+        return Jsoup.clean(html, WHITELIST);
+    }
+
+    /**
+     * only_text_containing_a_tag_opening_can_carry_html
+     */
+    public static boolean isHtml(String text) {
+        return text != null && text.indexOf('<') >= 0;
+    }
+
+    /**
+     * XSS filtering of a json document，only_string_values_and_field_names_containing_html_are_cleaned
+     * <p>
+     * the_document_is_tokenized_with_jackson，numbers_and_structure_are_copied_as_they_are。
+     * when_nothing_needs_cleaning_the_original_bytes_are_returned，invalid_json_is_also_returned_unchanged
+     */
+    public static byte[] filterJson(byte[] json) {
+        try {
+            if (!containsHtml(json)) {
+                return json;
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length + 64);
+            try (JsonParser parser = JSON_FACTORY.createParser(json);
+                    JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+                JsonToken token;
+                while ((token = parser.nextToken()) != null) {
+                    if (token == JsonToken.FIELD_NAME) {
+                        generator.writeFieldName(filter(parser.currentName()));
+                    } else if (token == JsonToken.VALUE_STRING) {
+                        generator.writeString(filter(parser.getText()));
+                    } else {
+                        generator.copyCurrentEventExact(parser);
+                    }
+                }
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            // let_the_message_converter_report_the_invalid_json
+            return json;
+        }
+    }
+
+    private static boolean containsHtml(byte[] json) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME || token == JsonToken.VALUE_STRING) {
+                    // scan_the_parser_buffer，long_values_are_not_copied_into_strings
+                    char[] text = parser.getTextCharacters();
+                    int end = parser.getTextOffset() + parser.getTextLength();
+                    for (int i = parser.getTextOffset(); i < end; i++) {
+                        if (text[i] == '<') {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
     }
 
     /*
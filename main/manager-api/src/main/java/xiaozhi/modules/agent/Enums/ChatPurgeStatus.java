@@ -0,0 +1,21 @@
+package xiaozhi.modules.agent.Enums;
+
+import lombok.Getter;
+
+/**
+ * chat_history_purge_task_status
+ */
+@Getter
+public enum ChatPurgeStatus {
+
+    PENDING(0),
+    RUNNING(1),
+    DONE(2),
+    FAILED(3);
+
+    private final int value;
+
+    ChatPurgeStatus(int value) {
+        this.value = value;
+    }
+}
@@ -0,0 +1,34 @@
+package xiaozhi.modules.agent.Enums;
+
+import lombok.Getter;
+
+/**
+ * chat_history_purge_type
+ */
+@Getter
+public enum ChatPurgeType {
+
+    /**
+     * delete_the_audio，keep_the_text
+     */
+    AUDIO(1),
+    /**
+     * delete_the_messages_and_their_audio
+     */
+    ALL(2);
+
+    private final int value;
+
+    ChatPurgeType(int value) {
+        this.value = value;
+    }
+
+    public static ChatPurgeType of(Integer value) {
+        for (ChatPurgeType type : values()) {
+            if (value != null && type.value == value) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown chat purge type: " + value);
+    }
+}
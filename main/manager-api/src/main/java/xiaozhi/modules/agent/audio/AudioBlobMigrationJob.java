@@ -0,0 +1,95 @@
+package xiaozhi.modules.agent.audio;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import xiaozhi.modules.agent.dao.AiAgentChatAudioDao;
+import xiaozhi.modules.agent.entity.AgentChatAudioEntity;
+
+/**
+ * move_chat_audio_saved_in_the_database_into_the_audio_storage
+ * <p>
+ * rows_are_read_in_small_chunks_ordered_by_id，each_audio_is_written_to_the_storage_before_the_column_is_cleared。
+ * the_job_can_be_interrupted_and_run_again，several_nodes_running_it_at_the_same_time_write_the_same_files
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AudioBlobMigrationJob {
+    private final AiAgentChatAudioDao aiAgentChatAudioDao;
+    private final AudioBlobStore audioBlobStore;
+
+    @Value("${renren.audio-store.migrate-on-startup:true}")
+    private boolean migrateOnStartup;
+
+    /**
+     * rows_loaded_per_query，bounds_the_memory_used_by_the_job
+     */
+    @Value("${renren.audio-store.migrate-chunk-size:20}")
+    private int chunkSize;
+
+    /**
+     * pause_between_chunks，keeps_the_load_on_the_database_low
+     */
+    @Value("${renren.audio-store.migrate-pause-ms:100}")
+    private long pauseMs;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!migrateOnStartup) {
+            return;
+        }
+        Thread thread = new Thread(this::migrate, "audio-blob-migration");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * migrate_all_audio_still_kept_in_the_database
+     *
+     * @return number_of_migrated_rows
+     */
+    public int migrate() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        int migrated = 0;
+        try {
+            String lastId = "";
+            while (true) {
+                List<AgentChatAudioEntity> chunk = aiAgentChatAudioDao.selectDatabaseAudio(lastId, chunkSize);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                for (AgentChatAudioEntity entity : chunk) {
+                    String storageKey = audioBlobStore.put(entity.getAudio());
+                    migrated += aiAgentChatAudioDao.updateStorageKey(entity.getId(), storageKey,
+                            entity.getAudio().length);
+                    lastId = entity.getId();
+                }
+                if (pauseMs > 0) {
+                    Thread.sleep(pauseMs);
+                }
+            }
+            if (migrated > 0) {
+                log.info("Migrated {} chat audio rows to the audio storage", migrated);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Chat audio migration stopped after {} rows", migrated, e);
+        } finally {
+            running.set(false);
+        }
+        return migrated;
+    }
+}
@@ -0,0 +1,47 @@
+package xiaozhi.modules.agent.audio;
+
+import java.util.stream.Stream;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * storage_of_chat_audio_content
+ * <p>
+ * the_key_is_derived_from_the_content，writing_the_same_content_twice_returns_the_same_key，stored_content_is_never_modified
+ */
+public interface AudioBlobStore {
+
+    /**
+     * save_audio
+     *
+     * @param data audio_data
+     * @return storage_key，saved_in_the_database_instead_of_the_audio
+     */
+    String put(byte[] data);
+
+    /**
+     * read_the_whole_audio，null_if_it_does_not_exist
+     */
+    byte[] get(String key);
+
+    /**
+     * get_the_audio_as_a_resource_for_streaming，null_if_it_does_not_exist
+     */
+    Resource getResource(String key);
+
+    boolean exists(String key);
+
+    /**
+     * delete_the_audio，the_caller_makes_sure_no_row_references_the_key_any_more
+     * <p>
+     * the_same_content_may_be_saved_again_before_its_row_is_inserted，such_audio_is_kept
+     *
+     * @return false_if_the_audio_does_not_exist_or_was_saved_again_recently
+     */
+    boolean delete(String key);
+
+    /**
+     * keys_of_all_stored_audio，used_to_find_the_audio_no_row_references，the_caller_closes_the_stream
+     */
+    Stream<String> keys();
+}
@@ -0,0 +1,206 @@
+package xiaozhi.modules.agent.audio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import xiaozhi.common.exception.ErrorCode;
+import xiaozhi.common.exception.RenException;
+
+/**
+ * file_system_implementation_of_the_audio_storage
+ * <p>
+ * the_key_is_the_sha256_of_the_content，files_are_sharded_into_two_levels_of_directories_by_the_first_four_characters。
+ * a_file_is_written_to_a_temporary_file_and_moved_into_place，so_readers_never_see_a_partial_file
+ */
+@Slf4j
+@Component
+public class FileSystemAudioBlobStore implements AudioBlobStore {
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final String SUFFIX = ".wav";
+
+    @Value("${renren.audio-store.path:uploadfile/audio}")
+    private String path;
+
+    /**
+     * whether_to_sync_the_file_to_disk_before_it_is_referenced_by_the_database
+     */
+    @Value("${renren.audio-store.fsync:true}")
+    private boolean fsync;
+
+    /**
+     * a_file_saved_again_within_this_time_is_not_deleted，its_row_may_not_be_inserted_yet
+     */
+    @Value("${renren.audio-store.delete-grace-seconds:600}")
+    private long deleteGraceSeconds;
+
+    private Path root;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(path).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        log.info("Chat audio is stored in {}", root);
+    }
+
+    @Override
+    public String put(byte[] data) {
+        String key = hash(data);
+        Path target = resolve(key);
+        if (Files.exists(target)) {
+            // same_content_has_been_saved，the_file_is_never_modified，only_touched_so_that_delete_keeps_it
+            try {
+                Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+                return key;
+            } catch (NoSuchFileException e) {
+                // deleted_meanwhile，written_again_below
+            } catch (IOException e) {
+                log.warn("Touching audio {} failed", key);
+                return key;
+            }
+        }
+        Path temp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            temp = Files.createTempFile(target.getParent(), key, ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (fsync) {
+                    channel.force(true);
+                }
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            temp = null;
+            return key;
+        } catch (IOException e) {
+            log.error("Saving audio {} failed", key, e);
+            throw new RenException(ErrorCode.AUDIO_STORE_FAILED);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    log.warn("Deleting temporary audio file {} failed", temp);
+                }
+            }
+        }
+    }
+
+    @Override
+    public byte[] get(String key) {
+        Path file = resolve(key);
+        if (file == null || !Files.exists(file)) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            log.error("Reading audio {} failed", key, e);
+            throw new RenException(ErrorCode.AUDIO_STORE_FAILED);
+        }
+    }
+
+    @Override
+    public Resource getResource(String key) {
+        Path file = resolve(key);
+        if (file == null || !Files.exists(file)) {
+            return null;
+        }
+        return new FileSystemResource(file);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        Path file = resolve(key);
+        return file != null && Files.exists(file);
+    }
+
+    @Override
+    public boolean delete(String key) {
+        Path file = resolve(key);
+        if (file == null) {
+            return false;
+        }
+        // moved_aside_first，a_put_from_then_on_writes_the_file_again_instead_of_touching_this_one
+        Path deleting = file.resolveSibling(file.getFileName() + ".deleting");
+        try {
+            try {
+                Files.move(file, deleting, StandardCopyOption.ATOMIC_MOVE);
+            } catch (NoSuchFileException e) {
+                return false;
+            }
+            long age = System.currentTimeMillis() - Files.getLastModifiedTime(deleting).toMillis();
+            if (age < TimeUnit.SECONDS.toMillis(deleteGraceSeconds)) {
+                // put_again_recently，the_content_is_the_same_even_if_a_put_has_written_it_again_meanwhile
+                Files.move(deleting, file, StandardCopyOption.ATOMIC_MOVE);
+                return false;
+            }
+            Files.delete(deleting);
+            return true;
+        } catch (IOException e) {
+            log.error("Deleting audio {} failed", key, e);
+            throw new RenException(ErrorCode.AUDIO_STORE_FAILED);
+        }
+    }
+
+    @Override
+    public Stream<String> keys() {
+        try {
+            // temporary_files_and_files_being_deleted_have_other_suffixes
+            return Files.walk(root, 3)
+                    .map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(SUFFIX))
+                    .map(name -> name.substring(0, name.length() - SUFFIX.length()))
+                    .filter(key -> KEY_PATTERN.matcher(key).matches());
+        } catch (IOException e) {
+            log.error("Listing audio in {} failed", root, e);
+            throw new RenException(ErrorCode.AUDIO_STORE_FAILED);
+        }
+    }
+
+    /**
+     * root/ab/cd/abcd....wav，null_for_an_invalid_key
+     */
+    private Path resolve(String key) {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            return null;
+        }
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key + SUFFIX);
+    }
+
+    private static String hash(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
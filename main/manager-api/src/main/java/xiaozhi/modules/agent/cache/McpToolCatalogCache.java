@@ -0,0 +1,195 @@
+package xiaozhi.modules.agent.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import xiaozhi.common.redis.RedisInvalidatedCache;
+import xiaozhi.common.redis.RedisKeys;
+import xiaozhi.common.redis.RedisUtils;
+
+/**
+ * mcp_tool_list_of_each_agent
+ * <p>
+ * lists_older_than_the_refresh_interval_are_still_returned，and_refreshed_in_the_background。concurrent_loads_of_the_same_agent
+ * share_one_fetch，a_failed_refresh_keeps_the_old_list。entries_fetched_from_another_access_point_address_are_not_used，
+ * other_nodes_are_notified_through_redis_channel
+ */
+@Slf4j
+@Component
+public class McpToolCatalogCache extends RedisInvalidatedCache implements MeterBinder {
+    @Value("${renren.mcp-tools-cache.max-size:10000}")
+    private long maxSize;
+
+    /**
+     * older_lists_are_refreshed_in_the_background
+     */
+    @Value("${renren.mcp-tools-cache.refresh-seconds:60}")
+    private long refreshSeconds;
+
+    /**
+     * older_lists_are_dropped_and_fetched_again_in_the_foreground
+     */
+    @Value("${renren.mcp-tools-cache.expire-seconds:86400}")
+    private long expireSeconds;
+
+    @Value("${renren.mcp-tools-cache.fetch-threads:4}")
+    private int fetchThreads;
+
+    /**
+     * agent_id_and_address -> running_fetch
+     */
+    private final Map<FetchKey, CompletableFuture<List<String>>> inFlight = new ConcurrentHashMap<>();
+
+    private Cache<String, Catalog> cache;
+    private ExecutorService executor;
+
+    public McpToolCatalogCache(RedisUtils redisUtils, RedisMessageListenerContainer redisMessageListenerContainer) {
+        super(redisUtils, redisMessageListenerContainer);
+    }
+
+    @PostConstruct
+    public void init() {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(fetchThreads, r -> {
+            Thread t = new Thread(r, "mcp-tool-catalog-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * get_the_tool_list_of_the_agent
+     *
+     * @param agentId agent_id
+     * @param address access_point_address_the_list_is_fetched_from
+     * @param loader  fetch_the_list，exceptions_are_thrown_to_the_caller_when_there_is_no_list_to_fall_back_to
+     * @param refresh ignore_the_cached_list
+     */
+    public List<String> get(String agentId, String address, Callable<List<String>> loader, boolean refresh)
+            throws Exception {
+        Catalog catalog = cache.getIfPresent(agentId);
+        if (catalog != null && catalog.address().equals(address) && !refresh) {
+            if (System.currentTimeMillis() - catalog.loadedAt() > TimeUnit.SECONDS.toMillis(refreshSeconds)) {
+                fetch(agentId, address, loader).exceptionally(e -> {
+                    log.warn("Refresh MCP tool list failed, agent_id: {}, error_reason: {}", agentId, e.getMessage());
+                    return null;
+                });
+            }
+            return catalog.tools();
+        }
+        try {
+            return fetch(agentId, address, loader).get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /**
+     * drop_the_list_of_the_agent_on_all_nodes_after_the_current_transaction_commits
+     */
+    public void invalidate(String agentId) {
+        if (StringUtils.isBlank(agentId)) {
+            return;
+        }
+        invalidateAfterCommit(agentId);
+    }
+
+    /**
+     * drop_all_lists_on_all_nodes
+     */
+    public void invalidateAll() {
+        invalidateAfterCommit(MSG_ALL);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        GuavaCacheMetrics.monitor(registry, cache, "mcp-tools");
+    }
+
+    @Override
+    protected String getTopic() {
+        return RedisKeys.getMcpToolsInvalidateTopic();
+    }
+
+    @Override
+    protected void applyInvalidation(Object message) {
+        if (MSG_ALL.equals(message)) {
+            cache.invalidateAll();
+        } else if (message instanceof String agentId) {
+            cache.invalidate(agentId);
+        }
+    }
+
+    /**
+     * start_a_fetch，or_join_the_one_already_running_for_the_agent_and_address
+     */
+    private CompletableFuture<List<String>> fetch(String agentId, String address, Callable<List<String>> loader) {
+        FetchKey key = new FetchKey(agentId, address);
+        CompletableFuture<List<String>> created = new CompletableFuture<>();
+        CompletableFuture<List<String>> running = inFlight.putIfAbsent(key, created);
+        if (running != null) {
+            return running;
+        }
+        long startEpoch = startLoad();
+        executor.execute(() -> {
+            try {
+                List<String> tools = List.copyOf(loader.call());
+                keepIfCurrent(startEpoch,
+                        () -> cache.put(agentId, new Catalog(address, tools, System.currentTimeMillis())));
+                inFlight.remove(key, created);
+                created.complete(tools);
+            } catch (Throwable e) {
+                inFlight.remove(key, created);
+                created.completeExceptionally(e);
+            }
+        });
+        return created;
+    }
+
+    private record Catalog(String address, List<String> tools, long loadedAt) {
+    }
+
+    private record FetchKey(String agentId, String address) {
+    }
+}
@@ -4,44 +4,47 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
-import java.util.Map;
-import java.util.UUID;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.shiro.authz.annotation.RequiresPermissions;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.Parameters;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import xiaozhi.common.constant.Constant;
+import lombok.extern.slf4j.Slf4j;
 import xiaozhi.common.exception.ErrorCode;
 import xiaozhi.common.exception.RenException;
-import xiaozhi.common.page.PageData;
-import xiaozhi.common.redis.RedisKeys;
-import xiaozhi.common.redis.RedisUtils;
+import xiaozhi.common.redis.DownloadTokenService;
 import xiaozhi.common.user.UserDetail;
-import xiaozhi.common.utils.DateUtils;
-import xiaozhi.common.utils.MessageUtils;
 import xiaozhi.common.utils.Result;
-import xiaozhi.modules.agent.dto.AgentChatHistoryDTO;
+import xiaozhi.modules.agent.dto.AgentChatHistoryBatchReportDTO;
 import xiaozhi.modules.agent.dto.AgentChatHistoryReportDTO;
-import xiaozhi.modules.agent.dto.AgentChatSessionDTO;
+import xiaozhi.modules.agent.dto.AgentChatRetentionDTO;
+import xiaozhi.modules.agent.export.ChatExportCompression;
+import xiaozhi.modules.agent.export.ChatExportFormat;
+import xiaozhi.modules.agent.export.ChatHistoryExporter;
 import xiaozhi.modules.agent.service.AgentChatHistoryService;
+import xiaozhi.modules.agent.service.AgentChatRetentionService;
 import xiaozhi.modules.agent.service.AgentService;
 import xiaozhi.modules.agent.service.biz.AgentChatHistoryBizService;
 import xiaozhi.modules.security.user.SecurityUser;
 
+@Slf4j
 @Tag(name = "Agent chat history management")
 @RequiredArgsConstructor
 @RestController
@@ -50,7 +53,14 @@ public class AgentChatHistoryController {
     private final AgentChatHistoryBizService agentChatHistoryBizService;
     private final AgentChatHistoryService agentChatHistoryService;
     private final AgentService agentService;
-    private final RedisUtils redisUtils;
+    private final DownloadTokenService downloadTokenService;
+    private final ChatHistoryExporter chatHistoryExporter;
+    private final AgentChatRetentionService agentChatRetentionService;
+
+    /**
+     * sessions_before_the_current_one_in_the_previous_download
+     */
+    private static final int PREVIOUS_SESSION_COUNT = 20;
 
     /**
      * xiaozhi_service_chat_reporting_request
@@ -66,6 +76,71 @@ public class AgentChatHistoryController {
         return new Result<Boolean>().ok(result);
     }
 
+    /**
+     * xiaozhi_service_batch_chat_reporting_request
+     * <p>
+     * one_request_may_contain_messages_of_several_devices_and_sessions，the_records_are_written_in_batches
+     *
+     * @param request batch_report_request
+     * @return number_of_accepted_messages
+     */
+    @Operation(summary = "Xiaozhi Service Batch Chat Reporting Request")
+    @PostMapping("/report/batch")
+    public Result<Integer> uploadBatch(@Valid @RequestBody AgentChatHistoryBatchReportDTO request) {
+        int accepted = agentChatHistoryBizService.reportBatch(request.getMessages());
+        return new Result<Integer>().ok(accepted);
+    }
+
+    /**
+     * retention_policy_of_the_agent，the_global_policy_if_it_has_none
+     *
+     * @param agentId agent_id
+     */
+    @Operation(summary = "Get the chat history retention policy of the agent")
+    @RequiresPermissions("sys:role:normal")
+    @GetMapping("/{agentId}/retention")
+    public Result<AgentChatRetentionDTO> getRetention(@PathVariable("agentId") String agentId) {
+        checkPermission(agentId);
+        return new Result<AgentChatRetentionDTO>().ok(agentChatRetentionService.getPolicy(agentId));
+    }
+
+    /**
+     * set_the_retention_policy_of_the_agent，older_records_are_purged_in_the_background
+     *
+     * @param agentId agent_id
+     * @param dto     retention_days，0_keeps_forever
+     */
+    @Operation(summary = "Set the chat history retention policy of the agent")
+    @RequiresPermissions("sys:role:normal")
+    @PutMapping("/{agentId}/retention")
+    public Result<Void> saveRetention(@PathVariable("agentId") String agentId,
+            @Valid @RequestBody AgentChatRetentionDTO dto) {
+        checkPermission(agentId);
+        agentChatRetentionService.savePolicy(agentId, dto);
+        return new Result<>();
+    }
+
+    /**
+     * remove_the_retention_policy_of_the_agent，the_global_policy_applies_again
+     *
+     * @param agentId agent_id
+     */
+    @Operation(summary = "Remove the chat history retention policy of the agent")
+    @RequiresPermissions("sys:role:normal")
+    @DeleteMapping("/{agentId}/retention")
+    public Result<Void> deleteRetention(@PathVariable("agentId") String agentId) {
+        checkPermission(agentId);
+        agentChatRetentionService.deletePolicy(agentId);
+        return new Result<>();
+    }
+
+    private void checkPermission(String agentId) {
+        UserDetail user = SecurityUser.getUser();
+        if (!agentService.checkAgentPermission(agentId, user.getId())) {
+            throw new RenException(ErrorCode.CHAT_HISTORY_NO_PERMISSION);
+        }
+    }
+
     /*
 *
      * get_chat_history_download_link
@@ -86,10 +161,8 @@ public class AgentChatHistoryController {
             throw new RenException(ErrorCode.CHAT_HISTORY_NO_PERMISSION);
         }
 
-        // generate_uuid
-        String uuid = UUID.randomUUID().toString();
         // store_agentid_and_sessionid_in_redis，the_format_is_agentid:sessionId
-        redisUtils.set(RedisKeys.getChatHistoryKey(uuid), agentId + ":" + sessionId);
+        String uuid = downloadTokenService.createChatHistoryToken(agentId + ":" + sessionId);
 
         return new Result<String>().ok(uuid);
     }
@@ -98,99 +171,75 @@ public class AgentChatHistoryController {
 *
      * download_the_chat_transcript_of_this_session
      * 
-     * @param uuid     download_logo
+     * @param uuid        download_logo
+     * @param format      txt、jsonl_or_csv，txt_by_default
+     * @param compression none、gzip_or_zip，none_by_default
+     * @param audio       bundle_the_audio_files，only_in_zip_archives
 * @param response HTTP response
 */
     @Operation(summary = "Download the chat transcript of this session")
     @GetMapping("/download/{uuid}/current")
+    @Parameters({
+            @Parameter(name = "format", description = "File format: txt, jsonl or csv", in = ParameterIn.QUERY),
+            @Parameter(name = "compression", description = "Compression: none, gzip or zip", in = ParameterIn.QUERY),
+            @Parameter(name = "audio", description = "Bundle the audio files, implies zip", in = ParameterIn.QUERY)
+    })
     public void downloadCurrentSession(@PathVariable("uuid") String uuid,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "compression", required = false) String compression,
+            @RequestParam(value = "audio", required = false, defaultValue = "false") boolean audio,
             HttpServletResponse response) {
-        // get_agentid_and_sessionid_from_redis
-        String agentSessionInfo = (String) redisUtils.get(RedisKeys.getChatHistoryKey(uuid));
-        if (StringUtils.isBlank(agentSessionInfo)) {
-            throw new RenException(ErrorCode.DOWNLOAD_LINK_EXPIRED);
-        }
+        String[] agentSession = useDownloadToken(uuid);
 
-        try {
-            // parse_agentid_and_sessionid
-            String[] parts = agentSessionInfo.split(":");
-            if (parts.length != 2) {
-                throw new RenException(ErrorCode.DOWNLOAD_LINK_INVALID);
-            }
-            String agentId = parts[0];
-            String sessionId = parts[1];
-
-            // execute_download
-            downloadChatHistory(agentId, List.of(sessionId), response);
-        } finally {
-            // delete_uuid_after_download_is_complete，prevent_theft
-            redisUtils.delete(RedisKeys.getChatHistoryKey(uuid));
-        }
+        // execute_download
+        downloadChatHistory(agentSession[0], List.of(agentSession[1]), format, compression, audio, response);
     }
 
     /*
 *
      * download_the_chat_records_of_this_conversation_and_the_previous_20_conversations
      * 
-     * @param uuid     download_logo
+     * @param uuid        download_logo
+     * @param format      txt、jsonl_or_csv，txt_by_default
+     * @param compression none、gzip_or_zip，none_by_default
+     * @param audio       bundle_the_audio_files，only_in_zip_archives
 * @param response HTTP response
 */
     @Operation(summary = "Download the chat records of this conversation and the previous 20 conversations")
     @GetMapping("/download/{uuid}/previous")
+    @Parameters({
+            @Parameter(name = "format", description = "File format: txt, jsonl or csv", in = ParameterIn.QUERY),
+            @Parameter(name = "compression", description = "Compression: none, gzip or zip", in = ParameterIn.QUERY),
+            @Parameter(name = "audio", description = "Bundle the audio files, implies zip", in = ParameterIn.QUERY)
+    })
     public void downloadCurrentSessionWithPrevious(@PathVariable("uuid") String uuid,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "compression", required = false) String compression,
+            @RequestParam(value = "audio", required = false, defaultValue = "false") boolean audio,
             HttpServletResponse response) {
-        // get_agentid_and_sessionid_from_redis
-        String agentSessionInfo = (String) redisUtils.get(RedisKeys.getChatHistoryKey(uuid));
-        if (StringUtils.isBlank(agentSessionInfo)) {
-            throw new RenException("The download link has expired or is invalid");
-        }
+        String[] agentSession = useDownloadToken(uuid);
 
-        try {
-            // parse_agentid_and_sessionid
-            String[] parts = agentSessionInfo.split(":");
-            if (parts.length != 2) {
-                throw new RenException("Download link is invalid");
-            }
-            String agentId = parts[0];
-            String sessionId = parts[1];
-
-            // get_a_list_of_all_sessions
-            Map<String, Object> params = Map.of(
-                    "agentId", agentId,
-                    Constant.PAGE, 1,
-                    Constant.LIMIT, 1000 // get_enough_sessions
-            );
-            PageData<AgentChatSessionDTO> sessionPage = agentChatHistoryService.getSessionListByAgentId(params);
-            List<AgentChatSessionDTO> allSessions = sessionPage.getList();
-
-            // find_where_the_current_session_is_in_the_list
-            int currentIndex = -1;
-            for (int i = 0; i < allSessions.size(); i++) {
-                if (allSessions.get(i).getSessionId().equals(sessionId)) {
-                    currentIndex = i;
-                    break;
-                }
-            }
+        // the_current_session_and_the_20_sessions_before_it，located_through_the_session_summary_index
+        List<String> sessionIds = agentChatHistoryService.getSessionIdsUntil(agentSession[0], agentSession[1],
+                PREVIOUS_SESSION_COUNT + 1);
+        downloadChatHistory(agentSession[0], sessionIds, format, compression, audio, response);
+    }
 
-            // if_the_current_session_is_found，collect_current_session_and_previous_20_session_ids
-            List<String> sessionIdsToDownload = new ArrayList<>();
-            if (currentIndex != -1) {
-                // start_from_current_session，backward（behind_the_array）get_up_to_20_conversations（includes_current_session）
-                int endIndex = Math.min(allSessions.size() - 1, currentIndex + 20); // make_sure_not_to_cross_the_line
-                for (int i = currentIndex; i <= endIndex; i++) {
-                    sessionIdsToDownload.add(allSessions.get(i).getSessionId());
-                }
-            }
+    /**
+     * get_agentid_and_sessionid_from_redis，the_link_can_only_be_used_once
+     */
+    private String[] useDownloadToken(String uuid) {
+        String agentSessionInfo = downloadTokenService.useChatHistoryToken(uuid);
+        if (StringUtils.isBlank(agentSessionInfo)) {
+            throw new RenException(ErrorCode.DOWNLOAD_LINK_EXPIRED);
+        }
 
-            // if_the_current_session_is_not_found，download_at_least_the_current_session
-            if (sessionIdsToDownload.isEmpty()) {
-                sessionIdsToDownload.add(sessionId);
-            }
-            downloadChatHistory(agentId, sessionIdsToDownload, response);
-        } finally {
-            // delete_uuid_after_download_is_complete，prevent_theft
-            redisUtils.delete(RedisKeys.getChatHistoryKey(uuid));
+        // parse_agentid_and_sessionid
+        String[] parts = agentSessionInfo.split(":");
+        if (parts.length != 2) {
+            throw new RenException(ErrorCode.DOWNLOAD_LINK_INVALID);
         }
+        return parts;
     }
 
     /*
@@ -201,50 +250,25 @@ public class AgentChatHistoryController {
      * @param sessionIds list_of_session_ids
 * @param response HTTP response
 */
-    private void downloadChatHistory(String agentId, List<String> sessionIds, HttpServletResponse response) {
+    private void downloadChatHistory(String agentId, List<String> sessionIds, String format, String compression,
+            boolean audio, HttpServletResponse response) {
+        ChatExportFormat exportFormat = ChatExportFormat.of(format);
+        // audio_can_only_be_bundled_in_a_zip_archive
+        ChatExportCompression exportCompression = audio ? ChatExportCompression.ZIP
+                : ChatExportCompression.of(compression);
         try {
             // set_response_headers
-            response.setContentType("text/plain;charset=UTF-8");
-            String fileName = URLEncoder.encode("history.txt", StandardCharsets.UTF_8.toString());
+            response.setContentType(ChatHistoryExporter.contentType(exportFormat, exportCompression));
+            String fileName = URLEncoder.encode(ChatHistoryExporter.fileName(exportFormat, exportCompression),
+                    StandardCharsets.UTF_8);
             response.setHeader("Content-Disposition", "attachment;filename=" + fileName);
 
-            // get_the_chat_history_and_write_to_the_response_stream
+            // the_rows_are_streamed_into_the_response，nothing_is_collected_in_memory
             try (OutputStream out = response.getOutputStream()) {
-                // generate_chat_transcripts_for_each_conversation
-                for (String sessionId : sessionIds) {
-                    // get_all_chat_history_of_this_conversation
-                    List<AgentChatHistoryDTO> chatHistoryList = agentChatHistoryService
-                            .getChatHistoryBySessionId(agentId, sessionId);
-
-                    // get_the_creation_time_of_the_first_message_from_the_chat_history_as_the_session_time
-                    if (!chatHistoryList.isEmpty()) {
-                        Date firstMessageTime = chatHistoryList.get(0).getCreatedAt();
-                        String sessionTimeStr = DateUtils.format(firstMessageTime, DateUtils.DATE_TIME_PATTERN);
-                        out.write((sessionTimeStr + "\n").getBytes(StandardCharsets.UTF_8));
-                    }
-
-                    for (AgentChatHistoryDTO message : chatHistoryList) {
-                        String role = message.getChatType() == 1 ? MessageUtils.getMessage(ErrorCode.CHAT_ROLE_USER)
-                                : MessageUtils.getMessage(ErrorCode.CHAT_ROLE_AGENT);
-                        String direction = message.getChatType() == 1 ? ">>" : "<<";
-                        Date messageTime = message.getCreatedAt();
-                        String messageTimeStr = DateUtils.format(messageTime, DateUtils.DATE_TIME_PATTERN);
-                        String content = message.getContent();
-
-                        String line = "[" + role + "]-[" + messageTimeStr + "]" + direction + ":" + content + "\n";
-                        out.write(line.getBytes(StandardCharsets.UTF_8));
-                    }
-
-                    // add_blank_lines_to_separate_sessions
-                    if (sessionIds.indexOf(sessionId) < sessionIds.size() - 1) {
-                        out.write("\n".getBytes(StandardCharsets.UTF_8));
-                    }
-                }
-
-                out.flush();
+                chatHistoryExporter.export(agentId, sessionIds, exportFormat, exportCompression, audio, out);
             }
         } catch (IOException e) {
-            e.printStackTrace();
+            log.warn("Download chat history failed, agent_id: {}, error_reason: {}", agentId, e.getMessage());
         }
     }
 }
@@ -6,6 +6,7 @@ import java.util.UUID;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.shiro.authz.annotation.RequiresPermissions;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -44,6 +45,7 @@ import xiaozhi.modules.agent.entity.AgentEntity;
 import xiaozhi.modules.agent.entity.AgentTemplateEntity;
 import xiaozhi.modules.agent.service.AgentChatAudioService;
 import xiaozhi.modules.agent.service.AgentChatHistoryService;
+import xiaozhi.modules.agent.service.AgentChatRetentionService;
 import xiaozhi.modules.agent.service.AgentPluginMappingService;
 import xiaozhi.modules.agent.service.AgentService;
 import xiaozhi.modules.agent.service.AgentTemplateService;
@@ -63,6 +65,7 @@ public class AgentController {
     private final DeviceService deviceService;
     private final AgentChatHistoryService agentChatHistoryService;
     private final AgentChatAudioService agentChatAudioService;
+    private final AgentChatRetentionService agentChatRetentionService;
     private final AgentPluginMappingService agentPluginMappingService;
     private final RedisUtils redisUtils;
 
@@ -131,8 +134,9 @@ public class AgentController {
     public Result<Void> delete(@PathVariable String id) {
         // delete_the_associated_device_first
         deviceService.deleteByAgentId(id);
-        // delete_associated_chat_history
+        // delete_associated_chat_history，queued_and_purged_in_the_background
         agentChatHistoryService.deleteByAgentId(id, true, true);
+        agentChatRetentionService.deletePolicy(id);
         // delete_associated_plugins
         agentPluginMappingService.deleteByAgentId(id);
         // delete_the_agent_again
@@ -155,6 +159,8 @@ public class AgentController {
     @Parameters({
             @Parameter(name = Constant.PAGE, description = "Current page number, starting from 1", required = true),
             @Parameter(name = Constant.LIMIT, description = "Display number of records per page", required = true),
+            @Parameter(name = Constant.CURSOR, description = "Cursor returned by the previous page, the page number is ignored when it is given"),
+            @Parameter(name = Constant.COUNT, description = "How to count the total: exact (default) or none"),
     })
     public Result<PageData<AgentChatSessionDTO>> getAgentSessions(
             @PathVariable("id") String id,
@@ -214,8 +220,7 @@ public class AgentController {
     @Operation(summary = "Get audio download ID")
     @RequiresPermissions("sys:role:normal")
     public Result<String> getAudioId(@PathVariable("audioId") String audioId) {
-        byte[] audioData = agentChatAudioService.getAudio(audioId);
-        if (audioData == null) {
+        if (!agentChatAudioService.existsAudio(audioId)) {
             return new Result<String>().error("Audio does not exist");
         }
         String uuid = UUID.randomUUID().toString();
@@ -225,22 +230,23 @@ public class AgentController {
 
     @GetMapping("/play/{uuid}")
     @Operation(summary = "Play audio")
-    public ResponseEntity<byte[]> playAudio(@PathVariable("uuid") String uuid) {
+    public ResponseEntity<Resource> playAudio(@PathVariable("uuid") String uuid) {
 
         String audioId = (String) redisUtils.get(RedisKeys.getAgentAudioIdKey(uuid));
         if (StringUtils.isBlank(audioId)) {
             return ResponseEntity.notFound().build();
         }
 
-        byte[] audioData = agentChatAudioService.getAudio(audioId);
-        if (audioData == null) {
+        // the_stored_file_is_streamed_to_the_response
+        Resource audio = agentChatAudioService.getAudioResource(audioId);
+        if (audio == null) {
             return ResponseEntity.notFound().build();
         }
         redisUtils.delete(RedisKeys.getAgentAudioIdKey(uuid));
         return ResponseEntity.ok()
                 .contentType(MediaType.APPLICATION_OCTET_STREAM)
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"play.wav\"")
-                .body(audioData);
+                .body(audio);
     }
 
 }
\ No newline at end of file
@@ -6,9 +6,12 @@ import org.apache.shiro.authz.annotation.RequiresPermissions;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import xiaozhi.common.user.UserDetail;
@@ -52,7 +55,9 @@ public class AgentMcpAccessPointController {
     @Operation(summary = "Get the agent's Mcp tool list")
     @GetMapping("/tools/{agentId}")
     @RequiresPermissions("sys:role:normal")
-    public Result<List<String>> getAgentMcpToolsList(@PathVariable("agentId") String agentId) {
+    @Parameter(name = "refresh", description = "Fetch the tool list again instead of using the cache", in = ParameterIn.QUERY)
+    public Result<List<String>> getAgentMcpToolsList(@PathVariable("agentId") String agentId,
+            @RequestParam(value = "refresh", defaultValue = "false") boolean refresh) {
         // get_current_user
         UserDetail user = SecurityUser.getUser();
 
@@ -60,7 +65,7 @@ public class AgentMcpAccessPointController {
         if (!agentService.checkAgentPermission(agentId, user.getId())) {
             return new Result<List<String>>().error("Do not have permission to view the MCP tool list of this agent");
         }
-        List<String> agentMcpToolsList = agentMcpAccessPointService.getAgentMcpToolsList(agentId);
+        List<String> agentMcpToolsList = agentMcpAccessPointService.getAgentMcpToolsList(agentId, refresh);
         return new Result<List<String>>().ok(agentMcpToolsList);
     }
 }
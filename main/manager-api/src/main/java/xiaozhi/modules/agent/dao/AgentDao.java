@@ -1,5 +1,9 @@
 package xiaozhi.modules.agent.dao;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
@@ -18,6 +22,14 @@ public interface AgentDao extends BaseDao<AgentEntity> {
      */
     Integer getDeviceCountByAgentId(@Param("agentId") String agentId);
 
+    /**
+     * number_of_devices_of_each_agent，in_one_query
+     *
+     * @param agentIds agent_ids
+     * @return agentId_and_deviceCount_of_each_agent_that_has_devices
+     */
+    List<Map<String, Object>> getDeviceCountsByAgentIds(@Param("agentIds") Collection<String> agentIds);
+
     /**
      * query_the_default_agent_information_of_the_corresponding_device_based_on_the_device_mac_address
      *
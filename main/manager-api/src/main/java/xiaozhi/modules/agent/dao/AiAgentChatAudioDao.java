@@ -1,6 +1,11 @@
 package xiaozhi.modules.agent.dao;
 
+import java.util.List;
+
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 
@@ -15,4 +20,29 @@ import xiaozhi.modules.agent.entity.AgentChatAudioEntity;
  */
 @Mapper
 public interface AiAgentChatAudioDao extends BaseMapper<AgentChatAudioEntity> {
-}
\ No newline at end of file
+
+    /**
+     * query_the_next_chunk_of_audio_still_kept_in_the_database，ordered_by_id
+     *
+     * @param lastId last_id_of_the_previous_chunk
+     * @param limit  chunk_size
+     * @return audio_rows_with_data
+     */
+    @Select(" SELECT id, audio FROM ai_agent_chat_audio " +
+            " WHERE storage_key IS NULL AND audio IS NOT NULL AND id > #{lastId} " +
+            " ORDER BY id LIMIT #{limit}")
+    List<AgentChatAudioEntity> selectDatabaseAudio(@Param("lastId") String lastId, @Param("limit") int limit);
+
+    /**
+     * replace_the_audio_data_with_the_storage_reference
+     *
+     * @param id         audio_id
+     * @param storageKey storage_key
+     * @param audioSize  audio_size
+     * @return number_of_updated_rows
+     */
+    @Update(" UPDATE ai_agent_chat_audio SET storage_key = #{storageKey}, audio_size = #{audioSize}, audio = NULL " +
+            " WHERE id = #{id} AND storage_key IS NULL")
+    int updateStorageKey(@Param("id") String id, @Param("storageKey") String storageKey,
+            @Param("audioSize") int audioSize);
+}
@@ -1,6 +1,11 @@
 package xiaozhi.modules.agent.dao;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 
@@ -16,23 +21,33 @@ import xiaozhi.modules.agent.entity.AgentChatHistoryEntity;
 @Mapper
 public interface AiAgentChatHistoryDao extends BaseMapper<AgentChatHistoryEntity> {
     /**
-     * delete_audio_based_on_agent_id
+     * next_chunk_of_chat_records_to_purge，ordered_by_id，only_the_columns_needed_for_the_purge
      *
-     * @param agentId agent_id
+     * @param agentId         agent_id，null_for_all_agents
+     * @param excludeAgentIds agents_to_skip，may_be_empty
+     * @param onlyWithAudio   only_the_records_that_still_have_audio，the_audio_purge_does_not_read_the_others
+     * @param lastId          last_id_of_the_previous_chunk
+     * @param limit           chunk_size
      */
-    void deleteAudioByAgentId(String agentId);
+    List<AgentChatHistoryEntity> selectPurgeChunk(@Param("agentId") String agentId,
+            @Param("excludeAgentIds") Collection<String> excludeAgentIds,
+            @Param("onlyWithAudio") boolean onlyWithAudio, @Param("lastId") long lastId,
+            @Param("limit") int limit);
 
     /**
-     * delete_chat_history_based_on_agent_id
+     * remove_the_audio_id_of_the_records
      *
-     * @param agentId agent_id
+     * @param ids chat_record_ids
      */
-    void deleteHistoryByAgentId(String agentId);
+    int clearAudioIdByIds(@Param("ids") Collection<Long> ids);
 
     /**
-     * remove_audio_id_based_on_agent_id
+     * stream_the_messages_of_the_sessions，in_the_order_of_the_given_sessions_and_by_time_within_a_session。
+     * rows_are_fetched_one_by_one，the_cursor_must_be_consumed_and_closed_before_the_connection_is_used_again
      *
-     * @param agentId agent_id
+     * @param agentId    agent_id
+     * @param sessionIds session_ids
      */
-    void deleteAudioIdByAgentId(String agentId);
+    Cursor<AgentChatHistoryEntity> streamBySessionIds(@Param("agentId") String agentId,
+            @Param("sessionIds") List<String> sessionIds);
 }
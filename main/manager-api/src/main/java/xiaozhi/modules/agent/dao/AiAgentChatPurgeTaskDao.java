@@ -0,0 +1,76 @@
+package xiaozhi.modules.agent.dao;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+import xiaozhi.modules.agent.entity.AgentChatPurgeTaskEntity;
+
+/**
+ * {@link AgentChatPurgeTaskEntity} chat_history_purge_task_dao_object
+ */
+@Mapper
+public interface AiAgentChatPurgeTaskDao extends BaseMapper<AgentChatPurgeTaskEntity> {
+
+    /**
+     * tasks_that_can_be_executed，waiting_ones_and_running_ones_whose_node_stopped_updating_them，the_oldest_first
+     *
+     * @param staleSeconds a_running_task_not_updated_for_this_time_is_taken_over
+     * @param limit        number_of_tasks
+     */
+    @Select(" SELECT * FROM ai_agent_chat_purge_task " +
+            " WHERE status = 0 OR (status = 1 AND updated_at < NOW() - INTERVAL #{staleSeconds} SECOND) " +
+            " ORDER BY id LIMIT #{limit}")
+    List<AgentChatPurgeTaskEntity> selectRunnable(@Param("staleSeconds") long staleSeconds, @Param("limit") int limit);
+
+    /**
+     * take_the_task，only_one_node_succeeds
+     *
+     * @return 1_if_the_task_was_taken
+     */
+    @Update(" UPDATE ai_agent_chat_purge_task SET status = 1, updated_at = NOW() WHERE id = #{id} " +
+            " AND (status = 0 OR (status = 1 AND updated_at < NOW() - INTERVAL #{staleSeconds} SECOND))")
+    int claim(@Param("id") Long id, @Param("staleSeconds") long staleSeconds);
+
+    /**
+     * save_the_progress_after_a_chunk
+     * <p>
+     * a_negative_last_id_is_kept，it_marks_a_task_whose_progress_must_not_be_continued_from，see_deletePolicy
+     *
+     * @param id           task_id
+     * @param lastId       every_chat_record_up_to_this_id_has_been_purged
+     * @param historyCount chat_records_deleted_by_the_chunk
+     * @param audioCount   audio_deleted_by_the_chunk
+     */
+    @Update(" UPDATE ai_agent_chat_purge_task SET last_id = IF(last_id < 0, last_id, #{lastId}), " +
+            " history_count = history_count + #{historyCount}, audio_count = audio_count + #{audioCount}, " +
+            " updated_at = NOW() WHERE id = #{id}")
+    int updateProgress(@Param("id") Long id, @Param("lastId") long lastId, @Param("historyCount") long historyCount,
+            @Param("audioCount") long audioCount);
+
+    /**
+     * end_the_task，a_negative_last_id_is_kept_as_in_updateProgress
+     *
+     * @param task id、status、last_id_and_error_message
+     */
+    @Update(" UPDATE ai_agent_chat_purge_task SET status = #{task.status}, " +
+            " last_id = IF(last_id < 0, last_id, #{task.lastId}), error_message = #{task.errorMessage}, " +
+            " updated_at = #{task.updatedAt} WHERE id = #{task.id}")
+    int finish(@Param("task") AgentChatPurgeTaskEntity task);
+
+    /**
+     * where_the_last_finished_task_of_the_same_policy_stopped，every_record_up_to_it_has_been_purged
+     *
+     * @param agentId   agent_id，null_for_the_global_policy
+     * @param purgeType purge_type
+     * @return null_if_no_task_has_finished，negative_if_the_records_have_to_be_read_from_the_start
+     */
+    @Select(" SELECT last_id FROM ai_agent_chat_purge_task WHERE agent_id <=> #{agentId} " +
+            " AND purge_type = #{purgeType} AND status = 2 ORDER BY id DESC LIMIT 1")
+    Long selectFinishedLastId(@Param("agentId") String agentId, @Param("purgeType") int purgeType);
+}
@@ -0,0 +1,14 @@
+package xiaozhi.modules.agent.dao;
+
+import org.apache.ibatis.annotations.Mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+import xiaozhi.modules.agent.entity.AgentChatRetentionEntity;
+
+/**
+ * {@link AgentChatRetentionEntity} chat_history_retention_policy_dao_object
+ */
+@Mapper
+public interface AiAgentChatRetentionDao extends BaseMapper<AgentChatRetentionEntity> {
+}
@@ -0,0 +1,59 @@
+package xiaozhi.modules.agent.dao;
+
+import java.util.Date;
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import xiaozhi.modules.agent.entity.AgentChatSessionEntity;
+
+/**
+ * {@link AgentChatSessionEntity} agent_session_summary_dao_object，the_table_has_a_composite_primary_key_and_is_only_accessed_through_the_mapper_xml
+ */
+@Mapper
+public interface AiAgentChatSessionDao {
+    /**
+     * add_the_summaries_of_newly_written_messages，sessions_that_do_not_exist_are_created
+     *
+     * @param sessions message_count、first_and_last_message_time_and_audio_flag_of_each_session
+     */
+    int upsertBatch(@Param("sessions") List<AgentChatSessionEntity> sessions);
+
+    /**
+     * sessions_of_the_agent，the_latest_first
+     *
+     * @param agentId    agent_id
+     * @param lastChatAt last_message_time_of_the_last_session_of_the_previous_page，null_starts_from_the_first_page
+     * @param sessionId  session_id_of_the_last_session_of_the_previous_page
+     * @param offset     rows_to_skip，only_used_without_lastChatAt
+     * @param limit      number_of_rows
+     */
+    List<AgentChatSessionEntity> selectSessions(@Param("agentId") String agentId,
+            @Param("lastChatAt") Date lastChatAt, @Param("sessionId") String sessionId,
+            @Param("offset") long offset, @Param("limit") int limit);
+
+    /**
+     * summary_of_one_session，null_if_it_does_not_exist
+     */
+    AgentChatSessionEntity selectSession(@Param("agentId") String agentId, @Param("sessionId") String sessionId);
+
+    /**
+     * number_of_sessions_of_the_agent
+     */
+    long countByAgentId(@Param("agentId") String agentId);
+
+    /**
+     * recount_the_sessions_from_their_remaining_messages，after_messages_or_audio_were_purged
+     *
+     * @param sessions agent_id_and_session_id_of_each_session
+     */
+    int refreshSessions(@Param("sessions") List<AgentChatSessionEntity> sessions);
+
+    /**
+     * delete_the_sessions_that_have_no_message_left
+     *
+     * @param sessions agent_id_and_session_id_of_each_session
+     */
+    int deleteEmptySessions(@Param("sessions") List<AgentChatSessionEntity> sessions);
+}
@@ -0,0 +1,22 @@
+package xiaozhi.modules.agent.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * xiaozhi_device_chat_batch_report_request
+ */
+@Data
+@Schema(description = "Xiaozhi device chat batch report request")
+public class AgentChatHistoryBatchReportDTO {
+    @Schema(description = "Messages, may belong to several devices and sessions")
+    @NotEmpty
+    @Size(max = 500)
+    @Valid
+    private List<AgentChatHistoryReportDTO> messages;
+}
@@ -0,0 +1,28 @@
+package xiaozhi.modules.agent.dto;
+
+import java.io.Serializable;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+/**
+ * chat_history_retention_policy_of_an_agent
+ */
+@Data
+@Schema(description = "Chat history retention policy")
+public class AgentChatRetentionDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "Days to keep the chat history, 0 keeps it forever", example = "180")
+    @Min(value = 0, message = "{retention.days.min}")
+    private Integer textRetentionDays;
+
+    @Schema(description = "Days to keep the audio, 0 keeps it forever", example = "30")
+    @Min(value = 0, message = "{retention.days.min}")
+    private Integer audioRetentionDays;
+
+    @Schema(description = "Whether the agent has its own policy, otherwise the global policy applies",
+            accessMode = Schema.AccessMode.READ_ONLY)
+    private Boolean agentPolicy;
+}
@@ -15,10 +15,25 @@ public class AgentChatSessionDTO {
     private String sessionId;
 
     /**
-     * session_time
+     * session_time，time_of_the_last_message
      */
     private LocalDateTime createdAt;
 
+    /**
+     * time_of_the_first_message
+     */
+    private LocalDateTime firstChatAt;
+
+    /**
+     * mac_address_of_the_last_reported_device
+     */
+    private String macAddress;
+
+    /**
+     * whether_any_message_has_audio
+     */
+    private Boolean hasAudio;
+
     /**
      * number_of_chats
      */
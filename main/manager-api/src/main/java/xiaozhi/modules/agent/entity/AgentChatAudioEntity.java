@@ -1,6 +1,7 @@
 package xiaozhi.modules.agent.entity;
 
 import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
 
@@ -23,7 +24,18 @@ public class AgentChatAudioEntity {
     private String id;
 
     /**
-     * audio_opus_data
+     * storage_key_in_the_audio_storage，null_for_audio_still_kept_in_the_database
      */
+    private String storageKey;
+
+    /**
+     * audio_size_in_bytes
+     */
+    private Integer audioSize;
+
+    /**
+     * audio_opus_data，not_selected_by_default
+     */
+    @TableField(select = false)
     private byte[] audio;
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package xiaozhi.modules.agent.entity;
+
+import java.util.Date;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import lombok.Data;
+
+/**
+ * chat_history_purge_task，executed_in_chunks_by_the_purge_job
+ */
+@Data
+@TableName("ai_agent_chat_purge_task")
+public class AgentChatPurgeTaskEntity {
+    /**
+     * primary_key_id
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * agent_id，null_for_the_global_retention_policy
+     */
+    private String agentId;
+
+    /**
+     * purge_type，see {@link xiaozhi.modules.agent.Enums.ChatPurgeType}
+     */
+    private Integer purgeType;
+
+    /**
+     * records_created_before_this_time_are_purged，null_purges_all
+     */
+    private Date beforeTime;
+
+    /**
+     * status，see {@link xiaozhi.modules.agent.Enums.ChatPurgeStatus}
+     */
+    private Integer status;
+
+    /**
+     * id_of_the_last_processed_chat_record
+     */
+    private Long lastId;
+
+    /**
+     * number_of_deleted_chat_records
+     */
+    private Long historyCount;
+
+    /**
+     * number_of_deleted_audio
+     */
+    private Long audioCount;
+
+    /**
+     * reason_of_the_failure
+     */
+    private String errorMessage;
+
+    /**
+     * creation_time
+     */
+    private Date createdAt;
+
+    /**
+     * update_time，refreshed_after_every_chunk_while_running
+     */
+    private Date updatedAt;
+}
@@ -0,0 +1,42 @@
+package xiaozhi.modules.agent.entity;
+
+import java.util.Date;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import lombok.Data;
+
+/**
+ * chat_history_retention_policy_of_an_agent，replaces_the_global_policy_of_the_system_parameters
+ */
+@Data
+@TableName("ai_agent_chat_retention")
+public class AgentChatRetentionEntity {
+    /**
+     * agent_id
+     */
+    @TableId(type = IdType.INPUT)
+    private String agentId;
+
+    /**
+     * days_to_keep_the_messages，0_keeps_them_forever
+     */
+    private Integer textRetentionDays;
+
+    /**
+     * days_to_keep_the_audio，0_keeps_it_forever
+     */
+    private Integer audioRetentionDays;
+
+    /**
+     * updater
+     */
+    private Long updater;
+
+    /**
+     * update_time
+     */
+    private Date updatedAt;
+}
@@ -0,0 +1,57 @@
+package xiaozhi.modules.agent.entity;
+
+import java.util.Date;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import lombok.Data;
+
+/**
+ * agent_session_summary_table，maintained_when_chat_records_are_written
+ */
+@Data
+@TableName(value = "ai_agent_chat_session")
+public class AgentChatSessionEntity {
+    /**
+     * agent_id
+     */
+    @TableField(value = "agent_id")
+    private String agentId;
+
+    /**
+     * session_id
+     */
+    @TableField(value = "session_id")
+    private String sessionId;
+
+    /**
+     * mac_address_of_the_last_reported_device
+     */
+    @TableField(value = "mac_address")
+    private String macAddress;
+
+    /**
+     * time_of_the_first_message
+     */
+    @TableField(value = "first_chat_at")
+    private Date firstChatAt;
+
+    /**
+     * time_of_the_last_message
+     */
+    @TableField(value = "last_chat_at")
+    private Date lastChatAt;
+
+    /**
+     * number_of_messages
+     */
+    @TableField(value = "chat_count")
+    private Integer chatCount;
+
+    /**
+     * whether_any_message_has_audio
+     */
+    @TableField(value = "has_audio")
+    private Boolean hasAudio;
+}
@@ -0,0 +1,44 @@
+package xiaozhi.modules.agent.export;
+
+import org.apache.commons.lang3.StringUtils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import xiaozhi.common.exception.ErrorCode;
+import xiaozhi.common.exception.RenException;
+
+/**
+ * compression_of_the_chat_history_export
+ */
+@Getter
+@AllArgsConstructor
+public enum ChatExportCompression {
+    NONE("none", null, null),
+    /**
+     * one_gzip_compressed_file
+     */
+    GZIP("gzip", ".gz", "application/gzip"),
+    /**
+     * zip_archive_with_one_file_per_session，the_only_one_that_can_bundle_audio
+     */
+    ZIP("zip", ".zip", "application/zip");
+
+    private final String value;
+    private final String suffix;
+    private final String contentType;
+
+    /**
+     * parse_the_request_parameter，blank_is_no_compression
+     */
+    public static ChatExportCompression of(String value) {
+        if (StringUtils.isBlank(value)) {
+            return NONE;
+        }
+        for (ChatExportCompression compression : values()) {
+            if (compression.value.equalsIgnoreCase(value)) {
+                return compression;
+            }
+        }
+        throw new RenException(ErrorCode.CHAT_EXPORT_OPTION_INVALID, value);
+    }
+}
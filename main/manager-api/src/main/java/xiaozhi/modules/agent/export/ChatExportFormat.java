@@ -0,0 +1,46 @@
+package xiaozhi.modules.agent.export;
+
+import org.apache.commons.lang3.StringUtils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import xiaozhi.common.exception.ErrorCode;
+import xiaozhi.common.exception.RenException;
+
+/**
+ * file_format_of_the_chat_history_export
+ */
+@Getter
+@AllArgsConstructor
+public enum ChatExportFormat {
+    /**
+     * readable_transcript，one_line_per_message
+     */
+    TXT("txt", "text/plain"),
+    /**
+     * one_json_object_per_message
+     */
+    JSONL("jsonl", "application/x-ndjson"),
+    /**
+     * one_row_per_message，with_a_header_row
+     */
+    CSV("csv", "text/csv");
+
+    private final String extension;
+    private final String contentType;
+
+    /**
+     * parse_the_request_parameter，blank_is_txt
+     */
+    public static ChatExportFormat of(String value) {
+        if (StringUtils.isBlank(value)) {
+            return TXT;
+        }
+        for (ChatExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new RenException(ErrorCode.CHAT_EXPORT_OPTION_INVALID, value);
+    }
+}
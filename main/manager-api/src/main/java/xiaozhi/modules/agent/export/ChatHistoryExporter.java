@@ -0,0 +1,199 @@
+package xiaozhi.modules.agent.export;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import xiaozhi.common.exception.ErrorCode;
+import xiaozhi.common.utils.MessageUtils;
+import xiaozhi.modules.agent.dao.AiAgentChatHistoryDao;
+import xiaozhi.modules.agent.entity.AgentChatHistoryEntity;
+import xiaozhi.modules.agent.service.AgentChatAudioService;
+
+/**
+ * chat_history_export
+ * <p>
+ * the_messages_of_all_sessions_are_read_with_one_streaming_query_and_written_to_the_output_as_they_arrive，
+ * compressed_on_the_fly。a_zip_archive_holds_one_file_per_session，followed_by_the_audio_of_that_session，
+ * so_only_the_audio_ids_of_the_current_session_are_kept_in_memory
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatHistoryExporter {
+    private static final String AUDIO_DIR = "audio/";
+    private static final String AUDIO_SUFFIX = ".wav";
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final SqlSessionFactory sqlSessionFactory;
+    private final AgentChatAudioService agentChatAudioService;
+
+    /**
+     * name_of_the_downloaded_file
+     */
+    public static String fileName(ChatExportFormat format, ChatExportCompression compression) {
+        if (compression == ChatExportCompression.ZIP) {
+            return "history" + compression.getSuffix();
+        }
+        return "history." + format.getExtension() + StringUtils.defaultString(compression.getSuffix());
+    }
+
+    public static String contentType(ChatExportFormat format, ChatExportCompression compression) {
+        if (compression.getContentType() != null) {
+            return compression.getContentType();
+        }
+        return format.getContentType() + ";charset=UTF-8";
+    }
+
+    /**
+     * write_the_chat_history_of_the_sessions
+     *
+     * @param agentId     agent_id
+     * @param sessionIds  session_ids，sessions_are_written_in_this_order
+     * @param format      file_format
+     * @param compression compression，audio_is_only_bundled_in_zip_archives
+     * @param withAudio   bundle_the_audio_files
+     * @param out         target，not_closed
+     */
+    public void export(String agentId, List<String> sessionIds, ChatExportFormat format,
+            ChatExportCompression compression, boolean withAudio, OutputStream out) throws IOException {
+        String userRole = MessageUtils.getMessage(ErrorCode.CHAT_ROLE_USER);
+        String agentRole = MessageUtils.getMessage(ErrorCode.CHAT_ROLE_AGENT);
+
+        // the_streaming_query_holds_its_own_connection，audio_lookups_use_other_connections_from_the_pool
+        try (SqlSession session = sqlSessionFactory.openSession();
+                Cursor<AgentChatHistoryEntity> cursor = session.getMapper(AiAgentChatHistoryDao.class)
+                        .streamBySessionIds(agentId, sessionIds)) {
+            if (compression == ChatExportCompression.ZIP) {
+                writeZip(cursor, format, withAudio, userRole, agentRole, out);
+            } else if (compression == ChatExportCompression.GZIP) {
+                // closing_releases_the_native_deflater，the_target_stays_open
+                try (GZIPOutputStream gzip = new GZIPOutputStream(new NonClosingOutputStream(out), BUFFER_SIZE)) {
+                    writeSingle(cursor, format, userRole, agentRole, gzip);
+                }
+            } else {
+                writeSingle(cursor, format, userRole, agentRole, out);
+            }
+        }
+        out.flush();
+    }
+
+    private void writeSingle(Cursor<AgentChatHistoryEntity> cursor, ChatExportFormat format, String userRole,
+            String agentRole, OutputStream out) throws IOException {
+        Writer writer = writer(out);
+        ChatRecordWriter records = ChatRecordWriter.create(format, writer, userRole, agentRole);
+        String currentSession = null;
+        for (AgentChatHistoryEntity message : cursor) {
+            if (!message.getSessionId().equals(currentSession)) {
+                currentSession = message.getSessionId();
+                records.startSession(message);
+            }
+            records.write(message);
+        }
+        records.flush();
+        writer.flush();
+    }
+
+    private void writeZip(Cursor<AgentChatHistoryEntity> cursor, ChatExportFormat format, boolean withAudio,
+            String userRole, String agentRole, OutputStream out) throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(new NonClosingOutputStream(out), StandardCharsets.UTF_8)) {
+            Writer writer = writer(zip);
+            ChatRecordWriter records = null;
+            String currentSession = null;
+            int sessionCount = 0;
+            Set<String> audioIds = new LinkedHashSet<>();
+            for (AgentChatHistoryEntity message : cursor) {
+                if (!message.getSessionId().equals(currentSession)) {
+                    if (records != null) {
+                        closeSession(zip, writer, records, audioIds);
+                    }
+                    currentSession = message.getSessionId();
+                    zip.putNextEntry(new ZipEntry(String.format("%03d_%s.%s", ++sessionCount,
+                            safeName(currentSession), format.getExtension())));
+                    records = ChatRecordWriter.create(format, writer, userRole, agentRole);
+                    records.startSession(message);
+                }
+                records.write(message);
+                if (withAudio && StringUtils.isNotBlank(message.getAudioId())) {
+                    audioIds.add(message.getAudioId());
+                }
+            }
+            if (records != null) {
+                closeSession(zip, writer, records, audioIds);
+            }
+        }
+    }
+
+    /**
+     * close_the_file_of_the_session_and_append_its_audio
+     */
+    private void closeSession(ZipOutputStream zip, Writer writer, ChatRecordWriter records, Set<String> audioIds)
+            throws IOException {
+        records.flush();
+        writer.flush();
+        zip.closeEntry();
+        for (String audioId : audioIds) {
+            Resource resource = agentChatAudioService.getAudioResource(audioId);
+            if (resource == null) {
+                log.warn("Audio of chat history not found, audio_id: {}", audioId);
+                continue;
+            }
+            try (InputStream in = resource.getInputStream()) {
+                zip.putNextEntry(new ZipEntry(AUDIO_DIR + safeName(audioId) + AUDIO_SUFFIX));
+                in.transferTo(zip);
+                zip.closeEntry();
+            }
+        }
+        audioIds.clear();
+    }
+
+    private static Writer writer(OutputStream out) {
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * ids_come_from_the_devices，keep_them_from_escaping_the_archive
+     */
+    private static String safeName(String id) {
+        return id.replaceAll("[^A-Za-z0-9_.-]", "_");
+    }
+
+    /**
+     * closing_only_flushes，the_target_belongs_to_the_caller
+     */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package xiaozhi.modules.agent.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+
+import xiaozhi.common.utils.DateUtils;
+import xiaozhi.modules.agent.entity.AgentChatHistoryEntity;
+
+/**
+ * writes_the_messages_of_one_export_file_in_one_format，nothing_is_kept_after_a_message_is_written
+ */
+abstract class ChatRecordWriter {
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter
+            .ofPattern(DateUtils.DATE_TIME_PATTERN).withZone(ZoneId.systemDefault());
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    protected final Writer out;
+    protected final String userRole;
+    protected final String agentRole;
+
+    protected ChatRecordWriter(Writer out, String userRole, String agentRole) {
+        this.out = out;
+        this.userRole = userRole;
+        this.agentRole = agentRole;
+    }
+
+    static ChatRecordWriter create(ChatExportFormat format, Writer out, String userRole, String agentRole)
+            throws IOException {
+        return switch (format) {
+            case TXT -> new Text(out, userRole, agentRole);
+            case JSONL -> new JsonLines(out, userRole, agentRole);
+            case CSV -> new Csv(out, userRole, agentRole);
+        };
+    }
+
+    /**
+     * called_before_the_first_message_of_every_session
+     */
+    abstract void startSession(AgentChatHistoryEntity first) throws IOException;
+
+    abstract void write(AgentChatHistoryEntity message) throws IOException;
+
+    /**
+     * push_the_buffered_output_to_the_underlying_stream，without_closing_it
+     */
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    protected static boolean isUser(AgentChatHistoryEntity message) {
+        return message.getChatType() != null && message.getChatType() == 1;
+    }
+
+    protected String role(AgentChatHistoryEntity message) {
+        return isUser(message) ? userRole : agentRole;
+    }
+
+    protected static String time(Date date) {
+        return date == null ? "" : TIME_FORMATTER.format(date.toInstant());
+    }
+
+    /**
+     * the_transcript_format_of_the_original_download：session_time，then_[role]-[time]>>:content
+     */
+    private static class Text extends ChatRecordWriter {
+        private boolean firstSession = true;
+
+        Text(Writer out, String userRole, String agentRole) {
+            super(out, userRole, agentRole);
+        }
+
+        @Override
+        void startSession(AgentChatHistoryEntity first) throws IOException {
+            // add_blank_lines_to_separate_sessions
+            if (!firstSession) {
+                out.write('\n');
+            }
+            firstSession = false;
+            out.write(time(first.getCreatedAt()));
+            out.write('\n');
+        }
+
+        @Override
+        void write(AgentChatHistoryEntity message) throws IOException {
+            out.write('[');
+            out.write(role(message));
+            out.write("]-[");
+            out.write(time(message.getCreatedAt()));
+            out.write(']');
+            out.write(isUser(message) ? ">>" : "<<");
+            out.write(':');
+            out.write(String.valueOf(message.getContent()));
+            out.write('\n');
+        }
+    }
+
+    private static class JsonLines extends ChatRecordWriter {
+        private final JsonGenerator generator;
+
+        JsonLines(Writer out, String userRole, String agentRole) throws IOException {
+            super(out, userRole, agentRole);
+            this.generator = JSON_FACTORY.createGenerator(out);
+        }
+
+        @Override
+        void startSession(AgentChatHistoryEntity first) {
+        }
+
+        @Override
+        void write(AgentChatHistoryEntity message) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("sessionId", message.getSessionId());
+            generator.writeStringField("macAddress", message.getMacAddress());
+            generator.writeNumberField("chatType", message.getChatType() == null ? 0 : message.getChatType());
+            generator.writeStringField("role", role(message));
+            generator.writeStringField("content", message.getContent());
+            generator.writeStringField("audioId", message.getAudioId());
+            generator.writeStringField("createdAt", time(message.getCreatedAt()));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static class Csv extends ChatRecordWriter {
+        Csv(Writer out, String userRole, String agentRole) throws IOException {
+            super(out, userRole, agentRole);
+            // byte_order_mark，so_that_excel_opens_the_file_as_utf-8
+            out.write('\uFEFF');
+            out.write("session_id,created_at,chat_type,role,content,audio_id\r\n");
+        }
+
+        @Override
+        void startSession(AgentChatHistoryEntity first) {
+        }
+
+        @Override
+        void write(AgentChatHistoryEntity message) throws IOException {
+            field(message.getSessionId());
+            out.write(',');
+            field(time(message.getCreatedAt()));
+            out.write(',');
+            field(message.getChatType() == null ? null : message.getChatType().toString());
+            out.write(',');
+            field(role(message));
+            out.write(',');
+            field(message.getContent());
+            out.write(',');
+            field(message.getAudioId());
+            out.write("\r\n");
+        }
+
+        private void field(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+                // keep_spreadsheets_from_running_the_cell_as_a_formula
+                value = "'" + value;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+    }
+}
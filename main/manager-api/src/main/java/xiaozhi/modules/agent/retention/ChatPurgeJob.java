@@ -0,0 +1,405 @@
+package xiaozhi.modules.agent.retention;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.google.common.collect.Iterators;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import xiaozhi.modules.agent.Enums.ChatPurgeStatus;
+import xiaozhi.modules.agent.Enums.ChatPurgeType;
+import xiaozhi.modules.agent.audio.AudioBlobStore;
+import xiaozhi.modules.agent.dao.AiAgentChatAudioDao;
+import xiaozhi.modules.agent.dao.AiAgentChatHistoryDao;
+import xiaozhi.modules.agent.dao.AiAgentChatPurgeTaskDao;
+import xiaozhi.modules.agent.dao.AiAgentChatSessionDao;
+import xiaozhi.modules.agent.dto.AgentChatRetentionDTO;
+import xiaozhi.modules.agent.entity.AgentChatAudioEntity;
+import xiaozhi.modules.agent.entity.AgentChatHistoryEntity;
+import xiaozhi.modules.agent.entity.AgentChatPurgeTaskEntity;
+import xiaozhi.modules.agent.entity.AgentChatRetentionEntity;
+import xiaozhi.modules.agent.entity.AgentChatSessionEntity;
+import xiaozhi.modules.agent.service.AgentChatRetentionService;
+
+/**
+ * background_purge_of_chat_history_and_audio
+ * <p>
+ * queued_tasks_are_executed_in_small_chunks_ordered_by_the_chat_record_id，each_chunk_in_its_own_short_transaction，
+ * with_a_pause_between_chunks。the_progress_is_saved_after_every_chunk，a_task_left_running_by_a_stopped_node_is_taken_over
+ * and_continued_from_there。the_retention_policies_are_checked_periodically_and_queue_the_tasks_that_are_due。
+ * audio_files_no_row_references（kept_by_the_store_when_deleted_within_the_grace_window，or_whose_row_was_never_inserted）
+ * are_deleted_by_a_periodic_sweep
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatPurgeJob implements MeterBinder {
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final int TASKS_PER_POLL = 10;
+    private static final int ERROR_MESSAGE_LENGTH = 500;
+
+    private final AiAgentChatPurgeTaskDao purgeTaskDao;
+    private final AiAgentChatHistoryDao chatHistoryDao;
+    private final AiAgentChatAudioDao chatAudioDao;
+    private final AiAgentChatSessionDao chatSessionDao;
+    private final AgentChatRetentionService retentionService;
+    private final AudioBlobStore audioBlobStore;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${renren.chat-retention.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * chat_records_per_chunk，bounds_the_rows_locked_by_one_transaction
+     */
+    @Value("${renren.chat-retention.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * pause_between_chunks，keeps_the_load_on_the_database_low
+     */
+    @Value("${renren.chat-retention.pause-ms:200}")
+    private long pauseMs;
+
+    /**
+     * how_often_queued_tasks_are_looked_for
+     */
+    @Value("${renren.chat-retention.poll-interval-ms:5000}")
+    private long pollIntervalMs;
+
+    /**
+     * how_often_the_retention_policies_are_applied
+     */
+    @Value("${renren.chat-retention.check-interval-ms:3600000}")
+    private long checkIntervalMs;
+
+    /**
+     * a_running_task_not_updated_for_this_time_is_taken_over_by_another_node
+     */
+    @Value("${renren.chat-retention.stale-seconds:600}")
+    private long staleSeconds;
+
+    /**
+     * how_often_the_audio_files_no_row_references_are_deleted，0_disables_the_sweep
+     */
+    @Value("${renren.chat-retention.audio-sweep-interval-ms:86400000}")
+    private long audioSweepIntervalMs;
+
+    private final AtomicLong deletedHistoryCount = new AtomicLong();
+    private final AtomicLong deletedAudioCount = new AtomicLong();
+    private final AtomicLong completedTaskCount = new AtomicLong();
+    private final AtomicLong failedTaskCount = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "chat-purge");
+            t.setDaemon(true);
+            return t;
+        });
+        // one_thread，the_tasks_and_the_policy_check_never_run_at_the_same_time
+        scheduler.scheduleWithFixedDelay(this::runTasks, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::applyPolicies, TimeUnit.MINUTES.toMillis(1), checkIntervalMs,
+                TimeUnit.MILLISECONDS);
+        if (audioSweepIntervalMs > 0) {
+            scheduler.scheduleWithFixedDelay(this::sweepAudio, audioSweepIntervalMs, audioSweepIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            // an_interrupted_task_stays_running_and_is_taken_over_once_it_is_stale
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("chat.purge.deleted", deletedHistoryCount, AtomicLong::get)
+                .tag("kind", "history")
+                .register(registry);
+        FunctionCounter.builder("chat.purge.deleted", deletedAudioCount, AtomicLong::get)
+                .tag("kind", "audio")
+                .register(registry);
+        FunctionCounter.builder("chat.purge.tasks", completedTaskCount, AtomicLong::get)
+                .tag("result", "done")
+                .register(registry);
+        FunctionCounter.builder("chat.purge.tasks", failedTaskCount, AtomicLong::get)
+                .tag("result", "failed")
+                .register(registry);
+    }
+
+    /**
+     * queue_the_tasks_of_the_policies，the_agents_with_their_own_policy_are_left_out_of_the_global_one
+     */
+    public void applyPolicies() {
+        try {
+            Date now = new Date();
+            AgentChatRetentionDTO global = retentionService.getGlobalPolicy();
+            submitDue(null, global.getTextRetentionDays(), global.getAudioRetentionDays(), now);
+            for (AgentChatRetentionEntity policy : retentionService.list()) {
+                submitDue(policy.getAgentId(), policy.getTextRetentionDays(), policy.getAudioRetentionDays(), now);
+            }
+        } catch (Exception e) {
+            log.error("Applying chat retention policies failed", e);
+        }
+    }
+
+    private void submitDue(String agentId, Integer textDays, Integer audioDays, Date now) {
+        int text = textDays == null ? 0 : textDays;
+        int audio = audioDays == null ? 0 : audioDays;
+        if (text > 0 && !retentionService.hasActivePurge(agentId, ChatPurgeType.ALL)) {
+            retentionService.submitPurge(agentId, ChatPurgeType.ALL, new Date(now.getTime() - text * DAY_MILLIS));
+        }
+        // audio_older_than_the_text_limit_is_deleted_with_the_text
+        if (audio > 0 && (text == 0 || audio < text)
+                && !retentionService.hasActivePurge(agentId, ChatPurgeType.AUDIO)) {
+            retentionService.submitPurge(agentId, ChatPurgeType.AUDIO, new Date(now.getTime() - audio * DAY_MILLIS));
+        }
+    }
+
+    /**
+     * execute_the_queued_tasks，the_oldest_first
+     */
+    public void runTasks() {
+        try {
+            for (AgentChatPurgeTaskEntity task : purgeTaskDao.selectRunnable(staleSeconds, TASKS_PER_POLL)) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                // another_node_may_have_taken_it
+                if (purgeTaskDao.claim(task.getId(), staleSeconds) == 1) {
+                    execute(task);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Chat purge polling failed", e);
+        }
+    }
+
+    void execute(AgentChatPurgeTaskEntity task) {
+        ChatPurgeType type = ChatPurgeType.of(task.getPurgeType());
+        Date before = task.getBeforeTime();
+        // the_global_policy_does_not_touch_the_agents_with_their_own_policy
+        Collection<String> excludeAgentIds = task.getAgentId() != null ? List.of()
+                : retentionService.list(new LambdaQueryWrapper<AgentChatRetentionEntity>()
+                        .select(AgentChatRetentionEntity::getAgentId))
+                        .stream().map(AgentChatRetentionEntity::getAgentId).toList();
+        // a_negative_progress_was_marked_by_a_policy_change，the_task_reads_from_the_start
+        long lastId = task.getLastId() == null ? 0 : Math.max(0, task.getLastId());
+        // every_record_up_to_purgedId_has_been_purged，it_stops_at_the_first_record_that_is_not_due_yet，
+        // so_the_next_task_of_the_same_policy_starts_there_instead_of_reading_everything_again
+        long purgedId = lastId;
+        boolean skipped = false;
+        long historyCount = 0;
+        long audioCount = 0;
+        try {
+            while (true) {
+                // records_whose_audio_has_been_purged_are_not_read_by_the_audio_purge
+                List<AgentChatHistoryEntity> rows = chatHistoryDao.selectPurgeChunk(task.getAgentId(), excludeAgentIds,
+                        type == ChatPurgeType.AUDIO, lastId, chunkSize);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                // created_at_follows_the_id_closely，newer_rows_are_skipped，
+                // a_chunk_without_any_due_row_ends_the_task
+                List<AgentChatHistoryEntity> due = new ArrayList<>(rows.size());
+                for (AgentChatHistoryEntity row : rows) {
+                    if (before == null || row.getCreatedAt() == null || row.getCreatedAt().before(before)) {
+                        due.add(row);
+                    } else {
+                        skipped = true;
+                    }
+                    if (!skipped) {
+                        purgedId = row.getId();
+                    }
+                }
+                if (due.isEmpty()) {
+                    break;
+                }
+                lastId = rows.get(rows.size() - 1).getId();
+                long progressId = purgedId;
+                ChunkResult result = transactionTemplate
+                        .execute(status -> purgeChunk(task.getId(), type, due, progressId));
+                deleteUnusedAudio(result.storageKeys());
+                historyCount += result.historyCount();
+                audioCount += result.audioCount();
+                deletedHistoryCount.addAndGet(result.historyCount());
+                deletedAudioCount.addAndGet(result.audioCount());
+                if (rows.size() < chunkSize) {
+                    break;
+                }
+                if (pauseMs > 0) {
+                    Thread.sleep(pauseMs);
+                }
+            }
+            finish(task.getId(), ChatPurgeStatus.DONE, purgedId, null);
+            completedTaskCount.incrementAndGet();
+            log.info("Chat purge task {} done: agent {}, type {}, {} records and {} audio deleted", task.getId(),
+                    task.getAgentId(), type, historyCount, audioCount);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Chat purge task {} failed after record {}", task.getId(), lastId, e);
+            finish(task.getId(), ChatPurgeStatus.FAILED, purgedId,
+                    StringUtils.abbreviate(String.valueOf(e.getMessage()), ERROR_MESSAGE_LENGTH));
+            failedTaskCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * delete_one_chunk_and_save_the_progress，in_one_transaction
+     *
+     * @return storage_keys_of_the_deleted_audio，the_files_are_deleted_after_the_commit
+     */
+    private ChunkResult purgeChunk(Long taskId, ChatPurgeType type, List<AgentChatHistoryEntity> due,
+            long purgedId) {
+        List<Long> ids = new ArrayList<>(due.size());
+        List<Long> idsWithAudio = new ArrayList<>();
+        Set<String> audioIds = new LinkedHashSet<>();
+        Map<String, AgentChatSessionEntity> sessions = new LinkedHashMap<>();
+        for (AgentChatHistoryEntity row : due) {
+            boolean hasAudio = StringUtils.isNotBlank(row.getAudioId());
+            if (type == ChatPurgeType.AUDIO && !hasAudio) {
+                continue;
+            }
+            ids.add(row.getId());
+            if (hasAudio) {
+                idsWithAudio.add(row.getId());
+                audioIds.add(row.getAudioId());
+            }
+            if (row.getAgentId() != null && row.getSessionId() != null) {
+                AgentChatSessionEntity session = new AgentChatSessionEntity();
+                session.setAgentId(row.getAgentId());
+                session.setSessionId(row.getSessionId());
+                sessions.putIfAbsent(row.getAgentId() + ":" + row.getSessionId(), session);
+            }
+        }
+
+        long historyCount = 0;
+        if (type == ChatPurgeType.ALL && !ids.isEmpty()) {
+            historyCount = chatHistoryDao.deleteBatchIds(ids);
+        } else if (!idsWithAudio.isEmpty()) {
+            chatHistoryDao.clearAudioIdByIds(idsWithAudio);
+        }
+
+        List<String> storageKeys = List.of();
+        long audioCount = 0;
+        if (!audioIds.isEmpty()) {
+            storageKeys = chatAudioDao.selectList(new LambdaQueryWrapper<AgentChatAudioEntity>()
+                    .select(AgentChatAudioEntity::getStorageKey)
+                    .in(AgentChatAudioEntity::getId, audioIds)
+                    .isNotNull(AgentChatAudioEntity::getStorageKey))
+                    .stream().map(AgentChatAudioEntity::getStorageKey).distinct().toList();
+            audioCount = chatAudioDao.deleteBatchIds(audioIds);
+        }
+
+        if (!sessions.isEmpty()) {
+            List<AgentChatSessionEntity> touched = new ArrayList<>(sessions.values());
+            chatSessionDao.refreshSessions(touched);
+            if (type == ChatPurgeType.ALL) {
+                chatSessionDao.deleteEmptySessions(touched);
+            }
+        }
+        purgeTaskDao.updateProgress(taskId, purgedId, historyCount, audioCount);
+        return new ChunkResult(historyCount, audioCount, storageKeys);
+    }
+
+    /**
+     * the_storage_is_content_addressed，a_file_is_only_deleted_when_no_audio_row_references_it_any_more
+     */
+    private void deleteUnusedAudio(List<String> storageKeys) {
+        for (String storageKey : storageKeys) {
+            try {
+                Long references = chatAudioDao.selectCount(new LambdaQueryWrapper<AgentChatAudioEntity>()
+                        .eq(AgentChatAudioEntity::getStorageKey, storageKey));
+                // a_file_saved_again_meanwhile_is_kept_by_the_store，its_row_may_not_be_inserted_yet，
+                // the_audio_sweep_deletes_it_later_if_no_row_references_it
+                if (references == 0 && !audioBlobStore.delete(storageKey)) {
+                    log.debug("Audio file {} was saved again recently and is kept", storageKey);
+                }
+            } catch (Exception e) {
+                log.warn("Deleting audio file {} failed", storageKey, e);
+            }
+        }
+    }
+
+    /**
+     * delete_the_audio_files_no_row_references，the_keys_are_checked_in_chunks
+     *
+     * @return number_of_deleted_files
+     */
+    public long sweepAudio() {
+        long deleted = 0;
+        try (Stream<String> keys = audioBlobStore.keys()) {
+            Iterator<List<String>> chunks = Iterators.partition(keys.iterator(), chunkSize);
+            while (chunks.hasNext()) {
+                List<String> chunk = chunks.next();
+                Set<String> referenced = chatAudioDao.selectList(new LambdaQueryWrapper<AgentChatAudioEntity>()
+                        .select(AgentChatAudioEntity::getStorageKey)
+                        .in(AgentChatAudioEntity::getStorageKey, chunk))
+                        .stream().map(AgentChatAudioEntity::getStorageKey).collect(Collectors.toSet());
+                for (String storageKey : chunk) {
+                    // the_store_keeps_files_saved_again_within_the_grace_window，the_next_sweep_looks_at_them_again
+                    if (!referenced.contains(storageKey) && audioBlobStore.delete(storageKey)) {
+                        deleted++;
+                    }
+                }
+                if (pauseMs > 0) {
+                    Thread.sleep(pauseMs);
+                }
+            }
+            log.info("Audio sweep done, {} files no row references deleted", deleted);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Audio sweep failed after {} files", deleted, e);
+        }
+        return deleted;
+    }
+
+    private void finish(Long taskId, ChatPurgeStatus status, long purgedId, String errorMessage) {
+        AgentChatPurgeTaskEntity update = new AgentChatPurgeTaskEntity();
+        update.setId(taskId);
+        update.setStatus(status.getValue());
+        update.setLastId(purgedId);
+        update.setErrorMessage(errorMessage);
+        update.setUpdatedAt(new Date());
+        purgeTaskDao.finish(update);
+    }
+
+    private record ChunkResult(long historyCount, long audioCount, List<String> storageKeys) {
+    }
+}
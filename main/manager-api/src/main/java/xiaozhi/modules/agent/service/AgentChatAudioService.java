@@ -1,5 +1,7 @@
 package xiaozhi.modules.agent.service;
 
+import org.springframework.core.io.Resource;
+
 import com.baomidou.mybatisplus.extension.service.IService;
 
 import xiaozhi.modules.agent.entity.AgentChatAudioEntity;
@@ -20,6 +22,14 @@ public interface AgentChatAudioService extends IService<AgentChatAudioEntity> {
      */
     String saveAudio(byte[] audioData);
 
+    /**
+     * save_the_audio_content_and_build_the_row_referencing_it，the_row_is_not_inserted
+     *
+     * @param audioData audio_data
+     * @return audio_row_to_insert
+     */
+    AgentChatAudioEntity prepareAudio(byte[] audioData);
+
     /**
      * get_audio_data
      *
@@ -27,4 +37,19 @@ public interface AgentChatAudioService extends IService<AgentChatAudioEntity> {
      * @return audio_data
      */
     byte[] getAudio(String audioId);
+
+    /**
+     * get_audio_as_a_resource，stored_files_are_streamed_without_being_loaded_into_memory
+     *
+     * @param audioId audio_id
+     * @return audio_resource，null_if_it_does_not_exist
+     */
+    Resource getAudioResource(String audioId);
+
+    /**
+     * whether_the_audio_exists，checked_without_reading_the_audio
+     *
+     * @param audioId audio_id
+     */
+    boolean existsAudio(String audioId);
 }
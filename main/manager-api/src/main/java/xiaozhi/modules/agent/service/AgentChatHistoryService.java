@@ -1,5 +1,6 @@
 package xiaozhi.modules.agent.service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -23,11 +24,28 @@ public interface AgentChatHistoryService extends IService<AgentChatHistoryEntity
     /**
      * get_session_list_based_on_agent_id
      *
-     * @param params query_parameters，contains_agentid、page、limit
+     * @param params query_parameters，contains_agentid、page、limit，and_optional_cursor_returned_by_the_previous_page
      * @return paginated_conversation_list
      */
     PageData<AgentChatSessionDTO> getSessionListByAgentId(Map<String, Object> params);
 
+    /**
+     * add_newly_written_chat_records_to_the_session_summaries
+     *
+     * @param histories saved_chat_records
+     */
+    void recordSessions(Collection<AgentChatHistoryEntity> histories);
+
+    /**
+     * the_session_and_the_sessions_before_it，the_latest_first
+     *
+     * @param agentId   agent_id
+     * @param sessionId session_id
+     * @param count     number_of_sessions_including_the_given_one
+     * @return session_ids，only_the_given_one_if_it_has_no_summary
+     */
+    List<String> getSessionIdsUntil(String agentId, String sessionId, int count);
+
     /**
      * get_chat_history_list_based_on_session_id
      *
@@ -38,7 +56,7 @@ public interface AgentChatHistoryService extends IService<AgentChatHistoryEntity
     List<AgentChatHistoryDTO> getChatHistoryBySessionId(String agentId, String sessionId);
 
     /**
-     * delete_chat_history_based_on_agent_id
+     * delete_chat_history_based_on_agent_id，queued_and_executed_in_chunks_in_the_background
      *
      * @param agentId     agent_id
      * @param deleteAudio whether_to_delete_audio
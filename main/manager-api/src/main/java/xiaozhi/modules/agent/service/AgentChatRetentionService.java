@@ -0,0 +1,61 @@
+package xiaozhi.modules.agent.service;
+
+import java.util.Date;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+
+import xiaozhi.modules.agent.Enums.ChatPurgeType;
+import xiaozhi.modules.agent.dto.AgentChatRetentionDTO;
+import xiaozhi.modules.agent.entity.AgentChatRetentionEntity;
+
+/**
+ * chat_history_retention_policies_and_purge_tasks
+ * <p>
+ * the_purge_itself_is_executed_in_the_background_by {@link xiaozhi.modules.agent.retention.ChatPurgeJob}
+ */
+public interface AgentChatRetentionService extends IService<AgentChatRetentionEntity> {
+
+    /**
+     * retention_policy_of_the_agent，the_global_policy_if_it_has_none
+     *
+     * @param agentId agent_id
+     */
+    AgentChatRetentionDTO getPolicy(String agentId);
+
+    /**
+     * global_policy_from_the_system_parameters
+     */
+    AgentChatRetentionDTO getGlobalPolicy();
+
+    /**
+     * set_the_policy_of_the_agent，it_replaces_the_global_policy
+     *
+     * @param agentId agent_id
+     * @param dto     retention_days
+     */
+    void savePolicy(String agentId, AgentChatRetentionDTO dto);
+
+    /**
+     * remove_the_policy_of_the_agent，the_global_policy_applies_again
+     *
+     * @param agentId agent_id
+     */
+    void deletePolicy(String agentId);
+
+    /**
+     * queue_a_purge_task
+     *
+     * @param agentId agent_id，null_for_the_agents_without_their_own_policy
+     * @param type    purge_type
+     * @param before  records_created_before_this_time_are_purged
+     */
+    void submitPurge(String agentId, ChatPurgeType type, Date before);
+
+    /**
+     * whether_a_purge_task_of_this_type_is_waiting_or_running
+     *
+     * @param agentId agent_id，null_for_the_global_tasks
+     * @param type    purge_type
+     */
+    boolean hasActivePurge(String agentId, ChatPurgeType type);
+}
@@ -18,9 +18,10 @@ public interface AgentMcpAccessPointService {
    String getAgentMcpAccessAddress(String id);
 
     /**
-     * get_the_existing_tool_list_of_the_agents_mcp_access_point
+     * get_the_existing_tool_list_of_the_agents_mcp_access_point，the_list_is_cached_and_refreshed_in_the_background
      * @param id agent_id
+     * @param refresh fetch_the_list_again_instead_of_using_the_cache
      * @return tool_list
      */
-   List<String> getAgentMcpToolsList(String id);
+   List<String> getAgentMcpToolsList(String id, boolean refresh);
 }
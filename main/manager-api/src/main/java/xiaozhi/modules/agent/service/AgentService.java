@@ -1,5 +1,6 @@
 package xiaozhi.modules.agent.service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -66,6 +67,14 @@ public interface AgentService extends BaseService<AgentEntity> {
      */
     Integer getDeviceCountByAgentId(String agentId);
 
+    /**
+     * get_the_number_of_devices_of_several_agents
+     *
+     * @param agentIds agent_ids
+     * @return agent_id -> number_of_devices，agents_without_devices_are_left_out
+     */
+    Map<String, Integer> getDeviceCountsByAgentIds(Collection<String> agentIds);
+
     /**
      * query_the_default_agent_information_of_the_corresponding_device_based_on_the_device_mac_address
      *
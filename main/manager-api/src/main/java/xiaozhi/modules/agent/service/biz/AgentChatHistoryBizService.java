@@ -1,5 +1,7 @@
 package xiaozhi.modules.agent.service.biz;
 
+import java.util.List;
+
 import xiaozhi.modules.agent.dto.AgentChatHistoryReportDTO;
 
 /**
@@ -20,4 +22,12 @@ public interface AgentChatHistoryBizService {
 * @return upload_results, true indicates success, false indicates failure
 */
     Boolean report(AgentChatHistoryReportDTO agentChatHistoryReportDTO);
+
+    /**
+     * batch_chat_reporting_method，messages_may_belong_to_several_devices_and_sessions
+     *
+     * @param reports chat_reports
+     * @return number_of_accepted_reports
+     */
+    int reportBatch(List<AgentChatHistoryReportDTO> reports);
 }
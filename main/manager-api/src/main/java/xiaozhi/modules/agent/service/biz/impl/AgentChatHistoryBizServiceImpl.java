@@ -1,11 +1,14 @@
 package xiaozhi.modules.agent.service.biz.impl;
 
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,10 +18,9 @@ import xiaozhi.common.redis.RedisUtils;
 import xiaozhi.modules.agent.dto.AgentChatHistoryReportDTO;
 import xiaozhi.modules.agent.entity.AgentChatHistoryEntity;
 import xiaozhi.modules.agent.entity.AgentEntity;
-import xiaozhi.modules.agent.service.AgentChatAudioService;
-import xiaozhi.modules.agent.service.AgentChatHistoryService;
 import xiaozhi.modules.agent.service.AgentService;
 import xiaozhi.modules.agent.service.biz.AgentChatHistoryBizService;
+import xiaozhi.modules.agent.writer.ChatHistoryWriter;
 import xiaozhi.modules.device.entity.DeviceEntity;
 import xiaozhi.modules.device.service.DeviceService;
 
@@ -34,8 +36,7 @@ import xiaozhi.modules.device.service.DeviceService;
 @RequiredArgsConstructor
 public class AgentChatHistoryBizServiceImpl implements AgentChatHistoryBizService {
     private final AgentService agentService;
-    private final AgentChatHistoryService agentChatHistoryService;
-    private final AgentChatAudioService agentChatAudioService;
+    private final ChatHistoryWriter chatHistoryWriter;
     private final RedisUtils redisUtils;
     private final DeviceService deviceService;
 
@@ -47,27 +48,50 @@ public class AgentChatHistoryBizServiceImpl implements AgentChatHistoryBizServic
 * @return upload_results, true indicates success, false indicates failure
 */
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public Boolean report(AgentChatHistoryReportDTO report) {
-        String macAddress = report.getMacAddress();
-        Byte chatType = report.getChatType();
-        Long reportTimeMillis = null != report.getReportTime() ? report.getReportTime() * 1000 : System.currentTimeMillis();
-        log.info("Xiaozhi device chat report request: macAddress={}, type={} reportTime={}", macAddress, chatType, reportTimeMillis);
+        return reportBatch(List.of(report)) > 0;
+    }
+
+    @Override
+    public int reportBatch(List<AgentChatHistoryReportDTO> reports) {
+        int accepted = 0;
+        // the_agent_and_the_device_are_resolved_once_per_mac_address
+        Map<String, List<AgentChatHistoryReportDTO>> reportsByMac = new LinkedHashMap<>();
+        for (AgentChatHistoryReportDTO report : reports) {
+            reportsByMac.computeIfAbsent(report.getMacAddress(), k -> new ArrayList<>()).add(report);
+        }
+        for (Map.Entry<String, List<AgentChatHistoryReportDTO>> entry : reportsByMac.entrySet()) {
+            accepted += reportDevice(entry.getKey(), entry.getValue());
+        }
+        return accepted;
+    }
+
+    /**
+     * handle_the_reports_of_one_device，the_records_are_written_asynchronously
+     *
+     * @return number_of_accepted_reports
+     */
+    private int reportDevice(String macAddress, List<AgentChatHistoryReportDTO> reports) {
+        log.info("Xiaozhi device chat report request: macAddress={}, count={}", macAddress, reports.size());
 
         // query_the_corresponding_default_agent_based_on_the_device_mac_address，determine_whether_reporting_is_required
         AgentEntity agentEntity = agentService.getDefaultAgentByMacAddress(macAddress);
         if (agentEntity == null) {
-            return Boolean.FALSE;
+            return 0;
         }
 
         Integer chatHistoryConf = agentEntity.getChatHistoryConf();
         String agentId = agentEntity.getId();
 
-        if (Objects.equals(chatHistoryConf, Constant.ChatHistoryConfEnum.RECORD_TEXT.getCode())) {
-            saveChatText(report, agentId, macAddress, null, reportTimeMillis);
-        } else if (Objects.equals(chatHistoryConf, Constant.ChatHistoryConfEnum.RECORD_TEXT_AUDIO.getCode())) {
-            String audioId = saveChatAudio(report);
-            saveChatText(report, agentId, macAddress, audioId, reportTimeMillis);
+        for (AgentChatHistoryReportDTO report : reports) {
+            Long reportTimeMillis = null != report.getReportTime() ? report.getReportTime() * 1000
+                    : System.currentTimeMillis();
+            if (Objects.equals(chatHistoryConf, Constant.ChatHistoryConfEnum.RECORD_TEXT.getCode())) {
+                chatHistoryWriter.submit(buildChatText(report, agentId, macAddress, reportTimeMillis), null);
+            } else if (Objects.equals(chatHistoryConf, Constant.ChatHistoryConfEnum.RECORD_TEXT_AUDIO.getCode())) {
+                chatHistoryWriter.submit(buildChatText(report, agentId, macAddress, reportTimeMillis),
+                        decodeChatAudio(report));
+            }
         }
 
         // update_device_last_conversation_time
@@ -81,48 +105,37 @@ public class AgentChatHistoryBizServiceImpl implements AgentChatHistoryBizServic
             log.warn("When chat history was reported, the_mac_address_was_not_found {} device", macAddress);
         }
 
-        return Boolean.TRUE;
+        return reports.size();
     }
 
-    /*
-*
-* base64 decoding report.getOpusDataBase64(),store_in_ai_agent_chat_audio_table
-*/
-    private String saveChatAudio(AgentChatHistoryReportDTO report) {
-        String audioId = null;
-
+    /**
+     * base64_decoding report.getAudioBase64()，saved_to_ai_agent_chat_audio_table_by_the_writer
+     */
+    private byte[] decodeChatAudio(AgentChatHistoryReportDTO report) {
         if (report.getAudioBase64() != null && !report.getAudioBase64().isEmpty()) {
             try {
-                byte[] audioData = Base64.getDecoder().decode(report.getAudioBase64());
-                audioId = agentChatAudioService.saveAudio(audioData);
-                log.info("Audio data saved successfully, audioId={}", audioId);
+                return Base64.getDecoder().decode(report.getAudioBase64());
             } catch (Exception e) {
-                log.error("Audio data saving failed", e);
-                return null;
+                log.error("Audio data decoding failed", e);
             }
         }
-        return audioId;
+        return null;
     }
 
     /**
      * assemble_reported_data
      */
-    private void saveChatText(AgentChatHistoryReportDTO report, String agentId, String macAddress, String audioId, Long reportTime) {
+    private AgentChatHistoryEntity buildChatText(AgentChatHistoryReportDTO report, String agentId, String macAddress,
+            Long reportTime) {
         // build_chat_record_entity
-        AgentChatHistoryEntity entity = AgentChatHistoryEntity.builder()
+        return AgentChatHistoryEntity.builder()
                 .macAddress(macAddress)
                 .agentId(agentId)
                 .sessionId(report.getSessionId())
                 .chatType(report.getChatType())
                 .content(report.getContent())
-                .audioId(audioId)
                 .createdAt(new Date(reportTime))
                 // NOTE(haotian): 2025/5/26 updateAt can not be set, the_focus_is_createat, and_this_way_you_can_see_the_delay_in_reporting
                 .build();
-
-        // save_data
-        agentChatHistoryService.save(entity);
-
-        log.info("Device {} corresponding_agent {} reported successfully", macAddress, agentId);
     }
 }
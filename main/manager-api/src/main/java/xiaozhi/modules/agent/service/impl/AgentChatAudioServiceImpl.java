@@ -1,9 +1,14 @@
 package xiaozhi.modules.agent.service.impl;
 
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 
+import lombok.RequiredArgsConstructor;
+import xiaozhi.modules.agent.audio.AudioBlobStore;
 import xiaozhi.modules.agent.dao.AiAgentChatAudioDao;
 import xiaozhi.modules.agent.entity.AgentChatAudioEntity;
 import xiaozhi.modules.agent.service.AgentChatAudioService;
@@ -16,19 +21,77 @@ import xiaozhi.modules.agent.service.AgentChatAudioService;
  * @since 1.0.0
  */
 @Service
+@RequiredArgsConstructor
 public class AgentChatAudioServiceImpl extends ServiceImpl<AiAgentChatAudioDao, AgentChatAudioEntity>
         implements AgentChatAudioService {
+    private final AudioBlobStore audioBlobStore;
+
     @Override
     public String saveAudio(byte[] audioData) {
-        AgentChatAudioEntity entity = new AgentChatAudioEntity();
-        entity.setAudio(audioData);
+        AgentChatAudioEntity entity = prepareAudio(audioData);
         save(entity);
         return entity.getId();
     }
 
+    @Override
+    public AgentChatAudioEntity prepareAudio(byte[] audioData) {
+        // the_audio_is_saved_to_the_audio_storage，the_table_only_keeps_the_reference
+        AgentChatAudioEntity entity = new AgentChatAudioEntity();
+        entity.setStorageKey(audioBlobStore.put(audioData));
+        entity.setAudioSize(audioData.length);
+        return entity;
+    }
+
     @Override
     public byte[] getAudio(String audioId) {
-        AgentChatAudioEntity entity = getById(audioId);
+        AgentChatAudioEntity reference = getReference(audioId);
+        if (reference == null) {
+            return null;
+        }
+        if (reference.getStorageKey() != null) {
+            return audioBlobStore.get(reference.getStorageKey());
+        }
+        // audio_not_yet_migrated_out_of_the_database，the_audio_column_is_only_read_here
+        AgentChatAudioEntity entity = baseMapper.selectOne(new LambdaQueryWrapper<AgentChatAudioEntity>()
+                .select(AgentChatAudioEntity::getAudio)
+                .eq(AgentChatAudioEntity::getId, audioId));
         return entity != null ? entity.getAudio() : null;
     }
+
+    @Override
+    public Resource getAudioResource(String audioId) {
+        AgentChatAudioEntity reference = getReference(audioId);
+        if (reference == null) {
+            return null;
+        }
+        if (reference.getStorageKey() != null) {
+            return audioBlobStore.getResource(reference.getStorageKey());
+        }
+        byte[] audio = getAudio(audioId);
+        return audio != null ? new ByteArrayResource(audio) : null;
+    }
+
+    @Override
+    public boolean existsAudio(String audioId) {
+        AgentChatAudioEntity reference = getReference(audioId);
+        if (reference == null) {
+            return false;
+        }
+        if (reference.getStorageKey() != null) {
+            return audioBlobStore.exists(reference.getStorageKey());
+        }
+        return baseMapper.exists(new LambdaQueryWrapper<AgentChatAudioEntity>()
+                .eq(AgentChatAudioEntity::getId, audioId)
+                .isNotNull(AgentChatAudioEntity::getAudio));
+    }
+
+    /**
+     * query_the_row_without_the_audio_column
+     */
+    private AgentChatAudioEntity getReference(String audioId) {
+        return baseMapper.selectOne(new LambdaQueryWrapper<AgentChatAudioEntity>()
+                .select(AgentChatAudioEntity::getId, AgentChatAudioEntity::getStorageKey,
+                        AgentChatAudioEntity::getAudioSize)
+                .eq(AgentChatAudioEntity::getId, audioId));
+    }
 }
@@ -1,12 +1,17 @@
 package xiaozhi.modules.agent.service.impl;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
@@ -14,16 +19,24 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 
+import lombok.RequiredArgsConstructor;
 import xiaozhi.common.constant.Constant;
+import xiaozhi.common.exception.ErrorCode;
+import xiaozhi.common.exception.RenException;
+import xiaozhi.common.page.PageCursor;
 import xiaozhi.common.page.PageData;
 import xiaozhi.common.utils.ConvertUtils;
 import xiaozhi.common.utils.JsonUtils;
 import xiaozhi.modules.agent.Enums.AgentChatHistoryType;
+import xiaozhi.modules.agent.Enums.ChatPurgeType;
 import xiaozhi.modules.agent.dao.AiAgentChatHistoryDao;
+import xiaozhi.modules.agent.dao.AiAgentChatSessionDao;
 import xiaozhi.modules.agent.dto.AgentChatHistoryDTO;
 import xiaozhi.modules.agent.dto.AgentChatSessionDTO;
 import xiaozhi.modules.agent.entity.AgentChatHistoryEntity;
+import xiaozhi.modules.agent.entity.AgentChatSessionEntity;
 import xiaozhi.modules.agent.service.AgentChatHistoryService;
+import xiaozhi.modules.agent.service.AgentChatRetentionService;
 import xiaozhi.modules.agent.vo.AgentChatHistoryUserVO;
 
 /**
@@ -34,35 +47,104 @@ import xiaozhi.modules.agent.vo.AgentChatHistoryUserVO;
  * @since 1.0.0
  */
 @Service
+@RequiredArgsConstructor
 public class AgentChatHistoryServiceImpl extends ServiceImpl<AiAgentChatHistoryDao, AgentChatHistoryEntity>
         implements AgentChatHistoryService {
+    private final AiAgentChatSessionDao agentChatSessionDao;
+    private final AgentChatRetentionService agentChatRetentionService;
 
     @Override
     public PageData<AgentChatSessionDTO> getSessionListByAgentId(Map<String, Object> params) {
         String agentId = (String) params.get("agentId");
         int page = Integer.parseInt(params.get(Constant.PAGE).toString());
         int limit = Integer.parseInt(params.get(Constant.LIMIT).toString());
+        String cursor = params.get(Constant.CURSOR) == null ? null : params.get(Constant.CURSOR).toString();
+
+        // served_from_the_session_summary_table，with_a_cursor_the_page_starts_after_the_last_session_of_the_previous_page
+        Date lastChatAt = null;
+        String lastSessionId = null;
+        if (StringUtils.isNotBlank(cursor)) {
+            Object[] key = PageCursor.decode(cursor, 2);
+            if (!(key[0] instanceof Date) || !(key[1] instanceof String)) {
+                throw new RenException(ErrorCode.INVALID_PAGE_CURSOR);
+            }
+            lastChatAt = (Date) key[0];
+            lastSessionId = (String) key[1];
+        }
+        long offset = (long) Math.max(page - 1, 0) * limit;
+        List<AgentChatSessionEntity> sessions = agentChatSessionDao.selectSessions(agentId, lastChatAt,
+                lastSessionId, offset, limit);
 
-        // build_query_conditions
-        QueryWrapper<AgentChatHistoryEntity> wrapper = new QueryWrapper<>();
-        wrapper.select("session_id", "MAX(created_at) as created_at", "COUNT(*) as chat_count")
-                .eq("agent_id", agentId)
-                .groupBy("session_id")
-                .orderByDesc("created_at");
-
-        // execute_paging_query
-        Page<Map<String, Object>> pageParam = new Page<>(page, limit);
-        IPage<Map<String, Object>> result = this.baseMapper.selectMapsPage(pageParam, wrapper);
-
-        List<AgentChatSessionDTO> records = result.getRecords().stream().map(map -> {
+        List<AgentChatSessionDTO> records = sessions.stream().map(session -> {
             AgentChatSessionDTO dto = new AgentChatSessionDTO();
-            dto.setSessionId((String) map.get("session_id"));
-            dto.setCreatedAt((LocalDateTime) map.get("created_at"));
-            dto.setChatCount(((Number) map.get("chat_count")).intValue());
+            dto.setSessionId(session.getSessionId());
+            dto.setCreatedAt(toLocalDateTime(session.getLastChatAt()));
+            dto.setFirstChatAt(toLocalDateTime(session.getFirstChatAt()));
+            dto.setChatCount(session.getChatCount());
+            dto.setMacAddress(session.getMacAddress());
+            dto.setHasAudio(session.getHasAudio());
             return dto;
         }).collect(Collectors.toList());
 
-        return new PageData<>(records, result.getTotal());
+        String nextCursor = null;
+        if (sessions.size() == limit) {
+            AgentChatSessionEntity last = sessions.get(sessions.size() - 1);
+            nextCursor = PageCursor.encode(last.getLastChatAt(), last.getSessionId());
+        }
+        long total = Constant.COUNT_NONE.equals(params.get(Constant.COUNT)) ? -1
+                : agentChatSessionDao.countByAgentId(agentId);
+        return new PageData<>(records, total, nextCursor);
+    }
+
+    @Override
+    public void recordSessions(Collection<AgentChatHistoryEntity> histories) {
+        // merge_the_records_of_the_same_session，one_row_per_session
+        Map<String, AgentChatSessionEntity> sessions = new TreeMap<>();
+        for (AgentChatHistoryEntity history : histories) {
+            if (history.getAgentId() == null || history.getSessionId() == null) {
+                continue;
+            }
+            Date createdAt = history.getCreatedAt() == null ? new Date() : history.getCreatedAt();
+            AgentChatSessionEntity session = sessions.computeIfAbsent(
+                    history.getAgentId() + ":" + history.getSessionId(), key -> {
+                        AgentChatSessionEntity entity = new AgentChatSessionEntity();
+                        entity.setAgentId(history.getAgentId());
+                        entity.setSessionId(history.getSessionId());
+                        entity.setFirstChatAt(createdAt);
+                        entity.setLastChatAt(createdAt);
+                        entity.setChatCount(0);
+                        entity.setHasAudio(false);
+                        return entity;
+                    });
+            if (createdAt.before(session.getFirstChatAt())) {
+                session.setFirstChatAt(createdAt);
+            }
+            if (createdAt.after(session.getLastChatAt())) {
+                session.setLastChatAt(createdAt);
+            }
+            if (history.getMacAddress() != null) {
+                session.setMacAddress(history.getMacAddress());
+            }
+            session.setChatCount(session.getChatCount() + 1);
+            session.setHasAudio(session.getHasAudio() || history.getAudioId() != null);
+        }
+        if (!sessions.isEmpty()) {
+            // rows_are_locked_in_key_order
+            agentChatSessionDao.upsertBatch(new ArrayList<>(sessions.values()));
+        }
+    }
+
+    @Override
+    public List<String> getSessionIdsUntil(String agentId, String sessionId, int count) {
+        List<String> sessionIds = new ArrayList<>();
+        sessionIds.add(sessionId);
+        AgentChatSessionEntity current = agentChatSessionDao.selectSession(agentId, sessionId);
+        if (current != null && count > 1) {
+            // the_older_sessions_start_right_after_the_current_one_in_the_summary_index
+            agentChatSessionDao.selectSessions(agentId, current.getLastChatAt(), sessionId, 0, count - 1)
+                    .forEach(session -> sessionIds.add(session.getSessionId()));
+        }
+        return sessionIds;
     }
 
     @Override
@@ -81,18 +163,14 @@ public class AgentChatHistoryServiceImpl extends ServiceImpl<AiAgentChatHistoryD
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public void deleteByAgentId(String agentId, Boolean deleteAudio, Boolean deleteText) {
-        if (deleteAudio) {
-            baseMapper.deleteAudioByAgentId(agentId);
-        }
-        if (deleteAudio && !deleteText) {
-            baseMapper.deleteAudioIdByAgentId(agentId);
-        }
+        // purged_in_chunks_by_the_background_job，the_records_written_after_this_moment_are_kept
+        Date now = new Date();
         if (deleteText) {
-            baseMapper.deleteHistoryByAgentId(agentId);
+            agentChatRetentionService.submitPurge(agentId, ChatPurgeType.ALL, now);
+        } else if (deleteAudio) {
+            agentChatRetentionService.submitPurge(agentId, ChatPurgeType.AUDIO, now);
         }
-
     }
 
     @Override
@@ -131,7 +209,6 @@ public class AgentChatHistoryServiceImpl extends ServiceImpl<AiAgentChatHistoryD
      * 
      * @param content original_content
      * @return extracted_chat_content
-*/ted_chat_content
      */
     private String extractContentFromString(String content) {
         if (content == null || content.trim().isEmpty()) {
@@ -153,6 +230,10 @@ public class AgentChatHistoryServiceImpl extends ServiceImpl<AiAgentChatHistoryD
         return content;
     }
 
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return date == null ? null : LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+
     @Override
     public String getContentByAudioId(String audioId) {
         AgentChatHistoryEntity agentChatHistoryEntity = baseMapper
@@ -0,0 +1,136 @@
+package xiaozhi.modules.agent.service.impl;
+
+import java.util.Date;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import xiaozhi.common.constant.Constant;
+import xiaozhi.modules.agent.Enums.ChatPurgeStatus;
+import xiaozhi.modules.agent.Enums.ChatPurgeType;
+import xiaozhi.modules.agent.dao.AiAgentChatPurgeTaskDao;
+import xiaozhi.modules.agent.dao.AiAgentChatRetentionDao;
+import xiaozhi.modules.agent.dto.AgentChatRetentionDTO;
+import xiaozhi.modules.agent.entity.AgentChatPurgeTaskEntity;
+import xiaozhi.modules.agent.entity.AgentChatRetentionEntity;
+import xiaozhi.modules.agent.service.AgentChatRetentionService;
+import xiaozhi.modules.security.user.SecurityUser;
+import xiaozhi.modules.sys.service.SysParamsService;
+
+/**
+ * chat_history_retention_service {@link AgentChatRetentionService} impl
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AgentChatRetentionServiceImpl extends ServiceImpl<AiAgentChatRetentionDao, AgentChatRetentionEntity>
+        implements AgentChatRetentionService {
+    private final AiAgentChatPurgeTaskDao purgeTaskDao;
+    private final SysParamsService sysParamsService;
+
+    @Override
+    public AgentChatRetentionDTO getPolicy(String agentId) {
+        AgentChatRetentionEntity entity = getById(agentId);
+        if (entity == null) {
+            return getGlobalPolicy();
+        }
+        AgentChatRetentionDTO dto = new AgentChatRetentionDTO();
+        dto.setTextRetentionDays(entity.getTextRetentionDays());
+        dto.setAudioRetentionDays(entity.getAudioRetentionDays());
+        dto.setAgentPolicy(true);
+        return dto;
+    }
+
+    @Override
+    public AgentChatRetentionDTO getGlobalPolicy() {
+        AgentChatRetentionDTO dto = new AgentChatRetentionDTO();
+        dto.setTextRetentionDays(getDays(Constant.CHAT_TEXT_RETENTION_DAYS));
+        dto.setAudioRetentionDays(getDays(Constant.CHAT_AUDIO_RETENTION_DAYS));
+        dto.setAgentPolicy(false);
+        return dto;
+    }
+
+    @Override
+    public void savePolicy(String agentId, AgentChatRetentionDTO dto) {
+        AgentChatRetentionEntity entity = new AgentChatRetentionEntity();
+        entity.setAgentId(agentId);
+        entity.setTextRetentionDays(dto.getTextRetentionDays() == null ? 0 : dto.getTextRetentionDays());
+        entity.setAudioRetentionDays(dto.getAudioRetentionDays() == null ? 0 : dto.getAudioRetentionDays());
+        entity.setUpdater(SecurityUser.getUserId());
+        entity.setUpdatedAt(new Date());
+        saveOrUpdate(entity);
+    }
+
+    @Override
+    public void deletePolicy(String agentId) {
+        if (removeById(agentId)) {
+            // the_agent_falls_back_to_the_global_policy，whose_next_purge_has_to_read_its_records_from_the_start
+            purgeTaskDao.update(null, new LambdaUpdateWrapper<AgentChatPurgeTaskEntity>()
+                    .set(AgentChatPurgeTaskEntity::getLastId, 0L)
+                    .isNull(AgentChatPurgeTaskEntity::getAgentId)
+                    .in(AgentChatPurgeTaskEntity::getStatus, ChatPurgeStatus.PENDING.getValue(),
+                            ChatPurgeStatus.DONE.getValue()));
+            // a_running_global_task_read_the_agents_to_leave_out_when_it_started，and_passes_the_records_of_this_agent。
+            // its_progress_is_marked_negative，it_is_kept_so_by_the_task_and_is_not_continued_from
+            purgeTaskDao.update(null, new LambdaUpdateWrapper<AgentChatPurgeTaskEntity>()
+                    .set(AgentChatPurgeTaskEntity::getLastId, -1L)
+                    .isNull(AgentChatPurgeTaskEntity::getAgentId)
+                    .eq(AgentChatPurgeTaskEntity::getStatus, ChatPurgeStatus.RUNNING.getValue()));
+        }
+    }
+
+    @Override
+    public void submitPurge(String agentId, ChatPurgeType type, Date before) {
+        Date now = new Date();
+        // continue_where_the_previous_purge_stopped，the_records_before_it_are_not_read_again
+        Long lastId = purgeTaskDao.selectFinishedLastId(agentId, type.getValue());
+        AgentChatPurgeTaskEntity task = new AgentChatPurgeTaskEntity();
+        task.setAgentId(agentId);
+        task.setPurgeType(type.getValue());
+        task.setBeforeTime(before);
+        task.setStatus(ChatPurgeStatus.PENDING.getValue());
+        task.setLastId(lastId == null ? 0L : Math.max(0L, lastId));
+        task.setHistoryCount(0L);
+        task.setAudioCount(0L);
+        task.setCreatedAt(now);
+        task.setUpdatedAt(now);
+        purgeTaskDao.insert(task);
+        log.info("Queued chat purge task {}: agent {}, type {}, before {}", task.getId(), agentId, type, before);
+    }
+
+    @Override
+    public boolean hasActivePurge(String agentId, ChatPurgeType type) {
+        LambdaQueryWrapper<AgentChatPurgeTaskEntity> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(AgentChatPurgeTaskEntity::getPurgeType, type.getValue())
+                .in(AgentChatPurgeTaskEntity::getStatus, ChatPurgeStatus.PENDING.getValue(),
+                        ChatPurgeStatus.RUNNING.getValue());
+        if (agentId == null) {
+            wrapper.isNull(AgentChatPurgeTaskEntity::getAgentId);
+        } else {
+            wrapper.eq(AgentChatPurgeTaskEntity::getAgentId, agentId);
+        }
+        return purgeTaskDao.selectCount(wrapper) > 0;
+    }
+
+    /**
+     * days_of_a_system_parameter，0_if_it_is_not_set_or_invalid
+     */
+    private int getDays(String paramCode) {
+        String value = sysParamsService.getValue(paramCode, true);
+        if (StringUtils.isBlank(value) || "null".equals(value)) {
+            return 0;
+        }
+        try {
+            return Math.max(0, (int) Double.parseDouble(value));
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value {} of system parameter {}", value, paramCode);
+            return 0;
+        }
+    }
+}
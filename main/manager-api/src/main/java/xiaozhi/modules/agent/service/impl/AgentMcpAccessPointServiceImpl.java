@@ -1,5 +1,6 @@
 package xiaozhi.modules.agent.service.impl;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
@@ -17,17 +18,24 @@ import lombok.extern.slf4j.Slf4j;
 import xiaozhi.common.constant.Constant;
 import xiaozhi.common.utils.AESUtils;
 import xiaozhi.common.utils.HashEncryptionUtil;
-import xiaozhi.common.utils.JsonUtils;
 import xiaozhi.modules.agent.Enums.XiaoZhiMcpJsonRpcJson;
+import xiaozhi.modules.agent.cache.McpToolCatalogCache;
 import xiaozhi.modules.agent.service.AgentMcpAccessPointService;
 import xiaozhi.modules.sys.service.SysParamsService;
-import xiaozhi.modules.sys.utils.WebSocketClientManager;
+import xiaozhi.modules.sys.utils.PooledWebSocketConnection;
+import xiaozhi.modules.sys.utils.PooledWebSocketConnection.JsonRpcChannel;
+import xiaozhi.modules.sys.utils.PooledWebSocketConnection.SessionInitializer;
+import xiaozhi.modules.sys.utils.WebSocketConnectionPool;
 
 @AllArgsConstructor
 @Service
 @Slf4j
 public class AgentMcpAccessPointServiceImpl implements AgentMcpAccessPointService {
+    private static final SessionInitializer MCP_INITIALIZER = AgentMcpAccessPointServiceImpl::initializeMcp;
+
     private SysParamsService sysParamsService;
+    private WebSocketConnectionPool webSocketConnectionPool;
+    private McpToolCatalogCache mcpToolCatalogCache;
 
     @Override
     public String getAgentMcpAccessAddress(String id) {
@@ -51,126 +59,68 @@ public class AgentMcpAccessPointServiceImpl implements AgentMcpAccessPointServic
     }
 
     @Override
-    public List<String> getAgentMcpToolsList(String id) {
+    public List<String> getAgentMcpToolsList(String id, boolean refresh) {
         String wsUrl = getAgentMcpAccessAddress(id);
         if (StringUtils.isBlank(wsUrl)) {
             return List.of();
         }
 
         // will /mcp replace_with /call
-        wsUrl = wsUrl.replace("/mcp/", "/call/");
+        String callUrl = wsUrl.replace("/mcp/", "/call/");
 
         try {
-            // create WebSocket connect，increase_timeout_to_15_seconds
-            try (WebSocketClientManager client = WebSocketClientManager.build(
-                    new WebSocketClientManager.Builder()
-                            .uri(wsUrl)
-                            .bufferSize(1024 * 1024)
-                            .connectTimeout(8, TimeUnit.SECONDS)
-                            .maxSessionDuration(10, TimeUnit.SECONDS))) {
-
-                // step_1: send_initialization_message_and_wait_for_response
-                log.info("Send MCP initialization message, agent_id: {}", id);
-                client.sendText(XiaoZhiMcpJsonRpcJson.getInitializeJson());
-
-                // wait_for_initialization_response (id=1) - remove_fixed_delay，change_to_responsedriven
-                List<String> initResponses = client.listenerWithoutClose(response -> {
-                    try {
-                        Map<String, Object> jsonMap = JsonUtils.parseObject(response, Map.class);
-                        if (jsonMap != null && Integer.valueOf(1).equals(jsonMap.get("id"))) {
-                            // check_if_there_is_a_result_field，indicates_successful_initialization
-                            return jsonMap.containsKey("result") && !jsonMap.containsKey("error");
-                        }
-                        return false;
-                    } catch (Exception e) {
-                        log.warn("Failed to parse initialization response: {}", response, e);
-                        return false;
-                    }
-                });
-
-                // verify_initialization_response
-                boolean initSucceeded = false;
-                for (String response : initResponses) {
-                    try {
-                        Map<String, Object> jsonMap = JsonUtils.parseObject(response, Map.class);
-                        if (jsonMap != null && Integer.valueOf(1).equals(jsonMap.get("id"))) {
-                            if (jsonMap.containsKey("result")) {
-                                log.info("MCP initialization successful, agent_id: {}", id);
-                                initSucceeded = true;
-                                break;
-                            } else if (jsonMap.containsKey("error")) {
-                                log.error("MCP initialization failed, agent_id: {}, mistake: {}", id, jsonMap.get("error"));
-                                return List.of();
-                            }
-                        }
-                    } catch (Exception e) {
-                        log.warn("Failed to handle initialization response: {}", response, e);
-                    }
-                }
-
-                if (!initSucceeded) {
-                    log.error("No valid MCP initialization response received, agent_id: {}", id);
-                    return List.of();
-                }
-
-                // step_2: send_initialization_completion_notification - sent_only_after_receiving_initialize_response
-                log.info("Send MCP initialization completion notification, agent_id: {}", id);
-                client.sendText(XiaoZhiMcpJsonRpcJson.getNotificationsInitializedJson());
-                // step_3: send_tool_list_request - send_now，no_additional_delay_required
-                log.info("Send MCP tool list request, agent_id: {}", id);
-                client.sendText(XiaoZhiMcpJsonRpcJson.getToolsListJson());
-
-                // waiting_for_tool_list_response (id=2)
-                List<String> toolsResponses = client.listener(response -> {
-                    try {
-                        Map<String, Object> jsonMap = JsonUtils.parseObject(response, Map.class);
-                        return jsonMap != null && Integer.valueOf(2).equals(jsonMap.get("id"));
-                    } catch (Exception e) {
-                        log.warn("Parsing tool list response failed: {}", response, e);
-                        return false;
-                    }
-                });
-
-                // handling_tool_list_responses
-                for (String response : toolsResponses) {
-                    try {
-                        Map<String, Object> jsonMap = JsonUtils.parseObject(response, Map.class);
-                        if (jsonMap != null && Integer.valueOf(2).equals(jsonMap.get("id"))) {
-                            // check_if_there_is_a_result_field
-                            Object resultObj = jsonMap.get("result");
-                            if (resultObj instanceof Map) {
-                                Map<String, Object> resultMap = (Map<String, Object>) resultObj;
-                                Object toolsObj = resultMap.get("tools");
-                                if (toolsObj instanceof List) {
-                                    List<Map<String, Object>> toolsList = (List<Map<String, Object>>) toolsObj;
-                                    // extraction_tool_name_list
-                                    List<String> result = toolsList.stream()
-                                            .map(tool -> (String) tool.get("name"))
-                                            .filter(name -> name != null)
-                                            .collect(Collectors.toList());
-                                    log.info("Successfully obtained MCP tool list, agent_id: {}, number_of_tools: {}", id, result.size());
-                                    return result;
-                                }
-                            } else if (jsonMap.containsKey("error")) {
-                                log.error("Failed to obtain tool list, agent_id: {}, mistake: {}", id, jsonMap.get("error"));
-                                return List.of();
-                            }
-                        }
-                    } catch (Exception e) {
-                        log.warn("Failed to process tool list response: {}", response, e);
-                    }
-                }
-
-                log.warn("No valid tool list response found, agent_id: {}", id);
-                return List.of();
-
-            }
+            return mcpToolCatalogCache.get(id, callUrl, () -> fetchMcpToolsList(id, callUrl), refresh);
         } catch (Exception e) {
             log.error("Get the agent MCP tool_list_failed, agent_id: {}, error_reason: {}", id, e.getMessage());
             return List.of();
         }
     }
 
+    /**
+     * request_the_tool_list_from_the_access_point，failures_are_thrown_so_that_they_are_not_cached
+     */
+    private List<String> fetchMcpToolsList(String id, String wsUrl) throws Exception {
+        // the_connection_of_this_agent_is_kept_in_the_pool，the_handshake_runs_once_per_connection
+        PooledWebSocketConnection connection = webSocketConnectionPool.get(wsUrl, null, 1024 * 1024,
+                MCP_INITIALIZER);
+        log.info("Send MCP tool list request, agent_id: {}", id);
+        Map<String, Object> jsonMap = connection.request(XiaoZhiMcpJsonRpcJson.METHOD_TOOLS_LIST, null,
+                10, TimeUnit.SECONDS);
+        // check_if_there_is_a_result_field
+        Object resultObj = jsonMap.get("result");
+        if (resultObj instanceof Map) {
+            Map<String, Object> resultMap = (Map<String, Object>) resultObj;
+            Object toolsObj = resultMap.get("tools");
+            if (toolsObj instanceof List) {
+                List<Map<String, Object>> toolsList = (List<Map<String, Object>>) toolsObj;
+                // extraction_tool_name_list
+                List<String> result = toolsList.stream()
+                        .map(tool -> (String) tool.get("name"))
+                        .filter(name -> name != null)
+                        .collect(Collectors.toList());
+                log.info("Successfully obtained MCP tool list, agent_id: {}, number_of_tools: {}", id, result.size());
+                return result;
+            }
+        } else if (jsonMap.containsKey("error")) {
+            throw new IOException("Failed to obtain tool list: " + jsonMap.get("error"));
+        }
+        throw new IOException("No valid tool list response found");
+    }
+
+    /**
+     * mcp_handshake，run_after_every_connect
+     */
+    private static void initializeMcp(JsonRpcChannel channel) throws Exception {
+        // step_1: send_initialization_message_and_wait_for_response
+        Map<String, Object> response = channel.request(XiaoZhiMcpJsonRpcJson.METHOD_INITIALIZE,
+                XiaoZhiMcpJsonRpcJson.getInitializeParams()).get(10, TimeUnit.SECONDS);
+        if (!response.containsKey("result") || response.containsKey("error")) {
+            throw new IOException("MCP initialization failed: " + response.get("error"));
+        }
+        // step_2: send_initialization_completion_notification - sent_only_after_receiving_initialize_response
+        channel.notify(XiaoZhiMcpJsonRpcJson.METHOD_NOTIFICATIONS_INITIALIZED, null);
+    }
+
     /*
 *
      * get_uri_object
@@ -11,6 +11,7 @@ import lombok.RequiredArgsConstructor;
 import xiaozhi.modules.agent.dao.AgentPluginMappingMapper;
 import xiaozhi.modules.agent.entity.AgentPluginMapping;
 import xiaozhi.modules.agent.service.AgentPluginMappingService;
+import xiaozhi.modules.config.cache.AgentConfigCache;
 
 /*
 *
@@ -22,6 +23,7 @@ import xiaozhi.modules.agent.service.AgentPluginMappingService;
 public class AgentPluginMappingServiceImpl extends ServiceImpl<AgentPluginMappingMapper, AgentPluginMapping>
         implements AgentPluginMappingService {
     private final AgentPluginMappingMapper agentPluginMappingMapper;
+    private final AgentConfigCache agentConfigCache;
 
     @Override
     public List<AgentPluginMapping> agentPluginParamsByAgentId(String agentId) {
@@ -33,6 +35,7 @@ public class AgentPluginMappingServiceImpl extends ServiceImpl<AgentPluginMappin
         UpdateWrapper<AgentPluginMapping> updateWrapper = new UpdateWrapper<>();
         updateWrapper.eq("agent_id", agentId);
         agentPluginMappingMapper.delete(updateWrapper);
+        agentConfigCache.evictByAgentId(agentId);
     }
 
 }
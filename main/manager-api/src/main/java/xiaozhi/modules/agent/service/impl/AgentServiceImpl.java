@@ -1,10 +1,13 @@
 package xiaozhi.modules.agent.service.impl;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -22,6 +25,7 @@ import xiaozhi.common.constant.Constant;
 import xiaozhi.common.exception.ErrorCode;
 import xiaozhi.common.exception.RenException;
 import xiaozhi.common.page.PageData;
+import xiaozhi.common.redis.RedisBatchLoader;
 import xiaozhi.common.redis.RedisKeys;
 import xiaozhi.common.redis.RedisUtils;
 import xiaozhi.common.service.impl.BaseServiceImpl;
@@ -40,6 +44,7 @@ import xiaozhi.modules.agent.service.AgentPluginMappingService;
 import xiaozhi.modules.agent.service.AgentService;
 import xiaozhi.modules.agent.service.AgentTemplateService;
 import xiaozhi.modules.agent.vo.AgentInfoVO;
+import xiaozhi.modules.config.cache.AgentConfigCache;
 import xiaozhi.modules.device.service.DeviceService;
 import xiaozhi.modules.model.dto.ModelProviderDTO;
 import xiaozhi.modules.model.dto.VoiceDTO;
@@ -62,6 +67,8 @@ public class AgentServiceImpl extends BaseServiceImpl<AgentDao, AgentEntity> imp
     private final AgentChatHistoryService agentChatHistoryService;
     private final AgentTemplateService agentTemplateService;
     private final ModelProviderService modelProviderService;
+    private final AgentConfigCache agentConfigCache;
+    private final RedisBatchLoader redisBatchLoader;
 
     @Override
     public PageData<AgentEntity> adminAgentList(Map<String, Object> params) {
@@ -121,6 +128,21 @@ public class AgentServiceImpl extends BaseServiceImpl<AgentDao, AgentEntity> imp
         QueryWrapper<AgentEntity> wrapper = new QueryWrapper<>();
         wrapper.eq("user_id", userId);
         List<AgentEntity> agents = agentDao.selectList(wrapper);
+
+        // look_up_the_names、connection_times_and_device_counts_of_all_agents_at_once，not_per_agent
+        Set<String> modelIds = new HashSet<>();
+        agents.forEach(agent -> {
+            modelIds.add(agent.getTtsModelId());
+            modelIds.add(agent.getLlmModelId());
+            modelIds.add(agent.getVllmModelId());
+        });
+        List<String> agentIds = agents.stream().map(AgentEntity::getId).toList();
+        Map<String, String> modelNames = modelConfigService.getModelNamesByIds(modelIds);
+        Map<String, String> voiceNames = timbreModelService
+                .getTimbreNamesByIds(agents.stream().map(AgentEntity::getTtsVoiceId).toList());
+        Map<String, Date> lastConnectedAt = deviceService.getLatestLastConnectionTimes(agentIds);
+        Map<String, Integer> deviceCounts = getDeviceCountsByAgentIds(agentIds);
+
         return agents.stream().map(agent -> {
             AgentDTO dto = new AgentDTO();
             dto.setId(agent.getId());
@@ -128,25 +150,25 @@ public class AgentServiceImpl extends BaseServiceImpl<AgentDao, AgentEntity> imp
             dto.setSystemPrompt(agent.getSystemPrompt());
 
             // get TTS model_name
-            dto.setTtsModelName(modelConfigService.getModelNameById(agent.getTtsModelId()));
+            dto.setTtsModelName(modelNames.get(agent.getTtsModelId()));
 
             // get LLM model_name
-            dto.setLlmModelName(modelConfigService.getModelNameById(agent.getLlmModelId()));
+            dto.setLlmModelName(modelNames.get(agent.getLlmModelId()));
 
             // get VLLM model_name
-            dto.setVllmModelName(modelConfigService.getModelNameById(agent.getVllmModelId()));
+            dto.setVllmModelName(modelNames.get(agent.getVllmModelId()));
 
             // get_memory_model_name
             dto.setMemModelId(agent.getMemModelId());
 
             // get TTS voice_name
-            dto.setTtsVoiceName(timbreModelService.getTimbreNameById(agent.getTtsVoiceId()));
+            dto.setTtsVoiceName(voiceNames.get(agent.getTtsVoiceId()));
 
             // get_the_last_connection_duration_of_the_agent
-            dto.setLastConnectedAt(deviceService.getLatestLastConnectionTime(agent.getId()));
+            dto.setLastConnectedAt(lastConnectedAt.get(agent.getId()));
 
             // get_the_number_of_devices
-            dto.setDeviceCount(getDeviceCountByAgentId(agent.getId()));
+            dto.setDeviceCount(deviceCounts.getOrDefault(agent.getId(), 0));
             return dto;
         }).collect(Collectors.toList());
     }
@@ -174,6 +196,18 @@ public class AgentServiceImpl extends BaseServiceImpl<AgentDao, AgentEntity> imp
         return deviceCount != null ? deviceCount : 0;
     }
 
+    @Override
+    public Map<String, Integer> getDeviceCountsByAgentIds(Collection<String> agentIds) {
+        return redisBatchLoader.load(agentIds, RedisKeys::getAgentDeviceCountById, missing -> {
+            // agents_without_devices_are_counted_as_0，so_that_they_are_cached_too
+            Map<String, Integer> counts = new HashMap<>();
+            missing.forEach(agentId -> counts.put(agentId, 0));
+            agentDao.getDeviceCountsByAgentIds(missing).forEach(row -> counts
+                    .put((String) row.get("agentId"), ((Number) row.get("deviceCount")).intValue()));
+            return counts;
+        }, 60);
+    }
+
     @Override
     public AgentEntity getDefaultAgentByMacAddress(String macAddress) {
         if (StringUtils.isEmpty(macAddress)) {
@@ -336,6 +370,7 @@ public class AgentServiceImpl extends BaseServiceImpl<AgentDao, AgentEntity> imp
             throw new RenException(ErrorCode.LLM_INTENT_PARAMS_MISMATCH);
         }
         this.updateById(existingEntity);
+        agentConfigCache.evictByAgentId(agentId);
     }
 
     /**
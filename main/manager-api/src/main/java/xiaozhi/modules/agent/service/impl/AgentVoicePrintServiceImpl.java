@@ -39,6 +39,7 @@ import xiaozhi.modules.agent.service.AgentChatAudioService;
 import xiaozhi.modules.agent.service.AgentChatHistoryService;
 import xiaozhi.modules.agent.service.AgentVoicePrintService;
 import xiaozhi.modules.agent.vo.AgentVoicePrintVO;
+import xiaozhi.modules.config.cache.AgentConfigCache;
 import xiaozhi.modules.sys.service.SysParamsService;
 
 /**
@@ -57,16 +58,19 @@ public class AgentVoicePrintServiceImpl extends ServiceImpl<AgentVoicePrintDao,
     // recognition
     private final Double RECOGNITION = 0.5;
     private final Executor taskExecutor;
+    private final AgentConfigCache agentConfigCache;
 
     public AgentVoicePrintServiceImpl(AgentChatAudioService agentChatAudioService, RestTemplate restTemplate,
                                       SysParamsService sysParamsService, AgentChatHistoryService agentChatHistoryService,
-                                      TransactionTemplate transactionTemplate, @Qualifier("taskExecutor") Executor taskExecutor) {
+                                      TransactionTemplate transactionTemplate, @Qualifier("taskExecutor") Executor taskExecutor,
+                                      AgentConfigCache agentConfigCache) {
         this.agentChatAudioService = agentChatAudioService;
         this.restTemplate = restTemplate;
         this.sysParamsService = sysParamsService;
         this.agentChatHistoryService = agentChatHistoryService;
         this.transactionTemplate = transactionTemplate;
         this.taskExecutor = taskExecutor;
+        this.agentConfigCache = agentConfigCache;
     }
 
     @Override
@@ -83,7 +87,7 @@ public class AgentVoicePrintServiceImpl extends ServiceImpl<AgentVoicePrintDao,
         }
         AgentVoicePrintEntity entity = ConvertUtils.sourceToTarget(dto, AgentVoicePrintEntity.class);
         // open_transaction
-        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+        boolean b = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
             try {
                 // save_voiceprint_information
                 int row = baseMapper.insert(entity);
@@ -104,10 +108,15 @@ public class AgentVoicePrintServiceImpl extends ServiceImpl<AgentVoicePrintDao,
                 throw new RenException(ErrorCode.VOICE_PRINT_SAVE_ERROR);
             }
         }));
+        if (b) {
+            agentConfigCache.evictByAgentId(dto.getAgentId());
+        }
+        return b;
     }
 
     @Override
     public boolean delete(Long userId, String voicePrintId) {
+        AgentVoicePrintEntity voicePrint = baseMapper.selectById(voicePrintId);
         // open_transaction
         boolean b = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
             try {
@@ -129,6 +138,9 @@ public class AgentVoicePrintServiceImpl extends ServiceImpl<AgentVoicePrintDao,
         }));
         // only_when_the_voiceprint_data_in_the_database_is_successfully_deleted_can_the_data_of_the_voiceprint_service_be_deleted
         if(b){
+            if (voicePrint != null) {
+                agentConfigCache.evictByAgentId(voicePrint.getAgentId());
+            }
             taskExecutor.execute(()-> {
                 try {
                     cancelVoicePrint(voicePrintId);
@@ -187,7 +199,7 @@ public class AgentVoicePrintServiceImpl extends ServiceImpl<AgentVoicePrintDao,
             resource = null;
         }
         // open_transaction
-        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+        boolean b = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
             try {
                 AgentVoicePrintEntity entity = ConvertUtils.sourceToTarget(dto, AgentVoicePrintEntity.class);
                 int row = baseMapper.updateById(entity);
@@ -212,6 +224,10 @@ public class AgentVoicePrintServiceImpl extends ServiceImpl<AgentVoicePrintDao,
                 throw new RenException(ErrorCode.VOICEPRINT_UPDATE_ADMIN_ERROR);
             }
         }));
+        if (b) {
+            agentConfigCache.evictByAgentId(agentId);
+        }
+        return b;
     }
 
     /*
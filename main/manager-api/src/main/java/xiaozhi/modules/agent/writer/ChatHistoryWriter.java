@@ -0,0 +1,222 @@
+package xiaozhi.modules.agent.writer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import xiaozhi.modules.agent.entity.AgentChatAudioEntity;
+import xiaozhi.modules.agent.entity.AgentChatHistoryEntity;
+import xiaozhi.modules.agent.service.AgentChatAudioService;
+import xiaozhi.modules.agent.service.AgentChatHistoryService;
+
+/**
+ * asynchronous_writer_of_reported_chat_records
+ * <p>
+ * reports_are_put_into_a_bounded_queue，a_background_thread_takes_them_in_groups_and_inserts_the_audio_and_the_records
+ * with_jdbc_batch_statements_in_one_transaction，together_with_the_session_summaries。when_the_queue_is_full_the_report_is_written_by_the_calling_thread
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatHistoryWriter implements MeterBinder {
+    private final AgentChatHistoryService agentChatHistoryService;
+    private final AgentChatAudioService agentChatAudioService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${renren.chat-history-writer.queue-capacity:5000}")
+    private int queueCapacity;
+
+    @Value("${renren.chat-history-writer.batch-size:200}")
+    private int batchSize;
+
+    /**
+     * longest_wait_for_more_records_before_writing_a_partial_batch
+     */
+    @Value("${renren.chat-history-writer.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong callerRunsCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private BlockingQueue<PendingChat> queue;
+    private Thread worker;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        worker = new Thread(this::run, "chat-history-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        running = false;
+        // the_worker_writes_what_is_left_in_the_queue_before_exiting
+        worker.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * submit_a_chat_record，the_audio_is_saved_first_and_its_id_is_written_into_the_record
+     *
+     * @param history chat_record
+     * @param audio   opus_audio，may_be_null
+     */
+    public void submit(AgentChatHistoryEntity history, byte[] audio) {
+        submittedCount.incrementAndGet();
+        PendingChat chat = new PendingChat(history, audio);
+        if (running && queue.offer(chat)) {
+            return;
+        }
+        // the_queue_is_full，executed_by_the_calling_thread
+        callerRunsCount.incrementAndGet();
+        write(List.of(chat));
+    }
+
+    public long getSubmittedCount() {
+        return submittedCount.get();
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * number_of_records_written_by_the_calling_thread_because_the_queue_was_full
+     */
+    public long getCallerRunsCount() {
+        return callerRunsCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("chat.history.writer.submitted", this, ChatHistoryWriter::getSubmittedCount)
+                .register(registry);
+        FunctionCounter.builder("chat.history.writer.written", this, ChatHistoryWriter::getWrittenCount)
+                .register(registry);
+        FunctionCounter.builder("chat.history.writer.batches", this, ChatHistoryWriter::getBatchCount)
+                .register(registry);
+        FunctionCounter.builder("chat.history.writer.caller.runs", this, ChatHistoryWriter::getCallerRunsCount)
+                .register(registry);
+        FunctionCounter.builder("chat.history.writer.failed", this, ChatHistoryWriter::getFailedCount)
+                .register(registry);
+        Gauge.builder("chat.history.writer.queued", this, ChatHistoryWriter::getQueueSize)
+                .register(registry);
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingChat first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<PendingChat> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Chat history writer failed", e);
+            }
+        }
+    }
+
+    private void write(List<PendingChat> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> saveBatch(batch));
+            writtenCount.addAndGet(batch.size());
+            batchCount.incrementAndGet();
+        } catch (Exception e) {
+            log.error("Batch insert of {} chat records failed, retrying one by one", batch.size(), e);
+            for (PendingChat chat : batch) {
+                writeOne(chat);
+            }
+        }
+    }
+
+    private void saveBatch(List<PendingChat> batch) {
+        List<AgentChatAudioEntity> audios = new ArrayList<>();
+        List<AgentChatHistoryEntity> histories = new ArrayList<>(batch.size());
+        for (PendingChat chat : batch) {
+            if (chat.audio() != null) {
+                audios.add(agentChatAudioService.prepareAudio(chat.audio()));
+            }
+            histories.add(chat.history());
+        }
+        if (!audios.isEmpty()) {
+            agentChatAudioService.saveBatch(audios, batchSize);
+            // the_ids_are_assigned_by_saveBatch，in_the_same_order
+            int index = 0;
+            for (PendingChat chat : batch) {
+                if (chat.audio() != null) {
+                    chat.history().setAudioId(audios.get(index++).getId());
+                }
+            }
+        }
+        agentChatHistoryService.saveBatch(histories, batchSize);
+        agentChatHistoryService.recordSessions(histories);
+    }
+
+    private void writeOne(PendingChat chat) {
+        AgentChatHistoryEntity history = chat.history();
+        history.setId(null);
+        history.setAudioId(null);
+        if (chat.audio() != null) {
+            try {
+                history.setAudioId(agentChatAudioService.saveAudio(chat.audio()));
+            } catch (Exception e) {
+                // the_record_is_still_saved_without_audio
+                log.error("Audio data saving failed", e);
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                agentChatHistoryService.save(history);
+                agentChatHistoryService.recordSessions(List.of(history));
+            });
+            writtenCount.incrementAndGet();
+        } catch (Exception e) {
+            failedCount.incrementAndGet();
+            log.error("Saving chat record failed, macAddress={}, sessionId={}", history.getMacAddress(),
+                    history.getSessionId(), e);
+        }
+    }
+
+    private record PendingChat(AgentChatHistoryEntity history, byte[] audio) {
+    }
+}
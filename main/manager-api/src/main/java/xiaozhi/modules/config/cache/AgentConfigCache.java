@@ -0,0 +1,286 @@
+package xiaozhi.modules.config.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import xiaozhi.common.redis.RedisInvalidatedCache;
+import xiaozhi.common.redis.RedisKeys;
+import xiaozhi.common.redis.RedisUtils;
+import xiaozhi.modules.agent.dao.AgentDao;
+import xiaozhi.modules.agent.entity.AgentEntity;
+import xiaozhi.modules.device.dao.DeviceDao;
+import xiaozhi.modules.device.entity.DeviceEntity;
+import xiaozhi.modules.model.cache.CompiledModelConfigCache;
+import xiaozhi.modules.model.dao.ModelConfigDao;
+import xiaozhi.modules.model.entity.ModelConfigEntity;
+
+/**
+ * two_level_cache_of_the_agent_configuration_of_devices
+ * <p>
+ * level_1_is_a_bounded_in_process_cache，level_2_is_redis。snapshots_are_invalidated_precisely_by_mac、agent、timbre_and_model，
+ * changes_that_affect_all_devices（system_parameters）bump_the_generation_number。other_nodes_are_notified_through_redis_channel
+ */
+@Slf4j
+@Component
+public class AgentConfigCache extends RedisInvalidatedCache implements MeterBinder {
+    private static final String MSG_MAC = "mac:";
+    private static final String MSG_AGENT = "agent:";
+    private static final String MSG_VOICE = "voice:";
+    private static final String MSG_MODEL = "model:";
+
+    private final DeviceDao deviceDao;
+    private final AgentDao agentDao;
+    private final ModelConfigDao modelConfigDao;
+    private final CompiledModelConfigCache compiledModelConfigCache;
+
+    @Value("${renren.agent-config-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${renren.agent-config-cache.local-expire-seconds:600}")
+    private long localExpireSeconds;
+
+    private Cache<String, AgentConfigSnapshot> localCache;
+
+    public AgentConfigCache(RedisUtils redisUtils, RedisMessageListenerContainer redisMessageListenerContainer,
+            DeviceDao deviceDao, AgentDao agentDao, ModelConfigDao modelConfigDao,
+            CompiledModelConfigCache compiledModelConfigCache) {
+        super(redisUtils, redisMessageListenerContainer);
+        this.deviceDao = deviceDao;
+        this.agentDao = agentDao;
+        this.modelConfigDao = modelConfigDao;
+        this.compiledModelConfigCache = compiledModelConfigCache;
+    }
+
+    @PostConstruct
+    public void init() {
+        localCache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(localExpireSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * get_the_snapshot_of_the_device，build_it_with_loader_when_both_levels_miss
+     *
+     * @param macAddress device_mac_address
+     * @param loader     build_the_snapshot_from_the_database，exceptions_are_thrown_to_the_caller_and_nothing_is_cached
+     */
+    public AgentConfigSnapshot getOrLoad(String macAddress, Supplier<AgentConfigSnapshot> loader) {
+        AgentConfigSnapshot snapshot = localCache.getIfPresent(macAddress);
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        long startEpoch = startLoad();
+        String key = RedisKeys.getAgentConfigKey(macAddress);
+        List<Object> values = redisUtils.multiGet(Arrays.asList(key, RedisKeys.getAgentConfigGenerationKey()));
+        long generation = 0;
+        if (values != null) {
+            generation = toLong(values.get(1));
+            if (values.get(0) instanceof AgentConfigSnapshot cached && cached.getGeneration() == generation) {
+                putLocal(macAddress, cached, startEpoch);
+                return cached;
+            }
+        }
+
+        snapshot = loader.get();
+        snapshot.setGeneration(generation);
+        snapshot.setMacAddress(macAddress);
+        snapshot.setBuildTime(System.currentTimeMillis());
+        if (isCurrent(startEpoch)) {
+            redisUtils.set(key, snapshot, RedisUtils.HOUR_SIX_EXPIRE);
+            putLocal(macAddress, snapshot, startEpoch);
+        }
+        return snapshot;
+    }
+
+    /**
+     * invalidate_the_snapshot_of_a_device
+     */
+    public void evictByMacAddress(String macAddress) {
+        if (StringUtils.isBlank(macAddress)) {
+            return;
+        }
+        evictMacAddresses(List.of(macAddress), MSG_MAC + macAddress);
+    }
+
+    /**
+     * invalidate_the_snapshots_of_all_devices_of_the_agent
+     */
+    public void evictByAgentId(String agentId) {
+        if (StringUtils.isBlank(agentId)) {
+            return;
+        }
+        evictMacAddresses(getMacAddressesByAgentIds(List.of(agentId)), MSG_AGENT + agentId);
+    }
+
+    /**
+     * invalidate_the_snapshots_of_all_devices_of_the_user
+     */
+    public void evictByUserId(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        List<DeviceEntity> devices = deviceDao.selectList(new QueryWrapper<DeviceEntity>()
+                .select("mac_address")
+                .eq("user_id", userId));
+        List<String> macAddresses = devices.stream().map(DeviceEntity::getMacAddress).filter(Objects::nonNull)
+                .toList();
+        for (String macAddress : macAddresses) {
+            evictMacAddresses(List.of(macAddress), MSG_MAC + macAddress);
+        }
+    }
+
+    /**
+     * invalidate_the_snapshots_of_agents_using_the_timbre_or_cloned_voice
+     */
+    public void evictByVoiceId(String voiceId) {
+        if (StringUtils.isBlank(voiceId)) {
+            return;
+        }
+        List<AgentEntity> agents = agentDao.selectList(new QueryWrapper<AgentEntity>()
+                .select("id")
+                .eq("tts_voice_id", voiceId));
+        List<String> agentIds = agents.stream().map(AgentEntity::getId).toList();
+        evictMacAddresses(getMacAddressesByAgentIds(agentIds), MSG_VOICE + voiceId);
+    }
+
+    /**
+     * invalidate_the_snapshots_referencing_the_model，include_intent_and_memory_models_that_use_it_as_llm
+     */
+    public void evictByModelId(String modelId) {
+        if (StringUtils.isBlank(modelId)) {
+            return;
+        }
+        List<String> referrerIds = modelConfigDao.selectList(new QueryWrapper<ModelConfigEntity>()
+                .select("id")
+                .in("model_type", "Intent", "Memory")
+                .apply("JSON_UNQUOTE(JSON_EXTRACT(config_json, '$.llm')) = {0}", modelId))
+                .stream().map(ModelConfigEntity::getId).toList();
+
+        QueryWrapper<AgentEntity> wrapper = new QueryWrapper<AgentEntity>().select("id");
+        wrapper.nested(w -> {
+            w.eq("vad_model_id", modelId)
+                    .or().eq("asr_model_id", modelId)
+                    .or().eq("llm_model_id", modelId)
+                    .or().eq("vllm_model_id", modelId)
+                    .or().eq("tts_model_id", modelId)
+                    .or().eq("mem_model_id", modelId)
+                    .or().eq("intent_model_id", modelId);
+            if (!referrerIds.isEmpty()) {
+                w.or().in("intent_model_id", referrerIds).or().in("mem_model_id", referrerIds);
+            }
+        });
+        List<String> agentIds = agentDao.selectList(wrapper).stream().map(AgentEntity::getId).toList();
+        evictMacAddresses(getMacAddressesByAgentIds(agentIds), MSG_MODEL + modelId);
+    }
+
+    /**
+     * invalidate_all_snapshots，used_when_global_configuration_changes
+     */
+    public void evictAll() {
+        invalidateAfterCommit(MSG_ALL, () -> redisUtils.increment(RedisKeys.getAgentConfigGenerationKey()));
+    }
+
+    /**
+     * hit_statistics_of_the_level_1_cache
+     */
+    public CacheStats localStats() {
+        return localCache.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        GuavaCacheMetrics.monitor(registry, localCache, "agent-config");
+    }
+
+    @Override
+    protected String getTopic() {
+        return RedisKeys.getAgentConfigInvalidateTopic();
+    }
+
+    private void evictMacAddresses(Collection<String> macAddresses, String command) {
+        // the_keys_are_resolved_now，before_the_rows_may_be_deleted_by_the_current_transaction
+        List<String> keys = macAddresses.stream().map(RedisKeys::getAgentConfigKey).toList();
+        invalidateAfterCommit(command, keys.isEmpty() ? null : () -> redisUtils.delete(keys));
+    }
+
+    @Override
+    protected void applyInvalidation(Object message) {
+        if (!(message instanceof String command)) {
+            return;
+        }
+        if (MSG_ALL.equals(command)) {
+            localCache.invalidateAll();
+            compiledModelConfigCache.invalidateAll();
+        } else if (command.startsWith(MSG_MAC)) {
+            localCache.invalidate(command.substring(MSG_MAC.length()));
+        } else if (command.startsWith(MSG_AGENT)) {
+            String agentId = command.substring(MSG_AGENT.length());
+            removeLocalIf(s -> agentId.equals(s.getAgentId()));
+        } else if (command.startsWith(MSG_VOICE)) {
+            String voiceId = command.substring(MSG_VOICE.length());
+            removeLocalIf(s -> voiceId.equals(s.getTtsVoiceId()));
+        } else if (command.startsWith(MSG_MODEL)) {
+            String modelId = command.substring(MSG_MODEL.length());
+            compiledModelConfigCache.invalidate(modelId);
+            removeLocalIf(s -> s.getModelIds() != null && s.getModelIds().contains(modelId));
+        } else {
+            log.warn("Unknown agent config invalidation message: {}", command);
+        }
+    }
+
+    private void removeLocalIf(Predicate<AgentConfigSnapshot> predicate) {
+        localCache.asMap().values().removeIf(predicate);
+    }
+
+    private void putLocal(String macAddress, AgentConfigSnapshot snapshot, long startEpoch) {
+        keepIfCurrent(startEpoch, () -> localCache.put(macAddress, snapshot));
+    }
+
+    private List<String> getMacAddressesByAgentIds(Collection<String> agentIds) {
+        if (agentIds.isEmpty()) {
+            return List.of();
+        }
+        Set<String> macAddresses = new HashSet<>();
+        List<DeviceEntity> devices = deviceDao.selectList(new QueryWrapper<DeviceEntity>()
+                .select("mac_address")
+                .in("agent_id", agentIds));
+        for (DeviceEntity device : devices) {
+            if (device.getMacAddress() != null) {
+                macAddresses.add(device.getMacAddress());
+            }
+        }
+        // the_device_may_have_been_rebound，the_snapshots_in_this_node_are_also_included
+        for (AgentConfigSnapshot snapshot : localCache.asMap().values()) {
+            if (agentIds.contains(snapshot.getAgentId())) {
+                macAddresses.add(snapshot.getMacAddress());
+            }
+        }
+        return new ArrayList<>(macAddresses);
+    }
+}
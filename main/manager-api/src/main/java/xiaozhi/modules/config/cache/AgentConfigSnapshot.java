@@ -0,0 +1,42 @@
+package xiaozhi.modules.config.cache;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.Data;
+
+/**
+ * fully_assembled_agent_configuration_of_one_device
+ * <p>
+ * the_snapshot_is_shared_by_concurrent_requests，callers_must_copy_before_modifying
+ */
+@Data
+public class AgentConfigSnapshot implements Serializable {
+
+    /**
+     * generation_number_at_build_time，snapshots_of_an_older_generation_are_discarded
+     */
+    private long generation;
+
+    private String macAddress;
+
+    private String agentId;
+
+    /**
+     * timbre_or_cloned_voice_id_used_by_the_agent
+     */
+    private String ttsVoiceId;
+
+    /**
+     * all_model_ids_referenced_by_the_snapshot，include_the_llm_of_intent_and_memory
+     */
+    private Set<String> modelIds;
+
+    private long buildTime;
+
+    /**
+     * configuration_returned_to_the_server
+     */
+    private Map<String, Object> config;
+}
@@ -0,0 +1,176 @@
+package xiaozhi.modules.config.cache;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+import xiaozhi.common.redis.RedisInvalidatedCache;
+import xiaozhi.common.redis.RedisKeys;
+import xiaozhi.common.redis.RedisUtils;
+
+/**
+ * versioned_server_configuration_tree
+ * <p>
+ * a_full_build_only_happens_at_startup、on_a_cold_cache_or_on_explicit_refresh。parameter_changes_patch_the_single_path_of_the_tree，
+ * the_new_version_is_saved_to_redis_and_the_patch_is_broadcast，other_nodes_apply_it_or_reload_when_they_missed_a_version
+ */
+@Slf4j
+@Component
+public class ServerConfigCache extends RedisInvalidatedCache {
+    /**
+     * used_when_redis_is_closed
+     */
+    private final AtomicLong localVersion = new AtomicLong();
+
+    private volatile ServerConfigSnapshot current;
+
+    public ServerConfigCache(RedisUtils redisUtils, RedisMessageListenerContainer redisMessageListenerContainer) {
+        super(redisUtils, redisMessageListenerContainer);
+    }
+
+    /**
+     * get_the_current_snapshot，build_it_with_loader_when_neither_this_node_nor_redis_has_it
+     */
+    public ServerConfigSnapshot get(Supplier<Map<String, Object>> loader) {
+        ServerConfigSnapshot snapshot = current;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (this) {
+            if (current != null) {
+                return current;
+            }
+            Object cached = redisUtils.get(RedisKeys.getServerConfigKey());
+            if (cached instanceof ServerConfigSnapshot cachedSnapshot
+                    && cachedSnapshot.getVersion() >= toLong(redisUtils.get(RedisKeys.getServerConfigVersionKey()))) {
+                current = cachedSnapshot;
+                return cachedSnapshot;
+            }
+            return rebuild(loader);
+        }
+    }
+
+    /**
+     * build_the_whole_tree_again
+     */
+    public synchronized ServerConfigSnapshot rebuild(Supplier<Map<String, Object>> loader) {
+        ServerConfigSnapshot snapshot = new ServerConfigSnapshot();
+        snapshot.setConfig(loader.get());
+        snapshot.setVersion(nextVersion());
+        snapshot.setBaseTime(System.currentTimeMillis());
+        redisUtils.set(RedisKeys.getServerConfigKey(), snapshot);
+        current = snapshot;
+
+        ServerConfigPatch patch = new ServerConfigPatch();
+        patch.setOp(ServerConfigPatch.OP_RELOAD);
+        patch.setVersion(snapshot.getVersion());
+        patch.setBaseTime(snapshot.getBaseTime());
+        redisUtils.publish(RedisKeys.getServerConfigInvalidateTopic(), patch);
+        return snapshot;
+    }
+
+    /**
+     * set_a_parameter_in_the_tree，applied_after_the_current_transaction_commits
+     */
+    public void put(String paramCode, String valueType, String paramValue) {
+        if (StringUtils.isBlank(paramCode)) {
+            return;
+        }
+        ServerConfigPatch patch = new ServerConfigPatch();
+        patch.setOp(ServerConfigPatch.OP_SET);
+        patch.setParamCode(paramCode);
+        patch.setValueType(valueType);
+        patch.setParamValue(paramValue);
+        afterCommit(() -> publishPatch(patch));
+    }
+
+    /**
+     * remove_a_parameter_from_the_tree，applied_after_the_current_transaction_commits
+     */
+    public void remove(String paramCode) {
+        if (StringUtils.isBlank(paramCode)) {
+            return;
+        }
+        ServerConfigPatch patch = new ServerConfigPatch();
+        patch.setOp(ServerConfigPatch.OP_REMOVE);
+        patch.setParamCode(paramCode);
+        afterCommit(() -> publishPatch(patch));
+    }
+
+    @Override
+    protected String getTopic() {
+        return RedisKeys.getServerConfigInvalidateTopic();
+    }
+
+    /**
+     * patches_are_published_by_publishPatch，only_the_ones_from_other_nodes_arrive_here
+     */
+    @Override
+    protected void applyInvalidation(Object message) {
+        if (message instanceof ServerConfigPatch patch) {
+            applyRemote(patch);
+        }
+    }
+
+    private synchronized void publishPatch(ServerConfigPatch patch) {
+        ServerConfigSnapshot base = current;
+        if (base == null) {
+            // nothing_to_patch_on_this_node，make_every_node_build_it_again
+            redisUtils.delete(RedisKeys.getServerConfigKey());
+            patch.setOp(ServerConfigPatch.OP_RELOAD);
+            patch.setVersion(nextVersion());
+            redisUtils.publish(RedisKeys.getServerConfigInvalidateTopic(), patch);
+            return;
+        }
+        patch.setVersion(nextVersion());
+        patch.setBaseTime(base.getBaseTime());
+        ServerConfigSnapshot snapshot = apply(base, patch);
+        redisUtils.set(RedisKeys.getServerConfigKey(), snapshot);
+        current = snapshot;
+        redisUtils.publish(RedisKeys.getServerConfigInvalidateTopic(), patch);
+    }
+
+    private synchronized void applyRemote(ServerConfigPatch patch) {
+        ServerConfigSnapshot base = current;
+        if (base == null || base.getVersion() >= patch.getVersion()) {
+            // not_loaded，or_the_message_sent_by_this_node
+            return;
+        }
+        if (!ServerConfigPatch.OP_RELOAD.equals(patch.getOp()) && base.getBaseTime() == patch.getBaseTime()
+                && base.getVersion() == patch.getVersion() - 1) {
+            current = apply(base, patch);
+            return;
+        }
+        // a_version_was_missed，load_from_redis_on_the_next_read
+        current = null;
+    }
+
+    private static ServerConfigSnapshot apply(ServerConfigSnapshot base, ServerConfigPatch patch) {
+        Map<String, Object> config;
+        if (ServerConfigPatch.OP_SET.equals(patch.getOp())) {
+            config = ServerConfigTree.with(base.getConfig(), patch.getParamCode(),
+                    ServerConfigTree.parseValue(patch.getValueType(), patch.getParamValue()));
+        } else {
+            config = ServerConfigTree.without(base.getConfig(), patch.getParamCode());
+        }
+        ServerConfigSnapshot snapshot = new ServerConfigSnapshot();
+        snapshot.setVersion(patch.getVersion());
+        snapshot.setBaseTime(base.getBaseTime());
+        snapshot.setConfig(config);
+        return snapshot;
+    }
+
+    private long nextVersion() {
+        Long version = redisUtils.increment(RedisKeys.getServerConfigVersionKey());
+        if (version == null) {
+            return localVersion.incrementAndGet();
+        }
+        localVersion.set(version);
+        return version;
+    }
+}
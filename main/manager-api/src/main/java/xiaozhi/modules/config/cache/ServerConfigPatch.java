@@ -0,0 +1,33 @@
+package xiaozhi.modules.config.cache;
+
+import java.io.Serializable;
+
+import lombok.Data;
+
+/**
+ * change_of_the_server_configuration_broadcast_to_other_nodes
+ */
+@Data
+public class ServerConfigPatch implements Serializable {
+    public static final String OP_SET = "set";
+    public static final String OP_REMOVE = "remove";
+    public static final String OP_RELOAD = "reload";
+
+    /**
+     * version_after_the_change
+     */
+    private long version;
+
+    /**
+     * base_time_of_the_snapshot_the_change_was_applied_to
+     */
+    private long baseTime;
+
+    private String op;
+
+    private String paramCode;
+
+    private String valueType;
+
+    private String paramValue;
+}
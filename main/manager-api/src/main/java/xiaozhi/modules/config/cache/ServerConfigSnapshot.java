@@ -0,0 +1,37 @@
+package xiaozhi.modules.config.cache;
+
+import java.io.Serializable;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.Data;
+
+/**
+ * versioned_server_configuration_tree
+ * <p>
+ * the_snapshot_is_shared_by_concurrent_requests_and_must_not_be_modified，changes_produce_a_new_snapshot
+ */
+@Data
+public class ServerConfigSnapshot implements Serializable {
+
+    /**
+     * increased_by_every_full_build_or_parameter_patch
+     */
+    private long version;
+
+    /**
+     * time_of_the_last_full_build，keeps_the_etag_unique_after_the_version_counter_is_reset
+     */
+    private long baseTime;
+
+    /**
+     * configuration_returned_to_the_server
+     */
+    private Map<String, Object> config;
+
+    @JsonIgnore
+    public String getEtag() {
+        return "\"" + Long.toString(baseTime, 36) + "-" + version + "\"";
+    }
+}
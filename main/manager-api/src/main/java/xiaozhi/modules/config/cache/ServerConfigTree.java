@@ -0,0 +1,128 @@
+package xiaozhi.modules.config.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+import xiaozhi.common.utils.JsonUtils;
+
+/**
+ * nested_configuration_tree_built_from_system_parameters
+ * <p>
+ * the_parameter_code_is_split_on“.”into_a_path。updates_are_copy_on_write_along_the_path，
+ * the_tree_passed_in_is_never_modified，so_a_published_tree_can_be_read_without_locks
+ */
+public final class ServerConfigTree {
+
+    private ServerConfigTree() {
+    }
+
+    /**
+     * convert_value_according_to_valuetype
+     *
+     * @param valueType string、number、boolean、array、json
+     * @param value     parameter_value
+     */
+    public static Object parseValue(String valueType, String value) {
+        switch (StringUtils.defaultString(valueType).toLowerCase()) {
+            case "number":
+                try {
+                    double doubleValue = Double.parseDouble(value);
+                    // if_the_value_is_in_integer_form，then_converted_to_integer
+                    if (doubleValue == (int) doubleValue) {
+                        return (int) doubleValue;
+                    }
+                    return doubleValue;
+                } catch (NumberFormatException | NullPointerException e) {
+                    return value;
+                }
+            case "boolean":
+                return Boolean.parseBoolean(value);
+            case "array":
+                // convert_semicolon_separated_string_to_array
+                List<String> list = new ArrayList<>();
+                if (value != null) {
+                    for (String item : value.split(";")) {
+                        if (StringUtils.isNotBlank(item)) {
+                            list.add(item.trim());
+                        }
+                    }
+                }
+                return list;
+            case "json":
+                try {
+                    return JsonUtils.parseObject(value, Object.class);
+                } catch (Exception e) {
+                    return value;
+                }
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * write_a_value_into_the_tree_in_place，used_when_building_the_whole_tree
+     */
+    public static void putInPlace(Map<String, Object> root, String paramCode, Object value) {
+        String[] keys = paramCode.split("\\.");
+        Map<String, Object> current = root;
+        // traverse_all_keys_except_the_last_key
+        for (int i = 0; i < keys.length - 1; i++) {
+            Object child = current.get(keys[i]);
+            if (!(child instanceof Map)) {
+                child = new HashMap<String, Object>();
+                current.put(keys[i], child);
+            }
+            current = (Map<String, Object>) child;
+        }
+        current.put(keys[keys.length - 1], value);
+    }
+
+    /**
+     * return_a_new_tree_with_the_value_set，only_the_maps_on_the_path_are_copied
+     */
+    public static Map<String, Object> with(Map<String, Object> root, String paramCode, Object value) {
+        String[] keys = paramCode.split("\\.");
+        Map<String, Object> newRoot = new HashMap<>(root);
+        Map<String, Object> current = newRoot;
+        for (int i = 0; i < keys.length - 1; i++) {
+            Object child = current.get(keys[i]);
+            Map<String, Object> copy = child instanceof Map ? new HashMap<>((Map<String, Object>) child)
+                    : new HashMap<>();
+            current.put(keys[i], copy);
+            current = copy;
+        }
+        current.put(keys[keys.length - 1], value);
+        return newRoot;
+    }
+
+    /**
+     * return_a_new_tree_without_the_value，maps_left_empty_on_the_path_are_removed_as_a_full_rebuild_would_do
+     */
+    public static Map<String, Object> without(Map<String, Object> root, String paramCode) {
+        String[] keys = paramCode.split("\\.");
+        Map<String, Object> newRoot = new HashMap<>(root);
+        removePath(newRoot, keys, 0);
+        return newRoot;
+    }
+
+    private static void removePath(Map<String, Object> current, String[] keys, int index) {
+        if (index == keys.length - 1) {
+            current.remove(keys[index]);
+            return;
+        }
+        if (!(current.get(keys[index]) instanceof Map<?, ?> child)) {
+            return;
+        }
+        Map<String, Object> copy = new HashMap<>((Map<String, Object>) child);
+        removePath(copy, keys, index + 1);
+        if (copy.isEmpty()) {
+            current.remove(keys[index]);
+        } else {
+            current.put(keys[index], copy);
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package xiaozhi.modules.config.controller;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -11,6 +15,7 @@ import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import xiaozhi.common.utils.Result;
 import xiaozhi.common.validator.ValidatorUtils;
+import xiaozhi.modules.config.cache.ServerConfigSnapshot;
 import xiaozhi.modules.config.dto.AgentModelsDTO;
 import xiaozhi.modules.config.service.ConfigService;
 
@@ -28,9 +33,15 @@ public class ConfigController {
 
     @PostMapping("server-base")
     @Operation(summary = "The server obtains the configuration interface")
-    public Result<Object> getConfig() {
-        Object config = configService.getConfig(true);
-        return new Result<Object>().ok(config);
+    public ResponseEntity<Result<Object>> getConfig(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        ServerConfigSnapshot snapshot = configService.getServerConfig();
+        String etag = snapshot.getEtag();
+        // the_configuration_has_not_changed_since_the_last_poll
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(new Result<Object>().ok(snapshot.getConfig()));
     }
 
     @PostMapping("agent-models")
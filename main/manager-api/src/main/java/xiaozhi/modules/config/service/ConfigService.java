@@ -2,6 +2,8 @@ package xiaozhi.modules.config.service;
 
 import java.util.Map;
 
+import xiaozhi.modules.config.cache.ServerConfigSnapshot;
+
 public interface ConfigService {
     /**
      * get_server_configuration
@@ -11,6 +13,13 @@ public interface ConfigService {
      */
     Object getConfig(Boolean isCache);
 
+    /**
+     * get_the_versioned_server_configuration
+     *
+     * @return configuration_snapshot，the_etag_changes_with_every_version
+     */
+    ServerConfigSnapshot getServerConfig();
+
     /*
 *
 * Get the agent model configuration
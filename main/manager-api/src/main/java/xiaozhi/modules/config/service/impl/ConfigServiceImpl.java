@@ -2,9 +2,11 @@ package xiaozhi.modules.config.service.impl;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
@@ -15,10 +17,7 @@ import lombok.AllArgsConstructor;
 import xiaozhi.common.constant.Constant;
 import xiaozhi.common.exception.ErrorCode;
 import xiaozhi.common.exception.RenException;
-import xiaozhi.common.redis.RedisKeys;
-import xiaozhi.common.redis.RedisUtils;
 import xiaozhi.common.utils.ConvertUtils;
-import xiaozhi.common.utils.JsonUtils;
 import xiaozhi.modules.agent.dao.AgentVoicePrintDao;
 import xiaozhi.modules.agent.entity.AgentEntity;
 import xiaozhi.modules.agent.entity.AgentPluginMapping;
@@ -29,11 +28,17 @@ import xiaozhi.modules.agent.service.AgentPluginMappingService;
 import xiaozhi.modules.agent.service.AgentService;
 import xiaozhi.modules.agent.service.AgentTemplateService;
 import xiaozhi.modules.agent.vo.AgentVoicePrintVO;
+import xiaozhi.modules.config.cache.AgentConfigCache;
+import xiaozhi.modules.config.cache.AgentConfigSnapshot;
+import xiaozhi.modules.config.cache.ServerConfigCache;
+import xiaozhi.modules.config.cache.ServerConfigSnapshot;
+import xiaozhi.modules.config.cache.ServerConfigTree;
 import xiaozhi.modules.config.service.ConfigService;
 import xiaozhi.modules.device.entity.DeviceEntity;
 import xiaozhi.modules.device.service.DeviceService;
-import xiaozhi.modules.model.entity.ModelConfigEntity;
-import xiaozhi.modules.model.service.ModelConfigService;
+import xiaozhi.modules.model.cache.CompiledModelConfig;
+import xiaozhi.modules.model.cache.CompiledModelConfigCache;
+import xiaozhi.modules.model.cache.ModelConfigOverlay;
 import xiaozhi.modules.sys.dto.SysParamsDTO;
 import xiaozhi.modules.sys.service.SysParamsService;
 import xiaozhi.modules.timbre.service.TimbreService;
@@ -44,28 +49,38 @@ import xiaozhi.modules.voiceclone.service.VoiceCloneService;
 @Service
 @AllArgsConstructor
 public class ConfigServiceImpl implements ConfigService {
+    private static final String[] MODEL_TYPES = { "VAD", "ASR", "TTS", "Memory", "Intent", "LLM", "VLLM" };
+
     private final SysParamsService sysParamsService;
     private final DeviceService deviceService;
-    private final ModelConfigService modelConfigService;
+    private final CompiledModelConfigCache compiledModelConfigCache;
     private final AgentService agentService;
     private final AgentTemplateService agentTemplateService;
-    private final RedisUtils redisUtils;
     private final TimbreService timbreService;
     private final AgentPluginMappingService agentPluginMappingService;
     private final AgentMcpAccessPointService agentMcpAccessPointService;
     private final VoiceCloneService cloneVoiceService;
     private final AgentVoicePrintDao agentVoicePrintDao;
+    private final AgentConfigCache agentConfigCache;
+    private final ServerConfigCache serverConfigCache;
 
     @Override
     public Object getConfig(Boolean isCache) {
         if (isCache) {
-            // first_get_the_configuration_from_redis
-            Object cachedConfig = redisUtils.get(RedisKeys.getServerConfigKey());
-            if (cachedConfig != null) {
-                return cachedConfig;
-            }
+            return serverConfigCache.get(this::buildServerConfig).getConfig();
         }
+        return serverConfigCache.rebuild(this::buildServerConfig).getConfig();
+    }
+
+    @Override
+    public ServerConfigSnapshot getServerConfig() {
+        return serverConfigCache.get(this::buildServerConfig);
+    }
 
+    /**
+     * build_the_whole_server_configuration
+     */
+    private Map<String, Object> buildServerConfig() {
         // build_configuration_information
         Map<String, Object> result = new HashMap<>();
         buildConfig(result);
@@ -92,16 +107,46 @@ public class ConfigServiceImpl implements ConfigService {
                 null,
                 null,
                 result,
-                isCache);
-
-        // save_configuration_to_redis
-        redisUtils.set(RedisKeys.getServerConfigKey(), result);
-
+                true);
         return result;
     }
 
     @Override
     public Map<String, Object> getAgentModels(String macAddress, Map<String, String> selectedModule) {
+        AgentConfigSnapshot snapshot = agentConfigCache.getOrLoad(macAddress,
+                () -> buildAgentConfigSnapshot(macAddress));
+
+        // the_snapshot_is_shared，copy_the_top_level_before_removing_modules
+        Map<String, Object> result = new HashMap<>(snapshot.getConfig());
+        Map<String, String> snapshotSelected = (Map<String, String>) result.get("selected_module");
+        if (selectedModule == null || snapshotSelected == null) {
+            return result;
+        }
+        // if_the_client_has_instantiated_the_model，then_do_not_return
+        Map<String, String> resultSelected = null;
+        for (String modelType : new String[] { "VAD", "ASR" }) {
+            String alreadySelectedModelId = selectedModule.get(modelType);
+            if (alreadySelectedModelId != null && alreadySelectedModelId.equals(snapshotSelected.get(modelType))) {
+                result.remove(modelType);
+                if (resultSelected == null) {
+                    resultSelected = new HashMap<>(snapshotSelected);
+                }
+                resultSelected.remove(modelType);
+            }
+        }
+        if (resultSelected != null) {
+            result.put("selected_module", resultSelected);
+        }
+        return result;
+    }
+
+    /**
+     * build_the_complete_agent_configuration_snapshot_of_the_device，regardless_of_the_modules_instantiated_by_the_client
+     *
+     * @param macAddress device_mac_address
+     * @return configuration_snapshot
+     */
+    private AgentConfigSnapshot buildAgentConfigSnapshot(String macAddress) {
         // find_devices_based_on_mac_address
         DeviceEntity device = deviceService.getDeviceByMacAddress(macAddress);
         if (device == null) {
@@ -149,15 +194,6 @@ public class ConfigServiceImpl implements ConfigService {
             chatHistoryConf = Constant.ChatHistoryConfEnum.RECORD_TEXT_AUDIO.getCode();
         }
         result.put("chat_history_conf", chatHistoryConf);
-        // if_the_client_has_instantiated_the_model，then_do_not_return
-        String alreadySelectedVadModelId = (String) selectedModule.get("VAD");
-        if (alreadySelectedVadModelId != null && alreadySelectedVadModelId.equals(agent.getVadModelId())) {
-            agent.setVadModelId(null);
-        }
-        String alreadySelectedAsrModelId = (String) selectedModule.get("ASR");
-        if (alreadySelectedAsrModelId != null && alreadySelectedAsrModelId.equals(agent.getAsrModelId())) {
-            agent.setAsrModelId(null);
-        }
 
         // add_function_call_parameter_information
         if (!Objects.equals(agent.getIntentModelId(), "Intent_nointent")) {
@@ -198,7 +234,27 @@ public class ConfigServiceImpl implements ConfigService {
                 result,
                 true);
 
-        return result;
+        AgentConfigSnapshot snapshot = new AgentConfigSnapshot();
+        snapshot.setAgentId(agent.getId());
+        snapshot.setTtsVoiceId(agent.getTtsVoiceId());
+        snapshot.setModelIds(collectModelIds(result));
+        snapshot.setConfig(result);
+        return snapshot;
+    }
+
+    /**
+     * collect_all_model_ids_in_the_module_configuration，used_for_cache_invalidation
+     */
+    private Set<String> collectModelIds(Map<String, Object> result) {
+        Set<String> modelIds = new HashSet<>(((Map<String, String>) result.get("selected_module")).values());
+        for (String modelType : MODEL_TYPES) {
+            if (result.get(modelType) instanceof Map<?, ?> typeConfig) {
+                for (Object modelId : typeConfig.keySet()) {
+                    modelIds.add((String) modelId);
+                }
+            }
+        }
+        return modelIds;
     }
 
     /**
@@ -213,60 +269,8 @@ public class ConfigServiceImpl implements ConfigService {
         List<SysParamsDTO> paramsList = sysParamsService.list(new HashMap<>());
 
         for (SysParamsDTO param : paramsList) {
-            String[] keys = param.getParamCode().split("\\.");
-            Map<String, Object> current = config;
-
-            // traverse_all_keys_except_the_last_key
-            for (int i = 0; i < keys.length - 1; i++) {
-                String key = keys[i];
-                if (!current.containsKey(key)) {
-                    current.put(key, new HashMap<String, Object>());
-                }
-                current = (Map<String, Object>) current.get(key);
-            }
-
-            // process_the_last_key
-            String lastKey = keys[keys.length - 1];
-            String value = param.getParamValue();
-
-            // convert_value_according_to_valuetype
-            switch (param.getValueType().toLowerCase()) {
-                case "number":
-                    try {
-                        double doubleValue = Double.parseDouble(value);
-                        // if_the_value_is_in_integer_form，then_converted_to_integer
-                        if (doubleValue == (int) doubleValue) {
-                            current.put(lastKey, (int) doubleValue);
-                        } else {
-                            current.put(lastKey, doubleValue);
-                        }
-                    } catch (NumberFormatException e) {
-                        current.put(lastKey, value);
-                    }
-                    break;
-                case "boolean":
-                    current.put(lastKey, Boolean.parseBoolean(value));
-                    break;
-                case "array":
-                    // convert_semicolon_separated_string_to_array_of_numbers
-                    List<String> list = new ArrayList<>();
-                    for (String num : value.split(";")) {
-                        if (StringUtils.isNotBlank(num)) {
-                            list.add(num.trim());
-                        }
-                    }
-                    current.put(lastKey, list);
-                    break;
-                case "json":
-                    try {
-                        current.put(lastKey, JsonUtils.parseObject(value, Object.class));
-                    } catch (Exception e) {
-                        current.put(lastKey, value);
-                    }
-                    break;
-                default:
-                    current.put(lastKey, value);
-            }
+            ServerConfigTree.putInPlace(config, param.getParamCode(),
+                    ServerConfigTree.parseValue(param.getValueType(), param.getParamValue()));
         }
 
         return config;
@@ -376,7 +380,7 @@ public class ConfigServiceImpl implements ConfigService {
             boolean isCache) {
         Map<String, String> selectedModule = new HashMap<>();
 
-        String[] modelTypes = { "VAD", "ASR", "TTS", "Memory", "Intent", "LLM", "VLLM" };
+        String[] modelTypes = MODEL_TYPES;
         String[] modelIds = { vadModelId, asrModelId, ttsModelId, memModelId, intentModelId, llmModelId, vllmModelId };
         String intentLLMModelId = null;
         String memLocalShortLLMModelId = null;
@@ -385,54 +389,31 @@ public class ConfigServiceImpl implements ConfigService {
             if (modelIds[i] == null) {
                 continue;
             }
-            // key：pass_false_for_the_third_parameter，make_sure_to_get_the_original_key
-            ModelConfigEntity model = modelConfigService.getModelByIdFromCache(modelIds[i]);
+            // the_compiled_configuration_is_shared，per_agent_fields_are_written_to_an_overlay
+            CompiledModelConfig model = compiledModelConfigCache.get(modelIds[i]);
             if (model == null) {
                 continue;
             }
             Map<String, Object> typeConfig = new HashMap<>();
-            if (model.getConfigJson() != null) {
-                typeConfig.put(model.getId(), model.getConfigJson());
+            if (model.getConfig() != null) {
+                Map<String, Object> config = model.getConfig();
                 // if_it_is_tts_type，add_private_voice_attribute
                 if ("TTS".equals(modelTypes[i])) {
-                    if (voice != null)
-                        ((Map<String, Object>) model.getConfigJson()).put("private_voice", voice);
-                    if (referenceAudio != null)
-                        ((Map<String, Object>) model.getConfigJson()).put("ref_audio", referenceAudio);
-                    if (referenceText != null)
-                        ((Map<String, Object>) model.getConfigJson()).put("ref_text", referenceText);
-
-                    // volcano_engine_sound_clone_needs_to_replace_resource_id
-                    Map<String, Object> map = (Map<String, Object>) model.getConfigJson();
-                    if (Constant.VOICE_CLONE_HUOSHAN_DOUBLE_STREAM.equals(map.get("type"))) {
-                        // if_voice_is”S_“beginning，use_seeds-icl-1.0
-                        if (voice != null && voice.startsWith("S_")) {
-                            map.put("resource_id", "seed-icl-1.0");
-                        }
-                    }
+                    config = buildTtsConfig(model, voice, referenceAudio, referenceText);
                 }
+                typeConfig.put(model.getId(), config);
                 // if_it_is_an_intent_type，and_type=intent_llm，then_add_additional_models_to_him
                 if ("Intent".equals(modelTypes[i])) {
-                    Map<String, Object> map = (Map<String, Object>) model.getConfigJson();
-                    if ("intent_llm".equals(map.get("type"))) {
-                        intentLLMModelId = (String) map.get("llm");
+                    if ("intent_llm".equals(model.getType())) {
+                        intentLLMModelId = model.getLlm();
                         if (StringUtils.isNotBlank(intentLLMModelId) && intentLLMModelId.equals(llmModelId)) {
                             intentLLMModelId = null;
                         }
                     }
-                    if (map.get("functions") != null) {
-                        String functionStr = (String) map.get("functions");
-                        if (StringUtils.isNotBlank(functionStr)) {
-                            String[] functions = functionStr.split("\\;");
-                            map.put("functions", functions);
-                        }
-                    }
-                    System.out.println("map: " + map);
                 }
                 if ("Memory".equals(modelTypes[i])) {
-                    Map<String, Object> map = (Map<String, Object>) model.getConfigJson();
-                    if ("mem_local_short".equals(map.get("type"))) {
-                        memLocalShortLLMModelId = (String) map.get("llm");
+                    if ("mem_local_short".equals(model.getType())) {
+                        memLocalShortLLMModelId = model.getLlm();
                         if (StringUtils.isNotBlank(memLocalShortLLMModelId)
                                 && memLocalShortLLMModelId.equals(llmModelId)) {
                             memLocalShortLLMModelId = null;
@@ -443,17 +424,19 @@ public class ConfigServiceImpl implements ConfigService {
                 if ("LLM".equals(modelTypes[i])) {
                     if (StringUtils.isNotBlank(intentLLMModelId)) {
                         if (!typeConfig.containsKey(intentLLMModelId)) {
-                            // modify_here: add_ismasksensitive=false parameter
-                            ModelConfigEntity intentLLM = modelConfigService.getModelByIdFromCache(intentLLMModelId);
-                            typeConfig.put(intentLLM.getId(), intentLLM.getConfigJson());
+                            CompiledModelConfig intentLLM = compiledModelConfigCache.get(intentLLMModelId);
+                            if (intentLLM != null) {
+                                typeConfig.put(intentLLM.getId(), intentLLM.getConfig());
+                            }
                         }
                     }
                     if (StringUtils.isNotBlank(memLocalShortLLMModelId)) {
                         if (!typeConfig.containsKey(memLocalShortLLMModelId)) {
-                            // modify_here: add_ismasksensitive=false parameter
-                            ModelConfigEntity memLocalShortLLM = modelConfigService
-                                    .getModelByIdFromCache(memLocalShortLLMModelId);
-                            typeConfig.put(memLocalShortLLM.getId(), memLocalShortLLM.getConfigJson());
+                            CompiledModelConfig memLocalShortLLM = compiledModelConfigCache
+                                    .get(memLocalShortLLMModelId);
+                            if (memLocalShortLLM != null) {
+                                typeConfig.put(memLocalShortLLM.getId(), memLocalShortLLM.getConfig());
+                            }
                         }
                     }
                 }
@@ -470,4 +453,36 @@ public class ConfigServiceImpl implements ConfigService {
         result.put("prompt", prompt);
         result.put("summaryMemory", summaryMemory);
     }
-}
+
+    /**
+     * build_the_tts_configuration_of_the_agent，the_timbre_fields_are_written_to_an_overlay_of_the_shared_configuration
+     *
+     * @param model          compiled_tts_model_configuration
+     * @param voice          timbre
+     * @param referenceAudio reference_audio_path
+     * @param referenceText  reference_text
+     * @return tts_configuration
+     */
+    private Map<String, Object> buildTtsConfig(CompiledModelConfig model, String voice, String referenceAudio,
+            String referenceText) {
+        if (voice == null && referenceAudio == null && referenceText == null) {
+            return model.getConfig();
+        }
+        ModelConfigOverlay config = model.overlay();
+        if (voice != null)
+            config.put("private_voice", voice);
+        if (referenceAudio != null)
+            config.put("ref_audio", referenceAudio);
+        if (referenceText != null)
+            config.put("ref_text", referenceText);
+
+        // volcano_engine_sound_clone_needs_to_replace_resource_id
+        if (Constant.VOICE_CLONE_HUOSHAN_DOUBLE_STREAM.equals(model.getType())) {
+            // if_voice_is”S_“beginning，use_seeds-icl-1.0
+            if (voice != null && voice.startsWith("S_")) {
+                config.put("resource_id", "seed-icl-1.0");
+            }
+        }
+        return config;
+    }
+}
\ No newline at end of file
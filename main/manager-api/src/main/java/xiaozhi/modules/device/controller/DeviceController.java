@@ -157,7 +157,7 @@ public class DeviceController {
                     .format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd"));
 
             // get_mqtt_signing_key
-            String signatureKey = sysParamsService.getValue("server.mqtt_signature_key", false);
+            String signatureKey = sysParamsService.getValue("server.mqtt_signature_key", true);
             if (StringUtils.isBlank(signatureKey)) {
                 return null;
             }
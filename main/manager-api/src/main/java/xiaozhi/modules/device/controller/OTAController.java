@@ -77,7 +77,7 @@ public class OTAController {
     @GetMapping
     @Hidden
     public ResponseEntity<String> getOTA() {
-        String mqttUdpConfig = sysParamsService.getValue(Constant.SERVER_MQTT_GATEWAY, false);
+        String mqttUdpConfig = sysParamsService.getValue(Constant.SERVER_MQTT_GATEWAY, true);
         if (StringUtils.isBlank(mqttUdpConfig)) {
             return ResponseEntity.ok("The OTA interface is abnormal, mqtt_gateway_address_missing, please_log_in_to_the_smart_console, found_in_parameter_management [server.mqtt_gateway] configuration");
         }
@@ -1,23 +1,23 @@
 package xiaozhi.modules.device.controller;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.shiro.authz.annotation.RequiresPermissions;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpRange;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -33,15 +33,18 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.Parameters;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import xiaozhi.common.constant.Constant;
 import xiaozhi.common.page.PageData;
-import xiaozhi.common.redis.RedisKeys;
-import xiaozhi.common.redis.RedisUtils;
+import xiaozhi.common.redis.DownloadTokenService;
 import xiaozhi.common.utils.Result;
 import xiaozhi.common.validator.ValidatorUtils;
 import xiaozhi.modules.device.entity.OtaEntity;
+import xiaozhi.modules.device.firmware.FirmwareFile;
+import xiaozhi.modules.device.firmware.FirmwareFileStore;
 import xiaozhi.modules.device.service.OtaService;
 
 @Tag(name = "Device management", description = "OTA related interfaces")
@@ -50,9 +53,9 @@ import xiaozhi.modules.device.service.OtaService;
 @RequiredArgsConstructor
 @RequestMapping("/otaMag")
 public class OTAMagController {
-    private static final Logger logger = LoggerFactory.getLogger(OTAController.class);
     private final OtaService otaService;
-    private final RedisUtils redisUtils;
+    private final DownloadTokenService downloadTokenService;
+    private final FirmwareFileStore firmwareFileStore;
 
     @GetMapping
     @Operation(summary = "Query OTA firmware information by page")
@@ -130,79 +133,39 @@ public class OTAMagController {
     @Operation(summary = "Get OTA firmware download link")
     @RequiresPermissions("sys:role:superAdmin")
     public Result<String> getDownloadUrl(@PathVariable("id") String id) {
-        String uuid = UUID.randomUUID().toString();
-        redisUtils.set(RedisKeys.getOtaIdKey(uuid), id);
+        String uuid = downloadTokenService.createOtaToken(id);
         return new Result<String>().ok(uuid);
     }
 
     @GetMapping("/download/{uuid}")
     @Operation(summary = "Download firmware file")
-    public ResponseEntity<byte[]> downloadFirmware(@PathVariable("uuid") String uuid) {
-        String id = (String) redisUtils.get(RedisKeys.getOtaIdKey(uuid));
+    public void downloadFirmware(@PathVariable("uuid") String uuid, HttpServletRequest request,
+            HttpServletResponse response) {
+        boolean head = "HEAD".equals(request.getMethod());
+        String id = downloadTokenService.getOtaId(uuid);
         if (StringUtils.isBlank(id)) {
-            return ResponseEntity.notFound().build();
+            log.warn("Download token invalid or expired for UUID: {}", uuid);
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
 
-        // check_download_count
-        String downloadCountKey = RedisKeys.getOtaDownloadCountKey(uuid);
-        Integer downloadCount = (Integer) redisUtils.get(downloadCountKey);
-        if (downloadCount == null) {
-            downloadCount = 0;
-        }
-
-        // if_downloaded_more_than_3_times，return_404
-        if (downloadCount >= 3) {
-            redisUtils.delete(downloadCountKey);
-            redisUtils.delete(RedisKeys.getOtaIdKey(uuid));
-            logger.warn("Download limit exceeded for UUID: {}", uuid);
-            return ResponseEntity.notFound().build();
-        }
-
-        redisUtils.set(downloadCountKey, downloadCount + 1);
-
         try {
             // get_firmware_information
             OtaEntity otaEntity = otaService.selectById(id);
             if (otaEntity == null || StringUtils.isBlank(otaEntity.getFirmwarePath())) {
-                logger.warn("Firmware not found or path is empty for ID: {}", id);
-                return ResponseEntity.notFound().build();
-            }
-
-            // get_file_path - make_sure_the_path_is_absolute_or_the_correct_relative_path
-            String firmwarePath = otaEntity.getFirmwarePath();
-            Path path;
-
-            // check_if_it_is_an_absolute_path
-            if (Paths.get(firmwarePath).isAbsolute()) {
-                path = Paths.get(firmwarePath);
-            } else {
-                // if_it_is_a_relative_path，then_parsed_from_the_current_working_directory
-                path = Paths.get(System.getProperty("user.dir"), firmwarePath);
+                log.warn("Firmware not found or path is empty for ID: {}", id);
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                return;
             }
 
-            logger.info("Attempting to download firmware for ID: {}, DB path: {}, resolved path: {}",
-                    id, firmwarePath, path.toAbsolutePath());
-
-            if (!Files.exists(path) || !Files.isRegularFile(path)) {
-                // try_to_find_the_file_name_directly_from_the_firmware_directory
-                String fileName = new File(firmwarePath).getName();
-                Path altPath = Paths.get(System.getProperty("user.dir"), "firmware", fileName);
-
-                logger.info("File not found at primary path, trying alternative path: {}", altPath.toAbsolutePath());
-
-                if (Files.exists(altPath) && Files.isRegularFile(altPath)) {
-                    path = altPath;
-                } else {
-                    logger.error("Firmware file not found at either path: {} or {}",
-                            path.toAbsolutePath(), altPath.toAbsolutePath());
-                    return ResponseEntity.notFound().build();
-                }
+            FirmwareFile firmware = firmwareFileStore.open(otaEntity);
+            if (firmware == null) {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                return;
             }
 
-            // read_file_contents
-            byte[] fileContent = Files.readAllBytes(path);
-
             // set_response_headers
+            String firmwarePath = otaEntity.getFirmwarePath();
             String originalFilename = otaEntity.getType() + "_" + otaEntity.getVersion();
             if (firmwarePath.contains(".")) {
                 String extension = firmwarePath.substring(firmwarePath.lastIndexOf("."));
@@ -212,19 +175,122 @@ public class OTAMagController {
             // clean_up_filenames，remove_unsafe_characters
             String safeFilename = originalFilename.replaceAll("[^a-zA-Z0-9._-]", "_");
 
-            logger.info("Providing download for firmware ID: {}, filename: {}, size: {} bytes",
-                    id, safeFilename, fileContent.length);
+            response.setHeader(HttpHeaders.ETAG, firmware.getEtag());
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, firmware.getLastModified());
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+            // the_device_already_has_this_firmware
+            String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+            if (ifNoneMatch != null && (ifNoneMatch.contains(firmware.getEtag()) || "*".equals(ifNoneMatch.trim()))) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
 
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + safeFilename + "\"")
-                    .body(fileContent);
+            long size = firmware.getSize();
+            long start = 0;
+            long length = size;
+            HttpRange range = getRange(request, firmware);
+            if (range != null) {
+                try {
+                    start = range.getRangeStart(size);
+                    length = range.getRangeEnd(size) - start + 1;
+                } catch (IllegalArgumentException e) {
+                    start = size;
+                }
+                if (start >= size || length <= 0) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+            }
+
+            // resuming_the_download_already_counted_for_this_token_is_not_counted_as_a_new_download
+            if (!head && !downloadTokenService.useOtaToken(uuid, start)) {
+                log.warn("Download limit exceeded for UUID: {}", uuid);
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            if (range != null) {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE,
+                        "bytes " + start + "-" + (start + length - 1) + "/" + size);
+            }
+
+            log.info("Providing download for firmware ID: {}, filename: {}, size: {} bytes, range: {}-{}",
+                    id, safeFilename, size, start, start + length - 1);
+
+            response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + safeFilename + "\"");
+            response.setContentLengthLong(length);
+            if (head) {
+                return;
+            }
+            writeFirmware(uuid, firmware, start, length, response);
         } catch (IOException e) {
-            logger.error("Error reading firmware file for ID: {}", id, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            log.error("Error reading firmware file for ID: {}", id, e);
+            if (!response.isCommitted()) {
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
         } catch (Exception e) {
-            logger.error("Unexpected error during firmware download for ID: {}", id, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            log.error("Unexpected error during firmware download for ID: {}", id, e);
+            if (!response.isCommitted()) {
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
+        }
+    }
+
+    /**
+     * get_the_requested_range，null_means_the_whole_file
+     * <p>
+     * invalid_or_multiple_ranges_are_ignored，if_range_that_does_not_match_the_current_file_also_sends_the_whole_file
+     */
+    private HttpRange getRange(HttpServletRequest request, FirmwareFile firmware) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (StringUtils.isBlank(rangeHeader)) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (StringUtils.isNotBlank(ifRange)) {
+            if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+                // weak_tags_never_match
+                if (!ifRange.equals(firmware.getEtag())) {
+                    return null;
+                }
+            } else {
+                try {
+                    long since = request.getDateHeader(HttpHeaders.IF_RANGE);
+                    if (since / 1000 != firmware.getLastModified() / 1000) {
+                        return null;
+                    }
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * send_the_firmware_without_loading_it_on_the_heap
+     * <p>
+     * a_mapped_firmware_is_written_from_memory，otherwise_the_file_channel_is_transferred_to_the_response。
+     * sendfile_is_not_used，because_the_bytes_it_sends_cannot_be_counted
+     */
+    private void writeFirmware(String uuid, FirmwareFile firmware, long start, long length,
+            HttpServletResponse response) throws IOException {
+        OutputStream out = response.getOutputStream();
+        CountingChannel channel = new CountingChannel(Channels.newChannel(out));
+        try {
+            firmware.transferTo(channel, start, length);
+            out.flush();
+        } finally {
+            // a_resumed_request_may_only_continue_within_the_bytes_actually_sent
+            downloadTokenService.recordOtaDownload(uuid, start + channel.written, firmware.getSize());
         }
     }
 
@@ -288,4 +354,33 @@ public class OTAMagController {
         }
         return sb.toString();
     }
+
+    /**
+     * counts_the_bytes_written_to_the_response
+     */
+    private static class CountingChannel implements WritableByteChannel {
+        private final WritableByteChannel target;
+        private long written;
+
+        CountingChannel(WritableByteChannel target) {
+            this.target = target;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            int n = target.write(src);
+            written += n;
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return target.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            target.close();
+        }
+    }
 }
@@ -1,8 +1,11 @@
 package xiaozhi.modules.device.dao;
 
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 
@@ -18,4 +21,20 @@ public interface DeviceDao extends BaseMapper<DeviceEntity> {
      */
     Date getAllLastConnectedAtByAgentId(String agentId);
 
+    /**
+     * latest_connection_time_of_the_devices_of_each_agent，in_one_query
+     *
+     * @param agentIds agent_ids
+     * @return agentId_and_lastConnectedAt_of_each_agent_that_has_devices
+     */
+    List<DeviceEntity> getLastConnectedAtByAgentIds(@Param("agentIds") Collection<String> agentIds);
+
+    /**
+     * update_the_last_connection_time_and_firmware_version_of_multiple_devices_in_one_statement
+     *
+     * @param devices id、lastConnectedAt、appVersion（null_keeps_the_current_version）
+     * @return number_of_updated_rows
+     */
+    int batchUpdateConnectionInfo(@Param("devices") List<DeviceEntity> devices);
+
 }
\ No newline at end of file
@@ -24,4 +24,10 @@ public class DevicePageUserDTO {
     @Schema(description = "Display number of columns")
     @Min(value = 0, message = "{limit.number}")
     private String limit;
+
+    @Schema(description = "Cursor of the previous page, the page then starts after it instead of at the page number")
+    private String cursor;
+
+    @Schema(description = "How to count the total: exact (default), estimate or none")
+    private String count;
 }
@@ -0,0 +1,65 @@
+package xiaozhi.modules.device.firmware;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import lombok.Getter;
+
+/**
+ * firmware_file_ready_to_be_sent
+ * <p>
+ * the_content_is_either_a_shared_read_only_memory_mapping，or_read_from_the_file_channel_while_writing
+ */
+@Getter
+public class FirmwareFile {
+    private final Path path;
+    private final long size;
+    private final long lastModified;
+    /**
+     * md5_of_the_content，used_as_the_etag
+     */
+    private final String md5;
+    private final ByteBuffer mapped;
+
+    FirmwareFile(Path path, long size, long lastModified, String md5, ByteBuffer mapped) {
+        this.path = path;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.md5 = md5;
+        this.mapped = mapped;
+    }
+
+    public String getEtag() {
+        return "\"" + md5 + "\"";
+    }
+
+    /**
+     * write_length_bytes_starting_at_start，the_whole_file_is_never_held_on_the_heap
+     */
+    public void transferTo(WritableByteChannel target, long start, long length) throws IOException {
+        if (mapped != null) {
+            // each_writer_uses_its_own_view，the_mapping_itself_is_shared
+            ByteBuffer view = mapped.duplicate();
+            view.position((int) start).limit((int) (start + length));
+            while (view.hasRemaining()) {
+                target.write(view);
+            }
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long position = start;
+            long end = start + length;
+            while (position < end) {
+                long written = channel.transferTo(position, end - position, target);
+                if (written <= 0) {
+                    break;
+                }
+                position += written;
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package xiaozhi.modules.device.firmware;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import xiaozhi.modules.device.entity.OtaEntity;
+import xiaozhi.modules.device.firmware.LatestFirmwareIndex.LatestFirmware;
+
+/**
+ * locate_firmware_files_and_keep_their_md5
+ * <p>
+ * uploaded_firmware_is_named_after_its_md5，so_the_md5_is_taken_from_the_file_name，other_files_are_hashed_once。
+ * when_enabled，the_latest_firmware_of_each_board_type_is_kept_memory_mapped_and_shared_by_all_downloads
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FirmwareFileStore {
+    private static final Pattern MD5_PATTERN = Pattern.compile("[0-9a-f]{32}");
+
+    private final LatestFirmwareIndex latestFirmwareIndex;
+
+    @Value("${renren.ota.mmap-cache:false}")
+    private boolean mmapCache;
+
+    /**
+     * firmware_larger_than_this_is_never_mapped
+     */
+    @Value("${renren.ota.mmap-max-size:33554432}")
+    private long mmapMaxSize;
+
+    /**
+     * path -> md5，dropped_when_the_size_or_modification_time_changes
+     */
+    private final Map<Path, Digest> digests = new ConcurrentHashMap<>();
+
+    /**
+     * firmware_type -> mapped_firmware
+     */
+    private final Map<String, MappedFirmware> mappings = new ConcurrentHashMap<>();
+
+    /**
+     * open_the_firmware_file，null_if_it_cannot_be_found
+     */
+    public FirmwareFile open(OtaEntity ota) throws IOException {
+        Path path = resolvePath(ota.getFirmwarePath());
+        if (path == null) {
+            return null;
+        }
+        long size = Files.size(path);
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+        String md5 = md5(path, size, lastModified);
+        MappedByteBuffer mapped = null;
+        if (mmapCache && size > 0 && size <= Math.min(mmapMaxSize, Integer.MAX_VALUE)) {
+            mapped = mapped(ota, path, size, lastModified);
+        }
+        return new FirmwareFile(path, size, lastModified, md5, mapped);
+    }
+
+    /**
+     * make_sure_the_path_is_absolute_or_the_correct_relative_path
+     */
+    private Path resolvePath(String firmwarePath) {
+        if (StringUtils.isBlank(firmwarePath)) {
+            return null;
+        }
+        Path path;
+        // check_if_it_is_an_absolute_path
+        if (Paths.get(firmwarePath).isAbsolute()) {
+            path = Paths.get(firmwarePath);
+        } else {
+            // if_it_is_a_relative_path，then_parsed_from_the_current_working_directory
+            path = Paths.get(System.getProperty("user.dir"), firmwarePath);
+        }
+        if (Files.isRegularFile(path)) {
+            return path;
+        }
+        // try_to_find_the_file_name_directly_from_the_firmware_directory
+        String fileName = new File(firmwarePath).getName();
+        Path altPath = Paths.get(System.getProperty("user.dir"), "firmware", fileName);
+        if (Files.isRegularFile(altPath)) {
+            return altPath;
+        }
+        log.error("Firmware file not found at either path: {} or {}", path.toAbsolutePath(),
+                altPath.toAbsolutePath());
+        return null;
+    }
+
+    private String md5(Path path, long size, long lastModified) throws IOException {
+        String stem = StringUtils.substringBefore(path.getFileName().toString(), ".");
+        if (MD5_PATTERN.matcher(stem).matches()) {
+            return stem;
+        }
+        Digest digest = digests.get(path);
+        if (digest != null && digest.size() == size && digest.lastModified() == lastModified) {
+            return digest.md5();
+        }
+        String md5 = hash(path);
+        digests.put(path, new Digest(size, lastModified, md5));
+        return md5;
+    }
+
+    private MappedByteBuffer mapped(OtaEntity ota, Path path, long size, long lastModified) throws IOException {
+        String type = StringUtils.defaultString(ota.getType());
+        LatestFirmware latest = latestFirmwareIndex.get(type);
+        if (latest == null || !latest.id().equals(ota.getId())) {
+            // not_the_active_firmware_of_this_board_type，read_from_the_file
+            return null;
+        }
+        MappedFirmware current = mappings.get(type);
+        if (current != null && current.path().equals(path) && current.size() == size
+                && current.lastModified() == lastModified) {
+            return current.buffer();
+        }
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the_mapping_stays_valid_after_the_channel_is_closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        mappings.put(type, new MappedFirmware(path, size, lastModified, buffer));
+        log.info("Mapped firmware {} of type {}, {} bytes", path, type, size);
+        return buffer;
+    }
+
+    private static String hash(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                md.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(md.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Digest(long size, long lastModified, String md5) {
+    }
+
+    private record MappedFirmware(Path path, long size, long lastModified, MappedByteBuffer buffer) {
+    }
+}
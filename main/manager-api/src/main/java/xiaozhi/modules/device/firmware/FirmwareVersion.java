@@ -0,0 +1,93 @@
+package xiaozhi.modules.device.firmware;
+
+import java.util.Arrays;
+
+/**
+ * firmware_version_parsed_into_numbers，e.g._1.6.2
+ * <p>
+ * each_part_uses_its_leading_digits，a_part_without_digits_counts_as_0，missing_parts_count_as_0
+ */
+public final class FirmwareVersion implements Comparable<FirmwareVersion> {
+    public static final FirmwareVersion ZERO = new FirmwareVersion(new int[0]);
+
+    private final int[] parts;
+
+    private FirmwareVersion(int[] parts) {
+        this.parts = parts;
+    }
+
+    public static FirmwareVersion parse(String version) {
+        if (version == null || version.isEmpty()) {
+            return ZERO;
+        }
+        int count = 1;
+        for (int i = 0; i < version.length(); i++) {
+            if (version.charAt(i) == '.') {
+                count++;
+            }
+        }
+        int[] parts = new int[count];
+        int index = 0;
+        int value = 0;
+        boolean digits = true;
+        for (int i = 0; i < version.length(); i++) {
+            char c = version.charAt(i);
+            if (c == '.') {
+                parts[index++] = value;
+                value = 0;
+                digits = true;
+            } else if (digits && c >= '0' && c <= '9') {
+                // values_above_int_range_are_capped
+                value = value > (Integer.MAX_VALUE - 9) / 10 ? Integer.MAX_VALUE : value * 10 + (c - '0');
+            } else {
+                digits = false;
+            }
+        }
+        parts[index] = value;
+        return new FirmwareVersion(parts);
+    }
+
+    public boolean isNewerThan(FirmwareVersion other) {
+        return compareTo(other) > 0;
+    }
+
+    @Override
+    public int compareTo(FirmwareVersion other) {
+        int length = Math.max(parts.length, other.parts.length);
+        for (int i = 0; i < length; i++) {
+            int v1 = i < parts.length ? parts[i] : 0;
+            int v2 = i < other.parts.length ? other.parts[i] : 0;
+            if (v1 != v2) {
+                return v1 > v2 ? 1 : -1;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof FirmwareVersion other && compareTo(other) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        // trailing_zeros_do_not_change_the_version
+        int length = parts.length;
+        while (length > 0 && parts[length - 1] == 0) {
+            length--;
+        }
+        return Arrays.hashCode(Arrays.copyOf(parts, length));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                sb.append('.');
+            }
+            sb.append(parts[i]);
+        }
+        return sb.toString();
+    }
+}
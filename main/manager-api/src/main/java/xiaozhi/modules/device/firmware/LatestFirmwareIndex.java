@@ -0,0 +1,97 @@
+package xiaozhi.modules.device.firmware;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+
+import xiaozhi.common.redis.RedisInvalidatedCache;
+import xiaozhi.common.redis.RedisKeys;
+import xiaozhi.common.redis.RedisUtils;
+import xiaozhi.modules.device.dao.OtaDao;
+import xiaozhi.modules.device.entity.OtaEntity;
+
+/**
+ * in_process_index_of_the_latest_firmware_of_each_board_type
+ * <p>
+ * the_firmware_table_is_small，it_is_loaded_once_and_reloaded_after_any_firmware_changes，
+ * other_nodes_are_notified_through_redis_channel
+ */
+@Component
+public class LatestFirmwareIndex extends RedisInvalidatedCache {
+    private final OtaDao otaDao;
+
+    /**
+     * firmware_type -> latest_firmware，null_until_loaded
+     */
+    private volatile Map<String, LatestFirmware> latest;
+
+    public LatestFirmwareIndex(OtaDao otaDao, RedisUtils redisUtils,
+            RedisMessageListenerContainer redisMessageListenerContainer) {
+        super(redisUtils, redisMessageListenerContainer);
+        this.otaDao = otaDao;
+    }
+
+    /**
+     * get_the_latest_firmware_of_the_type，null_if_there_is_none
+     */
+    public LatestFirmware get(String type) {
+        Map<String, LatestFirmware> current = latest;
+        if (current == null) {
+            current = loadAll();
+        }
+        return current.get(type);
+    }
+
+    /**
+     * reload_the_index_on_all_nodes_after_the_current_transaction_commits
+     */
+    public void invalidate() {
+        invalidateAfterCommit(MSG_ALL);
+    }
+
+    @Override
+    protected String getTopic() {
+        return RedisKeys.getOtaLatestInvalidateTopic();
+    }
+
+    @Override
+    protected void applyInvalidation(Object message) {
+        latest = null;
+    }
+
+    private Map<String, LatestFirmware> loadAll() {
+        long startEpoch = startLoad();
+        List<OtaEntity> entities = otaDao.selectList(new QueryWrapper<OtaEntity>()
+                .select("id", "type", "version", "update_date"));
+        Map<String, LatestFirmware> loaded = new HashMap<>();
+        for (OtaEntity entity : entities) {
+            if (entity.getType() == null) {
+                continue;
+            }
+            LatestFirmware firmware = new LatestFirmware(entity.getId(), entity.getType(), entity.getVersion(),
+                    FirmwareVersion.parse(entity.getVersion()), entity.getUpdateDate());
+            loaded.merge(entity.getType(), firmware, (a, b) -> a.updatedTime() >= b.updatedTime() ? a : b);
+        }
+        Map<String, LatestFirmware> result = Collections.unmodifiableMap(loaded);
+        keepIfCurrent(startEpoch, () -> latest = result);
+        return result;
+    }
+
+    /**
+     * latest_firmware_of_a_board_type，the_version_is_parsed_once
+     */
+    public record LatestFirmware(String id, String type, String version, FirmwareVersion parsedVersion,
+            Date updateDate) {
+
+        long updatedTime() {
+            return updateDate == null ? 0 : updateDate.getTime();
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package xiaozhi.modules.device.service;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import xiaozhi.common.page.PageData;
 import xiaozhi.common.service.BaseService;
@@ -89,6 +91,14 @@ public interface DeviceService extends BaseService<DeviceEntity> {
      */
     Date getLatestLastConnectionTime(String agentId);
 
+    /**
+     * get_the_most_recent_last_connection_time_of_the_devices_of_several_agents
+     *
+     * @param agentIds agent_ids
+     * @return agent_id -> last_connection_time，agents_without_devices_are_left_out
+     */
+    Map<String, Date> getLatestLastConnectionTimes(Collection<String> agentIds);
+
     /**
      * add_device_manually
      */
@@ -3,26 +3,23 @@ package xiaozhi.modules.device.service.impl;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
-import java.util.UUID;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.aop.framework.AopContext;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
-import com.baomidou.mybatisplus.core.metadata.IPage;
 
 import cn.hutool.core.util.RandomUtil;
 import jakarta.servlet.http.HttpServletRequest;
@@ -32,22 +29,27 @@ import xiaozhi.common.constant.Constant;
 import xiaozhi.common.exception.ErrorCode;
 import xiaozhi.common.exception.RenException;
 import xiaozhi.common.page.PageData;
+import xiaozhi.common.redis.DownloadTokenService;
+import xiaozhi.common.redis.RedisBatchLoader;
 import xiaozhi.common.redis.RedisKeys;
 import xiaozhi.common.redis.RedisUtils;
 import xiaozhi.common.service.impl.BaseServiceImpl;
 import xiaozhi.common.user.UserDetail;
 import xiaozhi.common.utils.ConvertUtils;
 import xiaozhi.common.utils.DateUtils;
+import xiaozhi.modules.config.cache.AgentConfigCache;
 import xiaozhi.modules.device.dao.DeviceDao;
 import xiaozhi.modules.device.dto.DeviceManualAddDTO;
 import xiaozhi.modules.device.dto.DevicePageUserDTO;
 import xiaozhi.modules.device.dto.DeviceReportReqDTO;
 import xiaozhi.modules.device.dto.DeviceReportRespDTO;
 import xiaozhi.modules.device.entity.DeviceEntity;
-import xiaozhi.modules.device.entity.OtaEntity;
+import xiaozhi.modules.device.firmware.FirmwareVersion;
+import xiaozhi.modules.device.firmware.LatestFirmwareIndex;
+import xiaozhi.modules.device.firmware.LatestFirmwareIndex.LatestFirmware;
 import xiaozhi.modules.device.service.DeviceService;
-import xiaozhi.modules.device.service.OtaService;
 import xiaozhi.modules.device.vo.UserShowDeviceListVO;
+import xiaozhi.modules.device.writer.DeviceConnectionWriter;
 import xiaozhi.modules.security.user.SecurityUser;
 import xiaozhi.modules.sys.service.SysParamsService;
 import xiaozhi.modules.sys.service.SysUserUtilService;
@@ -61,24 +63,16 @@ public class DeviceServiceImpl extends BaseServiceImpl<DeviceDao, DeviceEntity>
     private final SysUserUtilService sysUserUtilService;
     private final SysParamsService sysParamsService;
     private final RedisUtils redisUtils;
-    private final OtaService otaService;
+    private final LatestFirmwareIndex latestFirmwareIndex;
+    private final AgentConfigCache agentConfigCache;
+    private final DeviceConnectionWriter deviceConnectionWriter;
+    private final DownloadTokenService downloadTokenService;
+    private final RedisBatchLoader redisBatchLoader;
 
-    @Async
+    @Override
     public void updateDeviceConnectionInfo(String agentId, String deviceId, String appVersion) {
-        try {
-            DeviceEntity device = new DeviceEntity();
-            device.setId(deviceId);
-            device.setLastConnectedAt(new Date());
-            if (StringUtils.isNotBlank(appVersion)) {
-                device.setAppVersion(appVersion);
-            }
-            deviceDao.updateById(device);
-            if (StringUtils.isNotBlank(agentId)) {
-                redisUtils.set(RedisKeys.getAgentDeviceLastConnectedAtById(agentId), new Date());
-            }
-        } catch (Exception e) {
-            log.error("Asynchronous update of device connection information failed", e);
-        }
+        // merged_in_memory_and_written_in_batches
+        deviceConnectionWriter.record(agentId, deviceId, appVersion);
     }
 
     @Override
@@ -189,7 +183,7 @@ public class DeviceServiceImpl extends BaseServiceImpl<DeviceDao, DeviceEntity>
 
         // add_mqtt UDP configuration
         // get_mqtt_from_system_parameters Gateway address, only_used_if_the_configuration_is_valid
-        String mqttUdpConfig = sysParamsService.getValue(Constant.SERVER_MQTT_GATEWAY, false);
+        String mqttUdpConfig = sysParamsService.getValue(Constant.SERVER_MQTT_GATEWAY, true);
         if (mqttUdpConfig != null && !mqttUdpConfig.equals("null") && !mqttUdpConfig.isEmpty()) {
             try {
                 String groupId = deviceById != null && deviceById.getBoard() != null ? deviceById.getBoard()
@@ -208,9 +202,7 @@ public class DeviceServiceImpl extends BaseServiceImpl<DeviceDao, DeviceEntity>
             // if_the_device_exists，then_asynchronously_update_the_last_connection_time_and_version_information
             String appVersion = deviceReport.getApplication() != null ? deviceReport.getApplication().getVersion()
                     : null;
-            // calling_asynchronous_methods_through_spring_proxy
-            ((DeviceServiceImpl) AopContext.currentProxy()).updateDeviceConnectionInfo(deviceById.getAgentId(),
-                    deviceById.getId(), appVersion);
+            updateDeviceConnectionInfo(deviceById.getAgentId(), deviceById.getId(), appVersion);
         } else {
             // if_the_device_does_not_exist，then_generate_activation_code
             DeviceReportRespDTO.Activation code = buildActivation(macAddress, deviceReport);
@@ -244,10 +236,12 @@ public class DeviceServiceImpl extends BaseServiceImpl<DeviceDao, DeviceEntity>
         wrapper.eq("user_id", userId);
         wrapper.eq("id", deviceId);
         baseDao.delete(wrapper);
+        agentConfigCache.evictByMacAddress(device.getMacAddress());
     }
 
     @Override
     public void deleteByUserId(Long userId) {
+        agentConfigCache.evictByUserId(userId);
         UpdateWrapper<DeviceEntity> wrapper = new UpdateWrapper<>();
         wrapper.eq("user_id", userId);
         baseDao.delete(wrapper);
@@ -262,6 +256,7 @@ public class DeviceServiceImpl extends BaseServiceImpl<DeviceDao, DeviceEntity>
 
     @Override
     public void deleteByAgentId(String agentId) {
+        agentConfigCache.evictByAgentId(agentId);
         UpdateWrapper<DeviceEntity> wrapper = new UpdateWrapper<>();
         wrapper.eq("agent_id", agentId);
         baseDao.delete(wrapper);
@@ -272,24 +267,29 @@ public class DeviceServiceImpl extends BaseServiceImpl<DeviceDao, DeviceEntity>
         Map<String, Object> params = new HashMap<String, Object>();
         params.put(Constant.PAGE, dto.getPage());
         params.put(Constant.LIMIT, dto.getLimit());
-        IPage<DeviceEntity> page = baseDao.selectPage(
-                getPage(params, "mac_address", true),
+        params.put(Constant.CURSOR, dto.getCursor());
+        params.put(Constant.COUNT, dto.getCount());
+        // seek_pagination，deep_pages_of_large_device_tables_do_not_scan_the_rows_before_them
+        PageData<DeviceEntity> page = selectKeysetPage(params,
                 // define_query_conditions
                 new QueryWrapper<DeviceEntity>()
                         // required_device_keyword_search
-                        .like(StringUtils.isNotBlank(dto.getKeywords()), "alias", dto.getKeywords()));
+                        .like(StringUtils.isNotBlank(dto.getKeywords()), "alias", dto.getKeywords()),
+                "mac_address", true);
+        // the_usernames_of_the_whole_page_in_one_lookup
+        Map<Long, String> usernames = sysUserUtilService
+                .getUsernames(page.getList().stream().map(DeviceEntity::getUserId).toList());
         // loop_through_the_data_retrieved_from_the_page，return_required_fields
-        List<UserShowDeviceListVO> list = page.getRecords().stream().map(device -> {
+        List<UserShowDeviceListVO> list = page.getList().stream().map(device -> {
             UserShowDeviceListVO vo = ConvertUtils.sourceToTarget(device, UserShowDeviceListVO.class);
             // put_the_last_modified_time，time_to_change_to_short_description
             vo.setRecentChatTime(DateUtils.getShortTime(device.getUpdateDate()));
-            sysUserUtilService.assignUsername(device.getUserId(),
-                    vo::setBindUserName);
+            vo.setBindUserName(usernames.get(device.getUserId()));
             vo.setDeviceType(device.getBoard());
             return vo;
         }).toList();
         // count_pages
-        return new PageData<>(list, page.getTotal());
+        return new PageData<>(list, page.getTotal(), page.getCursor());
     }
 
     @Override
@@ -337,6 +337,19 @@ public class DeviceServiceImpl extends BaseServiceImpl<DeviceDao, DeviceEntity>
         return maxDate;
     }
 
+    @Override
+    public Map<String, Date> getLatestLastConnectionTimes(Collection<String> agentIds) {
+        return redisBatchLoader.load(agentIds, RedisKeys::getAgentDeviceLastConnectedAtById, missing -> {
+            Map<String, Date> times = new HashMap<>();
+            for (DeviceEntity device : deviceDao.getLastConnectedAtByAgentIds(missing)) {
+                if (device.getLastConnectedAt() != null) {
+                    times.put(device.getAgentId(), device.getLastConnectedAt());
+                }
+            }
+            return times;
+        }, RedisUtils.DEFAULT_EXPIRE);
+    }
+
     private String getDeviceCacheKey(String deviceId) {
         String safeDeviceId = deviceId.replace(":", "_").toLowerCase();
         String dataKey = String.format("ota:activation:data:%s", safeDeviceId);
@@ -393,13 +406,13 @@ public class DeviceServiceImpl extends BaseServiceImpl<DeviceDao, DeviceEntity>
             currentVersion = "0.0.0";
         }
 
-        OtaEntity ota = otaService.getLatestOta(type);
+        LatestFirmware ota = latestFirmwareIndex.get(type);
         DeviceReportRespDTO.Firmware firmware = new DeviceReportRespDTO.Firmware();
         String downloadUrl = null;
 
         if (ota != null) {
             // if_the_device_does_not_have_version_information，or_the_ota_version_is_newer_than_the_device_version，then_return_to_the_download_address
-            if (compareVersions(ota.getVersion(), currentVersion) > 0) {
+            if (ota.parsedVersion().isNewerThan(FirmwareVersion.parse(currentVersion))) {
                 String otaUrl = sysParamsService.getValue(Constant.SERVER_OTA, true);
                 if (StringUtils.isBlank(otaUrl) || otaUrl.equals("null")) {
                     log.error("The OTA address is not configured, please_log_in_to_the_smart_console, found_in_parameter_management [server.ota] is configured");
@@ -410,47 +423,16 @@ public class DeviceServiceImpl extends BaseServiceImpl<DeviceDao, DeviceEntity>
                     otaUrl = request.getRequestURL().toString();
                 }
                 // in_the_url/ota/replace_with/otaMag/download/
-                String uuid = UUID.randomUUID().toString();
-                redisUtils.set(RedisKeys.getOtaIdKey(uuid), ota.getId());
+                String uuid = downloadTokenService.createOtaToken(ota.id());
                 downloadUrl = otaUrl.replace("/ota/", "/otaMag/download/") + uuid;
             }
         }
 
-        firmware.setVersion(ota == null ? currentVersion : ota.getVersion());
+        firmware.setVersion(ota == null ? currentVersion : ota.version());
         firmware.setUrl(downloadUrl == null ? Constant.INVALID_FIRMWARE_URL : downloadUrl);
         return firmware;
     }
 
-    /*
-*
-     * compare_two_version_numbers
-     * 
-     * @param version1 version_1
-     * @param version2 version_2
-* @return if_version1 > version2 returns 1, version1 < version2 returns -1, returns_0_if_equal
-*/
-    private static int compareVersions(String version1, String version2) {
-        if (version1 == null || version2 == null) {
-            return 0;
-        }
-
-        String[] v1Parts = version1.split("\\.");
-        String[] v2Parts = version2.split("\\.");
-
-        int length = Math.max(v1Parts.length, v2Parts.length);
-        for (int i = 0; i < length; i++) {
-            int v1 = i < v1Parts.length ? Integer.parseInt(v1Parts[i]) : 0;
-            int v2 = i < v2Parts.length ? Integer.parseInt(v2Parts[i]) : 0;
-
-            if (v1 > v2) {
-                return 1;
-            } else if (v1 < v2) {
-                return -1;
-            }
-        }
-        return 0;
-    }
-
     @Override
     public void manualAddDevice(Long userId, DeviceManualAddDTO dto) {
         // check_if_mac_already_exists
@@ -507,7 +489,7 @@ public class DeviceServiceImpl extends BaseServiceImpl<DeviceDao, DeviceEntity>
     private DeviceReportRespDTO.MQTT buildMqttConfig(String macAddress, String groupId)
             throws Exception {
         // get_the_signing_key_from_an_environment_variable_or_system_parameter
-        String signatureKey = sysParamsService.getValue("server.mqtt_signature_key", false);
+        String signatureKey = sysParamsService.getValue("server.mqtt_signature_key", true);
         if (StringUtils.isBlank(signatureKey)) {
             log.warn("MQTT_SIGNATURE_KEY is missing, skipping MQTT configuration generation");
             return null;
@@ -11,14 +11,18 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 
 import io.micrometer.common.util.StringUtils;
+import lombok.RequiredArgsConstructor;
 import xiaozhi.common.page.PageData;
 import xiaozhi.common.service.impl.BaseServiceImpl;
 import xiaozhi.modules.device.dao.OtaDao;
 import xiaozhi.modules.device.entity.OtaEntity;
+import xiaozhi.modules.device.firmware.LatestFirmwareIndex;
 import xiaozhi.modules.device.service.OtaService;
 
 @Service
+@RequiredArgsConstructor
 public class OtaServiceImpl extends BaseServiceImpl<OtaDao, OtaEntity> implements OtaService {
+    private final LatestFirmwareIndex latestFirmwareIndex;
 
     @Override
     public PageData<OtaEntity> page(Map<String, Object> params) {
@@ -52,11 +56,13 @@ public class OtaServiceImpl extends BaseServiceImpl<OtaDao, OtaEntity> implement
 
         entity.setUpdateDate(new Date());
         baseDao.updateById(entity);
+        latestFirmwareIndex.invalidate();
     }
 
     @Override
     public void delete(String[] ids) {
         baseDao.deleteBatchIds(Arrays.asList(ids));
+        latestFirmwareIndex.invalidate();
     }
 
     @Override
@@ -69,9 +75,12 @@ public class OtaServiceImpl extends BaseServiceImpl<OtaDao, OtaEntity> implement
             OtaEntity otaBefore = otaList.getFirst();
             entity.setId(otaBefore.getId());
             baseDao.updateById(entity);
+            latestFirmwareIndex.invalidate();
             return true;
         }
-        return baseDao.insert(entity) > 0;
+        boolean inserted = baseDao.insert(entity) > 0;
+        latestFirmwareIndex.invalidate();
+        return inserted;
     }
 
     @Override
@@ -0,0 +1,275 @@
+package xiaozhi.modules.device.writer;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import xiaozhi.common.redis.RedisKeys;
+import xiaozhi.common.redis.RedisUtils;
+import xiaozhi.modules.device.dao.DeviceDao;
+import xiaozhi.modules.device.entity.DeviceEntity;
+
+/**
+ * write_behind_buffer_of_device_connection_information
+ * <p>
+ * repeated_connections_of_the_same_device_between_two_flushes_are_merged_into_one_row，
+ * the_rows_are_written_with_batched_multi_row_updates_by_a_single_background_thread，and_flushed_again_on_shutdown。
+ * the_rows_of_a_failed_batch_are_queued_again_behind_newer_connections，and_dropped_after_MAX_ATTEMPTS_failures
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeviceConnectionWriter implements MeterBinder {
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final DeviceDao deviceDao;
+    private final RedisUtils redisUtils;
+
+    @Value("${renren.device-connection.flush-interval-ms:5000}")
+    private long flushIntervalMs;
+
+    @Value("${renren.device-connection.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * flush_early_when_this_many_devices_are_pending，records_and_failed_rows_are_dropped_above_twice_this_number
+     */
+    @Value("${renren.device-connection.max-pending:50000}")
+    private int maxPending;
+
+    private final Map<String, PendingConnection> pending = new ConcurrentHashMap<>();
+    private final Map<String, Date> pendingAgents = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final AtomicLong recordedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "device-connection-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        // write_what_is_left_before_the_connection_pool_is_closed
+        flushQuietly();
+    }
+
+    /**
+     * record_a_device_connection，returns_immediately
+     *
+     * @param agentId    agent_id，may_be_empty
+     * @param deviceId   device_id
+     * @param appVersion firmware_version，empty_keeps_the_current_version
+     */
+    public void record(String agentId, String deviceId, String appVersion) {
+        if (StringUtils.isBlank(deviceId)) {
+            return;
+        }
+        recordedCount.incrementAndGet();
+        Date now = new Date();
+        if (pending.size() >= maxPending * 2L && !pending.containsKey(deviceId)) {
+            droppedCount.incrementAndGet();
+            return;
+        }
+        pending.merge(deviceId, new PendingConnection(now, StringUtils.trimToNull(appVersion)),
+                PendingConnection::merge);
+        if (StringUtils.isNotBlank(agentId)) {
+            pendingAgents.put(agentId, now);
+        }
+        if (pending.size() >= maxPending && flushRequested.compareAndSet(false, true)) {
+            scheduler.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * write_all_pending_connections
+     */
+    public synchronized void flush() {
+        flushRequested.set(false);
+        if (!pendingAgents.isEmpty()) {
+            Map<String, Date> agents = drain(pendingAgents);
+            for (Map.Entry<String, Date> entry : agents.entrySet()) {
+                redisUtils.set(RedisKeys.getAgentDeviceLastConnectedAtById(entry.getKey()), entry.getValue());
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, PendingConnection> devices = drain(pending);
+        List<DeviceEntity> batch = new ArrayList<>(Math.min(batchSize, devices.size()));
+        for (Map.Entry<String, PendingConnection> entry : devices.entrySet()) {
+            DeviceEntity device = new DeviceEntity();
+            device.setId(entry.getKey());
+            device.setLastConnectedAt(entry.getValue().lastConnectedAt());
+            device.setAppVersion(entry.getValue().appVersion());
+            batch.add(device);
+            if (batch.size() >= batchSize) {
+                writeBatch(batch, devices);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch, devices);
+        }
+        flushCount.incrementAndGet();
+        log.debug("Flushed {} device connections, recorded {}, written {}", devices.size(), recordedCount.get(),
+                writtenCount.get());
+    }
+
+    /**
+     * number_of_connections_recorded
+     */
+    public long getRecordedCount() {
+        return recordedCount.get();
+    }
+
+    /**
+     * number_of_device_rows_written_to_the_database
+     */
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    /**
+     * number_of_connections_dropped_because_the_buffer_was_full_or_their_row_failed_too_often
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * number_of_failed_attempts_to_write_a_device_row
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * connections_recorded_per_row_written，higher_means_more_merging
+     */
+    public double getCoalescingRatio() {
+        long written = writtenCount.get();
+        return written == 0 ? 0 : (double) recordedCount.get() / written;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("device.connection.writer.recorded", this, DeviceConnectionWriter::getRecordedCount)
+                .register(registry);
+        FunctionCounter.builder("device.connection.writer.written", this, DeviceConnectionWriter::getWrittenCount)
+                .register(registry);
+        FunctionCounter.builder("device.connection.writer.flushes", this, DeviceConnectionWriter::getFlushCount)
+                .register(registry);
+        FunctionCounter.builder("device.connection.writer.dropped", this, DeviceConnectionWriter::getDroppedCount)
+                .register(registry);
+        FunctionCounter.builder("device.connection.writer.failed", this, DeviceConnectionWriter::getFailedCount)
+                .register(registry);
+        Gauge.builder("device.connection.writer.pending", this, DeviceConnectionWriter::getPendingCount)
+                .register(registry);
+    }
+
+    private void writeBatch(List<DeviceEntity> batch, Map<String, PendingConnection> devices) {
+        try {
+            deviceDao.batchUpdateConnectionInfo(batch);
+            writtenCount.addAndGet(batch.size());
+        } catch (Exception e) {
+            failedCount.addAndGet(batch.size());
+            log.error("Batch update of device connection information failed, {} devices", batch.size(), e);
+            for (DeviceEntity device : batch) {
+                requeue(device.getId(), devices.get(device.getId()).failed());
+            }
+        }
+    }
+
+    /**
+     * put_a_failed_row_back，a_connection_recorded_since_the_drain_keeps_its_newer_values
+     */
+    private void requeue(String deviceId, PendingConnection failed) {
+        if (failed.attempts() >= MAX_ATTEMPTS
+                || (pending.size() >= maxPending * 2L && !pending.containsKey(deviceId))) {
+            droppedCount.incrementAndGet();
+            return;
+        }
+        pending.merge(deviceId, failed, (newer, older) -> older.merge(newer));
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Flushing device connection information failed", e);
+        }
+    }
+
+    private static <V> Map<String, V> drain(Map<String, V> source) {
+        Map<String, V> drained = new HashMap<>(source.size() * 2);
+        for (String key : source.keySet()) {
+            V value = source.remove(key);
+            if (value != null) {
+                drained.put(key, value);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * @param attempts number_of_failed_writes_of_this_row
+     */
+    private record PendingConnection(Date lastConnectedAt, String appVersion, int attempts) {
+
+        PendingConnection(Date lastConnectedAt, String appVersion) {
+            this(lastConnectedAt, appVersion, 0);
+        }
+
+        PendingConnection merge(PendingConnection newer) {
+            return new PendingConnection(newer.lastConnectedAt,
+                    newer.appVersion != null ? newer.appVersion : appVersion, Math.max(attempts, newer.attempts));
+        }
+
+        PendingConnection failed() {
+            return new PendingConnection(lastConnectedAt, appVersion, attempts + 1);
+        }
+    }
+}
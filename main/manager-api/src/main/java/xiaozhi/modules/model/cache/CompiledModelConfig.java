@@ -0,0 +1,95 @@
+package xiaozhi.modules.model.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+import cn.hutool.json.JSONNull;
+import lombok.Getter;
+import xiaozhi.modules.model.entity.ModelConfigEntity;
+
+/**
+ * preparsed_immutable_model_configuration
+ * <p>
+ * built_once_per_model，shared_by_all_requests。per_agent_fields_must_be_written_through {@link #overlay()}
+ */
+@Getter
+public final class CompiledModelConfig {
+    private final String id;
+    private final String modelType;
+    /**
+     * type_field_in_the_configuration
+     */
+    private final String type;
+    /**
+     * llm_field_of_intent_and_memory_models
+     */
+    private final String llm;
+    /**
+     * deeply_immutable_configuration，null_if_the_model_has_no_configuration
+     */
+    private final Map<String, Object> config;
+
+    private CompiledModelConfig(String id, String modelType, Map<String, Object> config) {
+        this.id = id;
+        this.modelType = modelType;
+        this.config = config;
+        this.type = config == null ? null : asString(config.get("type"));
+        this.llm = config == null ? null : asString(config.get("llm"));
+    }
+
+    public static CompiledModelConfig compile(ModelConfigEntity entity) {
+        Map<String, Object> config = null;
+        if (entity.getConfigJson() != null) {
+            Map<String, Object> copy = copyMap(entity.getConfigJson());
+            // the_function_list_of_intent_recognition_is_stored_as_a_semicolon_separated_string
+            if (copy.get("functions") instanceof String functionStr && StringUtils.isNotBlank(functionStr)) {
+                copy.put("functions", Collections.unmodifiableList(Arrays.asList(functionStr.split("\\;"))));
+            }
+            config = Collections.unmodifiableMap(copy);
+        }
+        return new CompiledModelConfig(entity.getId(), entity.getModelType(), config);
+    }
+
+    /**
+     * create_a_writable_view_for_per_agent_fields，the_shared_configuration_is_not_copied
+     */
+    public ModelConfigOverlay overlay() {
+        return new ModelConfigOverlay(config == null ? Collections.emptyMap() : config);
+    }
+
+    private static Map<String, Object> copyMap(Map<?, ?> source) {
+        Map<String, Object> target = new LinkedHashMap<>(source.size() * 2);
+        for (Map.Entry<?, ?> entry : source.entrySet()) {
+            target.put(String.valueOf(entry.getKey()), copyValue(entry.getValue()));
+        }
+        return target;
+    }
+
+    private static Object copyValue(Object value) {
+        if (value == null || value instanceof JSONNull) {
+            return null;
+        }
+        if (value instanceof Map<?, ?> map) {
+            return Collections.unmodifiableMap(copyMap(map));
+        }
+        if (value instanceof Collection<?> collection) {
+            List<Object> list = new ArrayList<>(collection.size());
+            for (Object item : collection) {
+                list.add(copyValue(item));
+            }
+            return Collections.unmodifiableList(list);
+        }
+        return value;
+    }
+
+    private static String asString(Object value) {
+        return value == null ? null : value.toString();
+    }
+}
@@ -0,0 +1,67 @@
+package xiaozhi.modules.model.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import lombok.RequiredArgsConstructor;
+import xiaozhi.common.redis.RedisKeys;
+import xiaozhi.common.redis.RedisUtils;
+import xiaozhi.modules.model.dao.ModelConfigDao;
+import xiaozhi.modules.model.entity.ModelConfigEntity;
+
+/**
+ * in_process_cache_of_compiled_model_configurations，keyed_by_model_id
+ * <p>
+ * the_source_is_the_same_redis_cache_as {@code ModelConfigService.getModelByIdFromCache}，
+ * entries_are_dropped_when_the_model_is_edited_or_deleted
+ */
+@Component
+@RequiredArgsConstructor
+public class CompiledModelConfigCache {
+    private final RedisUtils redisUtils;
+    private final ModelConfigDao modelConfigDao;
+
+    private final Cache<String, CompiledModelConfig> cache = CacheBuilder.newBuilder()
+            .maximumSize(2000)
+            .expireAfterWrite(30, TimeUnit.MINUTES)
+            .build();
+
+    /**
+     * get_the_compiled_configuration，return_null_if_the_model_does_not_exist
+     */
+    public CompiledModelConfig get(String id) {
+        if (StringUtils.isBlank(id)) {
+            return null;
+        }
+        CompiledModelConfig compiled = cache.getIfPresent(id);
+        if (compiled != null) {
+            return compiled;
+        }
+
+        String cacheKey = RedisKeys.getModelConfigById(id);
+        ModelConfigEntity entity = (ModelConfigEntity) redisUtils.get(cacheKey);
+        if (entity == null) {
+            entity = modelConfigDao.selectById(id);
+            if (entity == null) {
+                return null;
+            }
+            redisUtils.set(cacheKey, entity);
+        }
+        compiled = CompiledModelConfig.compile(entity);
+        cache.put(id, compiled);
+        return compiled;
+    }
+
+    public void invalidate(String id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,114 @@
+package xiaozhi.modules.model.cache;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * copy_on_write_view_of_a_shared_model_configuration
+ * <p>
+ * reads_fall_through_to_the_shared_base，writes_only_go_to_the_small_overlay，so_the_base_is_never_modified
+ */
+public class ModelConfigOverlay extends AbstractMap<String, Object> implements Serializable {
+    private final Map<String, Object> base;
+    private final Map<String, Object> overlay = new HashMap<>(4);
+
+    /**
+     * used_when_deserializing_from_redis，all_fields_end_up_in_the_overlay
+     */
+    public ModelConfigOverlay() {
+        this(Collections.emptyMap());
+    }
+
+    public ModelConfigOverlay(Map<String, Object> base) {
+        this.base = base;
+    }
+
+    @Override
+    public Object get(Object key) {
+        return overlay.containsKey(key) ? overlay.get(key) : base.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return overlay.containsKey(key) || base.containsKey(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        Object old = get(key);
+        overlay.put(key, value);
+        return old;
+    }
+
+    @Override
+    public int size() {
+        int size = base.size();
+        for (String key : overlay.keySet()) {
+            if (!base.containsKey(key)) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new OverlayIterator();
+            }
+
+            @Override
+            public int size() {
+                return ModelConfigOverlay.this.size();
+            }
+        };
+    }
+
+    /**
+     * iterate_the_overlay_first，then_the_base_entries_not_covered_by_the_overlay
+     */
+    private class OverlayIterator implements Iterator<Entry<String, Object>> {
+        private final Iterator<Entry<String, Object>> overlayIterator = overlay.entrySet().iterator();
+        private final Iterator<Entry<String, Object>> baseIterator = base.entrySet().iterator();
+        private Entry<String, Object> next;
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            if (overlayIterator.hasNext()) {
+                Entry<String, Object> entry = overlayIterator.next();
+                next = new SimpleImmutableEntry<>(entry.getKey(), entry.getValue());
+                return true;
+            }
+            while (baseIterator.hasNext()) {
+                Entry<String, Object> entry = baseIterator.next();
+                if (!overlay.containsKey(entry.getKey())) {
+                    next = entry;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry<String, Object> entry = next;
+            next = null;
+            return entry;
+        }
+    }
+}
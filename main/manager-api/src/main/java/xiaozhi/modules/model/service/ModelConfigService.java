@@ -1,5 +1,6 @@
 package xiaozhi.modules.model.service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -33,6 +34,14 @@ public interface ModelConfigService extends BaseService<ModelConfigEntity> {
      */
     String getModelNameById(String id);
 
+    /**
+     * get_the_names_of_several_models，with_one_cache_read_and_at_most_one_query
+     *
+     * @param ids model_ids
+     * @return model_id -> model_name，unknown_ids_are_left_out
+     */
+    Map<String, String> getModelNamesByIds(Collection<String> ids);
+
     /**
      * get_model_configuration_based_on_id
      * 
@@ -1,6 +1,7 @@
 package xiaozhi.modules.model.service.impl;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,6 +24,7 @@ import xiaozhi.common.constant.Constant;
 import xiaozhi.common.exception.ErrorCode;
 import xiaozhi.common.exception.RenException;
 import xiaozhi.common.page.PageData;
+import xiaozhi.common.redis.RedisBatchLoader;
 import xiaozhi.common.redis.RedisKeys;
 import xiaozhi.common.redis.RedisUtils;
 import xiaozhi.common.service.impl.BaseServiceImpl;
@@ -30,6 +32,7 @@ import xiaozhi.common.utils.ConvertUtils;
 import xiaozhi.common.utils.SensitiveDataUtils;
 import xiaozhi.modules.agent.dao.AgentDao;
 import xiaozhi.modules.agent.entity.AgentEntity;
+import xiaozhi.modules.config.cache.AgentConfigCache;
 import xiaozhi.modules.model.dao.ModelConfigDao;
 import xiaozhi.modules.model.dto.LlmModelBasicInfoDTO;
 import xiaozhi.modules.model.dto.ModelBasicInfoDTO;
@@ -49,6 +52,8 @@ public class ModelConfigServiceImpl extends BaseServiceImpl<ModelConfigDao, Mode
     private final ModelProviderService modelProviderService;
     private final RedisUtils redisUtils;
     private final AgentDao agentDao;
+    private final AgentConfigCache agentConfigCache;
+    private final RedisBatchLoader redisBatchLoader;
 
     @Override
     public List<ModelBasicInfoDTO> getModelCodeList(String modelType, String modelName) {
@@ -125,6 +130,7 @@ public class ModelConfigServiceImpl extends BaseServiceImpl<ModelConfigDao, Mode
 
         // 7. clear_cache
         clearModelCache(id);
+        agentConfigCache.evictByModelId(id);
 
         // 8. return_processed_data（contains_sensitive_data_mask）
         return buildResponseDTO(modelConfigEntity);
@@ -160,6 +166,7 @@ public class ModelConfigServiceImpl extends BaseServiceImpl<ModelConfigDao, Mode
         modelConfigDao.deleteById(id);
 
         clearModelCache(id);
+        agentConfigCache.evictByModelId(id);
     }
 
     @Override
@@ -186,6 +193,16 @@ public class ModelConfigServiceImpl extends BaseServiceImpl<ModelConfigDao, Mode
         return null;
     }
 
+    @Override
+    public Map<String, String> getModelNamesByIds(Collection<String> ids) {
+        return redisBatchLoader.load(ids, RedisKeys::getModelNameById, missing -> modelConfigDao
+                .selectList(new QueryWrapper<ModelConfigEntity>().select("id", "model_name").in("id", missing))
+                .stream()
+                .filter(entity -> StringUtils.isNotBlank(entity.getModelName()))
+                .collect(Collectors.toMap(ModelConfigEntity::getId, ModelConfigEntity::getModelName)),
+                RedisUtils.DEFAULT_EXPIRE);
+    }
+
     @Override
     public ModelConfigEntity selectById(Serializable id) {
         ModelConfigEntity entity = super.selectById(id);
@@ -22,6 +22,7 @@ import xiaozhi.common.page.PageData;
 import xiaozhi.common.service.impl.BaseServiceImpl;
 import xiaozhi.common.user.UserDetail;
 import xiaozhi.common.utils.ConvertUtils;
+import xiaozhi.modules.config.cache.AgentConfigCache;
 import xiaozhi.modules.model.dao.ModelProviderDao;
 import xiaozhi.modules.model.dto.ModelProviderDTO;
 import xiaozhi.modules.model.entity.ModelProviderEntity;
@@ -34,6 +35,7 @@ public class ModelProviderServiceImpl extends BaseServiceImpl<ModelProviderDao,
         implements ModelProviderService {
 
     private final ModelProviderDao modelProviderDao;
+    private final AgentConfigCache agentConfigCache;
 
     @Override
     public List<ModelProviderDTO> getPluginList() {
@@ -125,6 +127,8 @@ public class ModelProviderServiceImpl extends BaseServiceImpl<ModelProviderDao,
                 .updateById(ConvertUtils.sourceToTarget(modelProviderDTO, ModelProviderEntity.class)) == 0) {
             throw new RenException(ErrorCode.UPDATE_DATA_FAILED);
         }
+        // the_plugin_code_of_the_provider_is_part_of_the_agent_configuration
+        agentConfigCache.evictAll();
         return ConvertUtils.sourceToTarget(modelProviderDTO, ModelProviderDTO.class);
     }
 
@@ -133,6 +137,7 @@ public class ModelProviderServiceImpl extends BaseServiceImpl<ModelProviderDao,
         if (modelProviderDao.deleteById(id) == 0) {
             throw new RenException(ErrorCode.DELETE_DATA_FAILED);
         }
+        agentConfigCache.evictAll();
     }
 
     @Override
@@ -140,6 +145,7 @@ public class ModelProviderServiceImpl extends BaseServiceImpl<ModelProviderDao,
         if (modelProviderDao.deleteBatchIds(ids) == 0) {
             throw new RenException(ErrorCode.DELETE_DATA_FAILED);
         }
+        agentConfigCache.evictAll();
     }
 
     @Override
@@ -0,0 +1,147 @@
+package xiaozhi.modules.security.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import xiaozhi.common.redis.RedisInvalidatedCache;
+import xiaozhi.common.redis.RedisKeys;
+import xiaozhi.common.redis.RedisUtils;
+import xiaozhi.common.user.UserDetail;
+
+/**
+ * in_process_cache_of_authenticated_tokens，keyed_by_the_sha256_of_the_token
+ * <p>
+ * entries_expire_with_the_token_and_at_most_after_ttl_seconds。logout，password_changes_and_user_status_changes
+ * drop_the_tokens_of_the_user_after_commit，other_nodes_are_notified_through_redis_channel
+ */
+@Component
+public class TokenAuthCache extends RedisInvalidatedCache implements MeterBinder {
+    @Value("${renren.token-cache.max-size:10000}")
+    private long maxSize;
+
+    /**
+     * longest_time_a_token_is_trusted_without_reading_the_database，bounds_the_effect_of_a_lost_notification
+     */
+    @Value("${renren.token-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private Cache<String, TokenAuth> cache;
+
+    public TokenAuthCache(RedisUtils redisUtils, RedisMessageListenerContainer redisMessageListenerContainer) {
+        super(redisUtils, redisMessageListenerContainer);
+    }
+
+    @PostConstruct
+    public void init() {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * get_the_user_of_the_token，load_it_when_it_is_not_cached_or_the_token_has_expired
+     *
+     * @param token  access_token
+     * @param loader read_the_token_and_the_user_from_the_database，exceptions_are_thrown_to_the_caller_and_nothing_is_cached
+     * @return a_new_user_object_for_each_call
+     */
+    public UserDetail getOrLoad(String token, Supplier<TokenAuth> loader) {
+        String key = hash(token);
+        TokenAuth auth = cache.getIfPresent(key);
+        if (auth != null && auth.expireTime() < System.currentTimeMillis()) {
+            cache.invalidate(key);
+            auth = null;
+        }
+        if (auth == null) {
+            long startEpoch = startLoad();
+            TokenAuth loaded = loader.get();
+            keepIfCurrent(startEpoch, () -> cache.put(key, loaded));
+            auth = loaded;
+        }
+        UserDetail userDetail = new UserDetail();
+        userDetail.setId(auth.userId());
+        userDetail.setUsername(auth.username());
+        userDetail.setSuperAdmin(auth.superAdmin());
+        userDetail.setStatus(auth.status());
+        userDetail.setToken(token);
+        return userDetail;
+    }
+
+    /**
+     * drop_the_tokens_of_the_user_on_all_nodes_after_the_current_transaction_commits
+     */
+    public void invalidateUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        invalidateAfterCommit(userId);
+    }
+
+    public void invalidateAll() {
+        invalidateAfterCommit(MSG_ALL);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        GuavaCacheMetrics.monitor(registry, cache, "token-auth");
+    }
+
+    @Override
+    protected String getTopic() {
+        return RedisKeys.getUserTokenInvalidateTopic();
+    }
+
+    @Override
+    protected void applyInvalidation(Object message) {
+        // the_user_id_of_another_node_may_be_deserialized_as_an_integer
+        if (message instanceof Number number) {
+            long userId = number.longValue();
+            cache.asMap().values().removeIf(auth -> auth.userId() != null && auth.userId() == userId);
+        } else {
+            cache.invalidateAll();
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * cached_user_of_a_token
+     *
+     * @param expireTime expiration_of_the_token，unit：millisecond
+     */
+    public record TokenAuth(Long userId, String username, Integer superAdmin, Integer status, long expireTime) {
+    }
+}
@@ -89,10 +89,14 @@ public class ShiroConfig {
         // use_the_config_path_with_the_server_service_filter
         filterMap.put("/config/**", "server");
         filterMap.put("/agent/chat-history/report", "server");
+        filterMap.put("/agent/chat-history/report/batch", "server");
         filterMap.put("/agent/chat-history/download/**", "anon");
         filterMap.put("/agent/saveMemory/**", "server");
         filterMap.put("/agent/play/**", "anon");
         filterMap.put("/voiceClone/play/**", "anon");
+        // health_checks_are_open，metrics_are_scraped_with_the_server_key（Authorization: Bearer）
+        filterMap.put("/actuator/health", "anon");
+        filterMap.put("/actuator/**", "server");
         filterMap.put("/**", "oauth2");
         shiroFilter.setFilterChainDefinitionMap(filterMap);
 
@@ -39,8 +39,7 @@ public class WebMvcConfig implements WebMvcConfigurer {
 
     @Override
     public void addCorsMappings(CorsRegistry registry) {
-        registry.addMapping("/*
-*")
+        registry.addMapping("/**")
                 .allowedOriginPatterns("*")
                 .allowCredentials(true)
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
@@ -104,7 +103,6 @@ public class WebMvcConfig implements WebMvcConfigurer {
     
     /**
 * international_configuration - set the locale according_to_the_accept_in_the_request_header-Language
-*/request_header-Language设置语言环境
      */
     @Bean
     public LocaleResolver localeResolver() {
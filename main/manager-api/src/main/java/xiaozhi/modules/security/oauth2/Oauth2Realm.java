@@ -22,8 +22,9 @@ import org.springframework.stereotype.Component;
 import jakarta.annotation.Resource;
 import xiaozhi.common.exception.ErrorCode;
 import xiaozhi.common.user.UserDetail;
-import xiaozhi.common.utils.ConvertUtils;
 import xiaozhi.common.utils.MessageUtils;
+import xiaozhi.modules.security.cache.TokenAuthCache;
+import xiaozhi.modules.security.cache.TokenAuthCache.TokenAuth;
 import xiaozhi.modules.security.entity.SysUserTokenEntity;
 import xiaozhi.modules.security.service.ShiroService;
 import xiaozhi.modules.sys.entity.SysUserEntity;
@@ -39,6 +40,9 @@ public class Oauth2Realm extends AuthorizingRealm {
     @Lazy
     @Resource
     private ShiroService shiroService;
+    @Lazy
+    @Resource
+    private TokenAuthCache tokenAuthCache;
 
     private static final Logger logger = LoggerFactory.getLogger(Oauth2Realm.class);
 
@@ -76,20 +80,8 @@ public class Oauth2Realm extends AuthorizingRealm {
     protected AuthenticationInfo doGetAuthenticationInfo(AuthenticationToken token) throws AuthenticationException {
         String accessToken = (String) token.getPrincipal();
 
-        // according_to_accesstoken，query_user_information
-        SysUserTokenEntity tokenEntity = shiroService.getByToken(accessToken);
-        // token invalid
-        if (tokenEntity == null || tokenEntity.getExpireDate().getTime() < System.currentTimeMillis()) {
-            throw new IncorrectCredentialsException(MessageUtils.getMessage(ErrorCode.TOKEN_INVALID));
-        }
-
-        // query_user_information
-        SysUserEntity userEntity = shiroService.getUser(tokenEntity.getUserId());
-
-        // convert_to_userdetail_object
-        UserDetail userDetail = ConvertUtils.sourceToTarget(userEntity, UserDetail.class);
-
-        userDetail.setToken(accessToken);
+        // according_to_accesstoken，query_user_information，cached_in_memory
+        UserDetail userDetail = tokenAuthCache.getOrLoad(accessToken, () -> loadTokenAuth(accessToken));
 
         // account_locked
         if (userDetail.getStatus() == null) {
@@ -105,4 +97,20 @@ public class Oauth2Realm extends AuthorizingRealm {
         return info;
     }
 
+    private TokenAuth loadTokenAuth(String accessToken) {
+        SysUserTokenEntity tokenEntity = shiroService.getByToken(accessToken);
+        // token invalid
+        if (tokenEntity == null || tokenEntity.getExpireDate().getTime() < System.currentTimeMillis()) {
+            throw new IncorrectCredentialsException(MessageUtils.getMessage(ErrorCode.TOKEN_INVALID));
+        }
+
+        // query_user_information
+        SysUserEntity userEntity = shiroService.getUser(tokenEntity.getUserId());
+        if (userEntity == null) {
+            throw new IncorrectCredentialsException(MessageUtils.getMessage(ErrorCode.TOKEN_INVALID));
+        }
+        return new TokenAuth(userEntity.getId(), userEntity.getUsername(), userEntity.getSuperAdmin(),
+                userEntity.getStatus(), tokenEntity.getExpireDate().getTime());
+    }
+
 }
\ No newline at end of file
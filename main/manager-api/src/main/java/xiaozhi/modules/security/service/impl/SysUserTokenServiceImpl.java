@@ -12,6 +12,7 @@ import xiaozhi.common.page.TokenDTO;
 import xiaozhi.common.service.impl.BaseServiceImpl;
 import xiaozhi.common.utils.HttpContextUtils;
 import xiaozhi.common.utils.Result;
+import xiaozhi.modules.security.cache.TokenAuthCache;
 import xiaozhi.modules.security.dao.SysUserTokenDao;
 import xiaozhi.modules.security.entity.SysUserTokenEntity;
 import xiaozhi.modules.security.oauth2.TokenGenerator;
@@ -26,6 +27,7 @@ public class SysUserTokenServiceImpl extends BaseServiceImpl<SysUserTokenDao, Sy
         implements SysUserTokenService {
 
     private final SysUserService sysUserService;
+    private final TokenAuthCache tokenAuthCache;
     /*
 *
 *Expires after 12 hours
@@ -103,6 +105,7 @@ public class SysUserTokenServiceImpl extends BaseServiceImpl<SysUserTokenDao, Sy
     public void logout(Long userId) {
         Date expireDate = DateUtil.offsetMinute(new Date(), -1);
         baseDao.logout(userId, expireDate);
+        tokenAuthCache.invalidateUser(userId);
     }
 
     @Override
@@ -113,5 +116,6 @@ public class SysUserTokenServiceImpl extends BaseServiceImpl<SysUserTokenDao, Sy
         // make token invalid，need_to_log_in_again
         Date expireDate = DateUtil.offsetMinute(new Date(), -1);
         baseDao.logout(userId, expireDate);
+        tokenAuthCache.invalidateUser(userId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package xiaozhi.modules.sys.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import xiaozhi.common.redis.RedisInvalidatedCache;
+import xiaozhi.common.redis.RedisKeys;
+import xiaozhi.common.redis.RedisUtils;
+import xiaozhi.modules.sys.dao.SysParamsDao;
+import xiaozhi.modules.sys.entity.SysParamsEntity;
+
+/**
+ * in_process_copy_of_all_system_parameters
+ * <p>
+ * the_whole_table_is_loaded_once，reads_are_a_volatile_field_read。a_change_drops_the_copy_after_commit，
+ * other_nodes_are_notified_through_redis_channel，and_the_next_read_loads_the_table_again_outside_the_lock。
+ * the_copy_is_also_reloaded_periodically，so_a_change_made_directly_in_the_database_is_picked_up
+ */
+@Slf4j
+@Component
+public class SysParamsLocalCache extends RedisInvalidatedCache {
+    private final SysParamsDao sysParamsDao;
+
+    /**
+     * parameter_code -> parameter_value，null_until_loaded
+     */
+    private volatile Map<String, String> values;
+
+    @Value("${renren.sys-params.refresh-seconds:300}")
+    private long refreshSeconds;
+
+    private ScheduledExecutorService scheduler;
+
+    public SysParamsLocalCache(SysParamsDao sysParamsDao, RedisUtils redisUtils,
+            RedisMessageListenerContainer redisMessageListenerContainer) {
+        super(redisUtils, redisMessageListenerContainer);
+        this.sysParamsDao = sysParamsDao;
+    }
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "sys-params-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * get_the_parameter_value，null_if_the_parameter_does_not_exist
+     */
+    public String get(String paramCode) {
+        Map<String, String> current = values;
+        if (current == null) {
+            current = loadAll();
+        }
+        return current.get(paramCode);
+    }
+
+    /**
+     * drop_the_copy_on_all_nodes_after_the_current_transaction_commits
+     */
+    public void invalidate(Collection<String> paramCodes) {
+        if (paramCodes.stream().anyMatch(StringUtils::isNotBlank)) {
+            invalidateAfterCommit(MSG_ALL);
+        }
+    }
+
+    /**
+     * drop_the_whole_copy_on_all_nodes
+     */
+    public void invalidateAll() {
+        invalidateAfterCommit(MSG_ALL);
+    }
+
+    @Override
+    protected String getTopic() {
+        return RedisKeys.getSysParamsInvalidateTopic();
+    }
+
+    private void refreshQuietly() {
+        if (values == null) {
+            // not_read_yet，or_dropped_and_loaded_by_the_next_read
+            return;
+        }
+        try {
+            loadAll();
+        } catch (Exception e) {
+            log.warn("refreshing_system_parameters_failed，keep_the_current_copy", e);
+        }
+    }
+
+    private Map<String, String> loadAll() {
+        long startEpoch = startLoad();
+        List<SysParamsEntity> entities = sysParamsDao.selectList(new QueryWrapper<SysParamsEntity>()
+                .select("param_code", "param_value"));
+        Map<String, String> loaded = new HashMap<>(entities.size() * 2);
+        for (SysParamsEntity entity : entities) {
+            loaded.put(entity.getParamCode(), entity.getParamValue());
+        }
+        Map<String, String> result = Collections.unmodifiableMap(loaded);
+        keepIfCurrent(startEpoch, () -> values = result);
+        return result;
+    }
+
+    @Override
+    protected void applyInvalidation(Object message) {
+        // the_table_is_small，so_it_is_loaded_again_as_a_whole_by_the_next_read，outside_the_lock
+        values = null;
+    }
+}
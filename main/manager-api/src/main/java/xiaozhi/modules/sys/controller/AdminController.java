@@ -95,6 +95,8 @@ public class AdminController {
             @Parameter(name = "keywords", description = "Equipment keywords", required = false),
             @Parameter(name = Constant.PAGE, description = "Current page number, starting from 1", required = true),
             @Parameter(name = Constant.LIMIT, description = "Display number of records per page", required = true),
+            @Parameter(name = Constant.CURSOR, description = "Cursor of the previous page, the page then starts after it"),
+            @Parameter(name = Constant.COUNT, description = "How to count the total: exact (default), estimate or none"),
     })
     public Result<PageData<UserShowDeviceListVO>> pageDevice(
             @Parameter(hidden = true) @RequestParam Map<String, Object> params) {
@@ -102,6 +104,8 @@ public class AdminController {
         dto.setKeywords((String) params.get("keywords"));
         dto.setLimit((String) params.get(Constant.LIMIT));
         dto.setPage((String) params.get(Constant.PAGE));
+        dto.setCursor((String) params.get(Constant.CURSOR));
+        dto.setCount((String) params.get(Constant.COUNT));
         ValidatorUtils.validateEntity(dto);
         PageData<UserShowDeviceListVO> page = deviceService.page(dto);
         return new Result<PageData<UserShowDeviceListVO>>().ok(page);
@@ -1,7 +1,7 @@
 package xiaozhi.modules.sys.controller;
 
-import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.List;
+import java.util.concurrent.CompletionException;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.shiro.authz.annotation.RequiresPermissions;
@@ -10,27 +10,20 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.socket.WebSocketHttpHeaders;
-
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import xiaozhi.common.annotation.LogOperation;
-import xiaozhi.common.constant.Constant;
 import xiaozhi.common.exception.ErrorCode;
 import xiaozhi.common.exception.RenException;
 import xiaozhi.common.utils.Result;
+import xiaozhi.modules.sys.dto.BroadcastServerActionDTO;
 import xiaozhi.modules.sys.dto.EmitSeverActionDTO;
-import xiaozhi.modules.sys.dto.ServerActionPayloadDTO;
-import xiaozhi.modules.sys.dto.ServerActionResponseDTO;
-import xiaozhi.modules.sys.enums.ServerActionEnum;
-import xiaozhi.modules.sys.service.SysParamsService;
-import xiaozhi.modules.sys.utils.WebSocketClientManager;
+import xiaozhi.modules.sys.service.ServerActionService;
+import xiaozhi.modules.sys.vo.ServerActionBroadcastVO;
 
 /**
  * server_management_controller
@@ -40,83 +33,66 @@ import xiaozhi.modules.sys.utils.WebSocketClientManager;
 @Tag(name = "Server management")
 @AllArgsConstructor
 public class ServerSideManageController {
-    private final SysParamsService sysParamsService;
-    private static final ObjectMapper objectMapper;
-    static {
-        objectMapper = new ObjectMapper();
-        // ignore_the_presence_in_json_string，but_the_corresponding_field_does_not_exist_in_the_pojo
-        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-    }
+    private final ServerActionService serverActionService;
 
     @Operation(summary = "Get Ws server list")
     @GetMapping("/server-list")
     @RequiresPermissions("sys:role:superAdmin")
     public Result<List<String>> getWsServerList() {
-        String wsText = sysParamsService.getValue(Constant.SERVER_WEBSOCKET, true);
-        if (StringUtils.isBlank(wsText)) {
-            return new Result<List<String>>().ok(Collections.emptyList());
-        }
-        return new Result<List<String>>().ok(Arrays.asList(wsText.split(";")));
+        return new Result<List<String>>().ok(serverActionService.getServerList());
     }
 
     @Operation(summary = "Notify the python server to update the configuration")
     @PostMapping("/emit-action")
     @LogOperation("Notify the python server to update the configuration")
     @RequiresPermissions("sys:role:superAdmin")
-    public Result<Boolean> emitServerAction(@RequestBody @Valid EmitSeverActionDTO emitSeverActionDTO) {
+    public DeferredResult<Result<Boolean>> emitServerAction(@RequestBody @Valid EmitSeverActionDTO emitSeverActionDTO) {
         if (emitSeverActionDTO.getAction() == null) {
             throw new RenException(ErrorCode.INVALID_SERVER_ACTION);
         }
-        String wsText = sysParamsService.getValue(Constant.SERVER_WEBSOCKET, true);
-        if (StringUtils.isBlank(wsText)) {
+        List<String> wsList = serverActionService.getServerList();
+        if (wsList.isEmpty()) {
             throw new RenException(ErrorCode.SERVER_WEBSOCKET_NOT_CONFIGURED);
         }
         String targetWs = emitSeverActionDTO.getTargetWs();
-        String[] wsList = wsText.split(";");
         // find_what_needs_to_be_initiated
-        if (StringUtils.isBlank(targetWs) || !Arrays.asList(wsList).contains(targetWs)) {
+        if (StringUtils.isBlank(targetWs) || !wsList.contains(targetWs)) {
             throw new RenException(ErrorCode.TARGET_WEBSOCKET_NOT_EXIST);
         }
-        return new Result<Boolean>().ok(emitServerActionByWs(targetWs, emitSeverActionDTO.getAction()));
+        // the_request_thread_is_released_while_waiting_for_the_server
+        DeferredResult<Result<Boolean>> deferred = newDeferredResult();
+        serverActionService.emit(targetWs, emitSeverActionDTO.getAction()).thenAccept(result -> {
+            if (result.isSuccess()) {
+                deferred.setResult(new Result<Boolean>().ok(true));
+            } else {
+                // returned_by_global_exception_handler
+                deferred.setErrorResult(new RenException(ErrorCode.WEB_SOCKET_CONNECT_FAILED));
+            }
+        });
+        return deferred;
     }
 
-    private Boolean emitServerActionByWs(String targetWsUri, ServerActionEnum actionEnum) {
-        if (StringUtils.isBlank(targetWsUri) || actionEnum == null) {
-            return false;
-        }
-        String serverSK = sysParamsService.getValue(Constant.SERVER_SECRET, true);
-        WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
-        headers.add("device-id", UUID.randomUUID().toString());
-        headers.add("client-id", UUID.randomUUID().toString());
+    @Operation(summary = "Notify all python servers to update the configuration")
+    @PostMapping("/emit-action/broadcast")
+    @LogOperation("Notify all python servers to update the configuration")
+    @RequiresPermissions("sys:role:superAdmin")
+    public DeferredResult<Result<ServerActionBroadcastVO>> broadcastServerAction(
+            @RequestBody @Valid BroadcastServerActionDTO broadcastServerActionDTO) {
+        DeferredResult<Result<ServerActionBroadcastVO>> deferred = newDeferredResult();
+        serverActionService.broadcast(broadcastServerActionDTO.getAction()).whenComplete((result, e) -> {
+            if (e == null) {
+                deferred.setResult(new Result<ServerActionBroadcastVO>().ok(result));
+            } else {
+                deferred.setErrorResult(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+        });
+        return deferred;
+    }
 
-        try (WebSocketClientManager client = new WebSocketClientManager.Builder()
-                .connectTimeout(3, TimeUnit.SECONDS)
-                .maxSessionDuration(120, TimeUnit.SECONDS)
-                .uri(targetWsUri)
-                .headers(headers)
-                .build()) {
-            // if_the_connection_is_successful_send_a_json_data_packet_and_wait_for_the_server_to_respond
-            client.sendJson(
-                    ServerActionPayloadDTO.build(
-                            actionEnum,
-                            Map.of("secret", serverSK)));
-            // wait_for_the_server_to_respond_and_continue_to_listen_for_information
-            client.listener((jsonText) -> {
-                if (StringUtils.isBlank(jsonText)) {
-                    return false;
-                }
-                try {
-                    ServerActionResponseDTO response = objectMapper.readValue(jsonText, ServerActionResponseDTO.class);
-                    Boolean isSuccess = ServerActionResponseDTO.isSuccess(response);
-                    return isSuccess;
-                } catch (JsonProcessingException e) {
-                    return false;
-                }
-            });
-        } catch (Exception e) {
-            // catch_all_errors，returned_by_global_exception_handler
-            throw new RenException(ErrorCode.WEB_SOCKET_CONNECT_FAILED);
-        }
-        return true;
+    private <T> DeferredResult<T> newDeferredResult() {
+        // every_server_is_answered_or_timed_out_by_then，this_is_only_a_safety_net
+        DeferredResult<T> deferred = new DeferredResult<>(serverActionService.getTimeoutMillis() + 10_000);
+        deferred.onTimeout(() -> deferred.setErrorResult(new RenException(ErrorCode.WEB_SOCKET_CONNECT_FAILED)));
+        return deferred;
     }
 }
@@ -33,7 +33,6 @@ import xiaozhi.common.validator.ValidatorUtils;
 import xiaozhi.common.validator.group.AddGroup;
 import xiaozhi.common.validator.group.DefaultGroup;
 import xiaozhi.common.validator.group.UpdateGroup;
-import xiaozhi.modules.config.service.ConfigService;
 import xiaozhi.modules.sys.dto.SysParamsDTO;
 import xiaozhi.modules.sys.service.SysParamsService;
 import xiaozhi.modules.sys.utils.WebSocketValidator;
@@ -50,7 +49,6 @@ import xiaozhi.modules.sys.utils.WebSocketValidator;
 @AllArgsConstructor
 public class SysParamsController {
     private final SysParamsService sysParamsService;
-    private final ConfigService configService;
     private final RestTemplate restTemplate;
 
     @GetMapping("page")
@@ -87,7 +85,6 @@ public class SysParamsController {
         ValidatorUtils.validateEntity(dto, AddGroup.class, DefaultGroup.class);
 
         sysParamsService.save(dto);
-        configService.getConfig(false);
         return new Result<Void>();
     }
 
@@ -115,7 +112,6 @@ public class SysParamsController {
         validateMqttSecretLength(dto.getParamCode(), dto.getParamValue());
 
         sysParamsService.update(dto);
-        configService.getConfig(false);
         return new Result<Void>();
     }
 
@@ -163,7 +159,6 @@ public class SysParamsController {
         AssertUtils.isArrayEmpty(ids, "id");
 
         sysParamsService.delete(ids);
-        configService.getConfig(false);
         return new Result<Void>();
     }
 
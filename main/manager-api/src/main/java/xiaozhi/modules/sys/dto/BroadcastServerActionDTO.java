@@ -0,0 +1,16 @@
+package xiaozhi.modules.sys.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import xiaozhi.modules.sys.enums.ServerActionEnum;
+
+/**
+ * send_python_server_operation_to_all_servers_dto
+ */
+@Data
+public class BroadcastServerActionDTO {
+    @Schema(description = "Specify operation")
+    @NotNull(message = "Operation cannot be empty")
+    private ServerActionEnum action;
+}
@@ -0,0 +1,39 @@
+package xiaozhi.modules.sys.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import xiaozhi.modules.sys.enums.ServerActionEnum;
+import xiaozhi.modules.sys.vo.ServerActionBroadcastVO;
+import xiaozhi.modules.sys.vo.ServerActionResultVO;
+
+/**
+ * python_server_operations
+ */
+public interface ServerActionService {
+
+    /**
+     * get_the_configured_ws_server_list
+     */
+    List<String> getServerList();
+
+    /**
+     * send_the_action_to_one_server，the_future_never_fails，failures_are_reported_in_the_result
+     *
+     * @param targetWs ws_address
+     * @param action   operation
+     */
+    CompletableFuture<ServerActionResultVO> emit(String targetWs, ServerActionEnum action);
+
+    /**
+     * send_the_action_to_all_servers_at_once，completes_when_the_slowest_server_answers_or_times_out
+     *
+     * @param action operation
+     */
+    CompletableFuture<ServerActionBroadcastVO> broadcast(ServerActionEnum action);
+
+    /**
+     * how_long_each_server_is_waited_for
+     */
+    long getTimeoutMillis();
+}
@@ -1,6 +1,8 @@
 package xiaozhi.modules.sys.service;
 
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.function.Consumer;
 
 /**
@@ -16,4 +18,11 @@ public interface SysUserUtilService {
      * @param setter assignment_method
      */
     void assignUsername( Long userId, Consumer<String> setter);
+
+    /**
+     * get_the_usernames_of_several_users，with_one_cache_read_and_at_most_one_query
+     * @param userIds user_ids
+     * @return user_id -> username，unknown_users_are_left_out
+     */
+    Map<Long, String> getUsernames(Collection<Long> userIds);
 }
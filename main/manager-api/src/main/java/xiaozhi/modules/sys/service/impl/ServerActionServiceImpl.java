@@ -0,0 +1,146 @@
+package xiaozhi.modules.sys.service.impl;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import xiaozhi.common.constant.Constant;
+import xiaozhi.common.exception.ErrorCode;
+import xiaozhi.common.exception.RenException;
+import xiaozhi.modules.sys.dto.ServerActionPayloadDTO;
+import xiaozhi.modules.sys.dto.ServerActionResponseDTO;
+import xiaozhi.modules.sys.enums.ServerActionEnum;
+import xiaozhi.modules.sys.service.ServerActionService;
+import xiaozhi.modules.sys.service.SysParamsService;
+import xiaozhi.modules.sys.utils.PooledWebSocketConnection;
+import xiaozhi.modules.sys.utils.WebSocketConnectionPool;
+import xiaozhi.modules.sys.vo.ServerActionBroadcastVO;
+import xiaozhi.modules.sys.vo.ServerActionResultVO;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ServerActionServiceImpl implements ServerActionService {
+    private static final ObjectMapper objectMapper;
+    static {
+        objectMapper = new ObjectMapper();
+        // ignore_the_presence_in_json_string，but_the_corresponding_field_does_not_exist_in_the_pojo
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    /**
+     * handshake_headers_of_the_pooled_connections，a_constant_so_that_all_actions_share_the_connection
+     */
+    private static final Supplier<WebSocketHttpHeaders> HANDSHAKE_HEADERS = () -> {
+        WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+        headers.add("device-id", UUID.randomUUID().toString());
+        headers.add("client-id", UUID.randomUUID().toString());
+        return headers;
+    };
+
+    private final SysParamsService sysParamsService;
+    private final WebSocketConnectionPool webSocketConnectionPool;
+
+    @Value("${renren.server-action.timeout-seconds:120}")
+    private long timeoutSeconds;
+
+    @Override
+    public List<String> getServerList() {
+        String wsText = sysParamsService.getValue(Constant.SERVER_WEBSOCKET, true);
+        if (StringUtils.isBlank(wsText)) {
+            return List.of();
+        }
+        return Arrays.stream(wsText.split(";")).map(String::trim).filter(StringUtils::isNotBlank).distinct()
+                .toList();
+    }
+
+    @Override
+    public CompletableFuture<ServerActionResultVO> emit(String targetWs, ServerActionEnum action) {
+        long start = System.currentTimeMillis();
+        String payload;
+        try {
+            String serverSK = sysParamsService.getValue(Constant.SERVER_SECRET, true);
+            payload = objectMapper.writeValueAsString(ServerActionPayloadDTO.build(action, Map.of("secret", serverSK)));
+        } catch (JsonProcessingException | RuntimeException e) {
+            return CompletableFuture.completedFuture(toResult(targetWs, e, start));
+        }
+        // the_connection_to_each_server_is_kept_in_the_pool_and_reused_by_later_actions
+        PooledWebSocketConnection connection = webSocketConnectionPool.get(targetWs, HANDSHAKE_HEADERS, 8192, null);
+        // wait_for_the_server_to_respond_and_continue_to_listen_for_information
+        return connection.exchangeAsync(payload, ServerActionServiceImpl::isSuccessResponse, timeoutSeconds,
+                TimeUnit.SECONDS).handle((response, e) -> toResult(targetWs, e, start));
+    }
+
+    @Override
+    public CompletableFuture<ServerActionBroadcastVO> broadcast(ServerActionEnum action) {
+        List<String> servers = getServerList();
+        if (servers.isEmpty()) {
+            throw new RenException(ErrorCode.SERVER_WEBSOCKET_NOT_CONFIGURED);
+        }
+        // all_servers_are_notified_at_once，the_total_time_is_that_of_the_slowest_server
+        List<CompletableFuture<ServerActionResultVO>> futures = servers.stream()
+                .map(targetWs -> emit(targetWs, action))
+                .toList();
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(v -> {
+            List<ServerActionResultVO> results = futures.stream().map(CompletableFuture::join).toList();
+            ServerActionBroadcastVO broadcast = new ServerActionBroadcastVO();
+            broadcast.setTotal(results.size());
+            broadcast.setSucceeded((int) results.stream().filter(ServerActionResultVO::isSuccess).count());
+            broadcast.setFailed(broadcast.getTotal() - broadcast.getSucceeded());
+            broadcast.setResults(results);
+            return broadcast;
+        });
+    }
+
+    @Override
+    public long getTimeoutMillis() {
+        return TimeUnit.SECONDS.toMillis(timeoutSeconds);
+    }
+
+    private static boolean isSuccessResponse(String jsonText) {
+        if (StringUtils.isBlank(jsonText)) {
+            return false;
+        }
+        try {
+            ServerActionResponseDTO response = objectMapper.readValue(jsonText, ServerActionResponseDTO.class);
+            return ServerActionResponseDTO.isSuccess(response);
+        } catch (JsonProcessingException e) {
+            return false;
+        }
+    }
+
+    private static ServerActionResultVO toResult(String targetWs, Throwable error, long start) {
+        ServerActionResultVO result = new ServerActionResultVO();
+        result.setTargetWs(targetWs);
+        result.setCostMillis(System.currentTimeMillis() - start);
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error == null) {
+            result.setSuccess(true);
+        } else if (error instanceof TimeoutException) {
+            result.setMessage("Timeout");
+        } else {
+            log.warn("Server action failed, target_ws: {}, reason: {}", targetWs, error.getMessage());
+            result.setMessage(StringUtils.defaultIfBlank(error.getMessage(), error.getClass().getSimpleName()));
+        }
+        return result;
+    }
+}
@@ -22,6 +22,9 @@ import xiaozhi.common.service.impl.BaseServiceImpl;
 import xiaozhi.common.utils.ConvertUtils;
 import xiaozhi.common.utils.JsonUtils;
 import xiaozhi.common.utils.SM2Utils;
+import xiaozhi.modules.config.cache.AgentConfigCache;
+import xiaozhi.modules.config.cache.ServerConfigCache;
+import xiaozhi.modules.sys.cache.SysParamsLocalCache;
 import xiaozhi.modules.sys.dao.SysParamsDao;
 import xiaozhi.modules.sys.dto.SysParamsDTO;
 import xiaozhi.modules.sys.entity.SysParamsEntity;
@@ -35,6 +38,9 @@ import xiaozhi.modules.sys.service.SysParamsService;
 @Service
 public class SysParamsServiceImpl extends BaseServiceImpl<SysParamsDao, SysParamsEntity> implements SysParamsService {
     private final SysParamsRedis sysParamsRedis;
+    private final AgentConfigCache agentConfigCache;
+    private final ServerConfigCache serverConfigCache;
+    private final SysParamsLocalCache sysParamsLocalCache;
 
     @Override
     public PageData<SysParamsDTO> page(Map<String, Object> params) {
@@ -80,6 +86,9 @@ public class SysParamsServiceImpl extends BaseServiceImpl<SysParamsDao, SysParam
         insert(entity);
 
         sysParamsRedis.set(entity.getParamCode(), entity.getParamValue());
+        sysParamsLocalCache.invalidate(List.of(entity.getParamCode()));
+        patchServerConfig(entity);
+        agentConfigCache.evictAll();
     }
 
     @Override
@@ -88,9 +97,21 @@ public class SysParamsServiceImpl extends BaseServiceImpl<SysParamsDao, SysParam
         validateParamValue(dto);
         detectingSMSParameters(dto.getParamCode(), dto.getParamValue());
         SysParamsEntity entity = ConvertUtils.sourceToTarget(dto, SysParamsEntity.class);
+        SysParamsEntity original = baseDao.selectById(entity.getId());
         updateById(entity);
 
         sysParamsRedis.set(entity.getParamCode(), entity.getParamValue());
+        sysParamsLocalCache.invalidate(List.of(entity.getParamCode()));
+        if (original != null) {
+            // the_parameter_code_may_have_been_changed
+            if (!original.getParamCode().equals(entity.getParamCode())) {
+                sysParamsLocalCache.invalidate(List.of(original.getParamCode()));
+                serverConfigCache.remove(original.getParamCode());
+            }
+            entity.setParamType(original.getParamType());
+        }
+        patchServerConfig(entity);
+        agentConfigCache.evictAll();
     }
 
     /**
@@ -159,18 +180,19 @@ public class SysParamsServiceImpl extends BaseServiceImpl<SysParamsDao, SysParam
 
         // delete
         deleteBatchIds(Arrays.asList(ids));
+        sysParamsLocalCache.invalidate(paramCodeList);
+        for (String paramCode : paramCodes) {
+            serverConfigCache.remove(paramCode);
+        }
+        agentConfigCache.evictAll();
     }
 
     @Override
     public String getValue(String paramCode, Boolean fromCache) {
         String paramValue = null;
         if (fromCache) {
-            paramValue = sysParamsRedis.get(paramCode);
-            if (paramValue == null) {
-                paramValue = baseDao.getValueByCode(paramCode);
-
-                sysParamsRedis.set(paramCode, paramValue);
-            }
+            // all_parameters_are_kept_in_this_node，changes_are_reloaded_through_redis_channel
+            paramValue = sysParamsLocalCache.get(paramCode);
         } else {
             paramValue = baseDao.getValueByCode(paramCode);
         }
@@ -196,9 +218,28 @@ public class SysParamsServiceImpl extends BaseServiceImpl<SysParamsDao, SysParam
     public int updateValueByCode(String paramCode, String paramValue) {
         int count = baseDao.updateValueByCode(paramCode, paramValue);
         sysParamsRedis.set(paramCode, paramValue);
+        sysParamsLocalCache.invalidate(List.of(paramCode));
+        if (count > 0) {
+            patchServerConfig(baseDao.selectOne(new QueryWrapper<SysParamsEntity>().eq("param_code", paramCode)));
+        }
+        agentConfigCache.evictAll();
         return count;
     }
 
+    /**
+     * update_the_parameter_in_the_server_configuration_tree，only_non_system_parameters_are_in_the_tree
+     */
+    private void patchServerConfig(SysParamsEntity entity) {
+        if (entity == null) {
+            return;
+        }
+        if (entity.getParamType() != null && entity.getParamType() != 1) {
+            serverConfigCache.remove(entity.getParamCode());
+            return;
+        }
+        serverConfigCache.put(entity.getParamCode(), entity.getValueType(), entity.getParamValue());
+    }
+
     @Override
     public void initServerSecret() {
         // get_server_key
@@ -23,6 +23,7 @@ import xiaozhi.common.service.impl.BaseServiceImpl;
 import xiaozhi.common.utils.ConvertUtils;
 import xiaozhi.modules.agent.service.AgentService;
 import xiaozhi.modules.device.service.DeviceService;
+import xiaozhi.modules.security.cache.TokenAuthCache;
 import xiaozhi.modules.security.password.PasswordUtils;
 import xiaozhi.modules.sys.dao.SysUserDao;
 import xiaozhi.modules.sys.dto.AdminPageUserDTO;
@@ -48,6 +49,8 @@ public class SysUserServiceImpl extends BaseServiceImpl<SysUserDao, SysUserEntit
 
     private final SysParamsService sysParamsService;
 
+    private final TokenAuthCache tokenAuthCache;
+
     @Override
     public SysUserDTO getByUsername(String username) {
         QueryWrapper<SysUserEntity> queryWrapper = new QueryWrapper<>();
@@ -98,6 +101,7 @@ public class SysUserServiceImpl extends BaseServiceImpl<SysUserDao, SysUserEntit
     public void deleteById(Long id) {
         // delete_user
         baseDao.deleteById(id);
+        tokenAuthCache.invalidateUser(id);
         // remove_device
         deviceService.deleteByUserId(id);
         // delete_agent
@@ -232,6 +236,7 @@ public class SysUserServiceImpl extends BaseServiceImpl<SysUserDao, SysUserEntit
             entity.setId(Long.parseLong(userId));
             entity.setStatus(status);
             updateById(entity);
+            tokenAuthCache.invalidateUser(entity.getId());
         }
     }
 
@@ -2,6 +2,8 @@ package xiaozhi.modules.sys.service.impl;
 
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import xiaozhi.common.redis.RedisBatchLoader;
 import xiaozhi.common.redis.RedisKeys;
 import xiaozhi.common.redis.RedisUtils;
 import xiaozhi.common.service.impl.BaseServiceImpl;
@@ -9,13 +11,17 @@ import xiaozhi.modules.sys.dao.SysUserDao;
 import xiaozhi.modules.sys.entity.SysUserEntity;
 import xiaozhi.modules.sys.service.SysUserUtilService;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 public class SysUserUtilServiceImpl extends BaseServiceImpl<SysUserDao, SysUserEntity> implements SysUserUtilService {
 
     private RedisUtils redisUtils;
+    private RedisBatchLoader redisBatchLoader;
 
     @Override
     public void assignUsername(Long userId, Consumer<String> setter) {
@@ -34,4 +40,13 @@ public class SysUserUtilServiceImpl extends BaseServiceImpl<SysUserDao, SysUserE
             }
         }
     }
+
+    @Override
+    public Map<Long, String> getUsernames(Collection<Long> userIds) {
+        return redisBatchLoader.load(userIds, RedisKeys::getUserIdKey, missing -> baseDao
+                .selectList(new QueryWrapper<SysUserEntity>().select("id", "username").in("id", missing))
+                .stream()
+                .filter(entity -> entity.getUsername() != null)
+                .collect(Collectors.toMap(SysUserEntity::getId, SysUserEntity::getUsername)), 10);
+    }
 }
@@ -0,0 +1,431 @@
+package xiaozhi.modules.sys.utils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * a_websocket_session_kept_open_by {@link WebSocketConnectionPool}
+ * <p>
+ * json-rpc_responses_are_matched_to_requests_by_id，so_several_requests_can_share_the_session。
+ * a_message_without_an_id_can_not_be_told_apart_from_a_late_reply，so_a_session_whose_exchange_timed_out_is_closed。
+ * when_the_session_is_closed_it_is_reconnected_on_the_next_use，failed_connects_back_off_exponentially
+ */
+@Slf4j
+public class PooledWebSocketConnection {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    /**
+     * called_after_every_connect，before_the_session_is_used_by_callers，e.g._protocol_handshake
+     */
+    @FunctionalInterface
+    public interface SessionInitializer {
+        void initialize(JsonRpcChannel channel) throws Exception;
+    }
+
+    /**
+     * json-rpc_requests_on_one_session
+     */
+    public interface JsonRpcChannel {
+        CompletableFuture<Map<String, Object>> request(String method, Object params) throws IOException;
+
+        void notify(String method, Object params) throws IOException;
+    }
+
+    private final String uri;
+    private final Supplier<WebSocketHttpHeaders> headers;
+    private final int bufferSize;
+    private final SessionInitializer initializer;
+    private final WebSocketConnectionPool pool;
+
+    private final AtomicLong nextId = new AtomicLong();
+    private final Map<Long, CompletableFuture<Map<String, Object>>> pending = new ConcurrentHashMap<>();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    /**
+     * messages_without_an_id_can_not_be_matched，such_exchanges_are_run_one_at_a_time，each_one_starts_after_the_previous_one_completes
+     */
+    private final Object exchangeOrder = new Object();
+    private CompletableFuture<?> exchangeTail = CompletableFuture.completedFuture(null);
+
+    private volatile WebSocketSession session;
+    private volatile long lastUsed = System.currentTimeMillis();
+    private int failures;
+    private long nextAttemptAt;
+
+    PooledWebSocketConnection(String uri, Supplier<WebSocketHttpHeaders> headers, int bufferSize,
+            SessionInitializer initializer, WebSocketConnectionPool pool) {
+        this.uri = uri;
+        this.headers = headers;
+        this.bufferSize = bufferSize;
+        this.initializer = initializer;
+        this.pool = pool;
+    }
+
+    /**
+     * send_a_json-rpc_request，the_future_completes_with_the_response_of_the_same_id
+     */
+    public Map<String, Object> request(String method, Object params, long timeout, TimeUnit unit)
+            throws IOException, InterruptedException, TimeoutException {
+        lastUsed = System.currentTimeMillis();
+        CompletableFuture<Map<String, Object>> future = sendRequest(open(), method, params);
+        try {
+            return future.get(timeout, unit);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        } catch (TimeoutException | InterruptedException e) {
+            // a_late_response_is_dropped，completing_the_future_removes_it_from_pending
+            future.completeExceptionally(e);
+            if (e instanceof TimeoutException) {
+                pool.timeoutCount.incrementAndGet();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * send_a_message_and_wait_for_the_first_message_accepted_by_matcher
+     */
+    public String exchange(String text, Predicate<String> matcher, long timeout, TimeUnit unit)
+            throws IOException, InterruptedException, TimeoutException {
+        try {
+            return exchangeAsync(text, matcher, timeout, unit).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TimeoutException timeoutException) {
+                throw timeoutException;
+            }
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * same_as_exchange，but_the_calling_thread_does_not_wait，the_timeout_also_covers_the_time_queued_behind_earlier_exchanges
+     */
+    public CompletableFuture<String> exchangeAsync(String text, Predicate<String> matcher, long timeout,
+            TimeUnit unit) {
+        lastUsed = System.currentTimeMillis();
+        Waiter waiter = new Waiter(matcher);
+        CompletableFuture<String> result = waiter.future;
+        ScheduledFuture<?> deadline = pool.schedule(() -> {
+            synchronized (waiter) {
+                if (result.isDone()) {
+                    return;
+                }
+                pool.timeoutCount.incrementAndGet();
+                if (waiter.sentOn != null) {
+                    // a_late_reply_would_be_taken_for_the_response_of_the_next_exchange，closed_before_the_next_one_starts
+                    waiters.remove(waiter);
+                    discard(waiter.sentOn);
+                }
+                result.completeExceptionally(new TimeoutException("Timeout waiting for " + uri));
+            }
+        }, timeout, unit);
+        result.whenComplete((r, e) -> {
+            deadline.cancel(false);
+            waiters.remove(waiter);
+        });
+        CompletableFuture<?> previous;
+        synchronized (exchangeOrder) {
+            previous = exchangeTail;
+            exchangeTail = result.handle((r, e) -> null);
+        }
+        previous.whenCompleteAsync((r, e) -> startExchange(waiter, text), pool.getExecutor());
+        return result;
+    }
+
+    private void startExchange(Waiter waiter, String text) {
+        if (waiter.future.isDone()) {
+            // timed_out_while_queued
+            return;
+        }
+        try {
+            WebSocketSession current = open();
+            synchronized (waiter) {
+                if (waiter.future.isDone()) {
+                    return;
+                }
+                waiters.add(waiter);
+                waiter.sentOn = current;
+                send(current, text);
+            }
+            pool.requestCount.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            waiter.future.completeExceptionally(e);
+        }
+    }
+
+    public boolean isOpen() {
+        WebSocketSession current = session;
+        return current != null && current.isOpen();
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public long getLastUsed() {
+        return lastUsed;
+    }
+
+    public int getPendingCount() {
+        return pending.size() + waiters.size();
+    }
+
+    /**
+     * keep_the_session_alive_between_uses
+     */
+    void ping() {
+        WebSocketSession current = session;
+        if (current == null || !current.isOpen()) {
+            return;
+        }
+        try {
+            current.sendMessage(new PingMessage());
+        } catch (IOException | RuntimeException e) {
+            log.warn("ws heartbeat failed, target_uri: {}", uri);
+            closed(current, e);
+        }
+    }
+
+    void close() {
+        WebSocketSession current = session;
+        if (current != null) {
+            try {
+                current.close(CloseStatus.NORMAL);
+            } catch (IOException ignored) {
+            }
+            closed(current, new IOException("WebSocket is closed"));
+        }
+    }
+
+    /**
+     * close_the_session，the_next_use_connects_again
+     */
+    private void discard(WebSocketSession target) {
+        try {
+            target.close(CloseStatus.NORMAL);
+        } catch (IOException | RuntimeException ignored) {
+        }
+        closed(target, new IOException("WebSocket is closed after a timeout"));
+    }
+
+    /**
+     * get_the_open_session，connect_when_there_is_none
+     */
+    private WebSocketSession open() throws IOException {
+        WebSocketSession current = session;
+        if (current != null && current.isOpen()) {
+            pool.reuseCount.incrementAndGet();
+            return current;
+        }
+        synchronized (this) {
+            current = session;
+            if (current != null && current.isOpen()) {
+                pool.reuseCount.incrementAndGet();
+                return current;
+            }
+            long now = System.currentTimeMillis();
+            if (now < nextAttemptAt) {
+                throw new IOException("Reconnecting to " + uri + " is backed off for " + (nextAttemptAt - now) + "ms");
+            }
+            try {
+                current = connect();
+                failures = 0;
+                nextAttemptAt = 0;
+                session = current;
+                return current;
+            } catch (Exception e) {
+                failures++;
+                nextAttemptAt = now + pool.backoffMillis(failures);
+                pool.connectFailureCount.incrementAndGet();
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                throw e instanceof IOException io ? io : new IOException("Connecting to " + uri + " failed", e);
+            }
+        }
+    }
+
+    private WebSocketSession connect() throws Exception {
+        StandardWebSocketClient client = pool.getClient();
+        WebSocketHttpHeaders httpHeaders = headers == null ? null : headers.get();
+        WebSocketSession raw = client.execute(new Handler(), httpHeaders, URI.create(uri))
+                .get(pool.getConnectTimeoutMillis(), TimeUnit.MILLISECONDS);
+        if (raw == null || !raw.isOpen()) {
+            throw new IOException("Handshake failed or session not open");
+        }
+        raw.setTextMessageSizeLimit(bufferSize);
+        raw.setBinaryMessageSizeLimit(bufferSize);
+        // heartbeats_and_requests_may_be_sent_by_different_threads
+        WebSocketSession decorated = new ConcurrentWebSocketSessionDecorator(raw,
+                (int) pool.getConnectTimeoutMillis(), bufferSize);
+        pool.connectCount.incrementAndGet();
+        log.info("ws pooled connection established, target_uri: {}", uri);
+        if (initializer == null) {
+            return decorated;
+        }
+        try {
+            initializer.initialize(new JsonRpcChannel() {
+                @Override
+                public CompletableFuture<Map<String, Object>> request(String method, Object params)
+                        throws IOException {
+                    return sendRequest(decorated, method, params);
+                }
+
+                @Override
+                public void notify(String method, Object params) throws IOException {
+                    send(decorated, toJson(method, params, null));
+                }
+            });
+        } catch (Exception e) {
+            try {
+                decorated.close(CloseStatus.SERVER_ERROR);
+            } catch (IOException ignored) {
+            }
+            throw e;
+        }
+        return decorated;
+    }
+
+    private CompletableFuture<Map<String, Object>> sendRequest(WebSocketSession target, String method,
+            Object params) throws IOException {
+        long id = nextId.incrementAndGet();
+        CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+        pending.put(id, future);
+        future.whenComplete((r, e) -> pending.remove(id));
+        try {
+            send(target, toJson(method, params, id));
+        } catch (IOException e) {
+            future.completeExceptionally(e);
+            throw e;
+        }
+        pool.requestCount.incrementAndGet();
+        return future;
+    }
+
+    private void send(WebSocketSession target, String text) throws IOException {
+        try {
+            target.sendMessage(new TextMessage(text));
+        } catch (IOException | RuntimeException e) {
+            closed(target, e);
+            throw e instanceof IOException io ? io : new IOException(e);
+        }
+    }
+
+    private static String toJson(String method, Object params, Long id) throws IOException {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("jsonrpc", "2.0");
+        message.put("method", method);
+        if (params != null) {
+            message.put("params", params);
+        }
+        if (id != null) {
+            message.put("id", id);
+        }
+        return OBJECT_MAPPER.writeValueAsString(message);
+    }
+
+    private void received(String payload) {
+        if (payload.indexOf("\"id\"") >= 0) {
+            try {
+                Map<String, Object> message = OBJECT_MAPPER.readValue(payload, MAP_TYPE);
+                if (message.get("id") instanceof Number id && !message.containsKey("method")) {
+                    CompletableFuture<Map<String, Object>> future = pending.get(id.longValue());
+                    if (future != null) {
+                        future.complete(message);
+                        return;
+                    }
+                }
+            } catch (IOException e) {
+                // not_json，passed_to_the_waiters
+            }
+        }
+        for (Waiter waiter : waiters) {
+            try {
+                if (waiter.matcher.test(payload)) {
+                    waiter.future.complete(payload);
+                }
+            } catch (RuntimeException e) {
+                log.warn("ws message matcher failed, target_uri: {}", uri, e);
+            }
+        }
+    }
+
+    /**
+     * the_session_is_gone，everything_waiting_on_it_fails
+     */
+    private void closed(WebSocketSession closedSession, Throwable cause) {
+        synchronized (this) {
+            if (session == closedSession || (session instanceof ConcurrentWebSocketSessionDecorator d
+                    && d.getDelegate() == closedSession)) {
+                session = null;
+            } else if (session != null) {
+                // an_earlier_session，what_waited_on_it_has_already_failed
+                return;
+            }
+        }
+        IOException error = cause instanceof IOException io ? io : new IOException("WebSocket is closed", cause);
+        pending.values().forEach(future -> future.completeExceptionally(error));
+        waiters.forEach(waiter -> waiter.future.completeExceptionally(error));
+    }
+
+    private class Handler extends TextWebSocketHandler {
+        @Override
+        protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+            received(message.getPayload());
+        }
+
+        @Override
+        public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+            log.warn("ws pooled connection error, target_uri: {}, reason: {}", uri, exception.getMessage());
+            closed(session, exception);
+            session.close(CloseStatus.SERVER_ERROR);
+        }
+
+        @Override
+        public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+            log.info("ws pooled connection closed, target_uri: {}, disconnection_reason: {}", uri, status);
+            closed(session, new IOException("WebSocket closed: " + status));
+        }
+    }
+
+    private static class Waiter {
+        private final Predicate<String> matcher;
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+        /**
+         * session_the_message_was_sent_on，null_until_sent，guarded_by_the_waiter
+         */
+        private WebSocketSession sentOn;
+
+        Waiter(Predicate<String> matcher) {
+            this.matcher = matcher;
+        }
+    }
+}
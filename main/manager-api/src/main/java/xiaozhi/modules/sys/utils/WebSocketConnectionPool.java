@@ -0,0 +1,253 @@
+package xiaozhi.modules.sys.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import xiaozhi.modules.sys.utils.PooledWebSocketConnection.SessionInitializer;
+
+/**
+ * websocket_connections_to_the_python_servers，one_per_endpoint_and_handshake
+ * <p>
+ * the_connections_are_kept_open_with_heartbeats_and_reused_by_all_requests_to_the_same_endpoint，
+ * connections_idle_for_too_long_are_closed，the_least_recently_used_one_is_closed_when_the_pool_is_full
+ */
+@Slf4j
+@Component
+public class WebSocketConnectionPool implements MeterBinder {
+    @Value("${renren.ws-pool.max-connections:64}")
+    private int maxConnections;
+
+    @Value("${renren.ws-pool.connect-timeout-ms:8000}")
+    private long connectTimeoutMillis;
+
+    @Value("${renren.ws-pool.heartbeat-seconds:30}")
+    private long heartbeatSeconds;
+
+    @Value("${renren.ws-pool.idle-timeout-seconds:300}")
+    private long idleTimeoutSeconds;
+
+    /**
+     * reconnect_backoff，doubled_after_every_failed_connect
+     */
+    @Value("${renren.ws-pool.backoff-initial-ms:500}")
+    private long backoffInitialMillis;
+
+    @Value("${renren.ws-pool.backoff-max-ms:30000}")
+    private long backoffMaxMillis;
+
+    private final Map<PoolKey, PooledWebSocketConnection> connections = new ConcurrentHashMap<>();
+    private final StandardWebSocketClient client = new StandardWebSocketClient();
+
+    final AtomicLong connectCount = new AtomicLong();
+    final AtomicLong connectFailureCount = new AtomicLong();
+    final AtomicLong reuseCount = new AtomicLong();
+    final AtomicLong requestCount = new AtomicLong();
+    final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+    /**
+     * connects_and_sends_of_asynchronous_exchanges，so_that_slow_endpoints_do_not_hold_up_each_other
+     */
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ws-connection-pool");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::maintain, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "ws-connection-pool-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+        connections.values().forEach(PooledWebSocketConnection::close);
+        connections.clear();
+    }
+
+    /**
+     * get_the_connection_of_the_endpoint，the_session_is_opened_on_first_use
+     * <p>
+     * the_pool_key_is_the_address_together_with_the_headers、buffer_size_and_initializer，so_callers_with_a_different_
+     * handshake_never_share_a_session。pass_constants，a_new_lambda_on_every_call_opens_a_new_connection_every_time
+     *
+     * @param uri         websocket_address
+     * @param headers     handshake_headers，called_on_every_connect，may_be_null
+     * @param bufferSize  message_size_limit
+     * @param initializer run_after_every_connect，may_be_null
+     */
+    public PooledWebSocketConnection get(String uri, Supplier<WebSocketHttpHeaders> headers, int bufferSize,
+            SessionInitializer initializer) {
+        PoolKey poolKey = new PoolKey(uri, headers, bufferSize, initializer);
+        PooledWebSocketConnection connection = connections.get(poolKey);
+        if (connection != null) {
+            return connection;
+        }
+        if (connections.size() >= maxConnections) {
+            evictLeastRecentlyUsed();
+        }
+        return connections.computeIfAbsent(poolKey,
+                key -> new PooledWebSocketConnection(uri, headers, bufferSize, initializer, this));
+    }
+
+    /**
+     * close_and_forget_the_connections_of_the_endpoint，e.g._after_the_address_or_the_secret_changed
+     */
+    public void remove(String uri) {
+        connections.entrySet().removeIf(entry -> {
+            if (!entry.getKey().uri().equals(uri)) {
+                return false;
+            }
+            entry.getValue().close();
+            return true;
+        });
+    }
+
+    StandardWebSocketClient getClient() {
+        return client;
+    }
+
+    ExecutorService getExecutor() {
+        return executor;
+    }
+
+    ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return scheduler.schedule(task, delay, unit);
+    }
+
+    long getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    long backoffMillis(int failures) {
+        long delay = backoffInitialMillis << Math.min(failures - 1, 16);
+        return Math.min(delay, backoffMaxMillis);
+    }
+
+    /**
+     * heartbeat_the_open_connections_and_close_the_idle_ones
+     */
+    void maintain() {
+        long idleBefore = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(idleTimeoutSeconds);
+        for (Map.Entry<PoolKey, PooledWebSocketConnection> entry : new ArrayList<>(connections.entrySet())) {
+            PooledWebSocketConnection connection = entry.getValue();
+            try {
+                if (connection.getLastUsed() < idleBefore && connection.getPendingCount() == 0) {
+                    if (connections.remove(entry.getKey(), connection)) {
+                        connection.close();
+                        evictedCount.incrementAndGet();
+                    }
+                } else {
+                    connection.ping();
+                }
+            } catch (RuntimeException e) {
+                log.warn("ws pool maintenance failed, target_uri: {}", connection.getUri(), e);
+            }
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        List<Map.Entry<PoolKey, PooledWebSocketConnection>> all = new ArrayList<>(connections.entrySet());
+        all.stream().min(Comparator.comparingLong(entry -> entry.getValue().getLastUsed())).ifPresent(oldest -> {
+            if (connections.remove(oldest.getKey(), oldest.getValue())) {
+                oldest.getValue().close();
+                evictedCount.incrementAndGet();
+            }
+        });
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    public long getOpenCount() {
+        return connections.values().stream().filter(PooledWebSocketConnection::isOpen).count();
+    }
+
+    public long getConnectCount() {
+        return connectCount.get();
+    }
+
+    public long getConnectFailureCount() {
+        return connectFailureCount.get();
+    }
+
+    /**
+     * requests_sent_on_an_already_open_session
+     */
+    public long getReuseCount() {
+        return reuseCount.get();
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("ws.pool.connections", this, WebSocketConnectionPool::getConnectionCount)
+                .register(registry);
+        Gauge.builder("ws.pool.connections.open", this, WebSocketConnectionPool::getOpenCount)
+                .register(registry);
+        FunctionCounter.builder("ws.pool.connects", this, WebSocketConnectionPool::getConnectCount)
+                .register(registry);
+        FunctionCounter.builder("ws.pool.connect.failures", this, WebSocketConnectionPool::getConnectFailureCount)
+                .register(registry);
+        FunctionCounter.builder("ws.pool.requests", this, WebSocketConnectionPool::getRequestCount)
+                .register(registry);
+        FunctionCounter.builder("ws.pool.reuses", this, WebSocketConnectionPool::getReuseCount)
+                .register(registry);
+        FunctionCounter.builder("ws.pool.timeouts", this, WebSocketConnectionPool::getTimeoutCount)
+                .register(registry);
+        FunctionCounter.builder("ws.pool.evictions", this, WebSocketConnectionPool::getEvictedCount)
+                .register(registry);
+    }
+
+    /**
+     * headers_and_initializer_are_compared_by_identity
+     */
+    private record PoolKey(String uri, Supplier<WebSocketHttpHeaders> headers, int bufferSize,
+            SessionInitializer initializer) {
+    }
+}
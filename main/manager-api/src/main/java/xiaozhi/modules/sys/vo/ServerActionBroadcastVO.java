@@ -0,0 +1,27 @@
+package xiaozhi.modules.sys.vo;
+
+import java.io.Serializable;
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * results_of_a_server_action_sent_to_all_servers
+ */
+@Data
+@Schema(description = "Server action broadcast result")
+public class ServerActionBroadcastVO implements Serializable {
+
+    @Schema(description = "Number of servers")
+    private int total;
+
+    @Schema(description = "Number of servers that confirmed the action")
+    private int succeeded;
+
+    @Schema(description = "Number of servers that failed or timed out")
+    private int failed;
+
+    @Schema(description = "Result of each server")
+    private List<ServerActionResultVO> results;
+}
@@ -0,0 +1,26 @@
+package xiaozhi.modules.sys.vo;
+
+import java.io.Serializable;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * result_of_a_server_action_on_one_server
+ */
+@Data
+@Schema(description = "Server action result")
+public class ServerActionResultVO implements Serializable {
+
+    @Schema(description = "Target ws address")
+    private String targetWs;
+
+    @Schema(description = "Whether the server confirmed the action")
+    private boolean success;
+
+    @Schema(description = "Failure reason")
+    private String message;
+
+    @Schema(description = "Time spent in milliseconds")
+    private long costMillis;
+}
@@ -47,6 +47,8 @@ public class TimbreController {
             @Parameter(name = "name", description = "Voice name"),
             @Parameter(name = Constant.PAGE, description = "Current page number, starting from 1", required = true),
             @Parameter(name = Constant.LIMIT, description = "Display number of records per page", required = true),
+            @Parameter(name = Constant.CURSOR, description = "Cursor of the previous page, the page then starts after it"),
+            @Parameter(name = Constant.COUNT, description = "How to count the total: exact (default), estimate or none"),
     })
     public Result<PageData<TimbreDetailsVO>> page(
             @Parameter(hidden = true) @RequestParam Map<String, Object> params) {
@@ -55,6 +57,8 @@ public class TimbreController {
         dto.setName((String) params.get("name"));
         dto.setLimit((String) params.get(Constant.LIMIT));
         dto.setPage((String) params.get(Constant.PAGE));
+        dto.setCursor((String) params.get(Constant.CURSOR));
+        dto.setCount((String) params.get(Constant.COUNT));
 
         ValidatorUtils.validateEntity(dto);
         PageData<TimbreDetailsVO> page = timbreService.page(dto);
@@ -1,6 +1,8 @@
 package xiaozhi.modules.timbre.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import xiaozhi.common.page.PageData;
 import xiaozhi.common.service.BaseService;
@@ -65,6 +67,14 @@ public interface TimbreService extends BaseService<TimbreEntity> {
      */
     String getTimbreNameById(String id);
 
+    /**
+     * get_the_names_of_several_timbres_or_cloned_voices，with_one_cache_read_and_at_most_two_queries
+     *
+     * @param ids tone_ids
+     * @return tone_id -> voice_name，unknown_ids_are_left_out
+     */
+    Map<String, String> getTimbreNamesByIds(Collection<String> ids);
+
     /**
      * obtain_timbre_information_based_on_timbre_encoding
      * 
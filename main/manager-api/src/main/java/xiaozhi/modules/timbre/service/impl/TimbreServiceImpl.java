@@ -2,9 +2,11 @@ package xiaozhi.modules.timbre.service.impl;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
@@ -12,18 +14,19 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
-import com.baomidou.mybatisplus.core.metadata.IPage;
 
 import cn.hutool.core.collection.CollectionUtil;
 import lombok.AllArgsConstructor;
 import xiaozhi.common.constant.Constant;
 import xiaozhi.common.exception.ErrorCode;
 import xiaozhi.common.page.PageData;
+import xiaozhi.common.redis.RedisBatchLoader;
 import xiaozhi.common.redis.RedisKeys;
 import xiaozhi.common.redis.RedisUtils;
 import xiaozhi.common.service.impl.BaseServiceImpl;
 import xiaozhi.common.utils.ConvertUtils;
 import xiaozhi.common.utils.MessageUtils;
+import xiaozhi.modules.config.cache.AgentConfigCache;
 import xiaozhi.modules.model.dto.VoiceDTO;
 import xiaozhi.modules.security.user.SecurityUser;
 import xiaozhi.modules.timbre.dao.TimbreDao;
@@ -48,22 +51,27 @@ public class TimbreServiceImpl extends BaseServiceImpl<TimbreDao, TimbreEntity>
     private final TimbreDao timbreDao;
     private final VoiceCloneDao voiceCloneDao;
     private final RedisUtils redisUtils;
+    private final AgentConfigCache agentConfigCache;
+    private final RedisBatchLoader redisBatchLoader;
 
     @Override
     public PageData<TimbreDetailsVO> page(TimbrePageDTO dto) {
         Map<String, Object> params = new HashMap<String, Object>();
         params.put(Constant.PAGE, dto.getPage());
         params.put(Constant.LIMIT, dto.getLimit());
-        IPage<TimbreEntity> page = baseDao.selectPage(
-                getPage(params, null, true),
+        params.put(Constant.CURSOR, dto.getCursor());
+        params.put(Constant.COUNT, dto.getCount());
+        PageData<TimbreEntity> page = selectKeysetPage(params,
                 // define_query_conditions
                 new QueryWrapper<TimbreEntity>()
                         // must_be_searched_according_to_ttsid
                         .eq("tts_model_id", dto.getTtsModelId())
                         // if_there_is_a_timbre_name，fuzzy_search_by_timbre_name
-                        .like(StringUtils.isNotBlank(dto.getName()), "name", dto.getName()));
+                        .like(StringUtils.isNotBlank(dto.getName()), "name", dto.getName()),
+                null, true);
 
-        return getPageData(page, TimbreDetailsVO.class);
+        return new PageData<>(ConvertUtils.sourceToTarget(page.getList(), TimbreDetailsVO.class), page.getTotal(),
+                page.getCursor());
     }
 
     @Override
@@ -113,12 +121,17 @@ public class TimbreServiceImpl extends BaseServiceImpl<TimbreDao, TimbreEntity>
         baseDao.updateById(timbreEntity);
         // delete_cache
         redisUtils.delete(RedisKeys.getTimbreDetailsKey(timbreId));
+        agentConfigCache.evictByVoiceId(timbreId);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void delete(String[] ids) {
         baseDao.deleteBatchIds(Arrays.asList(ids));
+        for (String id : ids) {
+            redisUtils.delete(RedisKeys.getTimbreDetailsKey(id));
+            agentConfigCache.evictByVoiceId(id);
+        }
     }
 
     @Override
@@ -193,6 +206,30 @@ public class TimbreServiceImpl extends BaseServiceImpl<TimbreDao, TimbreEntity>
         return null;
     }
 
+    @Override
+    public Map<String, String> getTimbreNamesByIds(Collection<String> ids) {
+        return redisBatchLoader.load(ids, RedisKeys::getTimbreNameById, this::loadTimbreNames,
+                RedisUtils.DEFAULT_EXPIRE);
+    }
+
+    /**
+     * timbres_first，the_ids_that_are_not_timbres_are_looked_up_as_cloned_voices
+     */
+    private Map<String, String> loadTimbreNames(Set<String> ids) {
+        Map<String, String> names = new HashMap<>();
+        timbreDao.selectList(new QueryWrapper<TimbreEntity>().select("id", "name").in("id", ids))
+                .stream()
+                .filter(entity -> StringUtils.isNotBlank(entity.getName()))
+                .forEach(entity -> names.put(entity.getId(), entity.getName()));
+        List<String> clones = ids.stream().filter(id -> !names.containsKey(id)).toList();
+        if (!clones.isEmpty()) {
+            String prefix = MessageUtils.getMessage(ErrorCode.VOICE_CLONE_PREFIX);
+            voiceCloneDao.selectList(new QueryWrapper<VoiceCloneEntity>().select("id", "name").in("id", clones))
+                    .forEach(entity -> names.put(entity.getId(), prefix + entity.getName()));
+        }
+        return names;
+    }
+
     @Override
     public VoiceDTO getByVoiceCode(String ttsModelId, String voiceCode) {
         if (StringUtils.isBlank(voiceCode)) {
@@ -43,7 +43,9 @@ public class VoiceResourceController {
     @Operation(summary = "Query timbre resources by page")
     @Parameters({
             @Parameter(name = Constant.PAGE, description = "Current page number, starting from 1", required = true),
-            @Parameter(name = Constant.LIMIT, description = "Display number of records per page", required = true)
+            @Parameter(name = Constant.LIMIT, description = "Display number of records per page", required = true),
+            @Parameter(name = Constant.CURSOR, description = "Cursor of the previous page, the page then starts after it"),
+            @Parameter(name = Constant.COUNT, description = "How to count the total: exact (default), estimate or none")
     })
     @RequiresPermissions("sys:role:superAdmin")
     public Result<PageData<VoiceCloneResponseDTO>> page(
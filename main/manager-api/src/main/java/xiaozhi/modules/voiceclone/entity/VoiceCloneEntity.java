@@ -34,9 +34,14 @@ public class VoiceCloneEntity {
     @Schema(description = "User ID (associated user table)")
     private Long userId;
 
-    @Schema(description = "sound")
+    @Schema(description = "sound, not selected by default, loaded through VoiceCloneService.getVoiceData")
+    @TableField(select = false)
     private byte[] voice;
 
+    @Schema(description = "Whether the sound has been uploaded, computed in SQL by the list queries")
+    @TableField(exist = false)
+    private Boolean hasVoice;
+
     @Schema(description = "Training status: 0 pending training 1 training 2 training successful 3 training failed")
     private Integer trainStatus;
 
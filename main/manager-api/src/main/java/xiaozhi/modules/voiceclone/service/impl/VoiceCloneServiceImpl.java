@@ -1,9 +1,5 @@
 package xiaozhi.modules.voiceclone.service.impl;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
@@ -12,12 +8,16 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
-import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -30,9 +30,11 @@ import xiaozhi.common.page.PageData;
 import xiaozhi.common.service.impl.BaseServiceImpl;
 import xiaozhi.common.utils.ConvertUtils;
 import xiaozhi.common.utils.DateUtils;
+import xiaozhi.modules.config.cache.AgentConfigCache;
 import xiaozhi.modules.model.entity.ModelConfigEntity;
 import xiaozhi.modules.model.service.ModelConfigService;
 import xiaozhi.modules.sys.service.SysUserService;
+import xiaozhi.modules.sys.service.SysUserUtilService;
 import xiaozhi.modules.voiceclone.dao.VoiceCloneDao;
 import xiaozhi.modules.voiceclone.dto.VoiceCloneDTO;
 import xiaozhi.modules.voiceclone.dto.VoiceCloneResponseDTO;
@@ -48,14 +50,19 @@ public class VoiceCloneServiceImpl extends BaseServiceImpl<VoiceCloneDao, VoiceC
     private final ModelConfigService modelConfigService;
     private final SysUserService sysUserService;
     private final ObjectMapper objectMapper;
+    private final AgentConfigCache agentConfigCache;
+    private final SysUserUtilService sysUserUtilService;
+    private final RestTemplate restTemplate;
+
+    /**
+     * columns_of_the_list_queries，the_voice_blob_is_replaced_by_a_flag_computed_in_sql
+     */
+    static final String[] SUMMARY_COLUMNS = { "id", "name", "model_id", "voice_id", "user_id", "train_status",
+            "train_error", "creator", "create_date", "voice IS NOT NULL AS has_voice" };
 
     @Override
     public PageData<VoiceCloneEntity> page(Map<String, Object> params) {
-        IPage<VoiceCloneEntity> page = baseDao.selectPage(
-                getPage(params, "create_date", true),
-                getWrapper(params));
-
-        return new PageData<>(page.getRecords(), page.getTotal());
+        return selectKeysetPage(params, getWrapper(params), "create_date", true, SUMMARY_COLUMNS);
     }
 
     private QueryWrapper<VoiceCloneEntity> getWrapper(Map<String, Object> params) {
@@ -123,27 +130,30 @@ public class VoiceCloneServiceImpl extends BaseServiceImpl<VoiceCloneDao, VoiceC
     @Override
     public void delete(String[] ids) {
         baseDao.deleteBatchIds(Arrays.asList(ids));
+        for (String id : ids) {
+            agentConfigCache.evictByVoiceId(id);
+        }
     }
 
     @Override
     public List<VoiceCloneEntity> getByUserId(Long userId) {
         QueryWrapper<VoiceCloneEntity> wrapper = new QueryWrapper<>();
+        wrapper.select(SUMMARY_COLUMNS);
         wrapper.eq("user_id", userId);
-        wrapper.orderByDesc("created_at");
+        wrapper.orderByDesc("create_date");
         return baseDao.selectList(wrapper);
     }
 
     @Override
     public PageData<VoiceCloneResponseDTO> pageWithNames(Map<String, Object> params) {
         // query_paging_data_first
-        IPage<VoiceCloneEntity> page = baseDao.selectPage(
-                getPage(params, "create_date", true),
-                getWrapper(params));
+        PageData<VoiceCloneEntity> page = selectKeysetPage(params, getWrapper(params), "create_date", true,
+                SUMMARY_COLUMNS);
 
         // convert_list_of_entities_to_list_of_dtos
-        List<VoiceCloneResponseDTO> dtoList = convertToResponseDTOList(page.getRecords());
+        List<VoiceCloneResponseDTO> dtoList = convertToResponseDTOList(page.getList());
 
-        return new PageData<>(dtoList, page.getTotal());
+        return new PageData<>(dtoList, page.getTotal(), page.getCursor());
     }
 
     @Override
@@ -184,22 +194,24 @@ public class VoiceCloneServiceImpl extends BaseServiceImpl<VoiceCloneDao, VoiceC
 
         List<VoiceCloneResponseDTO> dtoList = new ArrayList<>(entityList.size());
 
+        // the_model_names_and_usernames_of_the_whole_list_in_one_lookup_each
+        Map<String, String> modelNames = modelConfigService
+                .getModelNamesByIds(entityList.stream().map(VoiceCloneEntity::getModelId).toList());
+        Map<Long, String> usernames = sysUserUtilService
+                .getUsernames(entityList.stream().map(VoiceCloneEntity::getUserId).toList());
+
         // convert_each_entity_to_dto
         for (VoiceCloneEntity entity : entityList) {
             VoiceCloneResponseDTO dto = ConvertUtils.sourceToTarget(entity, VoiceCloneResponseDTO.class);
 
             // set_model_name
-            if (StringUtils.isNotBlank(entity.getModelId())) {
-                dto.setModelName(modelConfigService.getModelNameById(entity.getModelId()));
-            }
+            dto.setModelName(modelNames.get(entity.getModelId()));
 
             // set_user_name
-            if (entity.getUserId() != null) {
-                dto.setUserName(sysUserService.getByUserId(entity.getUserId()).getUsername());
-            }
+            dto.setUserName(usernames.get(entity.getUserId()));
 
             // set_whether_there_is_audio_data
-            dto.setHasVoice(entity.getVoice() != null);
+            dto.setHasVoice(Boolean.TRUE.equals(entity.getHasVoice()));
 
             dtoList.add(dto);
         }
@@ -244,7 +256,10 @@ public class VoiceCloneServiceImpl extends BaseServiceImpl<VoiceCloneDao, VoiceC
 
     @Override
     public byte[] getVoiceData(String id) {
-        VoiceCloneEntity entity = baseDao.selectById(id);
+        // the_voice_column_is_only_read_here
+        VoiceCloneEntity entity = baseDao.selectOne(new QueryWrapper<VoiceCloneEntity>()
+                .select("voice")
+                .eq("id", id));
         if (entity == null) {
             return null;
         }
@@ -258,7 +273,8 @@ public class VoiceCloneServiceImpl extends BaseServiceImpl<VoiceCloneDao, VoiceC
         if (entity == null) {
             throw new RenException(ErrorCode.VOICE_CLONE_RECORD_NOT_EXIST);
         }
-        if (entity.getVoice() == null || entity.getVoice().length == 0) {
+        byte[] voice = getVoiceData(cloneId);
+        if (voice == null || voice.length == 0) {
             throw new RenException(ErrorCode.VOICE_CLONE_AUDIO_NOT_UPLOADED);
         }
 
@@ -274,7 +290,7 @@ public class VoiceCloneServiceImpl extends BaseServiceImpl<VoiceCloneDao, VoiceC
                 throw new RenException(ErrorCode.VOICE_CLONE_MODEL_TYPE_NOT_FOUND);
             }
             if (Constant.VOICE_CLONE_HUOSHAN_DOUBLE_STREAM.equals(type)) {
-                huoshanClone(config, entity);
+                huoshanClone(config, entity, voice);
             }
         } catch (RenException re) {
             entity.setTrainStatus(3);
@@ -295,9 +311,10 @@ public class VoiceCloneServiceImpl extends BaseServiceImpl<VoiceCloneDao, VoiceC
      * 
      * @param config model_configuration
      * @param entity voice_clone_recording_entity
+     * @param voice  uploaded_sound
      * @throws Exception
      */
-    private void huoshanClone(Map<String, Object> config, VoiceCloneEntity entity) throws Exception {
+    private void huoshanClone(Map<String, Object> config, VoiceCloneEntity entity, byte[] voice) throws Exception {
         String appid = (String) config.get("appid");
         String accessToken = (String) config.get("access_token");
 
@@ -305,7 +322,7 @@ public class VoiceCloneServiceImpl extends BaseServiceImpl<VoiceCloneDao, VoiceC
             throw new RenException(ErrorCode.VOICE_CLONE_HUOSHAN_CONFIG_MISSING);
         }
 
-        String audioBase64 = Base64.getEncoder().encodeToString(entity.getVoice());
+        String audioBase64 = Base64.getEncoder().encodeToString(voice);
         Map<String, Object> reqBody = new HashMap<>();
         reqBody.put("appid", appid);
         List<Map<String, String>> audios = new ArrayList<>();
@@ -321,20 +338,22 @@ public class VoiceCloneServiceImpl extends BaseServiceImpl<VoiceCloneDao, VoiceC
 
         String apiUrl = "https://openspeech.bytedance.com/api/v1/mega_tts/audio/upload";
 
-        HttpClient client = HttpClient.newHttpClient();
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(apiUrl))
-                .header("Content-Type", "application/json")
-                .header("Authorization", "Bearer;" + accessToken)
-                .header("Resource-Id", "seed-icl-1.0")
-                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(reqBody)))
-                .build();
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-        System.out.println(">>> HTTP status = " + response.statusCode());
-        System.out.println(">>> response body = " + response.body());
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Authorization", "Bearer;" + accessToken);
+        headers.set("Resource-Id", "seed-icl-1.0");
+        HttpEntity<String> request = new HttpEntity<>(objectMapper.writeValueAsString(reqBody), headers);
+        // pooled_client_with_timeouts，error_responses_also_carry_BaseResp
+        String responseBody;
+        try {
+            responseBody = restTemplate.postForEntity(apiUrl, request, String.class).getBody();
+        } catch (HttpStatusCodeException e) {
+            log.warn("Voice clone upload returned HTTP {}", e.getStatusCode().value());
+            responseBody = e.getResponseBodyAsString();
+        }
+        log.debug("Voice clone upload response: {}", responseBody);
 
-        Map<String, Object> rsp = objectMapper.readValue(response.body(),
+        Map<String, Object> rsp = objectMapper.readValue(responseBody,
                 new TypeReference<Map<String, Object>>() {
                 });
 
@@ -356,6 +375,7 @@ public class VoiceCloneServiceImpl extends BaseServiceImpl<VoiceCloneDao, VoiceC
                 entity.setVoiceId(speakerId);
                 entity.setTrainError("");
                 baseDao.updateById(entity);
+                agentConfigCache.evictByVoiceId(entity.getId());
             } else {
                 // use_statusmessage_as_error_message_on_failure
                 String errorMsg = StringUtils.isNotBlank(statusMessage) ? statusMessage : "Training failed";
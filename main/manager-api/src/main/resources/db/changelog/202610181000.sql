@@ -0,0 +1,4 @@
+-- 聊天音频改为保存在音频存储中，表中只保留引用
+ALTER TABLE `ai_agent_chat_audio`
+    ADD COLUMN `storage_key` VARCHAR(64) NULL COMMENT '音频存储键（内容SHA-256）' AFTER `id`,
+    ADD COLUMN `audio_size` INT NULL COMMENT '音频字节数' AFTER `storage_key`;
@@ -0,0 +1,21 @@
+-- 会话汇总表，聊天记录写入时增量维护，会话列表不再对聊天记录表做 GROUP BY
+DROP TABLE IF EXISTS ai_agent_chat_session;
+CREATE TABLE ai_agent_chat_session
+(
+    agent_id      VARCHAR(32) NOT NULL COMMENT '智能体id',
+    session_id    VARCHAR(50) NOT NULL COMMENT '会话ID',
+    mac_address   VARCHAR(50) COMMENT '最后上报的设备MAC地址',
+    first_chat_at DATETIME(3) NOT NULL COMMENT '第一条消息时间',
+    last_chat_at  DATETIME(3) NOT NULL COMMENT '最后一条消息时间',
+    chat_count    INT NOT NULL DEFAULT 0 COMMENT '消息数',
+    has_audio     TINYINT(1) NOT NULL DEFAULT 0 COMMENT '是否有音频',
+    PRIMARY KEY (agent_id, session_id),
+    INDEX idx_ai_agent_chat_session_agent_last (agent_id, last_chat_at, session_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT '智能体会话汇总表';
+
+-- 用已有聊天记录回填
+INSERT INTO ai_agent_chat_session (agent_id, session_id, mac_address, first_chat_at, last_chat_at, chat_count, has_audio)
+SELECT agent_id, session_id, MAX(mac_address), MIN(created_at), MAX(created_at), COUNT(*), MAX(audio_id IS NOT NULL)
+FROM ai_agent_chat_history
+WHERE agent_id IS NOT NULL AND session_id IS NOT NULL
+GROUP BY agent_id, session_id;
@@ -0,0 +1,39 @@
+-- 聊天记录保留策略，智能体没有单独的策略时使用系统参数中的全局策略
+DROP TABLE IF EXISTS ai_agent_chat_retention;
+CREATE TABLE ai_agent_chat_retention
+(
+    agent_id             VARCHAR(32) NOT NULL COMMENT '智能体id',
+    text_retention_days  INT NOT NULL DEFAULT 0 COMMENT '聊天记录保留天数，0表示永久保留',
+    audio_retention_days INT NOT NULL DEFAULT 0 COMMENT '音频保留天数，0表示永久保留',
+    updater              BIGINT COMMENT '更新者',
+    updated_at           DATETIME COMMENT '更新时间',
+    PRIMARY KEY (agent_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT '智能体聊天记录保留策略表';
+
+-- 聊天记录清理任务，按主键分批删除，每批之后记录进度，中断后从进度处继续
+DROP TABLE IF EXISTS ai_agent_chat_purge_task;
+CREATE TABLE ai_agent_chat_purge_task
+(
+    id            BIGINT AUTO_INCREMENT COMMENT '主键ID' PRIMARY KEY,
+    agent_id      VARCHAR(32) COMMENT '智能体id，为空表示全局保留策略',
+    purge_type    TINYINT NOT NULL COMMENT '清理类型（1仅音频 2聊天记录和音频）',
+    before_time   DATETIME(3) COMMENT '清理此时间之前的记录，为空表示全部',
+    status        TINYINT NOT NULL DEFAULT 0 COMMENT '状态（0等待 1执行中 2完成 3失败）',
+    last_id       BIGINT NOT NULL DEFAULT 0 COMMENT '已处理到的聊天记录ID',
+    history_count BIGINT NOT NULL DEFAULT 0 COMMENT '已删除的聊天记录数',
+    audio_count   BIGINT NOT NULL DEFAULT 0 COMMENT '已删除的音频数',
+    error_message VARCHAR(500) COMMENT '失败原因',
+    created_at    DATETIME NOT NULL COMMENT '创建时间',
+    updated_at    DATETIME NOT NULL COMMENT '更新时间，执行中的任务每批更新一次',
+    INDEX idx_ai_agent_chat_purge_task_status (status, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT '聊天记录清理任务表';
+
+-- 删除音频文件前确认没有其他音频引用同一内容
+ALTER TABLE `ai_agent_chat_audio`
+    ADD INDEX idx_ai_agent_chat_audio_storage_key (storage_key);
+
+-- 全局保留策略
+delete from `sys_params` where id in (122, 123);
+INSERT INTO `sys_params` (id, param_code, param_value, value_type, param_type, remark) VALUES
+(122, 'chat_text_retention_days', '0', 'number', 1, '聊天记录保留天数，0表示永久保留，智能体单独设置时以智能体为准'),
+(123, 'chat_audio_retention_days', '0', 'number', 1, '聊天音频保留天数，0表示永久保留，智能体单独设置时以智能体为准');
@@ -0,0 +1,43 @@
+-- 校验下载令牌并计入一次下载，并发请求不会超过次数上限
+-- KEYS[1] 下载次数, KEYS[2] 令牌（签名令牌不存放在 redis 中，传空字符串）, KEYS[3] 当前下载已发送的范围（可选，支持断点续传时传）
+-- ARGV[1] 最多下载次数, ARGV[2] 过期时间（毫秒，令牌存放在 redis 中时取令牌的剩余时间）, ARGV[3] 本次发送的起始位置
+-- 返回令牌的值，签名令牌返回 1；令牌无效或已用完时返回 nil
+local value = '1'
+local expire = tonumber(ARGV[2])
+if KEYS[2] ~= '' then
+    value = redis.call('GET', KEYS[2])
+    if not value then
+        return nil
+    end
+    -- 下载次数和令牌同时过期
+    expire = redis.call('PTTL', KEYS[2])
+end
+local start = tonumber(ARGV[3])
+local resumed = false
+if KEYS[3] and start > 0 then
+    local served = redis.call('HMGET', KEYS[3], 'start', 'end')
+    local servedStart = tonumber(served[1])
+    local servedEnd = tonumber(served[2])
+    -- 断点续传：从已发送的部分之内继续，不计入下载次数
+    resumed = servedEnd ~= nil and start > servedStart and start <= servedEnd
+end
+if not resumed then
+    local count = redis.call('INCR', KEYS[1])
+    if count == 1 and expire > 0 then
+        redis.call('PEXPIRE', KEYS[1], expire)
+    end
+    if count > tonumber(ARGV[1]) then
+        if KEYS[2] ~= '' then
+            redis.call('DEL', KEYS[2], KEYS[1])
+        end
+        return nil
+    end
+end
+if KEYS[3] then
+    -- 之后只能从本次实际发送的部分之内继续，发送到的位置由发送结束后记录
+    redis.call('HSET', KEYS[3], 'start', start, 'end', start)
+    if expire > 0 then
+        redis.call('PEXPIRE', KEYS[3], expire)
+    end
+end
+return value
@@ -0,0 +1,204 @@
+package xiaozhi.common.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import xiaozhi.common.http.DownstreamGuard;
+import xiaozhi.common.http.DownstreamUnavailableException;
+
+public class RestTemplateConfigTest {
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String baseUrl;
+    private String downstream;
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private volatile boolean failing;
+    private volatile CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger inSlow = new AtomicInteger();
+
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private SimpleMeterRegistry registry;
+    private DownstreamGuard guard;
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    public void start() throws Exception {
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/ok", exchange -> {
+            calls.incrementAndGet();
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            respond(exchange, failing ? 500 : 200, failing ? "error" : "true");
+        });
+        server.createContext("/slow", exchange -> {
+            inSlow.incrementAndGet();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "true");
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        downstream = baseUrl;
+    }
+
+    @AfterEach
+    public void stop() throws Exception {
+        release.countDown();
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    private void createClient(long readTimeoutMillis, int maxConcurrent) {
+        RestTemplateConfig config = new RestTemplateConfig();
+        ReflectionTestUtils.setField(config, "maxTotal", 20);
+        ReflectionTestUtils.setField(config, "maxPerRoute", 10);
+        ReflectionTestUtils.setField(config, "connectTimeoutMillis", 1000L);
+        ReflectionTestUtils.setField(config, "readTimeoutMillis", readTimeoutMillis);
+        ReflectionTestUtils.setField(config, "poolTimeoutMillis", 1000L);
+        ReflectionTestUtils.setField(config, "idleTimeoutMillis", 30000L);
+        ReflectionTestUtils.setField(config, "failureThreshold", 3);
+        ReflectionTestUtils.setField(config, "openMillis", 300L);
+        ReflectionTestUtils.setField(config, "maxConcurrent", maxConcurrent);
+        ReflectionTestUtils.setField(config, "maxDownstreams", 2);
+        connectionManager = config.httpClientConnectionManager();
+        httpClient = config.httpClient(connectionManager);
+        registry = new SimpleMeterRegistry();
+        guard = config.downstreamGuard(registry);
+        restTemplate = config.restTemplate(new RestTemplateBuilder(), httpClient, guard);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    @Test
+    public void testConnectionsAreReused() {
+        createClient(5000, 10);
+        for (int i = 0; i < 5; i++) {
+            assertEquals("true", restTemplate.getForObject(baseUrl + "/ok", String.class));
+        }
+        assertEquals(5, calls.get());
+        assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    public void testCircuitOpensAndRecovers() throws Exception {
+        createClient(5000, 10);
+        failing = true;
+        for (int i = 0; i < 3; i++) {
+            assertThrows(HttpServerErrorException.class, () -> restTemplate.getForObject(baseUrl + "/ok", String.class));
+        }
+        assertEquals(1, guard.getState(downstream));
+
+        // open，the_server_is_not_called
+        ResourceAccessException rejected = assertThrows(ResourceAccessException.class,
+                () -> restTemplate.getForObject(baseUrl + "/ok", String.class));
+        assertInstanceOf(DownstreamUnavailableException.class, rejected.getCause());
+        assertEquals(3, calls.get());
+        assertEquals(1.0, registry.get("http.client.downstream.rejected").tag("reason", "circuit_open").counter()
+                .count());
+
+        // half_open，the_trial_call_closes_the_circuit
+        Thread.sleep(350);
+        failing = false;
+        assertEquals("true", restTemplate.getForObject(baseUrl + "/ok", String.class));
+        assertEquals(0, guard.getState(downstream));
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedDownstreamIsDropped() throws Exception {
+        createClient(5000, 10);
+        String other = "http://localhost:" + server.getAddress().getPort();
+        String third = "http://127.0.0.2:" + server.getAddress().getPort();
+        restTemplate.getForObject(baseUrl + "/ok", String.class);
+        Thread.sleep(5);
+        restTemplate.getForObject(other + "/ok", String.class);
+        Thread.sleep(5);
+        // the_server_only_listens_on_127.0.0.1，the_failed_call_is_still_tracked
+        assertThrows(ResourceAccessException.class, () -> restTemplate.getForObject(third + "/ok", String.class));
+
+        assertEquals(-1, guard.getState(downstream));
+        assertEquals(0, guard.getState(other));
+        assertEquals(0, guard.getState(third));
+        assertTrue(registry.find("http.client.downstream.state").tag("downstream", downstream).gauges().isEmpty());
+        assertEquals(2, registry.find("http.client.downstream.state").gauges().size());
+    }
+
+    @Test
+    public void testBulkheadRejectsWhenFull() throws Exception {
+        createClient(5000, 2);
+        CompletableFuture<String> first = CompletableFuture
+                .supplyAsync(() -> restTemplate.getForObject(baseUrl + "/slow", String.class));
+        CompletableFuture<String> second = CompletableFuture
+                .supplyAsync(() -> restTemplate.getForObject(baseUrl + "/slow", String.class));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (inSlow.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, inSlow.get());
+
+        ResourceAccessException rejected = assertThrows(ResourceAccessException.class,
+                () -> restTemplate.getForObject(baseUrl + "/ok", String.class));
+        assertInstanceOf(DownstreamUnavailableException.class, rejected.getCause());
+        assertEquals(0, calls.get());
+
+        release.countDown();
+        assertEquals("true", first.get(5, TimeUnit.SECONDS));
+        assertEquals("true", second.get(5, TimeUnit.SECONDS));
+        assertEquals("true", restTemplate.getForObject(baseUrl + "/ok", String.class));
+    }
+
+    @Test
+    public void testReadTimeout() {
+        createClient(200, 10);
+        long start = System.currentTimeMillis();
+        ResourceAccessException e = assertThrows(ResourceAccessException.class,
+                () -> restTemplate.getForObject(baseUrl + "/slow", String.class));
+        assertInstanceOf(SocketTimeoutException.class, e.getCause());
+        assertTrue(System.currentTimeMillis() - start < 3000);
+    }
+}
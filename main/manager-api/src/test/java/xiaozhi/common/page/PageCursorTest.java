@@ -0,0 +1,26 @@
+package xiaozhi.common.page;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+public class PageCursorTest {
+    @Test
+    public void testValuesKeepTheirType() {
+        Object[] key = { new Date(1714528800123L), "session:1", 42L, null };
+        String cursor = PageCursor.encode(key);
+        assertArrayEquals(key, PageCursor.decode(cursor, 4));
+        // url_safe，can_be_passed_as_a_query_parameter_as_is
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    public void testDecimalValues() {
+        Object[] key = { new BigDecimal("12.50"), 7L };
+        assertArrayEquals(key, PageCursor.decode(PageCursor.encode(key), 2));
+    }
+}
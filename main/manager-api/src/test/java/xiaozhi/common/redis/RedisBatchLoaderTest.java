@@ -0,0 +1,59 @@
+package xiaozhi.common.redis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class RedisBatchLoaderTest {
+    private final RedisUtils redisUtils = mock(RedisUtils.class);
+    private final RedisBatchLoader loader = new RedisBatchLoader(redisUtils);
+
+    @Test
+    public void testOnlyMissingIdsAreLoadedAndWrittenBack() {
+        when(redisUtils.multiGet(List.of("k:a", "k:b", "k:c"))).thenReturn(Arrays.asList("A", null, null));
+        List<Set<String>> calls = new ArrayList<>();
+        Map<String, String> result = loader.load(Arrays.asList("a", "b", null, "a", "c"), id -> "k:" + id,
+                missing -> {
+                    calls.add(missing);
+                    return Map.of("b", "B");
+                }, 60);
+
+        assertEquals(Map.of("a", "A", "b", "B"), result);
+        assertEquals(List.of(Set.of("b", "c")), calls);
+        verify(redisUtils).multiSet(Map.of("k:b", "B"), 60);
+    }
+
+    @Test
+    public void testAllCachedSkipsTheLoader() {
+        when(redisUtils.multiGet(List.of("k:a"))).thenReturn(List.of("A"));
+        Map<String, String> result = loader.load(List.of("a"), id -> "k:" + id, missing -> {
+            throw new AssertionError("loader must not be called");
+        }, 60);
+
+        assertEquals(Map.of("a", "A"), result);
+        verify(redisUtils, never()).multiSet(anyMap(), eq(60L));
+    }
+
+    @Test
+    public void testRedisDisabledLoadsEverything() {
+        // the_redis_aspect_returns_null_when_redis_is_off
+        when(redisUtils.multiGet(anyCollection())).thenReturn(null);
+        Map<String, String> result = loader.load(List.of("a", "b"), id -> "k:" + id,
+                missing -> Map.of("a", "A", "b", "B"), 60);
+
+        assertEquals(Map.of("a", "A", "b", "B"), result);
+    }
+}
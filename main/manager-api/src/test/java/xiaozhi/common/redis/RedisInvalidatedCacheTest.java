@@ -0,0 +1,102 @@
+package xiaozhi.common.redis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class RedisInvalidatedCacheTest {
+    private final RedisUtils redisUtils = mock(RedisUtils.class);
+    private final TestCache cache = new TestCache(redisUtils);
+
+    @AfterEach
+    public void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testValueLoadedAcrossAnInvalidationIsNotKept() {
+        long startEpoch = cache.startLoad();
+        cache.invalidateAfterCommit("a");
+
+        assertFalse(cache.keepIfCurrent(startEpoch, () -> cache.values.put("a", "stale")));
+        assertTrue(cache.values.isEmpty());
+        assertTrue(cache.keepIfCurrent(cache.startLoad(), () -> cache.values.put("a", "fresh")));
+        assertEquals("fresh", cache.values.get("a"));
+    }
+
+    @Test
+    public void testInvalidationWaitsForTheCommit() {
+        cache.values.put("a", "A");
+        TransactionSynchronizationManager.initSynchronization();
+        Runnable sharedChange = mock(Runnable.class);
+
+        cache.invalidateAfterCommit("a", sharedChange);
+        assertEquals("A", cache.values.get("a"));
+        verify(redisUtils, never()).publish(any(), any());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertTrue(cache.values.isEmpty());
+        InOrder order = inOrder(sharedChange, redisUtils);
+        order.verify(sharedChange).run();
+        order.verify(redisUtils).publish("test:invalidate", "a");
+    }
+
+    @Test
+    public void testMessageFromAnotherNode() {
+        cache.values.put("a", "A");
+        cache.values.put("b", "B");
+        byte[] body = "\"*\"".getBytes(StandardCharsets.UTF_8);
+        when(redisUtils.deserializeMessage(body)).thenReturn(RedisInvalidatedCache.MSG_ALL);
+
+        cache.onMessage(new DefaultMessage("test:invalidate".getBytes(StandardCharsets.UTF_8), body), null);
+
+        assertTrue(cache.values.isEmpty());
+        assertEquals(List.of("*"), cache.messages);
+    }
+
+    private static class TestCache extends RedisInvalidatedCache {
+        private final Map<String, String> values = new ConcurrentHashMap<>();
+        private final List<Object> messages = new ArrayList<>();
+
+        TestCache(RedisUtils redisUtils) {
+            super(redisUtils, mock(RedisMessageListenerContainer.class));
+        }
+
+        @Override
+        protected String getTopic() {
+            return "test:invalidate";
+        }
+
+        @Override
+        protected void applyInvalidation(Object message) {
+            messages.add(message);
+            if (MSG_ALL.equals(message)) {
+                values.clear();
+            } else {
+                values.remove(message);
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package xiaozhi.common.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.BeanUtils;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+import xiaozhi.modules.agent.dto.AgentDTO;
+import xiaozhi.modules.agent.entity.AgentEntity;
+
+public class ConvertUtilsTest {
+
+    @Data
+    public static class Base {
+        private Long id;
+        private Date createDate;
+    }
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class Source extends Base {
+        private String name;
+        private Integer count;
+        private Integer level;
+        private int sort;
+        private List<String> tags;
+        private List<Integer> numbers;
+        private String onlyInSource;
+    }
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    @Accessors(chain = true)
+    public static class Target extends Base {
+        private String name;
+        private int count;
+        private long level;
+        private Integer sort;
+        private List<String> tags;
+        private List<String> numbers;
+        private String onlyInTarget = "default";
+    }
+
+    /**
+     * not_public，copied_the_same_as_with_copyProperties
+     */
+    @Data
+    static class HiddenTarget {
+        private String name;
+    }
+
+    private static Source source() {
+        Source source = new Source();
+        source.setId(7L);
+        source.setCreateDate(new Date(1_700_000_000_000L));
+        source.setName("xiaozhi");
+        source.setCount(3);
+        source.setLevel(5);
+        source.setSort(9);
+        source.setTags(Arrays.asList("a", "b"));
+        source.setNumbers(Arrays.asList(1, 2));
+        source.setOnlyInSource("x");
+        return source;
+    }
+
+    @Test
+    public void testSameResultAsCopyProperties() {
+        Source source = source();
+        Target expected = new Target();
+        BeanUtils.copyProperties(source, expected);
+
+        Target actual = ConvertUtils.sourceToTarget(source, Target.class);
+        assertEquals(expected, actual);
+        assertEquals(7L, actual.getId());
+        assertEquals(3, actual.getCount());
+        // int_is_not_assignable_to_long，list_of_integer_is_not_assignable_to_list_of_string
+        assertEquals(0L, actual.getLevel());
+        assertNull(actual.getNumbers());
+        assertSame(source.getTags(), actual.getTags());
+        assertEquals("default", actual.getOnlyInTarget());
+    }
+
+    @Test
+    public void testNullIsNotCopiedToPrimitive() {
+        Source source = source();
+        source.setCount(null);
+        Target target = ConvertUtils.sourceToTarget(source, Target.class);
+        assertEquals(0, target.getCount());
+        assertEquals("xiaozhi", target.getName());
+    }
+
+    @Test
+    public void testList() {
+        AgentEntity first = new AgentEntity();
+        first.setId("a1");
+        first.setAgentName("one");
+        first.setSystemPrompt("prompt");
+        AgentEntity second = new AgentEntity();
+        second.setId("a2");
+        second.setAgentName("two");
+
+        List<AgentDTO> list = ConvertUtils.sourceToTarget(List.of(first, second), AgentDTO.class);
+        assertEquals(2, list.size());
+        for (int i = 0; i < list.size(); i++) {
+            AgentDTO expected = new AgentDTO();
+            BeanUtils.copyProperties(i == 0 ? first : second, expected);
+            assertEquals(expected, list.get(i));
+        }
+        assertNull(ConvertUtils.sourceToTarget((List<?>) null, AgentDTO.class));
+        assertNull(ConvertUtils.sourceToTarget((Object) null, AgentDTO.class));
+    }
+
+    @Test
+    public void testNonPublicTarget() {
+        HiddenTarget target = ConvertUtils.sourceToTarget(source(), HiddenTarget.class);
+        assertEquals("xiaozhi", target.getName());
+    }
+}
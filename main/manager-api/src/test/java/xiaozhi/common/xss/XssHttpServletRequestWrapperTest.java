@@ -0,0 +1,34 @@
+package xiaozhi.common.xss;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+public class XssHttpServletRequestWrapperTest {
+    private static final String BODY = "{\"name\":\"<script>alert(1)</script>hi\"}";
+
+    private static String read(String contentType) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/");
+        request.setContentType(contentType);
+        request.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        return new String(new XssHttpServletRequestWrapper(request).getInputStream().readAllBytes(),
+                StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testJsonBodyIsFiltered() throws Exception {
+        assertEquals("{\"name\":\"hi\"}", read("application/json;charset=UTF-8"));
+        assertEquals("{\"name\":\"hi\"}", read("application/problem+json"));
+    }
+
+    @Test
+    public void testWildcardContentTypeIsNotJson() throws Exception {
+        assertEquals(BODY, read("*/*"));
+        assertEquals(BODY, read("application/*"));
+        assertEquals(BODY, read("application/*+json"));
+        assertEquals(BODY, read("text/plain"));
+    }
+}
@@ -0,0 +1,33 @@
+package xiaozhi.common.xss;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+public class XssUtilsTest {
+
+    @Test
+    public void testCleanJsonKeepsNumbersAndStructure() {
+        String json = "{\"name\":\"<script>alert(1)</script><b>hi</b>\",\"price\":1.10,\"big\":12345678901234567890,"
+                + "\"list\":[true,null,\"a < b\"]}";
+        String cleaned = new String(XssUtils.filterJson(json.getBytes(StandardCharsets.UTF_8)),
+                StandardCharsets.UTF_8);
+        assertEquals("{\"name\":\"<b>hi</b>\",\"price\":1.10,\"big\":12345678901234567890,"
+                + "\"list\":[true,null,\"a &lt; b\"]}", cleaned);
+    }
+
+    @Test
+    public void testJsonWithoutHtmlIsNotCopied() {
+        byte[] json = "{\"audio\":\"T2dnUwACAAAAAAAAAAA=\",\"text\":\"a & b\"}".getBytes(StandardCharsets.UTF_8);
+        assertSame(json, XssUtils.filterJson(json));
+    }
+
+    @Test
+    public void testInvalidJsonIsReturnedUnchanged() {
+        byte[] json = "{\"name\":\"<script>\"".getBytes(StandardCharsets.UTF_8);
+        assertSame(json, XssUtils.filterJson(json));
+    }
+}
@@ -0,0 +1,89 @@
+package xiaozhi.modules.agent.audio;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class FileSystemAudioBlobStoreTest {
+    private static final byte[] DATA = "wav".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path dir;
+
+    private FileSystemAudioBlobStore store;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        store = new FileSystemAudioBlobStore();
+        ReflectionTestUtils.setField(store, "path", dir.toString());
+        ReflectionTestUtils.setField(store, "fsync", false);
+        ReflectionTestUtils.setField(store, "deleteGraceSeconds", 600L);
+        store.init();
+    }
+
+    private void age(String key) throws Exception {
+        Path file = store.getResource(key).getFile().toPath();
+        Files.setLastModifiedTime(file,
+                FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1)));
+    }
+
+    @Test
+    public void testOldFileIsDeleted() throws Exception {
+        String key = store.put(DATA);
+        age(key);
+
+        assertTrue(store.delete(key));
+        assertFalse(store.exists(key));
+        assertFalse(store.delete(key));
+    }
+
+    @Test
+    public void testFileSavedAgainIsKept() throws Exception {
+        String key = store.put(DATA);
+        age(key);
+        // the_same_content_is_saved_again，its_row_is_not_inserted_yet
+        assertEquals(key, store.put(DATA));
+
+        assertFalse(store.delete(key));
+        assertArrayEquals(DATA, store.get(key));
+        try (var files = Files.walk(dir)) {
+            assertEquals(0, files.filter(f -> f.toString().endsWith(".deleting")).count());
+        }
+    }
+
+    @Test
+    public void testKeysListOnlyStoredAudio() throws Exception {
+        String first = store.put(DATA);
+        String second = store.put("other".getBytes(StandardCharsets.UTF_8));
+        Path file = store.getResource(first).getFile().toPath();
+        Files.createTempFile(file.getParent(), first, ".tmp");
+
+        try (var keys = store.keys()) {
+            assertEquals(Set.of(first, second), keys.collect(Collectors.toSet()));
+        }
+    }
+
+    @Test
+    public void testPutAfterDeleteWritesTheFileAgain() throws Exception {
+        String key = store.put(DATA);
+        age(key);
+        assertTrue(store.delete(key));
+
+        assertEquals(key, store.put(DATA));
+        assertArrayEquals(DATA, store.get(key));
+    }
+}
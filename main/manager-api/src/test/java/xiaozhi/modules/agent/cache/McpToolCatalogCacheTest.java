@@ -0,0 +1,139 @@
+package xiaozhi.modules.agent.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import xiaozhi.common.redis.RedisUtils;
+
+public class McpToolCatalogCacheTest {
+    private static final String AGENT = "agent";
+    private static final String ADDRESS = "ws://mcp/a";
+
+    private McpToolCatalogCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new McpToolCatalogCache(mock(RedisUtils.class), mock(RedisMessageListenerContainer.class));
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        ReflectionTestUtils.setField(cache, "refreshSeconds", 60L);
+        ReflectionTestUtils.setField(cache, "expireSeconds", 3600L);
+        ReflectionTestUtils.setField(cache, "fetchThreads", 2);
+        cache.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cache.destroy();
+    }
+
+    @Test
+    public void testStaleListIsReturnedWhileRefreshing() throws Exception {
+        assertEquals(List.of("old"), cache.get(AGENT, ADDRESS, () -> List.of("old"), false));
+        ReflectionTestUtils.setField(cache, "refreshSeconds", -1L);
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch fetched = new CountDownLatch(1);
+        Callable<List<String>> slow = () -> {
+            release.await(5, TimeUnit.SECONDS);
+            fetched.countDown();
+            return List.of("new");
+        };
+        // the_old_list_is_returned_at_once，the_refresh_runs_in_the_background
+        assertEquals(List.of("old"), cache.get(AGENT, ADDRESS, slow, false));
+        release.countDown();
+        assertTrue(fetched.await(5, TimeUnit.SECONDS));
+
+        ReflectionTestUtils.setField(cache, "refreshSeconds", 60L);
+        assertEquals(List.of("new"), waitFor(List.of("new")));
+    }
+
+    @Test
+    public void testFailedRefreshKeepsTheOldList() throws Exception {
+        cache.get(AGENT, ADDRESS, () -> List.of("old"), false);
+        ReflectionTestUtils.setField(cache, "refreshSeconds", -1L);
+
+        assertEquals(List.of("old"), cache.get(AGENT, ADDRESS, () -> {
+            throw new IOException("down");
+        }, false));
+        ReflectionTestUtils.setField(cache, "refreshSeconds", 60L);
+        assertEquals(List.of("old"), cache.get(AGENT, ADDRESS, () -> List.of("unused"), false));
+    }
+
+    @Test
+    public void testConcurrentLoadsShareOneFetch() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<List<String>> loader = () -> {
+            calls.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of("tool");
+        };
+        CompletableFuture<List<String>> first = CompletableFuture.supplyAsync(() -> get(loader));
+        CompletableFuture<List<String>> second = CompletableFuture.supplyAsync(() -> get(loader));
+        while (calls.get() == 0) {
+            Thread.sleep(10);
+        }
+        // give_the_second_caller_time_to_join_the_running_fetch
+        Thread.sleep(100);
+        release.countDown();
+
+        assertEquals(List.of("tool"), first.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("tool"), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testListOfAnotherAddressIsNotUsed() throws Exception {
+        cache.get(AGENT, ADDRESS, () -> List.of("a"), false);
+
+        assertEquals(List.of("b"), cache.get(AGENT, "ws://mcp/b", () -> List.of("b"), false));
+        assertEquals(List.of("b"), cache.get(AGENT, "ws://mcp/b", () -> List.of("unused"), false));
+    }
+
+    @Test
+    public void testErrorWithoutCachedListIsThrown() {
+        assertThrows(IOException.class, () -> cache.get(AGENT, ADDRESS, () -> {
+            throw new IOException("down");
+        }, false));
+        assertEquals(0, cache.size());
+    }
+
+    private List<String> get(Callable<List<String>> loader) {
+        try {
+            return cache.get(AGENT, ADDRESS, loader, false);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * the_refreshed_list_is_put_into_the_cache_right_after_the_loader_returns
+     */
+    private List<String> waitFor(List<String> expected) throws Exception {
+        List<String> tools = null;
+        for (int i = 0; i < 100; i++) {
+            tools = cache.get(AGENT, ADDRESS, () -> List.of("unused"), false);
+            if (expected.equals(tools)) {
+                break;
+            }
+            Thread.sleep(10);
+        }
+        return tools;
+    }
+}
@@ -0,0 +1,83 @@
+package xiaozhi.modules.agent.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringWriter;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import xiaozhi.common.utils.DateUtils;
+import xiaozhi.modules.agent.entity.AgentChatHistoryEntity;
+
+public class ChatRecordWriterTest {
+    private static final Date TIME = DateUtils.parse("2025-05-01 10:00:00", DateUtils.DATE_TIME_PATTERN);
+
+    @Test
+    public void testTextKeepsTheTranscriptFormat() throws Exception {
+        StringWriter out = new StringWriter();
+        ChatRecordWriter writer = ChatRecordWriter.create(ChatExportFormat.TXT, out, "User", "Agent");
+        AgentChatHistoryEntity first = message("s1", 1, "hello");
+        writer.startSession(first);
+        writer.write(first);
+        writer.write(message("s1", 2, "hi"));
+        AgentChatHistoryEntity second = message("s2", 1, "bye");
+        writer.startSession(second);
+        writer.write(second);
+        writer.flush();
+        assertEquals("2025-05-01 10:00:00\n"
+                + "[User]-[2025-05-01 10:00:00]>>:hello\n"
+                + "[Agent]-[2025-05-01 10:00:00]<<:hi\n"
+                + "\n"
+                + "2025-05-01 10:00:00\n"
+                + "[User]-[2025-05-01 10:00:00]>>:bye\n", out.toString());
+    }
+
+    @Test
+    public void testCsvQuotesSpecialCharacters() throws Exception {
+        StringWriter out = new StringWriter();
+        ChatRecordWriter writer = ChatRecordWriter.create(ChatExportFormat.CSV, out, "User", "Agent");
+        writer.write(message("s1", 2, "a \"quoted\", multi\nline"));
+        writer.flush();
+        assertEquals("\uFEFFsession_id,created_at,chat_type,role,content,audio_id\r\n"
+                + "s1,2025-05-01 10:00:00,2,Agent,\"a \"\"quoted\"\", multi\nline\",\r\n", out.toString());
+    }
+
+    @Test
+    public void testCsvEscapesFormulas() throws Exception {
+        StringWriter out = new StringWriter();
+        ChatRecordWriter writer = ChatRecordWriter.create(ChatExportFormat.CSV, out, "User", "Agent");
+        writer.write(message("s1", 1, "=HYPERLINK(\"http://x\",\"a\")"));
+        writer.write(message("s1", 1, "-1"));
+        writer.flush();
+        assertEquals("\uFEFFsession_id,created_at,chat_type,role,content,audio_id\r\n"
+                + "s1,2025-05-01 10:00:00,1,User,\"'=HYPERLINK(\"\"http://x\"\",\"\"a\"\")\",\r\n"
+                + "s1,2025-05-01 10:00:00,1,User,'-1,\r\n", out.toString());
+    }
+
+    @Test
+    public void testJsonLinesWritesOneObjectPerLine() throws Exception {
+        StringWriter out = new StringWriter();
+        ChatRecordWriter writer = ChatRecordWriter.create(ChatExportFormat.JSONL, out, "User", "Agent");
+        writer.write(message("s1", 1, "hello"));
+        writer.write(message("s1", 2, "line\nbreak"));
+        writer.flush();
+        String[] lines = out.toString().split("\n");
+        assertEquals(2, lines.length);
+        JsonNode node = new ObjectMapper().readTree(lines[1]);
+        assertEquals("line\nbreak", node.get("content").asText());
+        assertEquals("Agent", node.get("role").asText());
+    }
+
+    private static AgentChatHistoryEntity message(String sessionId, int chatType, String content) {
+        AgentChatHistoryEntity message = new AgentChatHistoryEntity();
+        message.setSessionId(sessionId);
+        message.setChatType((byte) chatType);
+        message.setContent(content);
+        message.setCreatedAt(TIME);
+        return message;
+    }
+}
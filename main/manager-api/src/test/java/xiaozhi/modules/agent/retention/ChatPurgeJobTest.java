@@ -0,0 +1,273 @@
+package xiaozhi.modules.agent.retention;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+
+import xiaozhi.modules.agent.Enums.ChatPurgeStatus;
+import xiaozhi.modules.agent.Enums.ChatPurgeType;
+import xiaozhi.modules.agent.audio.AudioBlobStore;
+import xiaozhi.modules.agent.audio.FileSystemAudioBlobStore;
+import xiaozhi.modules.agent.dao.AiAgentChatAudioDao;
+import xiaozhi.modules.agent.dao.AiAgentChatHistoryDao;
+import xiaozhi.modules.agent.dao.AiAgentChatPurgeTaskDao;
+import xiaozhi.modules.agent.dao.AiAgentChatSessionDao;
+import xiaozhi.modules.agent.dto.AgentChatRetentionDTO;
+import xiaozhi.modules.agent.entity.AgentChatAudioEntity;
+import xiaozhi.modules.agent.entity.AgentChatHistoryEntity;
+import xiaozhi.modules.agent.entity.AgentChatPurgeTaskEntity;
+import xiaozhi.modules.agent.entity.AgentChatRetentionEntity;
+import xiaozhi.modules.agent.entity.AgentChatSessionEntity;
+import xiaozhi.modules.agent.service.AgentChatRetentionService;
+
+public class ChatPurgeJobTest {
+    private static final Date BEFORE = new Date(1_700_000_000_000L);
+    private static final Date OLD = new Date(BEFORE.getTime() - 1000);
+    private static final Date NEW = new Date(BEFORE.getTime() + 1000);
+
+    private final AiAgentChatPurgeTaskDao purgeTaskDao = mock(AiAgentChatPurgeTaskDao.class);
+    private final AiAgentChatHistoryDao chatHistoryDao = mock(AiAgentChatHistoryDao.class);
+    private final AiAgentChatAudioDao chatAudioDao = mock(AiAgentChatAudioDao.class);
+    private final AiAgentChatSessionDao chatSessionDao = mock(AiAgentChatSessionDao.class);
+    private final AgentChatRetentionService retentionService = mock(AgentChatRetentionService.class);
+    private final AudioBlobStore audioBlobStore = mock(AudioBlobStore.class);
+    private ChatPurgeJob job;
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void initTableInfo() {
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setMapUnderscoreToCamelCase(true);
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(configuration, ""), AgentChatAudioEntity.class);
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(configuration, ""), AgentChatRetentionEntity.class);
+    }
+
+    @BeforeEach
+    public void setUp() {
+        job = new ChatPurgeJob(purgeTaskDao, chatHistoryDao, chatAudioDao, chatSessionDao, retentionService,
+                audioBlobStore, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(job, "chunkSize", 2);
+        ReflectionTestUtils.setField(job, "pauseMs", 0L);
+        when(chatHistoryDao.deleteBatchIds(anyCollection()))
+                .thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+        when(chatAudioDao.deleteBatchIds(anyCollection()))
+                .thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+    }
+
+    private static AgentChatHistoryEntity row(long id, String sessionId, String audioId, Date createdAt) {
+        return AgentChatHistoryEntity.builder().id(id).agentId("a1").sessionId(sessionId).audioId(audioId)
+                .createdAt(createdAt).build();
+    }
+
+    private static AgentChatPurgeTaskEntity task(ChatPurgeType type) {
+        AgentChatPurgeTaskEntity task = new AgentChatPurgeTaskEntity();
+        task.setId(9L);
+        task.setAgentId("a1");
+        task.setPurgeType(type.getValue());
+        task.setBeforeTime(BEFORE);
+        task.setLastId(0L);
+        return task;
+    }
+
+    private static AgentChatAudioEntity audio(String storageKey) {
+        AgentChatAudioEntity entity = new AgentChatAudioEntity();
+        entity.setStorageKey(storageKey);
+        return entity;
+    }
+
+    private AgentChatPurgeTaskEntity finished() {
+        ArgumentCaptor<AgentChatPurgeTaskEntity> captor = ArgumentCaptor.forClass(AgentChatPurgeTaskEntity.class);
+        verify(purgeTaskDao).finish(captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    public void testPurgeAllInChunksUntilNoRowIsDue() {
+        when(chatHistoryDao.selectPurgeChunk(eq("a1"), anyCollection(), eq(false), eq(0L), eq(2)))
+                .thenReturn(List.of(row(1, "s1", "au1", OLD), row(2, "s1", null, OLD)));
+        when(chatHistoryDao.selectPurgeChunk(eq("a1"), anyCollection(), eq(false), eq(2L), eq(2)))
+                .thenReturn(List.of(row(3, "s2", null, NEW), row(4, "s3", null, OLD)));
+        when(chatHistoryDao.selectPurgeChunk(eq("a1"), anyCollection(), eq(false), eq(4L), eq(2)))
+                .thenReturn(List.of(row(5, "s3", null, NEW)));
+        when(chatAudioDao.selectList(any())).thenReturn(List.of(audio("k1")));
+        when(chatAudioDao.selectCount(any())).thenReturn(0L);
+
+        job.execute(task(ChatPurgeType.ALL));
+
+        verify(chatHistoryDao).deleteBatchIds(List.of(1L, 2L));
+        verify(chatHistoryDao).deleteBatchIds(List.of(4L));
+        verify(chatAudioDao).deleteBatchIds(Set.of("au1"));
+        verify(audioBlobStore).delete("k1");
+        // record_3_is_not_due_yet，the_progress_stays_before_it
+        verify(purgeTaskDao).updateProgress(9L, 2L, 2L, 1L);
+        verify(purgeTaskDao).updateProgress(9L, 2L, 1L, 0L);
+        // the_last_chunk_has_nothing_due_and_writes_nothing
+        verify(purgeTaskDao, times(2)).updateProgress(anyLong(), anyLong(), anyLong(), anyLong());
+
+        // only_the_sessions_of_the_purged_rows_are_recounted
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<AgentChatSessionEntity>> sessions = ArgumentCaptor.forClass(List.class);
+        verify(chatSessionDao, times(2)).deleteEmptySessions(sessions.capture());
+        assertEquals(List.of("s1"), sessions.getAllValues().get(0).stream().map(AgentChatSessionEntity::getSessionId)
+                .toList());
+        assertEquals(List.of("s3"), sessions.getAllValues().get(1).stream().map(AgentChatSessionEntity::getSessionId)
+                .toList());
+        assertEquals(ChatPurgeStatus.DONE.getValue(), finished().getStatus());
+        assertEquals(2L, finished().getLastId());
+    }
+
+    @Test
+    public void testPurgeAudioKeepsTextAndSharedFiles() {
+        when(chatHistoryDao.selectPurgeChunk(eq("a1"), anyCollection(), eq(true), eq(0L), eq(2)))
+                .thenReturn(List.of(row(1, "s1", "au1", OLD), row(2, "s1", "au2", OLD)));
+        when(chatHistoryDao.selectPurgeChunk(eq("a1"), anyCollection(), eq(true), eq(2L), eq(2)))
+                .thenReturn(List.of());
+        when(chatAudioDao.selectList(any())).thenReturn(List.of(audio("k1")));
+        // another_audio_row_has_the_same_content
+        when(chatAudioDao.selectCount(any())).thenReturn(1L);
+
+        job.execute(task(ChatPurgeType.AUDIO));
+
+        verify(chatHistoryDao).clearAudioIdByIds(List.of(1L, 2L));
+        verify(chatHistoryDao, never()).deleteBatchIds(anyCollection());
+        verify(chatAudioDao).deleteBatchIds(Set.of("au1", "au2"));
+        verify(audioBlobStore, never()).delete(any());
+        verify(chatSessionDao).refreshSessions(anyList());
+        verify(chatSessionDao, never()).deleteEmptySessions(anyList());
+        verify(purgeTaskDao).updateProgress(9L, 2L, 0L, 2L);
+        assertEquals(ChatPurgeStatus.DONE.getValue(), finished().getStatus());
+        assertEquals(2L, finished().getLastId());
+    }
+
+    @Test
+    public void testNothingDueStartsWhereThePreviousTaskStopped() {
+        AgentChatPurgeTaskEntity task = task(ChatPurgeType.AUDIO);
+        task.setLastId(40L);
+        when(chatHistoryDao.selectPurgeChunk(eq("a1"), anyCollection(), eq(true), eq(40L), eq(2)))
+                .thenReturn(List.of(row(41, "s1", "au1", NEW)));
+
+        job.execute(task);
+
+        verify(chatHistoryDao, never()).clearAudioIdByIds(anyList());
+        verify(purgeTaskDao, never()).updateProgress(anyLong(), anyLong(), anyLong(), anyLong());
+        assertEquals(ChatPurgeStatus.DONE.getValue(), finished().getStatus());
+        assertEquals(40L, finished().getLastId());
+    }
+
+    @Test
+    public void testMarkedProgressStartsFromTheBeginning() {
+        AgentChatPurgeTaskEntity task = task(ChatPurgeType.AUDIO);
+        // a_policy_was_deleted_while_the_task_was_running
+        task.setLastId(-1L);
+        when(chatHistoryDao.selectPurgeChunk(eq("a1"), anyCollection(), eq(true), eq(0L), eq(2)))
+                .thenReturn(List.of(row(1, "s1", null, NEW)));
+
+        job.execute(task);
+
+        verify(chatHistoryDao).selectPurgeChunk(eq("a1"), anyCollection(), eq(true), eq(0L), eq(2));
+        assertEquals(ChatPurgeStatus.DONE.getValue(), finished().getStatus());
+        assertEquals(0L, finished().getLastId());
+    }
+
+    @Test
+    public void testFailureIsRecorded() {
+        when(chatHistoryDao.selectPurgeChunk(any(), anyCollection(), anyBoolean(), anyLong(), anyInt()))
+                .thenThrow(new IllegalStateException("lock wait timeout"));
+
+        job.execute(task(ChatPurgeType.ALL));
+
+        ArgumentCaptor<AgentChatPurgeTaskEntity> captor = ArgumentCaptor.forClass(AgentChatPurgeTaskEntity.class);
+        verify(purgeTaskDao).finish(captor.capture());
+        assertEquals(ChatPurgeStatus.FAILED.getValue(), captor.getValue().getStatus());
+        assertEquals("lock wait timeout", captor.getValue().getErrorMessage());
+    }
+
+    @Test
+    public void testPoliciesQueueOnlyWhatIsDue() {
+        AgentChatRetentionEntity policy = new AgentChatRetentionEntity();
+        policy.setAgentId("a1");
+        policy.setTextRetentionDays(30);
+        policy.setAudioRetentionDays(60);
+        AgentChatRetentionDTO global = new AgentChatRetentionDTO();
+        global.setTextRetentionDays(0);
+        global.setAudioRetentionDays(7);
+        when(retentionService.getGlobalPolicy()).thenReturn(global);
+        when(retentionService.list()).thenReturn(List.of(policy));
+
+        job.applyPolicies();
+
+        verify(retentionService).submitPurge(isNull(), eq(ChatPurgeType.AUDIO), any());
+        verify(retentionService, never()).submitPurge(isNull(), eq(ChatPurgeType.ALL), any());
+        verify(retentionService).submitPurge(eq("a1"), eq(ChatPurgeType.ALL), any());
+        // the_audio_limit_is_longer_than_the_text_limit
+        verify(retentionService, never()).submitPurge(eq("a1"), eq(ChatPurgeType.AUDIO), any());
+    }
+
+    @Test
+    public void testSweepDeletesFilesSkippedInsideTheGraceWindow() throws Exception {
+        FileSystemAudioBlobStore store = new FileSystemAudioBlobStore();
+        ReflectionTestUtils.setField(store, "path", dir.toString());
+        ReflectionTestUtils.setField(store, "fsync", false);
+        ReflectionTestUtils.setField(store, "deleteGraceSeconds", 600L);
+        store.init();
+        job = new ChatPurgeJob(purgeTaskDao, chatHistoryDao, chatAudioDao, chatSessionDao, retentionService,
+                store, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(job, "chunkSize", 2);
+        ReflectionTestUtils.setField(job, "pauseMs", 0L);
+        String orphan = store.put("orphan".getBytes(StandardCharsets.UTF_8));
+        String kept = store.put("kept".getBytes(StandardCharsets.UTF_8));
+        String recent = store.put("recent".getBytes(StandardCharsets.UTF_8));
+        when(chatAudioDao.selectList(any())).thenReturn(List.of(audio(kept)));
+
+        // no_row_references_the_files，but_they_were_saved_within_the_grace_window
+        assertEquals(0, job.sweepAudio());
+        assertTrue(store.exists(orphan));
+
+        for (String key : List.of(orphan, kept)) {
+            Files.setLastModifiedTime(store.getResource(key).getFile().toPath(),
+                    FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1)));
+        }
+        assertEquals(1, job.sweepAudio());
+        assertFalse(store.exists(orphan));
+        assertTrue(store.exists(kept));
+        assertTrue(store.exists(recent));
+    }
+}
@@ -0,0 +1,97 @@
+package xiaozhi.modules.agent.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+
+import xiaozhi.modules.agent.Enums.ChatPurgeStatus;
+import xiaozhi.modules.agent.Enums.ChatPurgeType;
+import xiaozhi.modules.agent.dao.AiAgentChatPurgeTaskDao;
+import xiaozhi.modules.agent.dao.AiAgentChatRetentionDao;
+import xiaozhi.modules.agent.entity.AgentChatPurgeTaskEntity;
+import xiaozhi.modules.agent.entity.AgentChatRetentionEntity;
+import xiaozhi.modules.sys.service.SysParamsService;
+
+public class AgentChatRetentionServiceImplTest {
+    private final AiAgentChatPurgeTaskDao purgeTaskDao = mock(AiAgentChatPurgeTaskDao.class);
+    private final AiAgentChatRetentionDao retentionDao = mock(AiAgentChatRetentionDao.class);
+    private AgentChatRetentionServiceImpl service;
+
+    @BeforeAll
+    static void initTableInfo() {
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setMapUnderscoreToCamelCase(true);
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(configuration, ""), AgentChatPurgeTaskEntity.class);
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(configuration, ""), AgentChatRetentionEntity.class);
+    }
+
+    @BeforeEach
+    public void setUp() {
+        service = new AgentChatRetentionServiceImpl(purgeTaskDao, mock(SysParamsService.class));
+        ReflectionTestUtils.setField(service, "baseMapper", retentionDao);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDeletePolicyRestartsTheGlobalTasks() {
+        when(retentionDao.deleteById("a1")).thenReturn(1);
+
+        service.deletePolicy("a1");
+
+        ArgumentCaptor<LambdaUpdateWrapper<AgentChatPurgeTaskEntity>> captor = ArgumentCaptor
+                .forClass(LambdaUpdateWrapper.class);
+        verify(purgeTaskDao, times(2)).update(isNull(), captor.capture());
+        List<LambdaUpdateWrapper<AgentChatPurgeTaskEntity>> updates = captor.getAllValues();
+        // waiting_and_finished_tasks_start_over，the_running_ones_are_marked
+        assertEquals(List.of(0L, ChatPurgeStatus.PENDING.getValue(), ChatPurgeStatus.DONE.getValue()),
+                values(updates.get(0)));
+        assertEquals(List.of(-1L, ChatPurgeStatus.RUNNING.getValue()), values(updates.get(1)));
+        assertTrue(updates.get(1).getSqlSet().contains("last_id"));
+    }
+
+    /**
+     * parameters_of_the_wrapper_in_the_order_they_were_added
+     */
+    private static List<Object> values(LambdaUpdateWrapper<AgentChatPurgeTaskEntity> wrapper) {
+        // the_conditions_add_their_parameters_when_the_sql_is_built
+        wrapper.getSqlSegment();
+        return wrapper.getParamNameValuePairs().entrySet().stream()
+                .sorted(Comparator.comparingInt(e -> Integer.parseInt(e.getKey().replaceAll("\\D", ""))))
+                .map(Map.Entry::getValue)
+                .toList();
+    }
+
+    @Test
+    public void testMarkedProgressIsNotContinuedFrom() {
+        when(purgeTaskDao.selectFinishedLastId(null, ChatPurgeType.ALL.getValue())).thenReturn(-1L);
+
+        service.submitPurge(null, ChatPurgeType.ALL, new Date());
+
+        ArgumentCaptor<AgentChatPurgeTaskEntity> captor = ArgumentCaptor.forClass(AgentChatPurgeTaskEntity.class);
+        verify(purgeTaskDao).insert(captor.capture());
+        assertEquals(0L, captor.getValue().getLastId());
+        verify(purgeTaskDao, never()).update(any(), any());
+    }
+}
@@ -0,0 +1,52 @@
+package xiaozhi.modules.config.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class ServerConfigTreeTest {
+
+    @Test
+    public void testPatchMatchesFullBuild() {
+        Map<String, Object> tree = new HashMap<>();
+        ServerConfigTree.putInPlace(tree, "server.ip", ServerConfigTree.parseValue("string", "0.0.0.0"));
+        ServerConfigTree.putInPlace(tree, "server.port", ServerConfigTree.parseValue("number", "8000"));
+
+        Map<String, Object> patched = ServerConfigTree.with(tree, "server.auth.enabled",
+                ServerConfigTree.parseValue("boolean", "true"));
+        patched = ServerConfigTree.with(patched, "server.ip", ServerConfigTree.parseValue("string", "1.2.3.4"));
+
+        Map<String, Object> rebuilt = new HashMap<>();
+        ServerConfigTree.putInPlace(rebuilt, "server.ip", "1.2.3.4");
+        ServerConfigTree.putInPlace(rebuilt, "server.port", 8000);
+        ServerConfigTree.putInPlace(rebuilt, "server.auth.enabled", true);
+        assertEquals(rebuilt, patched);
+
+        // the_original_tree_is_not_modified
+        assertEquals("0.0.0.0", ((Map<?, ?>) tree.get("server")).get("ip"));
+        assertFalse(((Map<?, ?>) tree.get("server")).containsKey("auth"));
+    }
+
+    @Test
+    public void testRemovePrunesEmptyMaps() {
+        Map<String, Object> tree = new HashMap<>();
+        ServerConfigTree.putInPlace(tree, "server.auth.enabled", true);
+        ServerConfigTree.putInPlace(tree, "server.port", 8000);
+
+        Map<String, Object> removed = ServerConfigTree.without(tree, "server.auth.enabled");
+        assertEquals(Map.of("server", Map.of("port", 8000)), removed);
+        assertEquals(true, ((Map<?, ?>) ((Map<?, ?>) tree.get("server")).get("auth")).get("enabled"));
+    }
+
+    @Test
+    public void testParseValue() {
+        assertEquals(1.5, ServerConfigTree.parseValue("number", "1.5"));
+        assertEquals(List.of("a", "b"), ServerConfigTree.parseValue("array", "a; b;"));
+        assertEquals("x", ServerConfigTree.parseValue("number", "x"));
+    }
+}
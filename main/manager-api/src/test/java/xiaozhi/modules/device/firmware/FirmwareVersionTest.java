@@ -0,0 +1,33 @@
+package xiaozhi.modules.device.firmware;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class FirmwareVersionTest {
+
+    @Test
+    public void testCompare() {
+        assertTrue(FirmwareVersion.parse("1.6.2").isNewerThan(FirmwareVersion.parse("1.6.1")));
+        assertTrue(FirmwareVersion.parse("1.10.0").isNewerThan(FirmwareVersion.parse("1.9.9")));
+        assertTrue(FirmwareVersion.parse("2").isNewerThan(FirmwareVersion.parse("1.99.99")));
+        assertFalse(FirmwareVersion.parse("1.6.1").isNewerThan(FirmwareVersion.parse("1.6.1")));
+        assertFalse(FirmwareVersion.parse("1.6").isNewerThan(FirmwareVersion.parse("1.6.0")));
+        assertTrue(FirmwareVersion.parse("0.0.1").isNewerThan(FirmwareVersion.ZERO));
+    }
+
+    @Test
+    public void testTrailingZerosAreEqual() {
+        assertEquals(FirmwareVersion.parse("1.6"), FirmwareVersion.parse("1.6.0"));
+        assertEquals(FirmwareVersion.parse("1.6").hashCode(), FirmwareVersion.parse("1.6.0").hashCode());
+    }
+
+    @Test
+    public void testNonNumericParts() {
+        assertEquals(FirmwareVersion.parse("1.7.0"), FirmwareVersion.parse("1.7.0-beta"));
+        assertEquals(FirmwareVersion.parse("1.0.3"), FirmwareVersion.parse("1.x.3"));
+        assertEquals("1.0.3", FirmwareVersion.parse("1.x.3").toString());
+    }
+}
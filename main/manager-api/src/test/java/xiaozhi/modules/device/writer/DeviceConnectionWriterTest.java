@@ -0,0 +1,66 @@
+package xiaozhi.modules.device.writer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import xiaozhi.common.redis.RedisUtils;
+import xiaozhi.modules.device.dao.DeviceDao;
+import xiaozhi.modules.device.entity.DeviceEntity;
+
+public class DeviceConnectionWriterTest {
+    private final DeviceDao deviceDao = mock(DeviceDao.class);
+    private final DeviceConnectionWriter writer = new DeviceConnectionWriter(deviceDao, mock(RedisUtils.class));
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(writer, "batchSize", 500);
+        ReflectionTestUtils.setField(writer, "maxPending", 1000);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFailedRowIsWrittenAgainWithNewerValues() {
+        writer.record(null, "d1", "1.0.0");
+        doThrow(new RuntimeException("down")).when(deviceDao).batchUpdateConnectionInfo(anyList());
+        writer.flush();
+        assertEquals(1, writer.getPendingCount());
+
+        // recorded_after_the_failed_batch_was_drained，the_version_is_kept_from_the_failed_row
+        writer.record(null, "d1", null);
+        reset(deviceDao);
+        writer.flush();
+
+        ArgumentCaptor<List<DeviceEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(deviceDao).batchUpdateConnectionInfo(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        assertEquals("1.0.0", captor.getValue().get(0).getAppVersion());
+        assertEquals(0, writer.getPendingCount());
+        assertEquals(1, writer.getWrittenCount());
+    }
+
+    @Test
+    public void testRowIsDroppedAfterRepeatedFailures() {
+        writer.record(null, "d1", "1.0.0");
+        doThrow(new RuntimeException("down")).when(deviceDao).batchUpdateConnectionInfo(anyList());
+        for (int i = 0; i < 4; i++) {
+            writer.flush();
+        }
+
+        verify(deviceDao, times(3)).batchUpdateConnectionInfo(anyList());
+        assertEquals(0, writer.getPendingCount());
+        assertEquals(1, writer.getDroppedCount());
+        assertEquals(3, writer.getFailedCount());
+    }
+}
@@ -0,0 +1,241 @@
+package xiaozhi.modules.sys.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.servlets.DefaultServlet;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.websocket.server.WsSci;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import jakarta.websocket.OnMessage;
+import jakarta.websocket.Session;
+import jakarta.websocket.server.ServerEndpoint;
+
+public class WebSocketConnectionPoolTest {
+    private static final AtomicInteger INITIALIZED = new AtomicInteger();
+    private static final PooledWebSocketConnection.SessionInitializer INITIALIZER = channel -> {
+        channel.request("initialize", null).get(5, TimeUnit.SECONDS);
+        INITIALIZED.incrementAndGet();
+    };
+
+    private static Tomcat tomcat;
+    private static String uri;
+
+    private WebSocketConnectionPool pool;
+
+    @BeforeAll
+    public static void startServer() throws Exception {
+        File baseDir = Files.createTempDirectory("ws-pool-test").toFile();
+        tomcat = new Tomcat();
+        tomcat.setBaseDir(baseDir.getAbsolutePath());
+        tomcat.setPort(0);
+        tomcat.getConnector();
+        Context context = tomcat.addContext("", baseDir.getAbsolutePath());
+        context.addServletContainerInitializer(new WsSci(), Set.of(EchoEndpoint.class));
+        // the_upgrade_filter_only_runs_for_mapped_requests
+        Tomcat.addServlet(context, "default", new DefaultServlet());
+        context.addServletMappingDecoded("/", "default");
+        tomcat.start();
+        uri = "ws://localhost:" + tomcat.getConnector().getLocalPort() + "/echo";
+    }
+
+    @AfterAll
+    public static void stopServer() throws Exception {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+
+    @BeforeEach
+    public void createPool() {
+        pool = new WebSocketConnectionPool();
+        ReflectionTestUtils.setField(pool, "maxConnections", 4);
+        ReflectionTestUtils.setField(pool, "connectTimeoutMillis", 5000L);
+        ReflectionTestUtils.setField(pool, "heartbeatSeconds", 30L);
+        ReflectionTestUtils.setField(pool, "idleTimeoutSeconds", 300L);
+        ReflectionTestUtils.setField(pool, "backoffInitialMillis", 500L);
+        ReflectionTestUtils.setField(pool, "backoffMaxMillis", 30000L);
+        pool.init();
+        INITIALIZED.set(0);
+    }
+
+    @AfterEach
+    public void destroyPool() {
+        pool.destroy();
+    }
+
+    @Test
+    public void testConcurrentRequestsShareOneSession() throws Exception {
+        PooledWebSocketConnection connection = pool.get(uri, null, 64 * 1024, INITIALIZER);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Map<String, Object>>> futures = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                int n = i;
+                futures.add(executor.submit(
+                        () -> connection.request("echo", Map.of("n", n), 5, TimeUnit.SECONDS)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                Map<?, ?> result = (Map<?, ?>) futures.get(i).get().get("result");
+                assertEquals(i, result.get("n"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, pool.getConnectCount());
+        assertEquals(1, INITIALIZED.get());
+        assertEquals(0, connection.getPendingCount());
+        assertSame(connection, pool.get(uri, null, 64 * 1024, INITIALIZER));
+    }
+
+    @Test
+    public void testDifferentHandshakeGetsItsOwnConnection() throws Exception {
+        PooledWebSocketConnection initialized = pool.get(uri, null, 64 * 1024, INITIALIZER);
+        PooledWebSocketConnection plain = pool.get(uri, null, 64 * 1024, null);
+        assertNotSame(initialized, plain);
+        assertEquals("pong", plain.exchange("ping", "pong"::equals, 5, TimeUnit.SECONDS));
+        assertEquals(0, INITIALIZED.get());
+        assertEquals(2, pool.getConnectionCount());
+
+        pool.remove(uri);
+        assertEquals(0, pool.getConnectionCount());
+    }
+
+    @Test
+    public void testReconnectAfterServerClose() throws Exception {
+        PooledWebSocketConnection connection = pool.get(uri, null, 64 * 1024, INITIALIZER);
+        assertEquals("pong", connection.exchange("ping", "pong"::equals, 5, TimeUnit.SECONDS));
+        // the_server_closes_the_session，the_pending_request_fails_instead_of_waiting_for_the_timeout
+        assertThrows(IOException.class, () -> connection.request("close", null, 5, TimeUnit.SECONDS));
+        Map<String, Object> response = connection.request("echo", Map.of("n", 1), 5, TimeUnit.SECONDS);
+        assertEquals(Map.of("n", 1), response.get("result"));
+        assertEquals(2, pool.getConnectCount());
+        assertEquals(2, INITIALIZED.get());
+    }
+
+    @Test
+    public void testExchangeTimeout() throws Exception {
+        PooledWebSocketConnection connection = pool.get(uri, null, 64 * 1024, null);
+        assertThrows(TimeoutException.class,
+                () -> connection.exchange("ping", "never"::equals, 200, TimeUnit.MILLISECONDS));
+        assertEquals(1, pool.getTimeoutCount());
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        pool.bindTo(registry);
+        assertEquals(1.0, registry.get("ws.pool.timeouts").functionCounter().count());
+        // the_session_is_closed，a_late_reply_can_not_reach_the_next_exchange
+        assertEquals(0.0, registry.get("ws.pool.connections.open").gauge().value());
+    }
+
+    @Test
+    public void testLateReplyIsNotTakenByTheNextExchange() throws Exception {
+        PooledWebSocketConnection connection = pool.get(uri, null, 64 * 1024, null);
+        assertEquals("pong", connection.exchange("ping", "pong"::equals, 5, TimeUnit.SECONDS));
+        assertThrows(TimeoutException.class,
+                () -> connection.exchange("slow", "late"::equals, 100, TimeUnit.MILLISECONDS));
+        // the_server_does_not_answer_quiet，the_late_reply_to_slow_must_not_complete_it
+        assertThrows(TimeoutException.class,
+                () -> connection.exchange("quiet", "late"::equals, 600, TimeUnit.MILLISECONDS));
+        assertEquals("pong", connection.exchange("ping", "pong"::equals, 5, TimeUnit.SECONDS));
+        assertEquals(3, pool.getConnectCount());
+    }
+
+    @Test
+    public void testRequestTimeoutLeavesNothingPending() throws Exception {
+        PooledWebSocketConnection connection = pool.get(uri, null, 64 * 1024, null);
+        assertThrows(TimeoutException.class,
+                () -> connection.request("ignore", null, 200, TimeUnit.MILLISECONDS));
+        assertEquals(1, pool.getTimeoutCount());
+        assertEquals(0, connection.getPendingCount());
+        // the_connection_can_still_be_used
+        assertEquals(Map.of("n", 1), connection.request("echo", Map.of("n", 1), 5, TimeUnit.SECONDS).get("result"));
+    }
+
+    @Test
+    public void testAsyncExchangesRunOneAtATime() throws Exception {
+        PooledWebSocketConnection connection = pool.get(uri, null, 64 * 1024, null);
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(connection.exchangeAsync("ping", "pong"::equals, 5, TimeUnit.SECONDS));
+        }
+        for (CompletableFuture<String> future : futures) {
+            assertEquals("pong", future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, pool.getConnectCount());
+        assertEquals(0, connection.getPendingCount());
+    }
+
+    @Test
+    public void testConnectFailureBacksOff() {
+        String closedUri = "ws://localhost:1/echo";
+        PooledWebSocketConnection connection = pool.get(closedUri, null, 1024, null);
+        assertThrows(IOException.class, () -> connection.request("echo", null, 1, TimeUnit.SECONDS));
+        // the_second_attempt_is_refused_without_connecting
+        assertThrows(IOException.class, () -> connection.request("echo", null, 1, TimeUnit.SECONDS));
+        assertEquals(1, pool.getConnectFailureCount());
+    }
+
+    @ServerEndpoint("/echo")
+    public static class EchoEndpoint {
+        private static final ObjectMapper MAPPER = new ObjectMapper();
+
+        @OnMessage
+        public void onMessage(Session session, String text) throws IOException {
+            if ("slow".equals(text)) {
+                new Thread(() -> {
+                    try {
+                        Thread.sleep(300);
+                        session.getBasicRemote().sendText("late");
+                    } catch (Exception ignored) {
+                    }
+                }).start();
+                return;
+            }
+            if ("quiet".equals(text)) {
+                return;
+            }
+            if (!text.startsWith("{")) {
+                session.getBasicRemote().sendText("pong");
+                return;
+            }
+            Map<?, ?> request = MAPPER.readValue(text, Map.class);
+            if ("close".equals(request.get("method"))) {
+                session.close();
+                return;
+            }
+            if ("ignore".equals(request.get("method"))) {
+                return;
+            }
+            Object result = request.get("params") == null ? Map.of() : request.get("params");
+            session.getBasicRemote().sendText(MAPPER.writeValueAsString(
+                    Map.of("jsonrpc", "2.0", "id", request.get("id"), "result", result)));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package xiaozhi.modules.voiceclone.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+
+import xiaozhi.modules.agent.entity.AgentChatAudioEntity;
+import xiaozhi.modules.voiceclone.entity.VoiceCloneEntity;
+
+/**
+ * the_list_queries_must_not_read_the_blob_columns
+ */
+public class VoiceCloneColumnsTest {
+
+    @BeforeAll
+    static void initTableInfo() {
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setMapUnderscoreToCamelCase(true);
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(configuration, ""), VoiceCloneEntity.class);
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(configuration, ""), AgentChatAudioEntity.class);
+    }
+
+    private static List<String> defaultColumns(Class<?> entityClass) {
+        return Arrays.stream(TableInfoHelper.getTableInfo(entityClass).getAllSqlSelect().split(","))
+                .map(String::trim)
+                .toList();
+    }
+
+    @Test
+    public void testDefaultSelectSkipsBlobs() {
+        List<String> voiceClone = defaultColumns(VoiceCloneEntity.class);
+        assertFalse(voiceClone.contains("voice"), voiceClone.toString());
+        assertFalse(voiceClone.contains("has_voice"), voiceClone.toString());
+        assertTrue(voiceClone.contains("voice_id"), voiceClone.toString());
+
+        List<String> audio = defaultColumns(AgentChatAudioEntity.class);
+        assertFalse(audio.contains("audio"), audio.toString());
+        assertTrue(audio.contains("id"), audio.toString());
+    }
+
+    @Test
+    public void testSummaryColumnsOnlyTestTheVoice() {
+        for (String column : VoiceCloneServiceImpl.SUMMARY_COLUMNS) {
+            assertFalse("voice".equals(column.trim()), column);
+        }
+        assertTrue(Arrays.asList(VoiceCloneServiceImpl.SUMMARY_COLUMNS).contains("voice IS NOT NULL AS has_voice"));
+    }
+}
@@ -0,0 +1,117 @@
+package xiaozhi.modules.voiceclone.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+
+import xiaozhi.common.constant.Constant;
+import xiaozhi.common.page.PageCursor;
+import xiaozhi.common.page.PageData;
+import xiaozhi.modules.model.service.ModelConfigService;
+import xiaozhi.modules.sys.service.SysUserUtilService;
+import xiaozhi.modules.voiceclone.dao.VoiceCloneDao;
+import xiaozhi.modules.voiceclone.entity.VoiceCloneEntity;
+
+/**
+ * the_voice_clone_lists_are_sorted_as_the_client_asks
+ */
+public class VoiceClonePageTest {
+    private final VoiceCloneDao voiceCloneDao = mock(VoiceCloneDao.class);
+    private final AtomicReference<QueryWrapper<VoiceCloneEntity>> query = new AtomicReference<>();
+    private VoiceCloneServiceImpl service;
+
+    @BeforeAll
+    static void initTableInfo() {
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setMapUnderscoreToCamelCase(true);
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(configuration, ""), VoiceCloneEntity.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    @BeforeEach
+    public void setUp() {
+        service = new VoiceCloneServiceImpl(mock(ModelConfigService.class), null, null, null,
+                mock(SysUserUtilService.class), null);
+        ReflectionTestUtils.setField(service, "baseDao", voiceCloneDao);
+        when(voiceCloneDao.selectCount(any())).thenReturn(2L);
+        when(voiceCloneDao.selectPage(any(), any())).thenAnswer(invocation -> {
+            query.set(invocation.getArgument(1));
+            IPage<VoiceCloneEntity> page = invocation.getArgument(0);
+            VoiceCloneEntity entity = new VoiceCloneEntity();
+            entity.setId("v1");
+            entity.setCreateDate(new Date(1_700_000_000_000L));
+            return page.setRecords(List.of(entity));
+        });
+    }
+
+    private static Map<String, Object> params(String orderField, String order) {
+        Map<String, Object> params = new HashMap<>();
+        params.put(Constant.PAGE, "1");
+        params.put(Constant.LIMIT, "1");
+        if (orderField != null) {
+            params.put(Constant.ORDER_FIELD, orderField);
+        }
+        if (order != null) {
+            params.put(Constant.ORDER, order);
+        }
+        return params;
+    }
+
+    private String orderBy() {
+        String sql = query.get().getSqlSegment();
+        return sql.substring(sql.indexOf("ORDER BY"));
+    }
+
+    @Test
+    public void testFirstPageIsNewestFirstAsTheWebClientAsks() {
+        service.page(params("create_date", "desc"));
+        assertEquals("ORDER BY create_date DESC,id DESC", orderBy());
+
+        service.pageWithNames(params("create_date", "desc"));
+        assertEquals("ORDER BY create_date DESC,id DESC", orderBy());
+    }
+
+    @Test
+    public void testAscendingAndDefaultOrder() {
+        service.page(params("create_date", "asc"));
+        assertEquals("ORDER BY create_date ASC,id ASC", orderBy());
+
+        service.page(params(null, null));
+        assertEquals("ORDER BY create_date ASC,id ASC", orderBy());
+    }
+
+    @Test
+    public void testUnknownOrderFieldIsIgnored() {
+        service.page(params("create_date;drop table ai_voice_clone", "desc"));
+        assertEquals("ORDER BY create_date ASC,id ASC", orderBy());
+    }
+
+    @Test
+    public void testCursorSeeksInTheRequestedDirection() {
+        PageData<VoiceCloneEntity> first = service.page(params("create_date", "desc"));
+        Map<String, Object> next = params("create_date", "desc");
+        next.put(Constant.CURSOR, first.getCursor());
+        service.page(next);
+        assertTrue(query.get().getSqlSegment().contains("create_date <"), query.get().getSqlSegment());
+        assertEquals(2, PageCursor.decode(first.getCursor(), 2).length);
+    }
+}